@@ -12,8 +12,12 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -31,6 +35,21 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
     
+    /**
+     * Максимум записей за один poll; весь poll обрабатывается одной пачкой
+     */
+    @Value("${audit.kafka.max-poll-records:500}")
+    private int maxPollRecords;
+    
+    /**
+     * Повторы пачки после ошибки слушателя до отправки записей в DLT
+     */
+    @Value("${audit.kafka.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+    
+    @Value("${audit.kafka.retry-attempts:2}")
+    private long retryAttempts;
+    
     /**
      * Конфигурация потребителя Kafka
      */
@@ -42,7 +61,9 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // Ошибка разбора одной записи не останавливает пачку: запись приходит со значением null
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
         
         // Настройки для обработки JSON
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
@@ -51,7 +72,7 @@ public class KafkaConfig {
         // Настройки производительности
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1);
         configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
         
@@ -65,6 +86,9 @@ public class KafkaConfig {
     
     /**
      * Фабрика контейнеров для слушателей Kafka
+     * 
+     * Слушатели получают весь poll списком (batch listener) и сохраняют его пачкой;
+     * смещения фиксируются после успешной обработки пачки (AckMode.BATCH)
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, AuditEventRequest> kafkaListenerContainerFactory() {
@@ -75,20 +99,37 @@ public class KafkaConfig {
         
         // Настройки контейнера
         factory.setConcurrency(3); // Количество потоков для обработки
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         factory.getContainerProperties().setPollTimeout(3000);
         
-        // Обработка ошибок
-        //factory.setCommonErrorHandler(new DefaultErrorHandler());
-        //factory.setErrorHandler((exception, data) -> {
-        //    // Логирование ошибки
-        //    System.err.println("Ошибка в Kafka consumer: " + exception.getMessage());
-        //    System.err.println("Данные: " + data);
-        //});
+        // Ошибка обработки пачки: повтор с задержкой, затем записи уходят в DLT
+        factory.setCommonErrorHandler(errorHandler());
         
         return factory;
     }
     
+    /**
+     * Обработчик ошибок слушателей
+     * 
+     * Если слушатель бросил исключение (пачку не удалось сохранить ни целиком, ни по одному
+     * событию), пачка повторяется retry-attempts раз с интервалом retry-interval-ms без
+     * повторного poll; после этого записи отправляются в DLT и смещения фиксируются,
+     * поэтому одна проблемная пачка не повторяется бесконечно и не теряется молча
+     */
+    @Bean
+    public DefaultErrorHandler errorHandler() {
+        return new DefaultErrorHandler(deadLetterRecoverer(), new FixedBackOff(retryIntervalMs, retryAttempts));
+    }
+    
+    /**
+     * Отправка необработанных записей в топик "исходный топик.DLT" (та же партиция)
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer() {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate());
+    }
+    
     /**
      * Конфигурация производителя Kafka (для отправки событий)
      */
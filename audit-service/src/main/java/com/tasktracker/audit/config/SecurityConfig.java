@@ -1,5 +1,6 @@
 package com.tasktracker.audit.config;
 
+import com.tasktracker.audit.security.InternalIdentityFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,6 +9,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
@@ -17,6 +19,9 @@ public class SecurityConfig {
     // @Autowired - отключено, CORS управляется Gateway Service
     // private CorsConfigurationSource corsConfigurationSource;
 
+    @Autowired
+    private InternalIdentityFilter internalIdentityFilter;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -43,7 +48,10 @@ public class SecurityConfig {
             )
             
             // Отключаем сессии (stateless)
-            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            
+            // Пользователь из подписанного Gateway заголовка, JWT повторно не проверяется
+            .addFilterBefore(internalIdentityFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
@@ -42,7 +42,10 @@ public enum AuditAction {
     UNAUTHORIZED_ACCESS("Несанкционированный доступ"),
     PERMISSION_DENIED("Отказано в доступе"),
     TOKEN_EXPIRED("Истек токен"),
-    SECURITY_VIOLATION("Нарушение безопасности");
+    SECURITY_VIOLATION("Нарушение безопасности"),
+    
+    // Действия Gateway
+    API_REQUEST("Запрос через API Gateway");
     
     private final String description;
     
@@ -17,8 +17,13 @@ import java.util.Objects;
 })
 public class AuditEvent {
     
+    /**
+     * ID из последовательности с пулом по 50 значений: Hibernate не обращается к БД
+     * за каждым ID, и INSERT пачки событий объединяются в JDBC batch
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_events_seq")
+    @SequenceGenerator(name = "audit_events_seq", sequenceName = "audit_events_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
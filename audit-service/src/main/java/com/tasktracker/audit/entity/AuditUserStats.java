@@ -15,7 +15,8 @@ import java.util.Objects;
 public class AuditUserStats {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_user_stats_seq")
+    @SequenceGenerator(name = "audit_user_stats_seq", sequenceName = "audit_user_stats_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -5,14 +5,20 @@ import com.tasktracker.audit.service.AuditService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka listener для получения событий аудита от других сервисов
+ * 
+ * Каждый обработчик получает весь poll списком и сохраняет его одной пачкой
+ * (см. KafkaConfig); записи, которые не удалось десериализовать, пропускаются,
+ * события, которые не удалось сохранить, отправляются в DLT
  */
 @Component
 public class AuditEventListener {
@@ -22,140 +28,136 @@ public class AuditEventListener {
     @Autowired
     private AuditService auditService;
     
+    /**
+     * Отправка в DLT событий, которые не удалось сохранить
+     */
+    @Autowired
+    private ConsumerRecordRecoverer deadLetterRecoverer;
+    
     /**
      * Обработка событий от Auth Service
      */
     @KafkaListener(topics = "auth-events", groupId = "audit-service")
-    public void handleAuthEvent(@Payload AuditEventRequest event,
-                               @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        
-        logger.info("Получено событие аудита от Auth Service: topic={}, event={}", 
-                   topic, event);
-        
-        try {
-            event.setServiceName("auth-service");
-            auditService.createAuditEvent(event);
-            
-            logger.info("Событие аудита от Auth Service успешно обработано: {}", event.getAction());
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке события аудита от Auth Service: {}", e.getMessage(), e);
-        }
+    public void handleAuthEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        process(records, "auth-service");
     }
     
     /**
      * Обработка событий от Task Service
      */
     @KafkaListener(topics = "task-events", groupId = "audit-service")
-    public void handleTaskEvent(@Payload AuditEventRequest event,
-                               @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                               @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                               @Header(KafkaHeaders.OFFSET) long offset) {
-        
-        logger.info("Получено событие аудита от Task Service: topic={}, partition={}, offset={}, event={}", 
-                   topic, partition, offset, event);
-        
-        try {
-            event.setServiceName("task-service");
-            auditService.createAuditEvent(event);
-            
-            logger.info("Событие аудита от Task Service успешно обработано: {}", event.getAction());
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке события аудита от Task Service: {}", e.getMessage(), e);
-        }
+    public void handleTaskEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        process(records, "task-service");
     }
     
     /**
      * Обработка общих системных событий
      */
     @KafkaListener(topics = "system-events", groupId = "audit-service")
-    public void handleSystemEvent(@Payload AuditEventRequest event,
-                                 @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                 @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                 @Header(KafkaHeaders.OFFSET) long offset) {
-        
-        logger.info("Получено системное событие аудита: topic={}, partition={}, offset={}, event={}", 
-                   topic, partition, offset, event);
-        
-        try {
-            if (event.getServiceName() == null) {
-                event.setServiceName("system");
-            }
-            auditService.createAuditEvent(event);
-            
-            logger.info("Системное событие аудита успешно обработано: {}", event.getAction());
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке системного события аудита: {}", e.getMessage(), e);
-        }
+    public void handleSystemEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        process(records, null);
     }
     
     /**
      * Обработка событий от Gateway Service
      */
     @KafkaListener(topics = "gateway-events", groupId = "audit-service")
-    public void handleGatewayEvent(@Payload AuditEventRequest event,
-                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                  @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                  @Header(KafkaHeaders.OFFSET) long offset) {
-        
-        logger.info("Получено событие аудита от Gateway Service: topic={}, partition={}, offset={}, event={}", 
-                   topic, partition, offset, event);
-        
-        try {
-            event.setServiceName("gateway-service");
-            auditService.createAuditEvent(event);
-            
-            logger.info("Событие аудита от Gateway Service успешно обработано: {}", event.getAction());
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке события аудита от Gateway Service: {}", e.getMessage(), e);
-        }
+    public void handleGatewayEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        process(records, "gateway-service");
     }
     
     /**
      * Обработка событий от Notification Service
      */
     @KafkaListener(topics = "notification-events", groupId = "audit-service")
-    public void handleNotificationEvent(@Payload AuditEventRequest event,
-                                       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                       @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                       @Header(KafkaHeaders.OFFSET) long offset) {
-        
-        logger.info("Получено событие аудита от Notification Service: topic={}, partition={}, offset={}, event={}", 
-                   topic, partition, offset, event);
-        
-        try {
-            event.setServiceName("notification-service");
-            auditService.createAuditEvent(event);
-            
-            logger.info("Событие аудита от Notification Service успешно обработано: {}", event.getAction());
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке события аудита от Notification Service: {}", e.getMessage(), e);
-        }
+    public void handleNotificationEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        process(records, "notification-service");
     }
     
     /**
      * Обработка критических событий безопасности
      */
     @KafkaListener(topics = "security-events", groupId = "audit-service")
-    public void handleSecurityEvent(@Payload AuditEventRequest event,
-                                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                   @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-                                   @Header(KafkaHeaders.OFFSET) long offset) {
+    public void handleSecurityEvents(List<ConsumerRecord<String, AuditEventRequest>> records) {
+        List<AuditEventRequest> saved = process(records, "security-monitor");
+        
+        // Дополнительная обработка для сохраненных критических событий
+        for (AuditEventRequest event : saved) {
+            if (event.getAction() != null && event.getAction().isCritical()) {
+                handleCriticalSecurityEvent(event);
+            }
+        }
+    }
+    
+    /**
+     * Сохранение пачки событий одного топика
+     * 
+     * Если пачка не сохранилась целиком, события сохраняются по одному, чтобы ошибочное
+     * событие не приводило к потере остальных; событие, не сохраненное и по одному,
+     * отправляется в DLT (topic.DLT). Если по одному не сохранилось ни одно событие
+     * (например, БД недоступна), ошибка пачки пробрасывается: DefaultErrorHandler
+     * повторяет пачку с задержкой и только затем отправляет записи в DLT (см. KafkaConfig).
+     * 
+     * @param serviceName сервис-источник; null - оставить указанный в событии ("system" по умолчанию)
+     * @return сохраненные события
+     */
+    List<AuditEventRequest> process(List<ConsumerRecord<String, AuditEventRequest>> records,
+                                    String serviceName) {
+        List<ConsumerRecord<String, AuditEventRequest>> eventRecords = new ArrayList<>(records.size());
+        List<AuditEventRequest> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, AuditEventRequest> record : records) {
+            AuditEventRequest event = record.value();
+            if (event == null) {
+                logger.error("Пропущена некорректная запись: topic={}, partition={}, offset={}", 
+                            record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            if (serviceName != null) {
+                event.setServiceName(serviceName);
+            } else if (event.getServiceName() == null) {
+                event.setServiceName("system");
+            }
+            logger.debug("Получено событие аудита: topic={}, partition={}, offset={}, event={}", 
+                        record.topic(), record.partition(), record.offset(), event);
+            eventRecords.add(record);
+            events.add(event);
+        }
         
-        logger.warn("Получено критическое событие безопасности: topic={}, partition={}, offset={}, event={}", 
-                   topic, partition, offset, event);
+        if (events.isEmpty()) {
+            return events;
+        }
         
+        String topic = records.get(0).topic();
         try {
-            event.setServiceName("security-monitor");
-            auditService.createAuditEvent(event);
+            auditService.createAuditEvents(events);
+            logger.info("Обработана пачка событий аудита: topic={}, events={}", topic, events.size());
+            return events;
+        } catch (RuntimeException batchError) {
+            logger.error("Ошибка при сохранении пачки событий аудита: topic={}, events={}: {}", 
+                        topic, events.size(), batchError.getMessage(), batchError);
             
-            logger.warn("Критическое событие безопасности успешно обработано: {}", event.getAction());
+            List<AuditEventRequest> saved = new ArrayList<>(events.size());
+            List<ConsumerRecord<String, AuditEventRequest>> failedRecords = new ArrayList<>();
+            List<Exception> failures = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                try {
+                    auditService.createAuditEvent(events.get(i));
+                    saved.add(events.get(i));
+                } catch (RuntimeException eventError) {
+                    logger.error("Ошибка при обработке события аудита: topic={}, event={}: {}", 
+                                topic, events.get(i), eventError.getMessage(), eventError);
+                    failedRecords.add(eventRecords.get(i));
+                    failures.add(eventError);
+                }
+            }
             
-            // Дополнительная обработка для критических событий
-            if (event.getAction().isCritical()) {
-                handleCriticalSecurityEvent(event);
+            if (saved.isEmpty()) {
+                throw batchError;
+            }
+            for (int i = 0; i < failedRecords.size(); i++) {
+                deadLetterRecoverer.accept(failedRecords.get(i), failures.get(i));
             }
-        } catch (Exception e) {
-            logger.error("Ошибка при обработке критического события безопасности: {}", e.getMessage(), e);
+            return saved;
         }
     }
     
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +34,11 @@ public interface AuditUserStatsRepository extends JpaRepository<AuditUserStats,
      */
     Optional<AuditUserStats> findByUserIdAndStatsDate(Long userId, LocalDateTime statsDate);
     
+    /**
+     * Статистика нескольких пользователей за определенную дату (для пачки событий)
+     */
+    List<AuditUserStats> findByUserIdInAndStatsDate(Collection<Long> userIds, LocalDateTime statsDate);
+    
     /**
      * Поиск статистики в диапазоне дат
      */
@@ -42,29 +42,10 @@ public class AuditService {
         logger.debug("Создание события аудита для пользователя: {}, действие: {}", 
                     request.getUsername(), request.getAction());
         
-        AuditEvent auditEvent = new AuditEvent();
-        auditEvent.setUserId(request.getUserId());
-        auditEvent.setUsername(request.getUsername());
-        auditEvent.setAction(request.getAction());
-        auditEvent.setEntityType(request.getEntityType());
-        auditEvent.setEntityId(request.getEntityId());
-        auditEvent.setTimestamp(LocalDateTime.now());
-        auditEvent.setIpAddress(request.getIpAddress());
-        auditEvent.setUserAgent(request.getUserAgent());
-        auditEvent.setSessionId(request.getSessionId());
-        auditEvent.setDescription(request.getDescription());
-        auditEvent.setOldValues(request.getOldValues());
-        auditEvent.setNewValues(request.getNewValues());
-        auditEvent.setIsSuccess(request.getIsSuccess());
-        auditEvent.setErrorMessage(request.getErrorMessage());
-        auditEvent.setServiceName(request.getServiceName());
-        auditEvent.setMethodName(request.getMethodName());
-        auditEvent.setExecutionTimeMs(request.getExecutionTimeMs());
-        
-        AuditEvent savedEvent = auditEventRepository.save(auditEvent);
+        AuditEvent savedEvent = auditEventRepository.save(toEntity(request));
         
         // Обновляем статистику пользователя
-        updateUserStats(savedEvent);
+        updateUserStats(List.of(savedEvent));
         
         logger.info("Создано событие аудита ID: {} для пользователя: {}", 
                    savedEvent.getId(), request.getUsername());
@@ -72,6 +53,31 @@ public class AuditService {
         return new AuditEventResponse(savedEvent);
     }
     
+    /**
+     * Создание пачки событий аудита (из одного poll Kafka)
+     * 
+     * События сохраняются одним saveAll (JDBC batch), статистика пользователей
+     * загружается одним запросом и обновляется один раз на пользователя
+     * 
+     * @return количество сохраненных событий
+     */
+    public int createAuditEvents(List<AuditEventRequest> requests) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        
+        List<AuditEvent> events = new ArrayList<>(requests.size());
+        for (AuditEventRequest request : requests) {
+            events.add(toEntity(request));
+        }
+        
+        List<AuditEvent> savedEvents = auditEventRepository.saveAll(events);
+        updateUserStats(savedEvents);
+        
+        logger.debug("Создано {} событий аудита", savedEvents.size());
+        return savedEvents.size();
+    }
+    
     /**
      * Получение события аудита по ID
      */
@@ -274,15 +280,62 @@ public class AuditService {
     }
     
     /**
-     * Обновление статистики пользователя
+     * Преобразование запроса в сущность события аудита
+     */
+    private AuditEvent toEntity(AuditEventRequest request) {
+        AuditEvent auditEvent = new AuditEvent();
+        auditEvent.setUserId(request.getUserId());
+        auditEvent.setUsername(request.getUsername());
+        auditEvent.setAction(request.getAction());
+        auditEvent.setEntityType(request.getEntityType());
+        auditEvent.setEntityId(request.getEntityId());
+        auditEvent.setTimestamp(LocalDateTime.now());
+        auditEvent.setIpAddress(request.getIpAddress());
+        auditEvent.setUserAgent(request.getUserAgent());
+        auditEvent.setSessionId(request.getSessionId());
+        auditEvent.setDescription(request.getDescription());
+        auditEvent.setOldValues(request.getOldValues());
+        auditEvent.setNewValues(request.getNewValues());
+        auditEvent.setIsSuccess(request.getIsSuccess());
+        auditEvent.setErrorMessage(request.getErrorMessage());
+        auditEvent.setServiceName(request.getServiceName());
+        auditEvent.setMethodName(request.getMethodName());
+        auditEvent.setExecutionTimeMs(request.getExecutionTimeMs());
+        
+        return auditEvent;
+    }
+    
+    /**
+     * Обновление статистики пользователей за сегодня
+     * 
+     * Статистика всех пользователей пачки загружается одним запросом
      */
-    private void updateUserStats(AuditEvent event) {
+    private void updateUserStats(List<AuditEvent> events) {
         LocalDateTime today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
         
-        AuditUserStats stats = auditUserStatsRepository
-                .findByUserIdAndDate(event.getUserId(), today)
-                .orElse(new AuditUserStats(event.getUserId(), event.getUsername(), today));
+        Set<Long> userIds = new HashSet<>();
+        for (AuditEvent event : events) {
+            userIds.add(event.getUserId());
+        }
         
+        Map<Long, AuditUserStats> statsByUser = new HashMap<>();
+        for (AuditUserStats stats : auditUserStatsRepository.findByUserIdInAndStatsDate(userIds, today)) {
+            statsByUser.putIfAbsent(stats.getUserId(), stats);
+        }
+        
+        for (AuditEvent event : events) {
+            AuditUserStats stats = statsByUser.computeIfAbsent(event.getUserId(),
+                    userId -> new AuditUserStats(userId, event.getUsername(), today));
+            applyToStats(stats, event);
+        }
+        
+        auditUserStatsRepository.saveAll(statsByUser.values());
+    }
+    
+    /**
+     * Учет события в статистике пользователя
+     */
+    private void applyToStats(AuditUserStats stats, AuditEvent event) {
         stats.incrementTotalActions();
         
         if (event.getIsSuccess()) {
@@ -318,7 +371,6 @@ public class AuditService {
         }
         
         stats.setLastActivity(event.getTimestamp());
-        auditUserStatsRepository.save(stats);
     }
     
     /**
@@ -0,0 +1,90 @@
+package com.tasktracker.audit.controller;
+
+import com.tasktracker.audit.config.SecurityConfig;
+import com.tasktracker.audit.security.InternalIdentityFilter;
+import com.tasktracker.audit.security.InternalIdentityVerifier;
+import com.tasktracker.audit.service.AuditService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запросы Gateway (dashboard) к /api/audit/** проходят через всю цепочку Spring Security
+ */
+@WebMvcTest(AuditController.class)
+@Import({SecurityConfig.class, InternalIdentityFilter.class, InternalIdentityVerifier.class})
+@TestPropertySource(properties = "internal.identity.secret=" + AuditControllerSecurityTest.SECRET)
+class AuditControllerSecurityTest {
+
+    static final String SECRET = "test-internal-identity-secret-32-bytes-min";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuditService auditService;
+
+    @Test
+    void testSignedGatewayIdentityIsAccepted() throws Exception {
+        // Arrange
+        when(auditService.getAuditEventsByUser(eq(42L), anyInt(), anyInt())).thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/audit/events/user/42")
+                        .header(InternalIdentityFilter.HEADER,
+                                sign(SECRET, "42", "alice", "USER", Instant.now().getEpochSecond() + 60))
+                        .header("X-User-ID", "42"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testRequestWithoutIdentityIsRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/audit/events/user/42").header("X-User-ID", "42"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(auditService);
+    }
+
+    @Test
+    void testIdentitySignedWithAnotherSecretIsRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/audit/events/user/42")
+                        .header(InternalIdentityFilter.HEADER, sign("another-internal-identity-secret-32-bytes",
+                                "42", "alice", "USER", Instant.now().getEpochSecond() + 60)))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(auditService);
+    }
+
+    /**
+     * Заголовок в формате InternalIdentitySigner из Gateway
+     */
+    private static String sign(String secret, String userId, String username, String roles, long expiresAt)
+            throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = encoder.encodeToString(String.join("\n", userId, username, roles, Long.toString(expiresAt))
+                .getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "v1." + payload + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.tasktracker.audit.messaging;
+
+import com.tasktracker.audit.dto.AuditEventRequest;
+import com.tasktracker.audit.entity.AuditAction;
+import com.tasktracker.audit.service.AuditService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Пакетная обработка событий аудита из Kafka
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditEventListenerTest {
+
+    private static final String TOPIC = "auth-events";
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private ConsumerRecordRecoverer deadLetterRecoverer;
+
+    @InjectMocks
+    private AuditEventListener listener;
+
+    @Test
+    void testUndeserializableRecordIsSkippedAndRestSavedAsOneBatch() {
+        // Arrange - ErrorHandlingDeserializer отдает null вместо исключения для некорректного JSON
+        ConsumerRecord<String, AuditEventRequest> broken = record(1, deserialize("{not json"));
+        ConsumerRecord<String, AuditEventRequest> first = record(0, event(1L, AuditAction.USER_LOGIN));
+        ConsumerRecord<String, AuditEventRequest> second = record(2, event(2L, AuditAction.USER_LOGOUT));
+        assertNull(broken.value());
+
+        // Act
+        List<AuditEventRequest> saved = listener.process(List.of(first, broken, second), "auth-service");
+
+        // Assert
+        assertEquals(List.of(first.value(), second.value()), saved);
+        verify(auditService).createAuditEvents(List.of(first.value(), second.value()));
+        verify(auditService, never()).createAuditEvent(any());
+        verifyNoInteractions(deadLetterRecoverer);
+        assertEquals("auth-service", first.value().getServiceName());
+    }
+
+    @Test
+    void testSystemEventsKeepServiceNameOrDefaultToSystem() {
+        // Arrange
+        AuditEventRequest named = event(1L, AuditAction.SYSTEM_ERROR);
+        named.setServiceName("scheduler");
+        AuditEventRequest unnamed = event(2L, AuditAction.SYSTEM_ERROR);
+
+        // Act
+        listener.process(List.of(record(0, named), record(1, unnamed)), null);
+
+        // Assert
+        assertEquals("scheduler", named.getServiceName());
+        assertEquals("system", unnamed.getServiceName());
+    }
+
+    @Test
+    void testFailedBatchFallsBackToSingleEventsAndParksFailedOneInDlt() {
+        // Arrange
+        ConsumerRecord<String, AuditEventRequest> good = record(0, event(1L, AuditAction.USER_LOGIN));
+        ConsumerRecord<String, AuditEventRequest> bad = record(1, event(2L, AuditAction.SECURITY_VIOLATION));
+        RuntimeException eventError = new IllegalArgumentException("bad event");
+        when(auditService.createAuditEvents(anyList())).thenThrow(new IllegalStateException("batch failed"));
+        when(auditService.createAuditEvent(any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == bad.value()) {
+                throw eventError;
+            }
+            return null;
+        });
+
+        // Act
+        List<AuditEventRequest> saved = listener.process(List.of(good, bad), "security-monitor");
+
+        // Assert - критическое событие не сохранено и не передается дальше
+        assertEquals(List.of(good.value()), saved);
+        verify(auditService).createAuditEvent(good.value());
+        verify(deadLetterRecoverer).accept(bad, eventError);
+    }
+
+    @Test
+    void testBatchErrorIsRethrownWhenNoEventCanBeSaved() {
+        // Arrange - БД недоступна: не сохраняется ни пачка, ни отдельные события
+        DataAccessResourceFailureException outage = new DataAccessResourceFailureException("connection refused");
+        when(auditService.createAuditEvents(anyList())).thenThrow(outage);
+        when(auditService.createAuditEvent(any())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+        List<ConsumerRecord<String, AuditEventRequest>> records =
+                List.of(record(0, event(1L, AuditAction.USER_LOGIN)), record(1, event(2L, AuditAction.USER_LOGIN)));
+
+        // Act & Assert - пачку повторяет DefaultErrorHandler, в DLT слушатель ничего не отправляет
+        assertSame(outage, assertThrows(DataAccessResourceFailureException.class,
+                () -> listener.handleAuthEvents(records)));
+        verify(auditService, times(2)).createAuditEvent(any());
+        verifyNoInteractions(deadLetterRecoverer);
+    }
+
+    @Test
+    void testEmptyPollDoesNotTouchDatabase() {
+        // Arrange
+        ConsumerRecord<String, AuditEventRequest> broken = record(0, null);
+
+        // Act
+        List<AuditEventRequest> saved = listener.process(List.of(broken), "task-service");
+
+        // Assert
+        assertTrue(saved.isEmpty());
+        verifyNoInteractions(auditService, deadLetterRecoverer);
+    }
+
+    private static ConsumerRecord<String, AuditEventRequest> record(long offset, AuditEventRequest value) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, "key-" + offset, value);
+    }
+
+    private static AuditEventRequest event(Long userId, AuditAction action) {
+        return new AuditEventRequest(userId, "user" + userId, action);
+    }
+
+    /**
+     * Десериализация значения так же, как в KafkaConfig.consumerFactory
+     */
+    private static AuditEventRequest deserialize(String json) {
+        try (ErrorHandlingDeserializer<AuditEventRequest> deserializer = new ErrorHandlingDeserializer<>()) {
+            deserializer.configure(Map.of(
+                    ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class,
+                    JsonDeserializer.TRUSTED_PACKAGES, "*",
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, AuditEventRequest.class.getName()), false);
+            return deserializer.deserialize(TOPIC, new RecordHeaders(), json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
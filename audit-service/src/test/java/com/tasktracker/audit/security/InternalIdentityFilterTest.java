@@ -0,0 +1,140 @@
+package com.tasktracker.audit.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для InternalIdentityFilter
+ */
+class InternalIdentityFilterTest {
+
+    private static final String SECRET = "test-internal-identity-secret-32-bytes-min";
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private InternalIdentityFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new InternalIdentityFilter(new InternalIdentityVerifier(SECRET, Clock.fixed(NOW, ZoneOffset.UTC)));
+        filterChain = mock(FilterChain.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validHeader_AuthenticatesUser() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/events/user/42");
+        request.addHeader(InternalIdentityFilter.HEADER, sign(SECRET, "42", "john", "USER", NOW.getEpochSecond() + 60));
+        request.addHeader("X-User-ID", "42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("john", authentication.getName());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_USER")));
+        assertEquals("42", request.getAttribute("userId"));
+    }
+
+    @Test
+    void wrongSignature_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/events/user/42");
+        request.addHeader(InternalIdentityFilter.HEADER,
+                sign("another-internal-identity-secret-32-bytes", "42", "john", "USER", NOW.getEpochSecond() + 60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void expiredHeader_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/events/user/42");
+        request.addHeader(InternalIdentityFilter.HEADER, sign(SECRET, "42", "john", "USER", NOW.getEpochSecond() - 1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void mismatchedUserIdHeader_ReturnsUnauthorized() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/events/user/42");
+        request.addHeader(InternalIdentityFilter.HEADER, sign(SECRET, "42", "john", "USER", NOW.getEpochSecond() + 60));
+        request.addHeader("X-User-ID", "7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void missingHeader_PassesWithoutAuthentication() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/events/user/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * Формирует заголовок в формате InternalIdentitySigner из Gateway
+     */
+    private static String sign(String secret, String userId, String username, String roles, long expiresAt)
+            throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = encoder.encodeToString(String.join("\n", userId, username, roles, Long.toString(expiresAt))
+                .getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "v1." + payload + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
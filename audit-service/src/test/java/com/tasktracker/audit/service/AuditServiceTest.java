@@ -0,0 +1,163 @@
+package com.tasktracker.audit.service;
+
+import com.tasktracker.audit.dto.AuditEventRequest;
+import com.tasktracker.audit.entity.AuditAction;
+import com.tasktracker.audit.entity.AuditEvent;
+import com.tasktracker.audit.entity.AuditUserStats;
+import com.tasktracker.audit.repository.AuditEventRepository;
+import com.tasktracker.audit.repository.AuditUserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Пакетное сохранение событий аудита и статистики пользователей
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditServiceTest {
+
+    @Mock
+    private AuditEventRepository auditEventRepository;
+
+    @Mock
+    private AuditUserStatsRepository auditUserStatsRepository;
+
+    @InjectMocks
+    private AuditService auditService;
+
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void testCreateAuditEventsSavesBatchWithOneSaveAll() {
+        // Arrange
+        echoSaveAll();
+        List<AuditEventRequest> requests = List.of(
+                request(1L, AuditAction.USER_LOGIN, true),
+                request(2L, AuditAction.TASK_CREATED, true),
+                request(1L, AuditAction.USER_LOGOUT, true));
+
+        // Act
+        int created = auditService.createAuditEvents(requests);
+
+        // Assert
+        assertEquals(3, created);
+        ArgumentCaptor<List<AuditEvent>> events = listCaptor();
+        verify(auditEventRepository).saveAll(events.capture());
+        assertEquals(List.of(AuditAction.USER_LOGIN, AuditAction.TASK_CREATED, AuditAction.USER_LOGOUT),
+                events.getValue().stream().map(AuditEvent::getAction).toList());
+        assertEquals("auth-service", events.getValue().get(0).getServiceName());
+        verify(auditEventRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateUserStatsLoadsAllUsersWithOneQueryAndSavesOncePerUser() {
+        // Arrange - у пользователя 1 уже есть статистика за сегодня, у пользователя 2 нет
+        echoSaveAll();
+        AuditUserStats existing = new AuditUserStats(1L, "user1", today);
+        existing.incrementTotalActions();
+        when(auditUserStatsRepository.findByUserIdInAndStatsDate(anyCollection(), any()))
+                .thenReturn(List.of(existing));
+
+        // Act
+        auditService.createAuditEvents(List.of(
+                request(1L, AuditAction.USER_LOGIN, true),
+                request(2L, AuditAction.TASK_CREATED, false),
+                request(1L, AuditAction.SECURITY_VIOLATION, true)));
+
+        // Assert
+        ArgumentCaptor<Collection<Long>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(auditUserStatsRepository, times(1)).findByUserIdInAndStatsDate(userIds.capture(), eqToday());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(userIds.getValue()));
+
+        ArgumentCaptor<Collection<AuditUserStats>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(auditUserStatsRepository, times(1)).saveAll(saved.capture());
+        Map<Long, AuditUserStats> byUser = saved.getValue().stream()
+                .collect(Collectors.toMap(AuditUserStats::getUserId, Function.identity()));
+        assertEquals(2, byUser.size());
+
+        AuditUserStats first = byUser.get(1L);
+        assertSame(existing, first);
+        assertEquals(3, first.getTotalActions());
+        assertEquals(1, first.getLoginCount());
+        assertEquals(1, first.getCriticalActions());
+
+        AuditUserStats second = byUser.get(2L);
+        assertEquals(today, second.getStatsDate());
+        assertEquals(1, second.getTotalActions());
+        assertEquals(1, second.getFailedActions());
+        assertEquals(1, second.getTasksCreated());
+    }
+
+    @Test
+    void testCreateAuditEventUpdatesStatsThroughSameQuery() {
+        // Arrange
+        when(auditEventRepository.save(any(AuditEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        auditService.createAuditEvent(request(5L, AuditAction.COMMENT_CREATED, true));
+
+        // Assert
+        verify(auditUserStatsRepository).findByUserIdInAndStatsDate(eqUserIds(5L), eqToday());
+        verify(auditUserStatsRepository).saveAll(anyCollection());
+    }
+
+    @Test
+    void testEmptyBatchDoesNotTouchRepositories() {
+        // Act
+        int created = auditService.createAuditEvents(List.of());
+
+        // Assert
+        assertEquals(0, created);
+        verifyNoInteractions(auditEventRepository, auditUserStatsRepository);
+    }
+
+    private void echoSaveAll() {
+        when(auditEventRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.<List<AuditEvent>>getArgument(0)));
+    }
+
+    private LocalDateTime eqToday() {
+        return eq(today);
+    }
+
+    private static Collection<Long> eqUserIds(Long... userIds) {
+        return argThat(ids -> Set.copyOf(ids).equals(Set.of(userIds)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<AuditEvent>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private static AuditEventRequest request(Long userId, AuditAction action, boolean success) {
+        AuditEventRequest request = new AuditEventRequest(userId, "user" + userId, action);
+        request.setIsSuccess(success);
+        request.setServiceName("auth-service");
+        return request;
+    }
+}
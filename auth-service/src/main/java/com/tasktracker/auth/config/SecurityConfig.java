@@ -1,12 +1,19 @@
 package com.tasktracker.auth.config;
 
+import com.tasktracker.auth.security.AccountBadCredentialsException;
+import com.tasktracker.auth.security.BoundedPasswordEncoder;
 import com.tasktracker.auth.security.JwtAuthenticationFilter;
+import com.tasktracker.auth.security.PasswordHashingExecutor;
+import com.tasktracker.auth.security.ServiceIdentityFilter;
 import com.tasktracker.auth.service.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -14,6 +21,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -47,6 +55,24 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    /**
+     * Фильтр подписанной идентичности сервисов (роль SERVICE)
+     */
+    @Autowired
+    private ServiceIdentityFilter serviceIdentityFilter;
+    
+    /**
+     * Пул для хеширования паролей
+     */
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    
+    /**
+     * Сложность BCrypt (log2 числа раундов), настраивается для каждого окружения
+     */
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
     /**
      * CORS конфигурация отключена - управляется Gateway Service
      */
@@ -61,22 +87,38 @@ public class SecurityConfig {
      * - Адаптивная (можно настроить сложность)
      * - Устойчивая к rainbow table атакам
      * - Включает salt автоматически
+     * 
+     * Хеширование выполняется в отдельном ограниченном пуле, а не в потоках Tomcat
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), passwordHashingExecutor);
     }
     
     /**
      * Провайдер аутентификации
      * 
      * Связывает UserDetailsService с PasswordEncoder
-     * Используется для проверки логина/пароля
+     * Используется для проверки логина/пароля.
+     * Хеши со сложностью ниже bcrypt-strength пересчитываются при успешном входе.
+     * Неверный пароль найденного пользователя сообщается как AccountBadCredentialsException
+     * с его username - по нему AuthService учитывает неудачу в LoginThrottle
      */
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider() {
+            @Override
+            protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                          UsernamePasswordAuthenticationToken authentication) {
+                try {
+                    super.additionalAuthenticationChecks(userDetails, authentication);
+                } catch (BadCredentialsException e) {
+                    throw new AccountBadCredentialsException(userDetails.getUsername(), e);
+                }
+            }
+        };
         authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
         return authProvider;
     }
@@ -111,7 +153,11 @@ public class SecurityConfig {
                 .requestMatchers(
                     "/auth/register",
                     "/auth/login",
+                    "/auth/refresh",
+                    "/auth/logout",
+                    "/auth/revocations/**",
                     "/auth/validate",
+                    "/.well-known/jwks.json",
                     "/swagger-ui/**",
                     "/v3/api-docs/**",
                     "/swagger-ui.html",
@@ -130,7 +176,10 @@ public class SecurityConfig {
             .authenticationProvider(authenticationProvider())
             
             // Добавляем JWT фильтр перед стандартным фильтром аутентификации
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            
+            // Служебные вызовы сервисов проверяются до JWT
+            .addFilterBefore(serviceIdentityFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,81 @@
+package com.tasktracker.auth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Проверка регистронезависимых уникальных индексов users
+ *
+ * Индексы ux_users_username_lower и ux_users_email_lower создает schema-postgresql.sql
+ * с spring.sql.init.continue-on-error: true, поэтому ошибка создания (например, в старых данных
+ * есть логины, различающиеся только регистром) не останавливает сервис. Без индексов
+ * вход по lower(...) сканирует таблицу, а уникальность без учета регистра не гарантируется.
+ *
+ * Отсутствие индексов видно в /actuator/health (userIndexes: DOWN со списком недостающих)
+ * и в логе ERROR при старте. На других СУБД (H2 в тестах) скрипт не выполняется - проверка пропускается.
+ */
+@Component("userIndexes")
+public class UserIndexHealthIndicator implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIndexHealthIndicator.class);
+
+    static final List<String> REQUIRED_INDEXES = List.of("ux_users_username_lower", "ux_users_email_lower");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserIndexHealthIndicator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Health health() {
+        if (!isPostgreSql()) {
+            return Health.up().withDetail("skipped", "not PostgreSQL").build();
+        }
+
+        List<String> missing = missingIndexes();
+        return missing.isEmpty()
+            ? Health.up().withDetail("indexes", REQUIRED_INDEXES).build()
+            : Health.down().withDetail("missing", missing).build();
+    }
+
+    /**
+     * Громкое сообщение при старте, если schema-postgresql.sql не смог создать индексы
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportMissingIndexes() {
+        if (!isPostgreSql()) {
+            return;
+        }
+        List<String> missing = missingIndexes();
+        if (!missing.isEmpty()) {
+            logger.error("Case-insensitive unique indexes {} are missing on users: logins differing only in case "
+                + "are not rejected and login lookups scan the table. Resolve case-colliding usernames/emails "
+                + "and restart to create them (schema-postgresql.sql)", missing);
+        }
+    }
+
+    List<String> missingIndexes() {
+        List<String> existing = jdbcTemplate.queryForList(
+            "SELECT indexname FROM pg_indexes WHERE tablename = 'users'", String.class);
+        List<String> missing = new ArrayList<>(REQUIRED_INDEXES);
+        missing.removeAll(existing);
+        return missing;
+    }
+
+    private boolean isPostgreSql() {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
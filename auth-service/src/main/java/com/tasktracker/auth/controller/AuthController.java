@@ -2,8 +2,14 @@ package com.tasktracker.auth.controller;
 
 import com.tasktracker.auth.dto.AuthResponse;
 import com.tasktracker.auth.dto.LoginRequest;
+import com.tasktracker.auth.dto.RefreshTokenRequest;
 import com.tasktracker.auth.dto.RegisterRequest;
+import com.tasktracker.auth.dto.UserBatchRequest;
 import com.tasktracker.auth.dto.UserResponse;
+import com.tasktracker.auth.dto.UserSummary;
+import com.tasktracker.auth.security.InvalidRefreshTokenException;
+import com.tasktracker.auth.security.LoginThrottledException;
+import com.tasktracker.auth.security.PasswordHashingRejectedException;
 import com.tasktracker.auth.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,18 +20,23 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST контроллер для аутентификации и авторизации
  * 
  * Обрабатывает HTTP запросы для:
  * - Регистрации пользователей
  * - Аутентификации пользователей
+ * - Обновления токенов и выхода из системы
  * - Получения профиля пользователя
  * - Валидации JWT токенов
  */
@@ -53,7 +64,8 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Пользователь успешно зарегистрирован"),
         @ApiResponse(responseCode = "400", description = "Некорректные данные запроса"),
-        @ApiResponse(responseCode = "409", description = "Пользователь уже существует")
+        @ApiResponse(responseCode = "409", description = "Пользователь уже существует"),
+        @ApiResponse(responseCode = "429", description = "Сервис перегружен запросами аутентификации")
     })
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
         logger.info("Registration request for user: {}", registerRequest.getUsername());
@@ -62,6 +74,8 @@ public class AuthController {
             AuthResponse authResponse = authService.register(registerRequest);
             logger.info("User registered successfully: {}", registerRequest.getUsername());
             return ResponseEntity.status(HttpStatus.CREATED).body(authResponse);
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests("Registration failed", e);
         } catch (RuntimeException e) {
             logger.error("Registration failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -80,7 +94,8 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Успешная аутентификация"),
         @ApiResponse(responseCode = "401", description = "Неверные учетные данные"),
-        @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
+        @ApiResponse(responseCode = "400", description = "Некорректные данные запроса"),
+        @ApiResponse(responseCode = "429", description = "Сервис перегружен или вход временно заблокирован после неудачных попыток")
     })
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
         logger.info("Login request for user: {}", loginRequest.getUsernameOrEmail());
@@ -89,6 +104,10 @@ public class AuthController {
             AuthResponse authResponse = authService.authenticate(loginRequest);
             logger.info("User authenticated successfully: {}", loginRequest.getUsernameOrEmail());
             return ResponseEntity.ok(authResponse);
+        } catch (PasswordHashingRejectedException e) {
+            return tooManyRequests("Authentication failed", e);
+        } catch (LoginThrottledException e) {
+            return tooManyRequests("Authentication failed", e, e.getRetryAfterSeconds());
         } catch (RuntimeException e) {
             logger.error("Authentication failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -96,6 +115,51 @@ public class AuthController {
         }
     }
     
+    /**
+     * Обновление токенов
+     * 
+     * @param request refresh токен
+     * @return AuthResponse с новыми access и refresh токенами
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "Обновление токенов", description = "Обмен refresh токена на новую пару access/refresh токенов")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Токены обновлены"),
+        @ApiResponse(responseCode = "401", description = "Refresh токен недействителен, истек или уже использован"),
+        @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
+    })
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request));
+        } catch (InvalidRefreshTokenException e) {
+            logger.warn("Token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Token refresh failed", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Выход из системы
+     * 
+     * @param request refresh токен, цепочка которого отзывается
+     * @param authorization заголовок с access токеном, который тоже отзывается
+     * @return 204 No Content
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Выход из системы",
+               description = "Отзывает refresh токен, все токены его цепочки и переданный access токен")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Токены отозваны"),
+        @ApiResponse(responseCode = "400", description = "Некорректные данные запроса")
+    })
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                       @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+            ? authorization.substring(7) : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Получение профиля текущего пользователя
      * 
@@ -151,6 +215,31 @@ public class AuthController {
         }
     }
     
+    /**
+     * Пакетное получение пользователей по ID
+     * 
+     * Один запрос к БД (findAllById) вместо запроса на каждого пользователя:
+     * сервисы разрешают имена исполнителей и авторов для целой страницы за один вызов.
+     * Доступен только сервисам с подписанной идентичностью (ServiceIdentityFilter) и администраторам:
+     * обычный пользователь не должен перебирать чужие аккаунты
+     * 
+     * @param request ID пользователей (не более 500)
+     * @return краткая информация о найденных пользователях
+     */
+    @PostMapping("/users/batch")
+    @PreAuthorize("hasAnyRole('SERVICE', 'ADMIN')")
+    @Operation(summary = "Пакетное получение пользователей", description = "Возвращает краткую информацию о пользователях по списку ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Найденные пользователи"),
+        @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список ID"),
+        @ApiResponse(responseCode = "401", description = "Не авторизован"),
+        @ApiResponse(responseCode = "403", description = "Доступно только сервисам и администраторам")
+    })
+    public ResponseEntity<List<UserSummary>> getUsersBatch(@Valid @RequestBody UserBatchRequest request) {
+        logger.debug("Batch user lookup for {} IDs", request.getIds().size());
+        return ResponseEntity.ok(authService.getUserSummaries(request.getIds()));
+    }
+    
     /**
      * Валидация JWT токена
      * 
@@ -186,6 +275,23 @@ public class AuthController {
         }
     }
     
+    /**
+     * Ответ 429 при перегрузке пула хеширования паролей
+     */
+    private ResponseEntity<ErrorResponse> tooManyRequests(String error, PasswordHashingRejectedException e) {
+        return tooManyRequests(error, e, 1);
+    }
+    
+    /**
+     * Ответ 429 с Retry-After в секундах
+     */
+    private ResponseEntity<ErrorResponse> tooManyRequests(String error, RuntimeException e, long retryAfterSeconds) {
+        logger.warn("{}: {}", error, e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(new ErrorResponse(error, e.getMessage()));
+    }
+    
     /**
      * Класс для ответа с ошибкой
      */
@@ -0,0 +1,46 @@
+package com.tasktracker.auth.controller;
+
+import com.tasktracker.auth.security.JwtKeyManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Публикация открытых ключей подписи JWT
+ *
+ * Потребители (gateway) загружают JWK Set, кэшируют его и обновляют в фоне,
+ * после чего проверяют токены локально по kid из заголовка токена
+ */
+@RestController
+@Tag(name = "JWKS", description = "Открытые ключи для проверки JWT токенов")
+public class JwksController {
+
+    /**
+     * Время, в течение которого клиентам разрешено кэшировать ответ
+     */
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+    @Autowired
+    private JwtKeyManager keyManager;
+
+    /**
+     * JWK Set (RFC 7517) с текущим, следующим и еще действующими выведенными ключами
+     *
+     * @return {"keys": [...]}
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "JWK Set", description = "Открытые ключи RS256 для локальной проверки JWT токенов")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(MAX_AGE).cachePublic())
+            .body(keyManager.jwks());
+    }
+}
@@ -0,0 +1,65 @@
+package com.tasktracker.auth.controller;
+
+import com.tasktracker.auth.security.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Публикация списка отозванных access токенов
+ *
+ * Потребители (gateway) периодически загружают снимок фильтра Блума и проверяют
+ * jti локально; точная проверка запрашивается только при попадании в фильтр
+ */
+@RestController
+@RequestMapping("/auth/revocations")
+@Tag(name = "Revocations", description = "Список отозванных JWT токенов")
+public class RevocationController {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * Снимок фильтра Блума; версия снимка передается в ETag
+     *
+     * @param ifNoneMatch ETag ранее загруженного снимка
+     * @return снимок или 304, если версия не изменилась
+     */
+    @GetMapping(value = "/bloom", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Фильтр Блума отозванных токенов", description = "Версионированный снимок для локальной проверки jti")
+    public ResponseEntity<TokenRevocationService.Snapshot> bloom(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        TokenRevocationService.Snapshot snapshot = tokenRevocationService.snapshot();
+        String etag = "\"" + snapshot.version() + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .body(snapshot);
+    }
+
+    /**
+     * Точная проверка отзыва токена
+     *
+     * @param jti идентификатор токена
+     * @return {"jti": ..., "revoked": true|false}
+     */
+    @GetMapping(value = "/{jti}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Проверка отзыва токена", description = "Вызывается при попадании jti в фильтр Блума")
+    public ResponseEntity<Map<String, Object>> check(@PathVariable String jti) {
+        return ResponseEntity.ok(Map.of("jti", jti, "revoked", tokenRevocationService.isRevoked(jti)));
+    }
+}
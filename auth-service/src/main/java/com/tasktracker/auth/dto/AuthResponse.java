@@ -8,6 +8,7 @@ import com.tasktracker.auth.entity.Role;
  * Возвращается в методах:
  * - POST /auth/login
  * - POST /auth/register
+ * - POST /auth/refresh
  * 
  * Содержит JWT токен и основную информацию о пользователе
  */
@@ -28,6 +29,20 @@ public class AuthResponse {
      */
     private String tokenType = "Bearer";
     
+    /**
+     * Время жизни access токена в секундах
+     * 
+     * Клиенту стоит обновить токен до истечения этого срока
+     */
+    private Long expiresIn;
+    
+    /**
+     * Refresh токен для POST /auth/refresh
+     * 
+     * Одноразовый: при обмене выдается новый, старый становится недействительным
+     */
+    private String refreshToken;
+    
     /**
      * ID пользователя
      * 
@@ -86,6 +101,22 @@ public class AuthResponse {
         this.tokenType = tokenType;
     }
     
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
     public Long getUserId() {
         return userId;
     }
@@ -123,6 +154,8 @@ public class AuthResponse {
         return "AuthResponse{" +
                 "token='[PROTECTED]'" +
                 ", tokenType='" + tokenType + '\'' +
+                ", expiresIn=" + expiresIn +
+                ", refreshToken='[PROTECTED]'" +
                 ", userId=" + userId +
                 ", username='" + username + '\'' +
                 ", email='" + email + '\'' +
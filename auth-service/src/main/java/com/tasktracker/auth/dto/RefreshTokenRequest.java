@@ -0,0 +1,42 @@
+package com.tasktracker.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO для обмена refresh токена на новую пару токенов
+ *
+ * Используется в POST /auth/refresh и POST /auth/logout
+ */
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh токен из AuthResponse
+     */
+    @NotBlank(message = "Refresh token is required")
+    @Size(max = 100, message = "Refresh token is too long")
+    private String refreshToken;
+
+    // Конструкторы
+    public RefreshTokenRequest() {
+        // Пустой конструктор для Jackson (JSON десериализация)
+    }
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters и Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshTokenRequest{refreshToken='[PROTECTED]'}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.tasktracker.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного запроса пользователей
+ * 
+ * Используется в POST /auth/users/batch
+ */
+public class UserBatchRequest {
+    
+    /**
+     * Максимальное количество ID в одном запросе
+     */
+    public static final int MAX_IDS = 500;
+    
+    /**
+     * ID пользователей (повторы допускаются и схлопываются)
+     */
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = MAX_IDS, message = "No more than 500 user IDs per request")
+    private List<@NotNull Long> ids;
+    
+    // Конструкторы
+    public UserBatchRequest() {
+        // Пустой конструктор для Jackson (JSON десериализация)
+    }
+    
+    public UserBatchRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    // Геттеры и сеттеры
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
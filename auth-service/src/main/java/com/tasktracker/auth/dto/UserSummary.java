@@ -0,0 +1,63 @@
+package com.tasktracker.auth.dto;
+
+import com.tasktracker.auth.entity.Role;
+
+/**
+ * Краткая информация о пользователе
+ * 
+ * Используется в POST /auth/users/batch, где другим сервисам нужны
+ * только имена и роли (например, исполнители и авторы задач на странице списка)
+ */
+public class UserSummary {
+    
+    /**
+     * ID пользователя
+     */
+    private Long id;
+    
+    /**
+     * Имя пользователя
+     */
+    private String username;
+    
+    /**
+     * Роль пользователя
+     */
+    private Role role;
+    
+    // Конструкторы
+    public UserSummary() {
+        // Пустой конструктор для Jackson
+    }
+    
+    public UserSummary(Long id, String username, Role role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+    }
+    
+    // Геттеры и сеттеры
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public Role getRole() {
+        return role;
+    }
+    
+    public void setRole(Role role) {
+        this.role = role;
+    }
+}
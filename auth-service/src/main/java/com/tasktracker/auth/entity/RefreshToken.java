@@ -0,0 +1,112 @@
+package com.tasktracker.auth.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Refresh токен
+ *
+ * Хранится только SHA-256 хеш токена: утечка таблицы не дает действующих токенов.
+ * Токены одной цепочки ротаций имеют общий familyId; повторное использование
+ * уже обмененного токена отзывает всю цепочку.
+ *
+ * @Table - индексы по хешу (поиск при обмене) и по семейству (отзыв цепочки)
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "ux_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "ix_refresh_tokens_family_id", columnList = "family_id"),
+    @Index(name = "ix_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * SHA-256 хеш токена в base64url (43 символа)
+     */
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+
+    /**
+     * Идентификатор цепочки ротаций (UUID первого токена после входа)
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Токен уже обменян на новый (или отозван)
+     */
+    @Column(name = "used", nullable = false)
+    private boolean used;
+
+    // Конструкторы
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String familyId, Long userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Геттеры и сеттеры
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    public void setUsed(boolean used) {
+        this.used = used;
+    }
+}
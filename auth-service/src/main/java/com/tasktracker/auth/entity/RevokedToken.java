@@ -0,0 +1,54 @@
+package com.tasktracker.auth.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Отозванный access токен
+ *
+ * Хранится до истечения срока действия токена: после него токен
+ * отклоняется и без списка отзыва
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "ix_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    /**
+     * Идентификатор токена (claim jti)
+     */
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Конструкторы
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    // Геттеры и сеттеры
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
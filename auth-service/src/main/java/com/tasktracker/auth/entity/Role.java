@@ -1,11 +1,19 @@
 package com.tasktracker.auth.entity;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
 /**
  * Enum для ролей пользователей в системе
  * 
  * В нашем Task Tracker у нас есть две роли:
  * - USER: обычный пользователь, может управлять только своими задачами
  * - ADMIN: администратор, может управлять всеми задачами в системе
+ * 
+ * Authority каждой роли ("ROLE_USER", "ROLE_ADMIN") создается один раз при загрузке enum:
+ * User.getAuthorities, JwtService и JwtAuthenticationFilter используют готовые неизменяемые списки
  */
 public enum Role {
     /**
@@ -26,5 +34,43 @@ public enum Role {
      * - Управлять задачами всех пользователей
      * - Управлять пользователями
      */
-    ADMIN
+    ADMIN;
+    
+    /**
+     * Копия values() без выделения массива при каждом вызове
+     */
+    private static final Role[] VALUES = values();
+    
+    /**
+     * Имя authority для Spring Security и claim "role" в JWT
+     */
+    private final String authority = "ROLE_" + name();
+    
+    /**
+     * Неизменяемый список authorities роли
+     */
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(authority));
+    
+    public String getAuthority() {
+        return authority;
+    }
+    
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+    
+    /**
+     * Authorities по значению claim "role"
+     * 
+     * @param authority имя authority из токена ("ROLE_USER")
+     * @return готовый список роли; для неизвестного значения - новый список из одного элемента
+     */
+    public static List<GrantedAuthority> authoritiesOf(String authority) {
+        for (Role role : VALUES) {
+            if (role.authority.equals(authority)) {
+                return role.authorities;
+            }
+        }
+        return List.of(new SimpleGrantedAuthority(authority));
+    }
 } 
\ No newline at end of file
@@ -1,16 +1,15 @@
 package com.tasktracker.auth.entity;
 
+import com.tasktracker.auth.security.UserStatusCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Сущность пользователя в системе
@@ -19,12 +18,26 @@ import java.util.List;
  * Содержит всю необходимую информацию о пользователе
  * 
  * @Entity - помечает класс как JPA сущность
- * @Table - указывает имя таблицы в БД
+ * @Table - указывает имя таблицы в БД; ограничения уникальности названы явно,
+ * чтобы AuthService.register мог определить по имени, какое поле занято
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
+@EntityListeners(UserStatusCacheListener.class)
 public class User implements UserDetails {
     
+    /**
+     * Имена ограничений уникальности
+     * 
+     * Регистронезависимые уникальные индексы ux_users_username_lower и ux_users_email_lower
+     * создаются в schema-postgresql.sql (JPA не описывает индексы по выражению)
+     */
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    
     /**
      * Уникальный идентификатор пользователя
      * 
@@ -42,11 +55,11 @@ public class User implements UserDetails {
      * 
      * @NotBlank - поле не может быть пустым
      * @Size - ограничение на длину
-     * @Column - unique = true означает уникальность в БД
+     * Уникальность - ограничение USERNAME_CONSTRAINT в @Table
      */
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 20, message = "Username must be between 3 and 20 characters")
-    @Column(name = "username", unique = true, nullable = false)
+    @Column(name = "username", nullable = false)
     private String username;
     
     /**
@@ -56,7 +69,7 @@ public class User implements UserDetails {
      */
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(name = "email", unique = true, nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
     
     /**
@@ -143,10 +156,11 @@ public class User implements UserDetails {
      * 
      * В Spring Security роли должны начинаться с "ROLE_"
      * Например: ROLE_USER, ROLE_ADMIN
+     * Список заранее создан в Role и не выделяется при каждом вызове
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        return role.getAuthorities();
     }
     
     /**
@@ -0,0 +1,262 @@
+package com.tasktracker.auth.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasktracker.auth.entity.User;
+import com.tasktracker.auth.security.ClientAddress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронная публикация событий пользователя (auth-events) в Kafka
+ *
+ * AuthService вызывает publish в своей транзакции; событие попадает в очередь
+ * только после коммита (TransactionSynchronization.afterCommit), поэтому откаченная
+ * регистрация не публикуется. Поток запроса лишь добавляет событие в ограниченную
+ * очередь: при заполнении событие отбрасывается, а не ждет Kafka.
+ *
+ * Единственный поток публикации забирает события пачками, сериализует их и отдает
+ * KafkaTemplate. Пакетирование и сжатие выполняет producer (batch-size, linger.ms,
+ * compression-type в spring.kafka.producer); ожидание недоступной Kafka ограничено
+ * max.block.ms и происходит только в этом потоке.
+ *
+ * Сообщение содержит поля AuthEventDto (notification-service) и AuditEventRequest
+ * (audit-service): оба потребителя читают один топик и игнорируют чужие поля.
+ */
+@Component
+public class AuthEventPublisher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthEventPublisher.class);
+
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final ClientAddress clientAddress;
+    private final boolean enabled;
+    private final String topic;
+    private final int drainBatchSize;
+    private final long idleWaitMs;
+    private final BlockingQueue<Map<String, Object>> queue;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread publisherThread;
+
+    /**
+     * @param enabled false - события не собираются (тесты без Kafka)
+     * @param queueCapacity максимум событий, ожидающих отправки
+     * @param drainBatchSize максимум событий, передаваемых producer'у за один проход
+     * @param idleWaitMs ожидание нового события потоком публикации при пустой очереди
+     */
+    @Autowired
+    public AuthEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
+                              ObjectMapper objectMapper,
+                              ClientAddress clientAddress,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.events.enabled:true}") boolean enabled,
+                              @Value("${auth.events.topic:auth-events}") String topic,
+                              @Value("${auth.events.queue-capacity:10000}") int queueCapacity,
+                              @Value("${auth.events.drain-batch-size:256}") int drainBatchSize,
+                              @Value("${auth.events.idle-wait-ms:50}") long idleWaitMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.clientAddress = clientAddress;
+        this.enabled = enabled;
+        this.topic = topic;
+        this.drainBatchSize = drainBatchSize;
+        this.idleWaitMs = idleWaitMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.publishedCounter = Counter.builder("auth.events.published")
+                .description("События auth-events, принятые Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.events.failed")
+                .description("События auth-events, которые не удалось отправить в Kafka")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("auth.events.dropped")
+                .description("События auth-events, отброшенные из-за заполненной очереди")
+                .register(meterRegistry);
+        Gauge.builder("auth.events.queue.size", queue, BlockingQueue::size)
+                .description("События, ожидающие публикации")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Событие пользователя; в транзакции ставится в очередь после коммита
+     *
+     * Не блокирует вызывающий поток и не бросает исключений
+     */
+    public void publish(AuthEventType type, User user) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> event = toEvent(type, user, currentRequest());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        publisherThread = new Thread(this::run, "auth-event-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+        logger.info("Публикация событий в топик {} запущена, емкость очереди {}",
+                topic, queue.remainingCapacity());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = publisherThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Map<String, Object> first = queue.poll(idleWaitMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    send(first);
+                    drainOnce();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Остаток очереди при остановке
+        int drained;
+        do {
+            drained = drainOnce();
+        } while (drained > 0);
+        try {
+            kafkaTemplate.flush();
+        } catch (Exception e) {
+            logger.warn("Не удалось дождаться отправки событий при остановке: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Один проход: до drainBatchSize событий из очереди в producer
+     */
+    int drainOnce() {
+        List<Map<String, Object>> batch = new ArrayList<>(Math.min(drainBatchSize, queue.size()));
+        queue.drainTo(batch, drainBatchSize);
+        batch.forEach(this::send);
+        return batch.size();
+    }
+
+    /**
+     * События, ожидающие отправки
+     */
+    int pending() {
+        return queue.size();
+    }
+
+    private void enqueue(Map<String, Object> event) {
+        if (!queue.offer(event)) {
+            droppedCounter.increment();
+            logger.warn("Очередь событий заполнена, событие {} для пользователя {} отброшено",
+                    event.get("eventType"), event.get("userId"));
+        }
+    }
+
+    private void send(Map<String, Object> event) {
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            kafkaTemplate.send(topic, String.valueOf(event.get("userId")), payload)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            failedCounter.increment();
+                            logger.debug("Событие не отправлено: {}", ex.getMessage());
+                        } else {
+                            publishedCounter.increment();
+                        }
+                    });
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.debug("Событие не отправлено: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Событие в формате AuthEventDto + AuditEventRequest; ключ сообщения - userId,
+     * поэтому события одного пользователя упорядочены в пределах партиции
+     */
+    Map<String, Object> toEvent(AuthEventType type, User user, HttpServletRequest request) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("eventType", type.name());
+        event.put("userId", user.getId());
+        event.put("username", user.getUsername());
+        event.put("email", user.getEmail());
+        event.put("role", user.getRole() != null ? user.getRole().name() : null);
+        event.put("eventTime", LocalDateTime.now());
+        event.put("ipAddress", request != null ? clientAddress.of(request) : null);
+        event.put("userAgent", request != null ? truncate(request.getHeader("User-Agent")) : null);
+        event.put("action", type.getAuditAction());
+        event.put("description", truncate(type.getDescription() + ": " + user.getUsername()));
+        event.put("isSuccess", true);
+        event.put("serviceName", "auth-service");
+        return event;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+    }
+}
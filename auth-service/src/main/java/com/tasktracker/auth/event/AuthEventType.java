@@ -0,0 +1,29 @@
+package com.tasktracker.auth.event;
+
+/**
+ * Типы событий жизненного цикла пользователя в топике auth-events
+ *
+ * Имя константы - eventType для AuthEventListener notification-service,
+ * auditAction - значение AuditAction для AuditEventListener audit-service
+ */
+public enum AuthEventType {
+
+    USER_REGISTERED("USER_CREATED", "Регистрация пользователя"),
+    USER_LOGIN("USER_LOGIN", "Вход пользователя");
+
+    private final String auditAction;
+    private final String description;
+
+    AuthEventType(String auditAction, String description) {
+        this.auditAction = auditAction;
+        this.description = description;
+    }
+
+    public String getAuditAction() {
+        return auditAction;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
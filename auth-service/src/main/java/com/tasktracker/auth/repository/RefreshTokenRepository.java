@@ -0,0 +1,49 @@
+package com.tasktracker.auth.repository;
+
+import com.tasktracker.auth.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Репозиторий refresh токенов
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Поиск токена по хешу с блокировкой строки: два параллельных обмена
+     * одного токена не могут оба пройти ротацию
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashForUpdate(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Отзыв всей цепочки ротаций
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Отзыв всех refresh токенов пользователя
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true WHERE t.userId = :userId")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Удаление истекших токенов
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
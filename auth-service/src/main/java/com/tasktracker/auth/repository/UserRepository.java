@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Locale;
 import java.util.Optional;
 
 /**
@@ -66,17 +67,43 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     
     /**
-     * Найти пользователя по имени пользователя или email
+     * Найти пользователя по имени пользователя или email (для логина)
      * 
-     * Используем кастомный запрос с @Query аннотацией
-     * Это полезно для логина - пользователь может ввести как username, так и email
+     * Форма значения определяется заранее: username не может содержать '@'
+     * (см. RegisterRequest), поэтому значение с '@' ищется только по email,
+     * остальные - только по username. Вместо OR по двум столбцам выполняется
+     * один запрос по одному функциональному индексу (lower(...), schema-postgresql.sql);
+     * сравнение без учета регистра.
      * 
-     * @param username имя пользователя
-     * @param email email пользователя
+     * @param usernameOrEmail имя пользователя или email
+     * @return Optional<User> - может быть пустым, если пользователь не найден
+     */
+    default Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        String login = usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+        return login.indexOf('@') >= 0 ? findByLowerEmail(login) : findByLowerUsername(login);
+    }
+    
+    /**
+     * Найти пользователя по username без учета регистра
+     * 
+     * Генерируется SQL: SELECT * FROM users WHERE lower(username) = ?
+     * 
+     * @param username имя пользователя в нижнем регистре
+     * @return Optional<User> - может быть пустым, если пользователь не найден
+     */
+    @Query("SELECT u FROM User u WHERE lower(u.username) = :username")
+    Optional<User> findByLowerUsername(@Param("username") String username);
+    
+    /**
+     * Найти пользователя по email без учета регистра
+     * 
+     * Генерируется SQL: SELECT * FROM users WHERE lower(email) = ?
+     * 
+     * @param email email в нижнем регистре
      * @return Optional<User> - может быть пустым, если пользователь не найден
      */
-    @Query("SELECT u FROM User u WHERE u.username = :usernameOrEmail OR u.email = :usernameOrEmail")
-    Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
+    @Query("SELECT u FROM User u WHERE lower(u.email) = :email")
+    Optional<User> findByLowerEmail(@Param("email") String email);
     
     /**
      * Найти активных пользователей
@@ -88,4 +115,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return список активных пользователей
      */
     java.util.List<User> findByEnabled(boolean enabled);
+    
+    /**
+     * Признак активности пользователя без загрузки всей сущности
+     * 
+     * Используется при проверке JWT (UserStatusCache): один столбец по уникальному индексу username
+     * 
+     * @param username имя пользователя
+     * @return enabled или пустой Optional, если пользователь не найден
+     */
+    @Query("SELECT u.enabled FROM User u WHERE u.username = :username")
+    Optional<Boolean> findEnabledByUsername(@Param("username") String username);
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.tasktracker.auth.security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Неверный пароль для найденного пользователя
+ *
+ * Несет username владельца, чтобы LoginThrottle учел неудачу входа по email
+ * под тем же счетчиком, что и вход по username, без повторного поиска пользователя
+ */
+public class AccountBadCredentialsException extends BadCredentialsException {
+
+    private final String username;
+
+    public AccountBadCredentialsException(String username, BadCredentialsException cause) {
+        super(cause.getMessage(), cause);
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tasktracker.auth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Фильтр Блума для списка отозванных jti
+ *
+ * Формат снимка (numBits, numHashes, биты в base64) и хеширование совпадают
+ * с BloomFilter в gateway-service: gateway проверяет jti локально и обращается
+ * к Auth Service за точным ответом только при попадании в фильтр.
+ *
+ * Позиции битов: h1 + i * h2 (i = 0..numHashes-1) по модулю numBits,
+ * где h1 и h2 получены из 64-битного FNV-1a хеша UTF-8 байт строки.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long[] words;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(int numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = new long[(numBits + 63) / 64];
+    }
+
+    /**
+     * Пустой фильтр под ожидаемое число элементов и долю ложных срабатываний
+     *
+     * @param expectedInsertions ожидаемое число элементов
+     * @param falsePositiveRate допустимая доля ложных срабатываний (0..1)
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int numBits = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    public void put(String value) {
+        long h1 = h1(value);
+        long h2 = h2(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = h1(value);
+        long h2 = h2(h1);
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int numBits() {
+        return numBits;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Биты фильтра в base64 (little-endian 64-битные слова)
+     */
+    public String toBase64() {
+        byte[] bytes = new byte[words.length * 8];
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            for (int b = 0; b < 8; b++) {
+                bytes[i * 8 + b] = (byte) (word >>> (8 * b));
+            }
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static long h1(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long h2(long h1) {
+        // Нечетный шаг, чтобы позиции не зацикливались раньше numHashes
+        return mix(h1 + GOLDEN_GAMMA) | 1;
+    }
+
+    /**
+     * Финализатор SplitMix64: перемешивает биты FNV хеша
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tasktracker.auth.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder, выполняющий хеширование в PasswordHashingExecutor
+ *
+ * Используется DaoAuthenticationProvider и AuthService, поэтому весь BCrypt
+ * (логин, регистрация, повторное хеширование) идет через ограниченный пул.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Повторное хеширование после логина необязательно: при заполненной очереди
+     * оно откладывается до следующего входа, а не отклоняет успешный логин
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword) && executor.hasCapacity();
+    }
+}
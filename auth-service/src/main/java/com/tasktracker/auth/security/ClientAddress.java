@@ -0,0 +1,89 @@
+package com.tasktracker.auth.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * IP клиента текущего запроса
+ *
+ * X-Forwarded-For учитывается только для соединений от доверенного прокси (Gateway,
+ * auth.trusted-proxies): Gateway дописывает адрес своего клиента в конец заголовка,
+ * поэтому берется последний адрес. Начало заголовка задает сам клиент, а порт Auth Service
+ * доступен и напрямую - для остальных соединений используется адрес соединения.
+ *
+ * В auth.trusted-proxies допускаются IP и имена хостов (gateway-service в Docker); имена
+ * разрешаются при проверке, с кэшированием InetAddress.
+ */
+@Component
+public class ClientAddress {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<String> trustedProxies;
+
+    public ClientAddress(@Value("${auth.trusted-proxies:127.0.0.1,::1}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .toList();
+    }
+
+    /**
+     * @return IP клиента или null вне HTTP запроса
+     */
+    public String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes
+                ? of(servletAttributes.getRequest())
+                : null;
+    }
+
+    public String of(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwarded = request.getHeader(FORWARDED_FOR);
+        if (forwarded == null || forwarded.isBlank() || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String last = forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        return last.isEmpty() ? remoteAddr : last;
+    }
+
+    boolean isTrustedProxy(String remoteAddr) {
+        if (remoteAddr == null || trustedProxies.isEmpty()) {
+            return false;
+        }
+        try {
+            // Адрес соединения - IP литерал, разрешение имени не выполняется
+            InetAddress remote = InetAddress.getByName(remoteAddr);
+            for (String proxy : trustedProxies) {
+                if (matches(remote, proxy)) {
+                    return true;
+                }
+            }
+        } catch (UnknownHostException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private static boolean matches(InetAddress remote, String proxy) {
+        try {
+            for (InetAddress address : InetAddress.getAllByName(proxy)) {
+                if (address.equals(remote)) {
+                    return true;
+                }
+            }
+        } catch (UnknownHostException e) {
+            // Прокси еще не зарегистрирован в DNS (например, Gateway не запущен)
+        }
+        return false;
+    }
+}
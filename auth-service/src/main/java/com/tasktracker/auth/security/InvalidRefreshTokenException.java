@@ -0,0 +1,11 @@
+package com.tasktracker.auth.security;
+
+/**
+ * Refresh токен не найден, истек, отозван или уже был использован
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.tasktracker.auth.security;
 
+import com.tasktracker.auth.entity.Role;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,8 +11,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,6 +23,11 @@ import java.io.IOException;
  * Перехватывает все HTTP запросы и проверяет наличие JWT токена
  * в заголовке Authorization
  * 
+ * Токен разбирается один раз: подпись и срок действия проверяются при разборе,
+ * а principal (JwtPrincipal) и роль берутся из claims без загрузки пользователя из БД.
+ * Деактивированные и удаленные пользователи отсекаются через UserStatusCache,
+ * отозванные токены - через TokenRevocationService
+ * 
  * Наследует OncePerRequestFilter - гарантирует выполнение только один раз за запрос
  */
 @Component
@@ -48,10 +52,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
     
     /**
-     * Сервис для загрузки пользователей из БД
+     * Кэш признака активности аккаунтов
+     */
+    @Autowired
+    private UserStatusCache userStatusCache;
+    
+    /**
+     * Список отозванных токенов
      */
     @Autowired
-    private UserDetailsService userDetailsService;
+    private TokenRevocationService tokenRevocationService;
     
     /**
      * Основной метод фильтра
@@ -73,33 +83,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             
             if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Извлекаем имя пользователя из токена
-                String username = jwtService.extractUsername(jwt);
+                // Единственный разбор токена: подпись, срок действия и все claims
+                JwtClaims claims = jwtService.parseToken(jwt);
+                String username = claims.username();
+                String role = claims.role();
                 
-                if (username != null) {
-                    // Загружаем данные пользователя из БД
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if (tokenRevocationService.isRevoked(claims.tokenId())) {
+                    logger.debug("Revoked JWT token rejected for user '{}'", username);
+                } else if (username != null && role != null && userStatusCache.isEnabled(username)) {
+                    JwtPrincipal principal = new JwtPrincipal(claims.userId(), username, role);
+                    
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(
+                            principal, 
+                            null, 
+                            Role.authoritiesOf(role)
+                        );
+                    
+                    // Устанавливаем дополнительные детали запроса
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    // Сохраняем аутентификацию в SecurityContext
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                     
-                    // Проверяем валидность токена
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
-                        // Создаем объект аутентификации
-                        UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(
-                                userDetails, 
-                                null, 
-                                userDetails.getAuthorities()
-                            );
-                        
-                        // Устанавливаем дополнительные детали запроса
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        // Сохраняем аутентификацию в SecurityContext
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        
-                        logger.debug("User '{}' authenticated successfully", username);
-                    } else {
-                        logger.debug("JWT token is invalid for user '{}'", username);
-                    }
+                    logger.debug("User '{}' authenticated successfully", username);
+                } else {
+                    logger.debug("JWT token rejected for user '{}': missing role or account disabled", username);
                 }
             }
         } catch (JwtException e) {
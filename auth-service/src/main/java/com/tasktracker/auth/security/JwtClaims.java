@@ -0,0 +1,37 @@
+package com.tasktracker.auth.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Данные проверенного JWT токена
+ *
+ * Результат одного разбора токена (JwtService.parseToken): подпись и срок действия
+ * уже проверены, все поля доступны без повторного разбора
+ *
+ * @param username имя пользователя (subject)
+ * @param userId ID пользователя (может отсутствовать в старых токенах)
+ * @param role роль в формате Spring Security (ROLE_USER, ROLE_ADMIN)
+ * @param issuedAt время выдачи
+ * @param expiration время истечения
+ * @param tokenId идентификатор токена (jti) для отзыва
+ */
+public record JwtClaims(String username, Long userId, String role, Date issuedAt, Date expiration, String tokenId) {
+
+    /**
+     * Построение из claims токена
+     *
+     * @param claims claims проверенного токена
+     * @return данные токена
+     */
+    public static JwtClaims from(Claims claims) {
+        return new JwtClaims(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("role", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration(),
+                claims.getId());
+    }
+}
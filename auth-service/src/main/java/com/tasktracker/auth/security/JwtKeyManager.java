@@ -0,0 +1,189 @@
+package com.tasktracker.auth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Управление ключами подписи JWT (RS256) с ротацией
+ *
+ * Токены подписываются закрытым ключом, а открытые ключи публикуются
+ * в /.well-known/jwks.json: gateway и другие сервисы проверяют токены локально,
+ * без общего секрета и без обращения к Auth Service на каждый запрос.
+ *
+ * Набор ключей:
+ * - current - ключ, которым подписываются новые токены (kid в заголовке токена)
+ * - next - следующий ключ, публикуется заранее, чтобы потребители получили его
+ *   до начала использования
+ * - retired - выведенные ключи, хранятся для проверки токенов, пока те не истекут
+ *
+ * Ключи живут в памяти процесса: после перезапуска выданные токены становятся невалидными
+ */
+@Component
+public class JwtKeyManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyManager.class);
+
+    private static final int RSA_KEY_SIZE = 2048;
+
+    private final long rotationIntervalMs;
+    private final long tokenLifetimeMs;
+    private final LongSupplier clock;
+
+    private volatile KeySet keySet;
+
+    @Autowired
+    public JwtKeyManager(@Value("${jwt.keys.rotation-interval-ms:86400000}") long rotationIntervalMs,
+                         @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this(rotationIntervalMs, tokenLifetimeMs, System::currentTimeMillis);
+    }
+
+    JwtKeyManager(long rotationIntervalMs, long tokenLifetimeMs, LongSupplier clock) {
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.keySet = new KeySet(generateKey(), generateKey(), List.of(), now);
+    }
+
+    /**
+     * Ключ для подписи новых токенов
+     *
+     * При истечении интервала ротации текущим становится заранее опубликованный next
+     */
+    public SigningKey currentKey() {
+        KeySet keys = keySet;
+        if (clock.getAsLong() - keys.rotatedAt() >= rotationIntervalMs) {
+            keys = rotate();
+        }
+        return keys.current();
+    }
+
+    /**
+     * Открытый ключ для проверки подписи по kid из заголовка токена
+     *
+     * @param kid идентификатор ключа
+     * @return открытый ключ или null, если ключ неизвестен или уже удален
+     */
+    public PublicKey verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        for (SigningKey key : keySet.published()) {
+            if (key.kid().equals(kid)) {
+                return key.keyPair().getPublic();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * JWK Set (RFC 7517) со всеми опубликованными открытыми ключами
+     *
+     * @return JSON-структура {"keys": [...]}
+     */
+    public Map<String, Object> jwks() {
+        // Ротация при запросе JWKS, чтобы next не отставал от фактического времени
+        currentKey();
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (SigningKey key : keySet.published()) {
+            RSAPublicKey publicKey = (RSAPublicKey) key.keyPair().getPublic();
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("kid", key.kid());
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("n", base64Url(publicKey.getModulus()));
+            jwk.put("e", base64Url(publicKey.getPublicExponent()));
+            keys.add(jwk);
+        }
+        return Map.of("keys", keys);
+    }
+
+    private synchronized KeySet rotate() {
+        KeySet keys = keySet;
+        long now = clock.getAsLong();
+        if (now - keys.rotatedAt() < rotationIntervalMs) {
+            // Уже выполнено другим потоком
+            return keys;
+        }
+
+        // Выведенный ключ нужен, пока не истекут подписанные им токены
+        List<SigningKey> retired = new ArrayList<>();
+        retired.add(keys.current().retire(now));
+        for (SigningKey key : keys.retired()) {
+            if (now - key.retiredAt() < tokenLifetimeMs) {
+                retired.add(key);
+            }
+        }
+
+        KeySet rotated = new KeySet(keys.next(), generateKey(), List.copyOf(retired), now);
+        keySet = rotated;
+        logger.info("JWT signing key rotated: current kid={}, retired keys={}", rotated.current().kid(), retired.size());
+        return rotated;
+    }
+
+    private static SigningKey generateKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(RSA_KEY_SIZE);
+            return new SigningKey(UUID.randomUUID().toString(), generator.generateKeyPair(), 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to generate RSA key pair", e);
+        }
+    }
+
+    /**
+     * Big-endian представление без знакового нулевого байта (RFC 7518, 6.3.1)
+     */
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] unsigned = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+            bytes = unsigned;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Ключ подписи
+     *
+     * @param kid идентификатор ключа (заголовок kid токена)
+     * @param keyPair пара ключей RSA
+     * @param retiredAt время вывода из использования (0 для активных ключей)
+     */
+    public record SigningKey(String kid, KeyPair keyPair, long retiredAt) {
+
+        SigningKey retire(long now) {
+            return new SigningKey(kid, keyPair, now);
+        }
+    }
+
+    private record KeySet(SigningKey current, SigningKey next, List<SigningKey> retired, long rotatedAt) {
+
+        List<SigningKey> published() {
+            List<SigningKey> keys = new ArrayList<>(retired.size() + 2);
+            keys.add(current);
+            keys.add(next);
+            keys.addAll(retired);
+            return keys;
+        }
+    }
+}
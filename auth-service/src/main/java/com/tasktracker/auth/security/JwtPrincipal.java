@@ -0,0 +1,21 @@
+package com.tasktracker.auth.security;
+
+import java.security.Principal;
+
+/**
+ * Пользователь, аутентифицированный по JWT токену
+ * 
+ * Строится из claims токена без обращения к БД.
+ * Реализует Principal, поэтому authentication.getName() возвращает имя пользователя
+ * 
+ * @param id ID пользователя (claim userId, может отсутствовать в старых токенах)
+ * @param username имя пользователя (subject)
+ * @param role роль в формате Spring Security (ROLE_USER, ROLE_ADMIN)
+ */
+public record JwtPrincipal(Long id, String username, String role) implements Principal {
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,17 +1,21 @@
 package com.tasktracker.auth.security;
 
+import com.tasktracker.auth.entity.User;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PublicKey;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -22,6 +26,11 @@ import java.util.function.Function;
  * - Валидацию токенов
  * - Извлечение данных из токенов
  * - Проверку срока действия
+ * 
+ * Токены подписываются RS256 текущим ключом JwtKeyManager, kid ключа пишется
+ * в заголовок токена. Открытые ключи публикуются в /.well-known/jwks.json,
+ * поэтому другие сервисы проверяют токены без общего секрета.
+ * JwtParser создается один раз при старте и разделяется всеми запросами
  */
 @Service
 public class JwtService {
@@ -29,34 +38,65 @@ public class JwtService {
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
     
     /**
-     * Секретный ключ для подписи JWT токенов
-     * 
-     * Загружается из application.yml
-     * Должен быть достаточно длинным для безопасности
+     * Ротируемые ключи подписи RS256
+     */
+    @Autowired
+    private JwtKeyManager keyManager;
+    
+    /**
+     * Список отозванных токенов
      */
-    @Value("${jwt.secret}")
-    private String secret;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
     
     /**
      * Время жизни JWT токена в миллисекундах
      * 
      * Загружается из application.yml
-     * По умолчанию 24 часа
+     * Короткий (15 минут): клиент продлевает сессию через POST /auth/refresh
      */
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    /**
+     * Парсер с проверкой подписи, переиспользуется для всех токенов
+     */
+    private JwtParser parser;
+    
+    /**
+     * Построение парсера: ключ проверки выбирается по kid из заголовка токена
+     */
+    @PostConstruct
+    void init() {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        PublicKey key = keyManager.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown JWT key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+    
     /**
      * Генерация JWT токена для пользователя
      * 
+     * Claims role и userId записываются напрямую в builder, без промежуточной Map;
+     * для User имя роли берется из Role (строка создана один раз на роль)
+     * 
      * @param userDetails данные пользователя
      * @return JWT токен
      */
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        // Добавляем роль пользователя в claims
-        claims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
-        return generateToken(claims, userDetails.getUsername());
+        if (userDetails instanceof User user && user.getRole() != null) {
+            // ID пользователя нужен gateway для внутреннего заголовка идентичности
+            return issue(userDetails.getUsername(), user.getRole().getAuthority(), user.getId());
+        }
+        return issue(userDetails.getUsername(), userDetails.getAuthorities().iterator().next().getAuthority(), null);
     }
     
     /**
@@ -67,13 +107,33 @@ public class JwtService {
      * @return JWT токен
      */
     public String generateToken(Map<String, Object> extraClaims, String username) {
+        return builder(username).addClaims(extraClaims).compact();
+    }
+    
+    /**
+     * Токен с claims role и (если известен) userId
+     */
+    private String issue(String username, String role, Long userId) {
+        JwtBuilder builder = builder(username).claim("role", role);
+        if (userId != null) {
+            builder.claim("userId", userId);
+        }
+        return builder.compact();
+    }
+    
+    /**
+     * Builder с заголовком kid, jti, subject, сроком действия и подписью текущим ключом
+     */
+    private JwtBuilder builder(String username) {
+        JwtKeyManager.SigningKey key = keyManager.currentKey();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(extraClaims)
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(key.keyPair().getPrivate(), SignatureAlgorithm.RS256);
     }
     
     /**
@@ -118,6 +178,17 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Проверка токена и извлечение всех его данных за один разбор
+     * 
+     * @param token JWT токен
+     * @return данные валидного токена
+     * @throws JwtException если токен невалиден или истек
+     */
+    public JwtClaims parseToken(String token) {
+        return JwtClaims.from(extractAllClaims(token));
+    }
+    
     /**
      * Извлечение всех claims из JWT токена
      * 
@@ -126,11 +197,7 @@ public class JwtService {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             logger.error("Failed to extract claims from token: {}", e.getMessage());
             throw new JwtException("Invalid JWT token");
@@ -146,46 +213,25 @@ public class JwtService {
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            // Срок действия проверяется парсером, повторный разбор не нужен
+            return userDetails.getUsername().equals(parseToken(token).username());
         } catch (JwtException e) {
             logger.error("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
     
-    /**
-     * Проверка истечения срока действия токена
-     * 
-     * @param token JWT токен
-     * @return true если токен истек
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    /**
-     * Получение секретного ключа для подписи
-     * 
-     * @return секретный ключ
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-    
     /**
      * Валидация JWT токена без проверки пользователя
      * 
-     * Используется для первичной проверки токена
+     * Используется для первичной проверки токена; отозванный токен невалиден
      * 
      * @param token JWT токен
      * @return true если токен валиден
      */
     public boolean isTokenValid(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
+            return !tokenRevocationService.isRevoked(extractAllClaims(token).getId());
         } catch (JwtException e) {
             logger.error("Token validation failed: {}", e.getMessage());
             return false;
@@ -0,0 +1,282 @@
+package com.tasktracker.auth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение перебора паролей: неудачные входы по учетной записи и по IP
+ *
+ * Перед аутентификацией проверяется введенный логин (без обращения к БД), неудачи
+ * считаются по username найденного пользователя: вход по email и по username делят
+ * один счетчик, а блокировка username распространяется и на использованный email.
+ * IP определяет ClientAddress (X-Forwarded-For только от доверенного Gateway).
+ *
+ * Число неудач считается скользящим окном из двух счетчиков Redis (текущее окно
+ * и вес предыдущего), общих для всех экземпляров. Сверх порога вход блокируется
+ * на base-delay-ms * 2^(неудачи - порог - 1), но не дольше max-delay-ms.
+ * Блокировка хранится в Redis (ключ с TTL) и в локальном near-cache, поэтому
+ * повторные попытки заблокированного источника отклоняются без Redis и без BCrypt.
+ *
+ * При недоступности Redis вход не ограничивается (кроме уже известных локально
+ * блокировок), а обращения к Redis приостанавливаются на REDIS_RETRY_MS.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    static final String FAILURES_PREFIX = "auth:login-failures:";
+    static final String BLOCK_PREFIX = "auth:login-block:";
+
+    private static final long REDIS_RETRY_MS = 5000;
+    private static final int MAX_LOCAL_BLOCKS = 10_000;
+
+    /**
+     * Для каждой пары ключей (текущее окно, предыдущее окно): INCR текущего
+     * и оценка скользящего окна current + previous * ARGV[2] / 1000
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECORD_FAILURE = new DefaultRedisScript<>(
+            "local result = {}\n"
+            + "for i = 1, #KEYS, 2 do\n"
+            + "  local current = redis.call('INCR', KEYS[i])\n"
+            + "  if current == 1 then redis.call('PEXPIRE', KEYS[i], ARGV[1]) end\n"
+            + "  local previous = tonumber(redis.call('GET', KEYS[i + 1]) or '0')\n"
+            + "  result[#result + 1] = current + math.floor(previous * tonumber(ARGV[2]) / 1000)\n"
+            + "end\n"
+            + "return result",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxUserFailures;
+    private final int maxIpFailures;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final LongSupplier clock;
+
+    /**
+     * Локальные блокировки: "user:..." / "ip:..." -> время окончания (мс)
+     */
+    private final Map<String, Long> localBlocks = new ConcurrentHashMap<>();
+
+    private volatile long redisRetryAt;
+
+    @Autowired
+    public LoginThrottle(StringRedisTemplate redisTemplate,
+                         @Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.login-throttle.window-seconds:900}") long windowSeconds,
+                         @Value("${auth.login-throttle.max-user-failures:5}") int maxUserFailures,
+                         @Value("${auth.login-throttle.max-ip-failures:50}") int maxIpFailures,
+                         @Value("${auth.login-throttle.base-delay-ms:1000}") long baseDelayMs,
+                         @Value("${auth.login-throttle.max-delay-ms:900000}") long maxDelayMs) {
+        this(redisTemplate, enabled, windowSeconds, maxUserFailures, maxIpFailures,
+                baseDelayMs, maxDelayMs, System::currentTimeMillis);
+    }
+
+    LoginThrottle(StringRedisTemplate redisTemplate, boolean enabled, long windowSeconds,
+                  int maxUserFailures, int maxIpFailures, long baseDelayMs, long maxDelayMs,
+                  LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.windowMs = windowSeconds * 1000;
+        this.maxUserFailures = maxUserFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Проверка перед аутентификацией
+     *
+     * @param login введенный логин (username или email)
+     * @param clientIp IP клиента; null - только по логину
+     * @throws LoginThrottledException если логин или IP заблокированы
+     */
+    public void check(String login, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        List<String> subjects = subjects(login, clientIp);
+
+        long until = 0;
+        for (String subject : subjects) {
+            until = Math.max(until, localBlocks.getOrDefault(subject, 0L));
+        }
+
+        if (until <= now && redisAvailable(now)) {
+            try {
+                List<String> values = redisTemplate.opsForValue()
+                        .multiGet(subjects.stream().map(subject -> BLOCK_PREFIX + subject).toList());
+                for (int i = 0; values != null && i < values.size(); i++) {
+                    long blockedUntil = parse(values.get(i));
+                    if (blockedUntil > now) {
+                        cacheBlock(subjects.get(i), blockedUntil);
+                        until = Math.max(until, blockedUntil);
+                    }
+                }
+            } catch (DataAccessException e) {
+                redisFailed(now, e);
+            }
+        }
+
+        if (until > now) {
+            throw new LoginThrottledException((until - now + 999) / 1000);
+        }
+    }
+
+    /**
+     * Учет неудачного входа; при превышении порога username или IP блокируются
+     *
+     * @param login введенный логин; блокируется вместе с учетной записью
+     * @param account username найденного пользователя или login, если пользователь не найден
+     * @param clientIp IP клиента; null - только по учетной записи
+     */
+    public void recordFailure(String login, String account, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (!redisAvailable(now)) {
+            return;
+        }
+        List<String> subjects = subjects(account, clientIp);
+        String alias = userSubject(login);
+        long window = now / windowMs;
+        long previousWeight = 1000 - (now % windowMs) * 1000 / windowMs;
+
+        List<String> keys = new ArrayList<>(subjects.size() * 2);
+        for (String subject : subjects) {
+            keys.add(FAILURES_PREFIX + subject + ":" + window);
+            keys.add(FAILURES_PREFIX + subject + ":" + (window - 1));
+        }
+
+        try {
+            List<?> counts = redisTemplate.execute(RECORD_FAILURE, keys,
+                    String.valueOf(windowMs * 2), String.valueOf(previousWeight));
+            for (int i = 0; counts != null && i < counts.size(); i++) {
+                String subject = subjects.get(i);
+                long failures = ((Number) counts.get(i)).longValue();
+                long delay = delay(failures, subject.startsWith("ip:") ? maxIpFailures : maxUserFailures);
+                if (delay > 0) {
+                    long until = now + delay;
+                    block(subject, until, delay);
+                    if (subject.startsWith("user:") && !subject.equals(alias)) {
+                        block(alias, until, delay);
+                    }
+                    logger.warn("Login throttled for {} after {} failures: {} ms", subject, failures, delay);
+                }
+            }
+        } catch (DataAccessException e) {
+            redisFailed(now, e);
+        }
+    }
+
+    /**
+     * Успешный вход сбрасывает неудачи по username и блокировку логина (счетчик IP сохраняется)
+     *
+     * @param login введенный логин
+     * @param account username вошедшего пользователя
+     */
+    public void recordSuccess(String login, String account) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        String subject = userSubject(account);
+        String alias = userSubject(login);
+        localBlocks.remove(subject);
+        localBlocks.remove(alias);
+        if (!redisAvailable(now)) {
+            return;
+        }
+        long window = now / windowMs;
+        List<String> keys = new ArrayList<>(List.of(
+                FAILURES_PREFIX + subject + ":" + window,
+                FAILURES_PREFIX + subject + ":" + (window - 1),
+                BLOCK_PREFIX + subject));
+        if (!alias.equals(subject)) {
+            keys.add(BLOCK_PREFIX + alias);
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (DataAccessException e) {
+            redisFailed(now, e);
+        }
+    }
+
+    /**
+     * Экспоненциальная задержка: 0 до порога, затем base, 2*base, 4*base... до max
+     */
+    long delay(long failures, int threshold) {
+        if (failures <= threshold) {
+            return 0;
+        }
+        long exponent = Math.min(failures - threshold - 1, 30);
+        return Math.min(maxDelayMs, baseDelayMs << exponent);
+    }
+
+    private List<String> subjects(String login, String clientIp) {
+        return clientIp != null
+                ? List.of(userSubject(login), "ip:" + clientIp)
+                : List.of(userSubject(login));
+    }
+
+    private static String userSubject(String login) {
+        return "user:" + login.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void block(String subject, long until, long delay) {
+        cacheBlock(subject, until);
+        redisTemplate.opsForValue().set(BLOCK_PREFIX + subject, String.valueOf(until), Duration.ofMillis(delay));
+    }
+
+    private void cacheBlock(String subject, long until) {
+        if (localBlocks.size() >= MAX_LOCAL_BLOCKS) {
+            long now = clock.getAsLong();
+            localBlocks.values().removeIf(blockedUntil -> blockedUntil <= now);
+            if (localBlocks.size() >= MAX_LOCAL_BLOCKS) {
+                localBlocks.clear();
+            }
+        }
+        localBlocks.merge(subject, until, Math::max);
+    }
+
+    private boolean redisAvailable(long now) {
+        return now >= redisRetryAt;
+    }
+
+    private void redisFailed(long now, DataAccessException e) {
+        redisRetryAt = now + REDIS_RETRY_MS;
+        logger.warn("Redis unavailable for login throttling, retry in {} ms: {}", REDIS_RETRY_MS, e.getMessage());
+    }
+
+    private static long parse(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.tasktracker.auth.security;
+
+/**
+ * Пул хеширования паролей перегружен; клиенту возвращается 429
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many authentication requests, please retry later");
+    }
+}
@@ -0,0 +1,166 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.entity.RefreshToken;
+import com.tasktracker.auth.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Выдача и ротация refresh токенов
+ *
+ * Access токен живет недолго (jwt.expiration), поэтому потребителям достаточно
+ * проверять его срок действия без запроса к Auth Service. Долгоживущий refresh токен
+ * обменивается на новую пару через POST /auth/refresh:
+ * - токен одноразовый: при обмене он помечается использованным и выдается новый
+ *   той же цепочки (ротация)
+ * - повторное предъявление использованного токена означает его кражу:
+ *   вся цепочка отзывается, и владельцу придется войти заново
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final long CLEANUP_INTERVAL_MS = 3_600_000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpirationMs;
+    private final LongSupplier clock;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile long lastCleanup;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-expiration:2592000000}") long refreshExpirationMs) {
+        this(refreshTokenRepository, refreshExpirationMs, System::currentTimeMillis);
+    }
+
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, long refreshExpirationMs, LongSupplier clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.clock = clock;
+        this.lastCleanup = clock.getAsLong();
+    }
+
+    /**
+     * Выдача refresh токена новой цепочки (после входа или регистрации)
+     *
+     * @param userId ID пользователя
+     * @return refresh токен для клиента
+     */
+    @Transactional
+    public String issue(Long userId) {
+        deleteExpiredPeriodically();
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Обмен refresh токена на новый той же цепочки
+     *
+     * @param rawToken предъявленный refresh токен
+     * @return владелец и новый refresh токен
+     * @throws InvalidRefreshTokenException если токен неизвестен, истек или уже использован
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (token.isUsed()) {
+            // Отзыв фиксируется, несмотря на исключение (noRollbackFor)
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+            logger.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                    token.getUserId(), revoked, token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (token.getExpiresAt().toEpochMilli() <= clock.getAsLong()) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        token.setUsed(true);
+        refreshTokenRepository.save(token);
+        return new Rotation(token.getUserId(), create(token.getUserId(), token.getFamilyId()));
+    }
+
+    /**
+     * Отзыв цепочки, к которой относится токен (выход из системы)
+     *
+     * @param rawToken refresh токен
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Отзыв всех refresh токенов пользователя (например, при блокировке)
+     *
+     * @param userId ID пользователя
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    /**
+     * Время жизни refresh токена в миллисекундах
+     */
+    public long getExpirationTime() {
+        return refreshExpirationMs;
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant expiresAt = Instant.ofEpochMilli(clock.getAsLong() + refreshExpirationMs);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId, expiresAt));
+        return rawToken;
+    }
+
+    /**
+     * Истекшие токены удаляются не чаще раза в час, попутно с выдачей новых
+     */
+    private void deleteExpiredPeriodically() {
+        long now = clock.getAsLong();
+        if (now - lastCleanup < CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        lastCleanup = now;
+        int deleted = refreshTokenRepository.deleteExpired(Instant.ofEpochMilli(now));
+        logger.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Результат ротации: владелец токена и новый refresh токен
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.security.InternalIdentityVerifier.Identity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Фильтр служебной идентичности сервисов
+ *
+ * Сервисы (например, Task Service при пакетной загрузке пользователей) вызывают Auth Service
+ * с заголовком X-Internal-Identity с ролью SERVICE; подпись и срок действия проверяет
+ * InternalIdentityVerifier.
+ *
+ * Принципы работы:
+ * 1. Нет заголовка - запрос идет дальше, пользователей аутентифицирует JwtAuthenticationFilter
+ * 2. Неверная подпись или истекший срок - 401
+ * 3. Валидный заголовок без роли SERVICE (заголовок пользователя от Gateway) игнорируется:
+ *    пользователи аутентифицируются только по JWT
+ * 4. Валидный заголовок с ролью SERVICE - в SecurityContext сервис с ROLE_SERVICE
+ */
+@Component
+public class ServiceIdentityFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceIdentityFilter.class);
+
+    public static final String HEADER = InternalIdentityVerifier.HEADER;
+    public static final String SERVICE_AUTHORITY = "ROLE_SERVICE";
+
+    private final InternalIdentityVerifier verifier;
+
+    public ServiceIdentityFilter(InternalIdentityVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String header = request.getHeader(HEADER);
+        if (header == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Identity identity = verifier.verify(header);
+        if (identity == null) {
+            logger.warn("Invalid internal identity header for {}", request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        if (identity.hasAuthority(SERVICE_AUTHORITY)) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    identity.username(), null, List.of(new SimpleGrantedAuthority(SERVICE_AUTHORITY)));
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            logger.debug("Service '{}' authenticated by internal identity", identity.username());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        String path = request.getRequestURI();
+
+        // Публичные пути, которые не требуют аутентификации
+        return path.startsWith("/actuator/") ||
+               path.startsWith("/swagger-ui/") ||
+               path.startsWith("/v3/api-docs/") ||
+               path.equals("/favicon.ico");
+    }
+}
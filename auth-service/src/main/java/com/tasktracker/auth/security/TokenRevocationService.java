@@ -0,0 +1,157 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.entity.RevokedToken;
+import com.tasktracker.auth.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Список отозванных access токенов (по claim jti)
+ *
+ * Точный список хранится в БД и в памяти; потребителям публикуется компактный
+ * снимок - фильтр Блума с версией (GET /auth/revocations/bloom). Gateway проверяет
+ * jti по фильтру локально и запрашивает точный ответ (GET /auth/revocations/{jti})
+ * только при попадании, поэтому на обычный запрос отзыв ничего не стоит.
+ *
+ * Снимок перестраивается не чаще раза в snapshot-interval-ms и только при изменении
+ * списка; записи удаляются после истечения срока действия токена.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    /**
+     * Минимальный размер фильтра: небольшие изменения списка не меняют его параметры
+     */
+    private static final int MIN_CAPACITY = 1024;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long snapshotIntervalMs;
+    private final double falsePositiveRate;
+    private final LongSupplier clock;
+
+    /**
+     * Отозванные jti и время истечения токенов (мс)
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty = true;
+    private volatile Snapshot snapshot;
+    private long version;
+    private long builtAt;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${auth.revocation.snapshot-interval-ms:5000}") long snapshotIntervalMs,
+                                  @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(revokedTokenRepository, snapshotIntervalMs, falsePositiveRate, System::currentTimeMillis);
+    }
+
+    TokenRevocationService(RevokedTokenRepository revokedTokenRepository, long snapshotIntervalMs,
+                           double falsePositiveRate, LongSupplier clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.falsePositiveRate = falsePositiveRate;
+        this.clock = clock;
+        // Версия от времени старта: после перезапуска ETag не совпадет с прежним
+        this.version = clock.getAsLong();
+        this.builtAt = Long.MIN_VALUE / 2;
+    }
+
+    /**
+     * Загрузка действующих отзывов из БД при старте
+     */
+    @PostConstruct
+    void load() {
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(Instant.ofEpochMilli(clock.getAsLong()))) {
+            revoked.put(token.getJti(), token.getExpiresAt().toEpochMilli());
+        }
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Отзыв access токена
+     *
+     * @param jti идентификатор токена
+     * @param expiresAt срок действия токена; истекшие токены не сохраняются
+     */
+    public void revoke(String jti, Date expiresAt) {
+        long now = clock.getAsLong();
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= now) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt.toInstant()));
+        revoked.put(jti, expiresAt.getTime());
+        dirty = true;
+        logger.info("Token revoked: {}", jti);
+    }
+
+    /**
+     * Точная проверка отзыва
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > clock.getAsLong();
+    }
+
+    /**
+     * Текущий снимок фильтра; при необходимости перестраивается
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        long now = clock.getAsLong();
+        if (current != null && now - builtAt < snapshotIntervalMs) {
+            return current;
+        }
+        return rebuild(now);
+    }
+
+    private synchronized Snapshot rebuild(long now) {
+        if (snapshot != null && now - builtAt < snapshotIntervalMs) {
+            return snapshot;
+        }
+        builtAt = now;
+
+        boolean expired = revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (expired) {
+            int deleted = revokedTokenRepository.deleteExpired(Instant.ofEpochMilli(now));
+            logger.debug("Deleted {} expired revoked tokens", deleted);
+        }
+        if (snapshot != null && !dirty && !expired) {
+            return snapshot;
+        }
+
+        dirty = false;
+        BloomFilter filter = BloomFilter.create(Math.max(MIN_CAPACITY, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(filter::put);
+        snapshot = new Snapshot(++version, filter.numBits(), filter.numHashes(), revoked.size(), filter.toBase64());
+        logger.debug("Revocation snapshot {} built: {} entries, {} bits", version, revoked.size(), filter.numBits());
+        return snapshot;
+    }
+
+    /**
+     * Снимок фильтра Блума для потребителей
+     *
+     * @param version версия снимка (ETag)
+     * @param numBits размер фильтра в битах
+     * @param numHashes число хеш-функций
+     * @param entries число отозванных токенов в фильтре
+     * @param bits биты фильтра в base64
+     */
+    public record Snapshot(long version, int numBits, int numHashes, int entries, String bits) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш признака "аккаунт активен" для проверки JWT запросов
+ * 
+ * Токен сам по себе не знает, что пользователя деактивировали или удалили после выдачи.
+ * Вместо загрузки пользователя на каждый запрос признак enabled читается одним
+ * запросом по уникальному индексу username и хранится ttl-seconds.
+ * При изменении или удалении пользователя запись сбрасывается (UserStatusCacheListener),
+ * поэтому TTL ограничивает только изменения, сделанные в обход JPA (например, SQL напрямую)
+ */
+@Component
+public class UserStatusCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserStatusCache.class);
+    
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${auth.user-status-cache.ttl-seconds:30}") long ttlSeconds,
+                           @Value("${auth.user-status-cache.max-entries:10000}") int maxEntries) {
+        this(userRepository, ttlSeconds, maxEntries, System::nanoTime);
+    }
+    
+    UserStatusCache(UserRepository userRepository, long ttlSeconds, int maxEntries, LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+    
+    /**
+     * Активен ли аккаунт пользователя
+     * 
+     * @param username имя пользователя из токена
+     * @return false, если пользователь деактивирован или не существует
+     */
+    public boolean isEnabled(String username) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            return entry.enabled();
+        }
+        
+        boolean enabled = userRepository.findEnabledByUsername(username).orElse(false);
+        if (entries.size() >= maxEntries) {
+            // Простое ограничение памяти: кэш заполняется заново при следующих запросах
+            entries.clear();
+        }
+        entries.put(username, new Entry(enabled, now));
+        return enabled;
+    }
+    
+    /**
+     * Сброс записи при изменении аккаунта
+     */
+    public void evict(String username) {
+        if (username != null && entries.remove(username) != null) {
+            logger.debug("User status cache evicted for '{}'", username);
+        }
+    }
+    
+    private record Entry(boolean enabled, long loadedAt) {
+    }
+}
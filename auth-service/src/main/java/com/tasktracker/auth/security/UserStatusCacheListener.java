@@ -0,0 +1,33 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener сущности User: сбрасывает UserStatusCache при любом изменении аккаунта
+ * 
+ * Создается Hibernate через Spring (SpringBeanContainer). В тестовых срезах без
+ * UserStatusCache (например, @DataJpaTest) ничего не делает
+ */
+public class UserStatusCacheListener {
+    
+    @Autowired
+    private ObjectProvider<UserStatusCache> userStatusCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        if (userStatusCache == null) {
+            return;
+        }
+        UserStatusCache cache = userStatusCache.getIfAvailable();
+        if (cache != null) {
+            cache.evict(user.getUsername());
+        }
+    }
+}
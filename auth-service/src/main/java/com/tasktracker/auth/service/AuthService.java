@@ -2,21 +2,46 @@ package com.tasktracker.auth.service;
 
 import com.tasktracker.auth.dto.AuthResponse;
 import com.tasktracker.auth.dto.LoginRequest;
+import com.tasktracker.auth.dto.RefreshTokenRequest;
 import com.tasktracker.auth.dto.RegisterRequest;
 import com.tasktracker.auth.dto.UserResponse;
+import com.tasktracker.auth.dto.UserSummary;
 import com.tasktracker.auth.entity.User;
+import com.tasktracker.auth.event.AuthEventPublisher;
+import com.tasktracker.auth.event.AuthEventType;
 import com.tasktracker.auth.repository.UserRepository;
+import com.tasktracker.auth.security.ClientAddress;
+import com.tasktracker.auth.security.InvalidRefreshTokenException;
+import com.tasktracker.auth.security.JwtClaims;
 import com.tasktracker.auth.security.JwtService;
+import com.tasktracker.auth.security.AccountBadCredentialsException;
+import com.tasktracker.auth.security.LoginThrottle;
+import com.tasktracker.auth.security.LoginThrottledException;
+import com.tasktracker.auth.security.PasswordHashingRejectedException;
+import com.tasktracker.auth.security.RefreshTokenService;
+import com.tasktracker.auth.security.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Сервис аутентификации и регистрации
  * 
@@ -24,6 +49,7 @@ import org.springframework.transaction.annotation.Transactional;
  * - Регистрации новых пользователей
  * - Аутентификации пользователей
  * - Генерации JWT токенов
+ * - Обновления токенов по refresh токену
  * - Получения информации о пользователе
  */
 @Service
@@ -32,6 +58,12 @@ public class AuthService {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     
+    /**
+     * Столбец users в тексте ошибки уникальности: "key (username)", "key (lower((email)::text))", "users(email"
+     */
+    private static final Pattern DUPLICATE_KEY_COLUMN =
+        Pattern.compile("(?:key \\((?:lower\\(+)?|users\\()\"?(username|email)\\b");
+    
     /**
      * Репозиторий для работы с пользователями
      */
@@ -50,34 +82,53 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
     
+    /**
+     * Сервис refresh токенов
+     */
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    /**
+     * Список отозванных access токенов
+     */
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     /**
      * Менеджер аутентификации Spring Security
      */
     @Autowired
     private AuthenticationManager authenticationManager;
     
+    /**
+     * Публикация событий пользователя в Kafka (после коммита транзакции)
+     */
+    @Autowired
+    private AuthEventPublisher authEventPublisher;
+    
+    /**
+     * Ограничение перебора паролей по username и IP
+     */
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    /**
+     * IP клиента с учетом доверенного Gateway
+     */
+    @Autowired
+    private ClientAddress clientAddress;
+    
     /**
      * Регистрация нового пользователя
      * 
      * @param registerRequest данные для регистрации
      * @return AuthResponse с JWT токеном и информацией о пользователе
+     * @throws PasswordHashingRejectedException если пул хеширования паролей перегружен
      * @throws RuntimeException если пользователь уже существует или данные некорректны
      */
     public AuthResponse register(RegisterRequest registerRequest) {
         logger.info("Registering new user: {}", registerRequest.getUsername());
         
-        // Проверяем, существует ли пользователь с таким именем
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            logger.error("Username already exists: {}", registerRequest.getUsername());
-            throw new RuntimeException("Username already exists");
-        }
-        
-        // Проверяем, существует ли пользователь с таким email
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            logger.error("Email already exists: {}", registerRequest.getEmail());
-            throw new RuntimeException("Email already exists");
-        }
-        
         // Проверяем, совпадают ли пароли
         if (!registerRequest.getPassword().equals(registerRequest.getConfirmPassword())) {
             logger.error("Passwords do not match for user: {}", registerRequest.getUsername());
@@ -92,15 +143,79 @@ public class AuthService {
         user.setRole(registerRequest.getRole());
         user.setEnabled(true);
         
-        // Сохраняем пользователя в БД
-        user = userRepository.save(user);
-        
-        // Генерируем JWT токен
-        String jwt = jwtService.generateToken(user);
+        // Один INSERT без предварительных existsBy*: занятость username/email проверяют
+        // ограничения уникальности БД (INSERT с IDENTITY выполняется сразу при save)
+        try {
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(registerRequest, e);
+        }
         
         logger.info("User registered successfully: {}", user.getUsername());
         
-        return new AuthResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+        authEventPublisher.publish(AuthEventType.USER_REGISTERED, user);
+        
+        // Генерируем access и refresh токены
+        return issueTokens(user, refreshTokenService.issue(user.getId()));
+    }
+    
+    /**
+     * Преобразование нарушения уникальности при регистрации в ошибку с занятым полем
+     * 
+     * Поле определяется сначала по имени ограничения (User.USERNAME_CONSTRAINT / EMAIL_CONSTRAINT,
+     * индексы ux_users_*_lower, users_*_key PostgreSQL). В существующих БД под ddl-auto: update
+     * ограничения сохраняют сгенерированные Hibernate имена (uk_...) без имени столбца - тогда
+     * поле берется из текста ошибки драйвера: "Key (username)=..." / "Key (lower((email)::text))=..."
+     * в PostgreSQL, "USERS(USERNAME ...)" в H2. Повторный запрос в БД здесь невозможен:
+     * транзакция PostgreSQL после ошибки INSERT уже прервана.
+     */
+    private RuntimeException duplicateUser(RegisterRequest registerRequest, DataIntegrityViolationException e) {
+        String field = duplicateField(constraintName(e));
+        if (field == null) {
+            field = duplicateColumn(String.valueOf(e.getMostSpecificCause().getMessage()));
+        }
+        
+        if ("email".equals(field)) {
+            logger.error("Email already exists: {}", registerRequest.getEmail());
+            return new RuntimeException("Email already exists");
+        }
+        if ("username".equals(field)) {
+            logger.error("Username already exists: {}", registerRequest.getUsername());
+            return new RuntimeException("Username already exists");
+        }
+        logger.error("Unrecognized unique violation while registering {}", registerRequest.getUsername(), e);
+        return e;
+    }
+    
+    /**
+     * Имя ограничения из ConstraintViolationException Hibernate в цепочке причин
+     */
+    private static String constraintName(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+    
+    private static String duplicateField(String constraintName) {
+        if (constraintName == null) {
+            return null;
+        }
+        String name = constraintName.toLowerCase(Locale.ROOT);
+        if (name.contains("email")) {
+            return "email";
+        }
+        if (name.contains("username")) {
+            return "username";
+        }
+        return null;
+    }
+    
+    private static String duplicateColumn(String message) {
+        Matcher matcher = DUPLICATE_KEY_COLUMN.matcher(message.toLowerCase(Locale.ROOT));
+        return matcher.find() ? matcher.group(1) : null;
     }
     
     /**
@@ -108,11 +223,18 @@ public class AuthService {
      * 
      * @param loginRequest данные для входа
      * @return AuthResponse с JWT токеном и информацией о пользователе
+     * @throws PasswordHashingRejectedException если пул хеширования паролей перегружен
+     * @throws LoginThrottledException если вход заблокирован после серии неудач
      * @throws RuntimeException если данные некорректны
      */
     public AuthResponse authenticate(LoginRequest loginRequest) {
         logger.info("Authenticating user: {}", loginRequest.getUsernameOrEmail());
         
+        // Заблокированные логин/IP отклоняются до загрузки пользователя и BCrypt
+        String login = loginRequest.getUsernameOrEmail();
+        String clientIp = clientAddress.current();
+        loginThrottle.check(login, clientIp);
+        
         try {
             // Аутентификация через Spring Security
             Authentication authentication = authenticationManager.authenticate(
@@ -125,19 +247,87 @@ public class AuthService {
             // Получаем аутентифицированного пользователя
             User user = (User) authentication.getPrincipal();
             
-            // Генерируем JWT токен
-            String jwt = jwtService.generateToken(user);
-            
             logger.info("User authenticated successfully: {}", user.getUsername());
+            loginThrottle.recordSuccess(login, user.getUsername());
+            
+            authEventPublisher.publish(AuthEventType.USER_LOGIN, user);
             
-            return new AuthResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+            // Генерируем access и refresh токены
+            return issueTokens(user, refreshTokenService.issue(user.getId()));
             
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            // DaoAuthenticationProvider оборачивает ошибки, возникшие при поиске пользователя
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                throw rejected;
+            }
+            logger.error("Authentication failed for user: {}", loginRequest.getUsernameOrEmail(), e);
+            throw new RuntimeException("Invalid username or password");
+        } catch (AccountBadCredentialsException e) {
+            // Неверный пароль: неудача учитывается под username, найденным при аутентификации
+            loginThrottle.recordFailure(login, e.getUsername(), clientIp);
+            logger.error("Authentication failed for user: {}", loginRequest.getUsernameOrEmail(), e);
+            throw new RuntimeException("Invalid username or password");
+        } catch (AuthenticationException e) {
+            // Неизвестный или отключенный пользователь - учитываем под введенным логином
+            loginThrottle.recordFailure(login, login, clientIp);
+            logger.error("Authentication failed for user: {}", loginRequest.getUsernameOrEmail(), e);
+            throw new RuntimeException("Invalid username or password");
         } catch (Exception e) {
             logger.error("Authentication failed for user: {}", loginRequest.getUsernameOrEmail(), e);
             throw new RuntimeException("Invalid username or password");
         }
     }
     
+    /**
+     * Обновление токенов по refresh токену
+     * 
+     * Предъявленный refresh токен становится недействительным, выдается новая пара.
+     * Повторное предъявление уже обмененного токена отзывает всю цепочку
+     * (отзыв сохраняется, несмотря на исключение)
+     * 
+     * @param request refresh токен
+     * @return AuthResponse с новыми access и refresh токенами
+     * @throws InvalidRefreshTokenException если токен недействителен или пользователь заблокирован
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        
+        User user = userRepository.findById(rotation.userId())
+            .filter(User::isEnabled)
+            .orElseThrow(() -> {
+                logger.warn("Refresh rejected for missing or disabled user: {}", rotation.userId());
+                refreshTokenService.revokeAll(rotation.userId());
+                return new InvalidRefreshTokenException("User is not active");
+            });
+        
+        logger.debug("Tokens refreshed for user: {}", user.getUsername());
+        return issueTokens(user, rotation.refreshToken());
+    }
+    
+    /**
+     * Выход из системы: отзыв цепочки refresh токенов и текущего access токена
+     * 
+     * Без access токена он остается действительным до истечения короткого срока жизни
+     * 
+     * @param request refresh токен
+     * @param accessToken access токен из заголовка Authorization (может отсутствовать)
+     */
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        
+        if (accessToken != null) {
+            try {
+                JwtClaims claims = jwtService.parseToken(accessToken);
+                tokenRevocationService.revoke(claims.tokenId(), claims.expiration());
+            } catch (JwtException e) {
+                logger.debug("Access token not revoked on logout: {}", e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Получение информации о пользователе по ID
      * 
@@ -203,6 +393,34 @@ public class AuthService {
         return jwtService.extractUsername(token);
     }
     
+    /**
+     * Краткая информация о нескольких пользователях одним запросом
+     * 
+     * Повторяющиеся ID схлопываются, несуществующие пропускаются
+     * 
+     * @param ids ID пользователей
+     * @return найденные пользователи
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUserSummaries(Collection<Long> ids) {
+        logger.debug("Getting {} users by ID", ids.size());
+        
+        return userRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+            .map(user -> new UserSummary(user.getId(), user.getUsername(), user.getRole()))
+            .toList();
+    }
+    
+    /**
+     * Ответ с новым access токеном и переданным refresh токеном
+     */
+    private AuthResponse issueTokens(User user, String refreshToken) {
+        String jwt = jwtService.generateToken(user);
+        AuthResponse response = new AuthResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtService.getExpirationTime() / 1000);
+        return response;
+    }
+    
     /**
      * Преобразование User в UserResponse
      * 
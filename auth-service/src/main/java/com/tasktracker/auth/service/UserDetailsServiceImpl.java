@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,7 @@ import org.springframework.stereotype.Service;
  * Используется Spring Security для аутентификации
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
     
@@ -59,4 +60,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         // Возвращаем User (который реализует UserDetails)
         return user;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Сохранение пересчитанного хеша пароля
+     * 
+     * Вызывается DaoAuthenticationProvider после успешного входа, если хеш
+     * создан с устаревшими параметрами (например, меньшей сложностью BCrypt)
+     * 
+     * @param user аутентифицированный пользователь
+     * @param newPassword новый хеш пароля
+     * @return пользователь с обновленным хешем
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = (User) user;
+        entity.setPassword(newPassword);
+        User saved = userRepository.save(entity);
+        logger.info("Password hash upgraded for user: {}", saved.getUsername());
+        return saved;
+    }
+}
@@ -0,0 +1,6 @@
+-- Регистронезависимые уникальные индексы для логина и регистрации.
+-- Выполняется после создания схемы Hibernate (spring.jpa.defer-datasource-initialization);
+-- UserRepository.findByLowerUsername / findByLowerEmail сравнивают lower(столбец) с параметром
+-- в нижнем регистре, поэтому запросы используют эти индексы.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_username_lower ON users (lower(username));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users (lower(email));
@@ -0,0 +1,79 @@
+package com.tasktracker.auth.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для UserIndexHealthIndicator
+ */
+@DisplayName("UserIndexHealthIndicator Tests")
+class UserIndexHealthIndicatorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserIndexHealthIndicator indicator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        indicator = new UserIndexHealthIndicator(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should be UP when both case-insensitive indexes exist")
+    void shouldBeUpWhenIndexesExist() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+            .thenReturn(List.of("users_pkey", "uk_users_username", "ux_users_username_lower", "ux_users_email_lower"));
+
+        // When
+        Health health = indicator.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should be DOWN and list the index that schema-postgresql.sql failed to create")
+    void shouldBeDownWhenIndexIsMissing() {
+        // Given - ux_users_email_lower не создан из-за дубликатов email в разном регистре
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+            .thenReturn(List.of("users_pkey", "ux_users_username_lower"));
+
+        // When
+        Health health = indicator.health();
+
+        // Then
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals(List.of("ux_users_email_lower"), health.getDetails().get("missing"));
+    }
+
+    @Test
+    @DisplayName("Should skip the check on databases other than PostgreSQL")
+    @SuppressWarnings("unchecked")
+    void shouldSkipCheckOnOtherDatabases() {
+        // Given
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        // When
+        Health health = indicator.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+}
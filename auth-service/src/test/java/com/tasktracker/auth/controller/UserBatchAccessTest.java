@@ -0,0 +1,138 @@
+package com.tasktracker.auth.controller;
+
+import com.tasktracker.auth.config.SecurityConfig;
+import com.tasktracker.auth.dto.UserSummary;
+import com.tasktracker.auth.entity.Role;
+import com.tasktracker.auth.security.InternalIdentityVerifier;
+import com.tasktracker.auth.security.JwtService;
+import com.tasktracker.auth.security.PasswordHashingExecutor;
+import com.tasktracker.auth.security.ServiceIdentityFilter;
+import com.tasktracker.auth.security.TokenRevocationService;
+import com.tasktracker.auth.security.UserStatusCache;
+import com.tasktracker.auth.service.AuthService;
+import com.tasktracker.auth.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Доступ к POST /auth/users/batch: только сервисы с подписанной идентичностью и администраторы
+ */
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, InternalIdentityVerifier.class})
+@TestPropertySource(properties = "internal.identity.secret=" + UserBatchAccessTest.SECRET)
+@DisplayName("POST /auth/users/batch access")
+class UserBatchAccessTest {
+
+    static final String SECRET = "test-internal-identity-secret-32-bytes-min";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserStatusCache userStatusCache;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        when(authService.getUserSummaries(anyList()))
+            .thenReturn(List.of(new UserSummary(1L, "alice", Role.USER)));
+    }
+
+    @Test
+    @DisplayName("Сервис с подписанной идентичностью получает пользователей")
+    void serviceIdentity_ReturnsUsers() throws Exception {
+        mockMvc.perform(batch().header(ServiceIdentityFilter.HEADER, sign(SECRET, "task-service", "SERVICE")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].username").value("alice"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("Администратор получает пользователей")
+    void admin_ReturnsUsers() throws Exception {
+        mockMvc.perform(batch())
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("Обычный пользователь получает 403")
+    void user_IsForbidden() throws Exception {
+        mockMvc.perform(batch())
+            .andExpect(status().isForbidden());
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    @DisplayName("Подписанный заголовок пользователя от Gateway не дает доступа")
+    void gatewayUserIdentity_IsNotService() throws Exception {
+        mockMvc.perform(batch().header(ServiceIdentityFilter.HEADER, sign(SECRET, "42", "USER")))
+            .andExpect(status().isForbidden());
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    @DisplayName("Заголовок с чужой подписью - 401")
+    void forgedServiceIdentity_IsUnauthorized() throws Exception {
+        mockMvc.perform(batch().header(ServiceIdentityFilter.HEADER,
+                sign("another-internal-identity-secret-32-bytes", "task-service", "SERVICE")))
+            .andExpect(status().isUnauthorized());
+        verifyNoInteractions(authService);
+    }
+
+    private static MockHttpServletRequestBuilder batch() {
+        return post("/auth/users/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[1,2]}");
+    }
+
+    /**
+     * Заголовок в формате InternalIdentitySigner (Gateway) и ServiceIdentitySigner (Task Service)
+     */
+    private static String sign(String secret, String name, String roles) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long expiresAt = Instant.now().getEpochSecond() + 60;
+        String payload = encoder.encodeToString(String.join("\n", name, name, roles, Long.toString(expiresAt))
+            .getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "v1." + payload + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,164 @@
+package com.tasktracker.auth.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tasktracker.auth.entity.User;
+import com.tasktracker.auth.security.ClientAddress;
+import com.tasktracker.auth.util.TestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для AuthEventPublisher
+ *
+ * Тестируют:
+ * - Постановку события в очередь только после коммита транзакции
+ * - Формат сообщения для notification-service и audit-service
+ * - Отбрасывание событий при заполненной очереди
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthEventPublisher Tests")
+class AuthEventPublisherTest {
+
+    private static final String TOPIC = "auth-events";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = TestDataFactory.createRegularUser();
+        user.setId(42L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should enqueue event only after transaction commit")
+    void shouldEnqueueEventAfterCommit() {
+        // Given
+        AuthEventPublisher publisher = publisher(10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        publisher.publish(AuthEventType.USER_REGISTERED, user);
+        int pendingBeforeCommit = publisher.pending();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertEquals(0, pendingBeforeCommit);
+        assertEquals(1, publisher.pending());
+    }
+
+    @Test
+    @DisplayName("Should not publish event of rolled back transaction")
+    void shouldNotPublishRolledBackEvent() {
+        // Given
+        AuthEventPublisher publisher = publisher(10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        publisher.publish(AuthEventType.USER_REGISTERED, user);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(0, publisher.pending());
+        assertEquals(0, publisher.drainOnce());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Should send event readable by notification and audit services")
+    void shouldSendEventForBothConsumers() throws Exception {
+        // Given
+        AuthEventPublisher publisher = publisher(10);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(new CompletableFuture<>());
+        publisher.publish(AuthEventType.USER_LOGIN, user);
+
+        // When
+        int sent = publisher.drainOnce();
+
+        // Then
+        assertEquals(1, sent);
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq(TOPIC), eq("42"), payload.capture());
+        JsonNode event = objectMapper.readTree(payload.getValue());
+        assertEquals("USER_LOGIN", event.path("eventType").asText());
+        assertEquals("USER_LOGIN", event.path("action").asText());
+        assertEquals(42L, event.path("userId").asLong());
+        assertEquals(user.getEmail(), event.path("email").asText());
+        assertEquals("auth-service", event.path("serviceName").asText());
+        assertTrue(event.path("eventTime").isTextual(), "eventTime should be ISO date-time");
+    }
+
+    @Test
+    @DisplayName("Should map registration to audit USER_CREATED and read client IP")
+    void shouldBuildRegistrationEventFromRequest() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7");
+        request.addHeader("User-Agent", "JUnit");
+
+        // When - адрес, дописанный доверенным Gateway в конец X-Forwarded-For
+        var event = publisher(2).toEvent(AuthEventType.USER_REGISTERED, user, request);
+
+        // Then
+        assertEquals("USER_REGISTERED", event.get("eventType"));
+        assertEquals("USER_CREATED", event.get("action"));
+        assertEquals("203.0.113.7", event.get("ipAddress"));
+        assertEquals("JUnit", event.get("userAgent"));
+    }
+
+    @Test
+    @DisplayName("Should drop events when queue is full instead of blocking")
+    void shouldDropEventsWhenQueueIsFull() {
+        // Given
+        AuthEventPublisher publisher = publisher(2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(AuthEventType.USER_LOGIN, user);
+        }
+
+        // Then
+        assertEquals(2, publisher.pending());
+    }
+
+    private AuthEventPublisher publisher(int queueCapacity) {
+        return new AuthEventPublisher(kafkaTemplate, objectMapper, new ClientAddress(List.of("127.0.0.1")),
+                new SimpleMeterRegistry(), true, TOPIC, queueCapacity, 256, 50);
+    }
+}
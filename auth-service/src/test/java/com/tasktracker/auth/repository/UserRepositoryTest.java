@@ -3,12 +3,14 @@ package com.tasktracker.auth.repository;
 import com.tasktracker.auth.entity.Role;
 import com.tasktracker.auth.entity.User;
 import com.tasktracker.auth.util.TestDataFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -165,6 +167,23 @@ class UserRepositoryTest {
         assertEquals(testUser.getEmail(), foundUser.get().getEmail(), "Email should match");
     }
     
+    /**
+     * Тест поиска для логина без учета регистра
+     */
+    @Test
+    @DisplayName("Should find user by username or email ignoring case")
+    void shouldFindUserByUsernameOrEmailIgnoringCase() {
+        // When
+        Optional<User> byUsername = userRepository.findByUsernameOrEmail(testUser.getUsername().toUpperCase());
+        Optional<User> byEmail = userRepository.findByUsernameOrEmail(" " + testUser.getEmail().toUpperCase() + " ");
+        
+        // Then
+        assertTrue(byUsername.isPresent(), "User should be found by username");
+        assertTrue(byEmail.isPresent(), "User should be found by email");
+        assertEquals(testUser.getId(), byUsername.get().getId(), "User ID should match");
+        assertEquals(testUser.getId(), byEmail.get().getId(), "User ID should match");
+    }
+    
     /**
      * Тест проверки существования пользователя по username
      */
@@ -337,6 +356,26 @@ class UserRepositoryTest {
         }, "Should throw exception for duplicate email");
     }
     
+    /**
+     * Тест имени нарушенного ограничения (по нему AuthService.register определяет занятое поле)
+     */
+    @Test
+    @DisplayName("Should report named constraint for duplicate email")
+    void shouldReportNamedConstraintForDuplicateEmail() {
+        // Given
+        User duplicateUser = TestDataFactory.createUser("different", testUser.getEmail(), "password", Role.USER);
+        
+        // When
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            userRepository.saveAndFlush(duplicateUser);
+        });
+        
+        // Then
+        ConstraintViolationException violation = assertInstanceOf(ConstraintViolationException.class, exception.getCause());
+        assertTrue(violation.getConstraintName().toLowerCase().contains(User.EMAIL_CONSTRAINT),
+            "Constraint name should identify email: " + violation.getConstraintName());
+    }
+    
     /**
      * Тест сортировки пользователей
      */
@@ -371,4 +410,5 @@ class UserRepositoryTest {
         // Then
         assertEquals(2, count, "Should count 2 users");
     }
-} 
\ No newline at end of file
+
+}
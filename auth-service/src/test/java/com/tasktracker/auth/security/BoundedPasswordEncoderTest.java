@@ -0,0 +1,81 @@
+package com.tasktracker.auth.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для BoundedPasswordEncoder и PasswordHashingExecutor
+ *
+ * Тестируют:
+ * - Хеширование и проверку пароля в отдельном пуле
+ * - Отклонение задач при заполненном пуле и очереди
+ * - Признак повторного хеширования при повышении сложности BCrypt
+ */
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should encode and match password in hashing pool")
+    void shouldEncodeAndMatchInHashingPool() {
+        // Given
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor);
+
+        // When
+        String hash = encoder.encode("password123");
+
+        // Then
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    @DisplayName("Should reject hashing when pool and queue are full")
+    void shouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        // Given - единственный поток занят, единственное место в очереди тоже
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> true));
+        while (executor.hasCapacity()) {
+            Thread.sleep(5);
+        }
+
+        // When & Then
+        assertThrows(PasswordHashingRejectedException.class, () -> executor.execute(() -> true));
+        release.countDown();
+        assertEquals(true, running.get(5, TimeUnit.SECONDS));
+        assertEquals(true, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should request upgrade for hashes weaker than configured strength")
+    void shouldRequestUpgradeForWeakerHashes() {
+        // Given
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), executor);
+
+        // When & Then
+        assertTrue(encoder.upgradeEncoding(weakHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password123")));
+    }
+}
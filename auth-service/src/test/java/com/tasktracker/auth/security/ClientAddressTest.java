@@ -0,0 +1,67 @@
+package com.tasktracker.auth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ClientAddress
+ */
+@DisplayName("ClientAddress Tests")
+class ClientAddressTest {
+
+    private static final String GATEWAY = "10.0.0.5";
+
+    private final ClientAddress clientAddress = new ClientAddress(List.of(GATEWAY, "::1"));
+
+    @Test
+    @DisplayName("Should ignore X-Forwarded-For on direct connections")
+    void shouldIgnoreForwardedForFromUntrustedConnection() {
+        // Given - клиент обращается к порту 8081 напрямую и подставляет разные адреса
+        MockHttpServletRequest first = request("203.0.113.7", "198.51.100.1");
+        MockHttpServletRequest second = request("203.0.113.7", "198.51.100.2, 192.0.2.9");
+
+        // Then - ключ блокировки не меняется
+        assertEquals("203.0.113.7", clientAddress.of(first));
+        assertEquals("203.0.113.7", clientAddress.of(second));
+    }
+
+    @Test
+    @DisplayName("Should take the address appended by the trusted gateway")
+    void shouldUseLastForwardedForEntryFromGateway() {
+        // Given - первый адрес подставлен клиентом, последний дописал Gateway
+        MockHttpServletRequest spoofed = request(GATEWAY, "198.51.100.1, 203.0.113.7");
+        MockHttpServletRequest plain = request(GATEWAY, "203.0.113.7");
+
+        // Then
+        assertEquals("203.0.113.7", clientAddress.of(spoofed));
+        assertEquals("203.0.113.7", clientAddress.of(plain));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the connection address without X-Forwarded-For")
+    void shouldUseRemoteAddressWithoutForwardedFor() {
+        assertEquals(GATEWAY, clientAddress.of(request(GATEWAY, null)));
+        assertEquals(GATEWAY, clientAddress.of(request(GATEWAY, " ")));
+    }
+
+    @Test
+    @DisplayName("Should match IPv6 proxies regardless of notation")
+    void shouldMatchIpv6ProxyInAnyNotation() {
+        assertTrue(clientAddress.isTrustedProxy("0:0:0:0:0:0:0:1"));
+        assertFalse(clientAddress.isTrustedProxy("127.0.0.1"));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tasktracker.auth.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для JwtKeyManager
+ *
+ * Тестируют:
+ * - Ротацию ключа подписи по интервалу
+ * - Хранение выведенных ключей, пока живут подписанные ими токены
+ * - Формат JWK Set
+ */
+@DisplayName("JwtKeyManager Tests")
+class JwtKeyManagerTest {
+
+    private static final long ROTATION_MS = 1000;
+    private static final long TOKEN_LIFETIME_MS = 1500;
+
+    private final AtomicLong now = new AtomicLong(10_000);
+
+    private JwtKeyManager keyManager;
+
+    @BeforeEach
+    void setUp() {
+        keyManager = new JwtKeyManager(ROTATION_MS, TOKEN_LIFETIME_MS, now::get);
+    }
+
+    @Test
+    @DisplayName("Should sign with pre-published next key after rotation")
+    void shouldRotateToPrePublishedKey() {
+        // Given
+        String first = keyManager.currentKey().kid();
+        List<String> publishedBefore = kids(keyManager.jwks());
+
+        // When
+        now.addAndGet(ROTATION_MS);
+        String second = keyManager.currentKey().kid();
+
+        // Then
+        assertNotEquals(first, second, "Key should be rotated");
+        assertTrue(publishedBefore.contains(second), "Next key should be published before use");
+        assertNotNull(keyManager.verificationKey(first), "Retired key should still verify tokens");
+    }
+
+    @Test
+    @DisplayName("Should drop retired key after token lifetime")
+    void shouldDropRetiredKeyAfterTokenLifetime() {
+        // Given
+        String first = keyManager.currentKey().kid();
+        now.addAndGet(ROTATION_MS);
+        keyManager.currentKey();
+
+        // When
+        now.addAndGet(ROTATION_MS);
+        keyManager.currentKey();
+        now.addAndGet(ROTATION_MS);
+        keyManager.currentKey();
+
+        // Then
+        assertNull(keyManager.verificationKey(first), "Key retired longer than token lifetime should be removed");
+        assertNull(keyManager.verificationKey("unknown"), "Unknown kid should not resolve");
+        assertNull(keyManager.verificationKey(null), "Missing kid should not resolve");
+    }
+
+    @Test
+    @DisplayName("Should publish RSA public keys as JWK")
+    @SuppressWarnings("unchecked")
+    void shouldPublishRsaJwk() {
+        // Given
+        JwtKeyManager.SigningKey current = keyManager.currentKey();
+        RSAPublicKey publicKey = (RSAPublicKey) current.keyPair().getPublic();
+
+        // When
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) keyManager.jwks().get("keys");
+        Map<String, Object> jwk = keys.stream()
+            .filter(key -> current.kid().equals(key.get("kid")))
+            .findFirst()
+            .orElseThrow();
+
+        // Then
+        assertEquals("RSA", jwk.get("kty"));
+        assertEquals("RS256", jwk.get("alg"));
+        assertEquals("sig", jwk.get("use"));
+        assertEquals(publicKey.getModulus(), decode((String) jwk.get("n")));
+        assertEquals(publicKey.getPublicExponent(), decode((String) jwk.get("e")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> kids(Map<String, Object> jwks) {
+        return ((List<Map<String, Object>>) jwks.get("keys")).stream()
+            .map(key -> (String) key.get("kid"))
+            .toList();
+    }
+
+    private static BigInteger decode(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -274,4 +274,44 @@ class JwtServiceTest extends TestBase {
         String extractedRole = jwtService.extractRole(token);
         assertEquals("ROLE_ADMIN", extractedRole, "Role should be ADMIN");
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Тест извлечения всех данных токена за один разбор
+     */
+    @Test
+    @DisplayName("Should parse all token fields at once")
+    void shouldParseAllTokenFieldsAtOnce() {
+        // Given
+        User user = TestDataFactory.createRegularUser();
+        user.setId(42L);
+        String token = jwtService.generateToken(user);
+        
+        // When
+        JwtClaims claims = jwtService.parseToken(token);
+        
+        // Then
+        assertEquals(user.getUsername(), claims.username(), "Username should match");
+        assertEquals(42L, claims.userId(), "User ID should match");
+        assertEquals("ROLE_USER", claims.role(), "Role should match");
+        assertNotNull(claims.issuedAt(), "Issued at should not be null");
+        assertTrue(claims.expiration().after(new Date()), "Expiration should be in the future");
+    }
+    
+    /**
+     * Тест общих неизменяемых authorities роли
+     */
+    @Test
+    @DisplayName("Should share precomputed immutable authorities per role")
+    void shouldSharePrecomputedAuthoritiesPerRole() {
+        // Given
+        User first = TestDataFactory.createRegularUser();
+        User second = TestDataFactory.createUser("other", "other@example.com", "password123", Role.USER);
+        
+        // When & Then
+        assertSame(first.getAuthorities(), second.getAuthorities(), "Users with one role should share authorities");
+        assertSame(Role.ADMIN.getAuthorities(), Role.authoritiesOf("ROLE_ADMIN"), "Token role should map to same list");
+        assertEquals("ROLE_USER", Role.USER.getAuthorities().get(0).getAuthority());
+        assertEquals("ROLE_CUSTOM", Role.authoritiesOf("ROLE_CUSTOM").get(0).getAuthority());
+        assertThrows(UnsupportedOperationException.class, () -> Role.USER.getAuthorities().clear());
+    }
+}
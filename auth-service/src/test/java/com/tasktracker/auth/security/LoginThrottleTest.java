@@ -0,0 +1,174 @@
+package com.tasktracker.auth.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для LoginThrottle
+ *
+ * Тестируют:
+ * - Экспоненциальную задержку сверх порога
+ * - Блокировку по username и IP и near-cache без обращения к Redis
+ * - Сброс неудач по username после успешного входа
+ * - Работу без Redis
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LoginThrottle Tests")
+class LoginThrottleTest {
+
+    private static final String LOGIN = "User@Example.com";
+    private static final String IP = "203.0.113.7";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottle = new LoginThrottle(redisTemplate, true, 900, 5, 50, 1000, 60_000, now::get);
+    }
+
+    @Test
+    @DisplayName("Should double delay for each failure over threshold up to maximum")
+    void shouldGrowDelayExponentially() {
+        assertEquals(0, loginThrottle.delay(5, 5));
+        assertEquals(1000, loginThrottle.delay(6, 5));
+        assertEquals(2000, loginThrottle.delay(7, 5));
+        assertEquals(32_000, loginThrottle.delay(11, 5));
+        assertEquals(60_000, loginThrottle.delay(12, 5));
+        assertEquals(60_000, loginThrottle.delay(1_000, 5));
+    }
+
+    @Test
+    @DisplayName("Should block username over threshold and reject next attempt from near-cache")
+    void shouldBlockUsernameAndUseNearCache() {
+        // Given - 7-я неудача по username, 7-я по IP
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(7L, 7L));
+
+        // When
+        loginThrottle.recordFailure(LOGIN, LOGIN, IP);
+
+        // Then - блокировка username на 2 с, IP ниже порога
+        verify(valueOperations).set(eq(LoginThrottle.BLOCK_PREFIX + "user:user@example.com"),
+                eq(String.valueOf(now.get() + 2000)), eq(Duration.ofMillis(2000)));
+        verify(valueOperations, never()).set(eq(LoginThrottle.BLOCK_PREFIX + "ip:" + IP), anyString(), any(Duration.class));
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.check("user@example.com", "198.51.100.1"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        verify(valueOperations, never()).multiGet(anyList());
+
+        // Блокировка истекла - решение снова за Redis
+        now.addAndGet(2000);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        assertDoesNotThrow(() -> loginThrottle.check(LOGIN, IP));
+    }
+
+    @Test
+    @DisplayName("Should count email login failures under username and block both")
+    void shouldCountEmailFailuresUnderUsername() {
+        // Given - 6-я неудача по username владельца email
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString()))
+                .thenReturn(List.of(6L, 6L));
+        long window = now.get() / 900_000;
+
+        // When
+        loginThrottle.recordFailure(LOGIN, "JDoe", IP);
+
+        // Then - счетчик ведется по username, блокируются и username, и введенный email
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(
+                LoginThrottle.FAILURES_PREFIX + "user:jdoe:" + window,
+                LoginThrottle.FAILURES_PREFIX + "user:jdoe:" + (window - 1),
+                LoginThrottle.FAILURES_PREFIX + "ip:" + IP + ":" + window,
+                LoginThrottle.FAILURES_PREFIX + "ip:" + IP + ":" + (window - 1))), anyString(), anyString());
+        verify(valueOperations).set(eq(LoginThrottle.BLOCK_PREFIX + "user:jdoe"), anyString(), eq(Duration.ofMillis(1000)));
+        verify(valueOperations).set(eq(LoginThrottle.BLOCK_PREFIX + "user:user@example.com"), anyString(),
+                eq(Duration.ofMillis(1000)));
+        assertThrows(LoginThrottledException.class, () -> loginThrottle.check("jdoe", null));
+        assertThrows(LoginThrottledException.class, () -> loginThrottle.check(LOGIN, null));
+
+        // Успешный вход снимает обе блокировки
+        loginThrottle.recordSuccess(LOGIN, "JDoe");
+        verify(redisTemplate).delete(List.of(
+                LoginThrottle.FAILURES_PREFIX + "user:jdoe:" + window,
+                LoginThrottle.FAILURES_PREFIX + "user:jdoe:" + (window - 1),
+                LoginThrottle.BLOCK_PREFIX + "user:jdoe",
+                LoginThrottle.BLOCK_PREFIX + "user:user@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should reject login blocked by another instance via Redis")
+    void shouldRejectBlockFromRedis() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of(
+                LoginThrottle.BLOCK_PREFIX + "user:user@example.com",
+                LoginThrottle.BLOCK_PREFIX + "ip:" + IP)))
+                .thenReturn(Arrays.asList(null, String.valueOf(now.get() + 4500)));
+
+        // When & Then
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.check(LOGIN, IP));
+        assertEquals(5, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    @DisplayName("Should reset username failures after successful login")
+    void shouldResetUsernameFailuresOnSuccess() {
+        // Given
+        long window = now.get() / 900_000;
+
+        // When
+        loginThrottle.recordSuccess(LOGIN, LOGIN);
+
+        // Then
+        verify(redisTemplate).delete(List.of(
+                LoginThrottle.FAILURES_PREFIX + "user:user@example.com:" + window,
+                LoginThrottle.FAILURES_PREFIX + "user:user@example.com:" + (window - 1),
+                LoginThrottle.BLOCK_PREFIX + "user:user@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should allow login and pause Redis calls when Redis is unavailable")
+    void shouldFailOpenWhenRedisIsUnavailable() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When & Then
+        assertDoesNotThrow(() -> loginThrottle.check(LOGIN, IP));
+        loginThrottle.recordFailure(LOGIN, LOGIN, IP);
+        assertDoesNotThrow(() -> loginThrottle.check(LOGIN, IP));
+        verify(valueOperations, times(1)).multiGet(anyList());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -0,0 +1,116 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.entity.RefreshToken;
+import com.tasktracker.auth.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для RefreshTokenService
+ *
+ * Тестируют:
+ * - Хранение только хеша токена
+ * - Ротацию токена в пределах цепочки
+ * - Отзыв цепочки при повторном использовании
+ * - Отклонение истекших и неизвестных токенов
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final long LIFETIME = 60_000;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, LIFETIME, now::get);
+    }
+
+    @Test
+    @DisplayName("Should store only token hash on issue")
+    void shouldStoreOnlyTokenHash() {
+        // When
+        String rawToken = refreshTokenService.issue(1L);
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertNotEquals(rawToken, saved.getTokenHash());
+        assertEquals(RefreshTokenService.hash(rawToken), saved.getTokenHash());
+        assertEquals(1L, saved.getUserId());
+        assertEquals(Instant.ofEpochMilli(now.get() + LIFETIME), saved.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Should rotate token within the same family")
+    void shouldRotateTokenWithinFamily() {
+        // Given
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                Instant.ofEpochMilli(now.get() + LIFETIME));
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        // Then
+        assertTrue(stored.isUsed());
+        assertEquals(1L, rotation.userId());
+        assertNotEquals("raw", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+        List<RefreshToken> saved = captor.getAllValues();
+        assertEquals("family-1", saved.get(1).getFamilyId());
+        assertEquals(RefreshTokenService.hash(rotation.refreshToken()), saved.get(1).getTokenHash());
+    }
+
+    @Test
+    @DisplayName("Should revoke family when used token is presented again")
+    void shouldRevokeFamilyOnReuse() {
+        // Given
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                Instant.ofEpochMilli(now.get() + LIFETIME));
+        stored.setUsed(true);
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(Optional.of(stored));
+
+        // When & Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw"));
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject expired and unknown tokens")
+    void shouldRejectExpiredAndUnknownTokens() {
+        // Given
+        RefreshToken stored = new RefreshToken(RefreshTokenService.hash("raw"), "family-1", 1L,
+                Instant.ofEpochMilli(now.get() + LIFETIME));
+        when(refreshTokenRepository.findByTokenHashForUpdate(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        now.addAndGet(LIFETIME);
+
+        // When & Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,127 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.entity.RevokedToken;
+import com.tasktracker.auth.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для TokenRevocationService и BloomFilter
+ *
+ * Тестируют:
+ * - Точную проверку отзыва и загрузку списка при старте
+ * - Снимок фильтра Блума и его версию
+ * - Удаление истекших записей
+ * - Совместимость формата фильтра с gateway-service
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    private static final long INTERVAL = 5_000;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(revokedTokenRepository, INTERVAL, 0.01, now::get);
+    }
+
+    @Test
+    @DisplayName("Should revoke token and include it in next snapshot")
+    void shouldRevokeTokenAndPublishSnapshot() {
+        // Given
+        TokenRevocationService.Snapshot before = revocationService.snapshot();
+
+        // When
+        revocationService.revoke("jti-1", new Date(now.get() + 60_000));
+        now.addAndGet(INTERVAL);
+        TokenRevocationService.Snapshot after = revocationService.snapshot();
+
+        // Then
+        assertTrue(revocationService.isRevoked("jti-1"));
+        assertFalse(revocationService.isRevoked("jti-2"));
+        assertEquals(1, after.entries());
+        assertTrue(after.version() > before.version());
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    @DisplayName("Should keep snapshot version when nothing changed")
+    void shouldKeepSnapshotVersionWithoutChanges() {
+        // Given
+        TokenRevocationService.Snapshot first = revocationService.snapshot();
+
+        // When
+        now.addAndGet(INTERVAL * 3);
+        TokenRevocationService.Snapshot second = revocationService.snapshot();
+
+        // Then
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Should drop expired revocations")
+    void shouldDropExpiredRevocations() {
+        // Given
+        when(revokedTokenRepository.findByExpiresAtAfter(any()))
+                .thenReturn(List.of(new RevokedToken("jti-1", Instant.ofEpochMilli(now.get() + 10_000))));
+        revocationService.load();
+        assertTrue(revocationService.isRevoked("jti-1"));
+
+        // When
+        now.addAndGet(10_000);
+        TokenRevocationService.Snapshot snapshot = revocationService.snapshot();
+
+        // Then
+        assertFalse(revocationService.isRevoked("jti-1"));
+        assertEquals(0, snapshot.entries());
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Should not store already expired tokens")
+    void shouldNotStoreExpiredTokens() {
+        // When
+        revocationService.revoke("jti-1", new Date(now.get() - 1));
+
+        // Then
+        assertFalse(revocationService.isRevoked("jti-1"));
+        verify(revokedTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should produce Bloom filter bits compatible with gateway")
+    void shouldProduceGatewayCompatibleBloomFilter() {
+        // Given - то же значение проверяется в BloomFilterTest gateway-service
+        BloomFilter filter = BloomFilter.create(4, 0.01);
+
+        // When
+        filter.put("jti-1");
+        filter.put("jti-2");
+
+        // Then
+        assertEquals(64, filter.numBits());
+        assertEquals(11, filter.numHashes());
+        assertEquals("mEQGowYSCag=", filter.toBase64());
+        assertTrue(filter.mightContain("jti-1"));
+    }
+}
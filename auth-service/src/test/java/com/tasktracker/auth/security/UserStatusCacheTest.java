@@ -0,0 +1,104 @@
+package com.tasktracker.auth.security;
+
+import com.tasktracker.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты для UserStatusCache
+ *
+ * Тестируют:
+ * - Кэширование признака enabled в пределах TTL
+ * - Повторную загрузку после истечения TTL и после сброса
+ * - Отсутствующих пользователей
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserStatusCache Tests")
+class UserStatusCacheTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private UserStatusCache userStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = new UserStatusCache(userRepository, 30, 100, now::get);
+    }
+
+    @Test
+    @DisplayName("Should query repository once within TTL")
+    void shouldCacheEnabledStateWithinTtl() {
+        // Given
+        when(userRepository.findEnabledByUsername("testuser")).thenReturn(Optional.of(true));
+
+        // When
+        boolean first = userStatusCache.isEnabled("testuser");
+        now.addAndGet(29 * SECOND);
+        boolean second = userStatusCache.isEnabled("testuser");
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        verify(userRepository, times(1)).findEnabledByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Should reload enabled state after TTL expires")
+    void shouldReloadAfterTtl() {
+        // Given
+        when(userRepository.findEnabledByUsername("testuser"))
+            .thenReturn(Optional.of(true))
+            .thenReturn(Optional.of(false));
+        userStatusCache.isEnabled("testuser");
+
+        // When
+        now.addAndGet(31 * SECOND);
+        boolean enabled = userStatusCache.isEnabled("testuser");
+
+        // Then
+        assertFalse(enabled);
+        verify(userRepository, times(2)).findEnabledByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Should reload enabled state after eviction")
+    void shouldReloadAfterEvict() {
+        // Given
+        when(userRepository.findEnabledByUsername("testuser"))
+            .thenReturn(Optional.of(true))
+            .thenReturn(Optional.of(false));
+        userStatusCache.isEnabled("testuser");
+
+        // When
+        userStatusCache.evict("testuser");
+        boolean enabled = userStatusCache.isEnabled("testuser");
+
+        // Then
+        assertFalse(enabled);
+    }
+
+    @Test
+    @DisplayName("Should treat unknown user as disabled")
+    void shouldTreatUnknownUserAsDisabled() {
+        // Given
+        when(userRepository.findEnabledByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertFalse(userStatusCache.isEnabled("ghost"));
+    }
+}
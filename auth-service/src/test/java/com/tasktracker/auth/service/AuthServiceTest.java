@@ -2,14 +2,24 @@ package com.tasktracker.auth.service;
 
 import com.tasktracker.auth.dto.AuthResponse;
 import com.tasktracker.auth.dto.LoginRequest;
+import com.tasktracker.auth.dto.RefreshTokenRequest;
 import com.tasktracker.auth.dto.RegisterRequest;
 import com.tasktracker.auth.dto.UserResponse;
+import com.tasktracker.auth.dto.UserSummary;
 import com.tasktracker.auth.entity.Role;
 import com.tasktracker.auth.entity.User;
+import com.tasktracker.auth.event.AuthEventPublisher;
+import com.tasktracker.auth.event.AuthEventType;
 import com.tasktracker.auth.repository.UserRepository;
+import com.tasktracker.auth.security.InvalidRefreshTokenException;
 import com.tasktracker.auth.security.JwtService;
+import com.tasktracker.auth.security.AccountBadCredentialsException;
+import com.tasktracker.auth.security.LoginThrottle;
+import com.tasktracker.auth.security.LoginThrottledException;
+import com.tasktracker.auth.security.RefreshTokenService;
 import com.tasktracker.auth.util.TestDataFactory;
 import com.tasktracker.auth.TestBase;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,18 +27,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -58,6 +74,15 @@ class AuthServiceTest extends TestBase {
     @MockBean
     private AuthenticationManager authenticationManager;
     
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+    
+    @MockBean
+    private AuthEventPublisher authEventPublisher;
+    
+    @MockBean
+    private LoginThrottle loginThrottle;
+    
     @Autowired
     private AuthService authService;
     
@@ -87,8 +112,6 @@ class AuthServiceTest extends TestBase {
     @DisplayName("Should register user successfully")
     void shouldRegisterUserSuccessfully() {
         // Given
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
         when(jwtService.generateToken(any(User.class))).thenReturn(testToken);
@@ -104,12 +127,13 @@ class AuthServiceTest extends TestBase {
         assertEquals(testUser.getEmail(), response.getEmail(), "Email should match");
         assertEquals(testUser.getRole(), response.getRole(), "Role should match");
         
-        // Verify interactions
-        verify(userRepository).existsByUsername(validRegisterRequest.getUsername());
-        verify(userRepository).existsByEmail(validRegisterRequest.getEmail());
+        // Verify interactions - один INSERT без предварительных проверок существования
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(passwordEncoder).encode(validRegisterRequest.getPassword());
         verify(userRepository).save(any(User.class));
         verify(jwtService).generateToken(any(User.class));
+        verify(authEventPublisher).publish(AuthEventType.USER_REGISTERED, testUser);
     }
     
     /**
@@ -119,7 +143,8 @@ class AuthServiceTest extends TestBase {
     @DisplayName("Should throw exception when username already exists")
     void shouldThrowExceptionWhenUsernameAlreadyExists() {
         // Given
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(true);
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
         
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -128,10 +153,11 @@ class AuthServiceTest extends TestBase {
         
         assertEquals("Username already exists", exception.getMessage());
         
-        // Verify that we don't check email or save user
-        verify(userRepository).existsByUsername(validRegisterRequest.getUsername());
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository, never()).save(any());
+        // Verify that we don't issue tokens
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(refreshTokenService, never()).issue(any());
+        verify(jwtService, never()).generateToken(any(User.class));
+        verify(authEventPublisher, never()).publish(any(), any());
     }
     
     /**
@@ -141,8 +167,8 @@ class AuthServiceTest extends TestBase {
     @DisplayName("Should throw exception when email already exists")
     void shouldThrowExceptionWhenEmailAlreadyExists() {
         // Given
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(true);
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation("ux_users_email_lower"));
         
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -152,9 +178,74 @@ class AuthServiceTest extends TestBase {
         assertEquals("Email already exists", exception.getMessage());
         
         // Verify interactions
-        verify(userRepository).existsByUsername(validRegisterRequest.getUsername());
-        verify(userRepository).existsByEmail(validRegisterRequest.getEmail());
-        verify(userRepository, never()).save(any());
+        verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(refreshTokenService, never()).issue(any());
+    }
+    
+    /**
+     * Тест регистрации в БД, где ограничения сохранили сгенерированные Hibernate имена (ddl-auto: update)
+     */
+    @Test
+    @DisplayName("Should detect duplicate field from PostgreSQL detail when constraint name is generated")
+    void shouldDetectDuplicateFieldWhenConstraintNameIsGenerated() {
+        // Given
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class)))
+            .thenThrow(uniqueViolation("uk_r43af9ap4edm43mmtq01oddj6",
+                "ERROR: duplicate key value violates unique constraint \"uk_r43af9ap4edm43mmtq01oddj6\"\n"
+                    + "  Detail: Key (username)=(testuser) already exists."))
+            .thenThrow(uniqueViolation("uk_6dotkott2kjsp8vw4d0m25fb7",
+                "ERROR: duplicate key value violates unique constraint \"uk_6dotkott2kjsp8vw4d0m25fb7\"\n"
+                    + "  Detail: Key (email)=(test@example.com) already exists."))
+            .thenThrow(uniqueViolation(null,
+                "ERROR: duplicate key value violates unique constraint \"ux_users_email_lower\"\n"
+                    + "  Detail: Key (lower(email::text))=(test@example.com) already exists."));
+        
+        // When & Then
+        assertEquals("Username already exists",
+            assertThrows(RuntimeException.class, () -> authService.register(validRegisterRequest)).getMessage());
+        assertEquals("Email already exists",
+            assertThrows(RuntimeException.class, () -> authService.register(validRegisterRequest)).getMessage());
+        assertEquals("Email already exists",
+            assertThrows(RuntimeException.class, () -> authService.register(validRegisterRequest)).getMessage());
+        verify(refreshTokenService, never()).issue(any());
+    }
+    
+    /**
+     * Тест регистрации в H2: имя столбца есть только в тексте ошибки индекса
+     */
+    @Test
+    @DisplayName("Should detect duplicate field from H2 index message")
+    void shouldDetectDuplicateFieldFromH2Message() {
+        // Given
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation("PUBLIC.UK_R43AF9AP4EDM43MMTQ01ODDJ6_INDEX_4",
+            "Unique index or primary key violation: \"PUBLIC.UK_R43AF9AP4EDM43MMTQ01ODDJ6_INDEX_4 ON PUBLIC.USERS(USERNAME "
+                + "NULLS FIRST) VALUES ( /* 1 */ 'testuser' )\""));
+        
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            authService.register(validRegisterRequest);
+        });
+        
+        assertEquals("Username already exists", exception.getMessage());
+    }
+    
+    /**
+     * Нарушение уникальности неизвестного ограничения пробрасывается как есть
+     */
+    @Test
+    @DisplayName("Should rethrow unrecognized unique violation")
+    void shouldRethrowUnrecognizedUniqueViolation() {
+        // Given
+        DataIntegrityViolationException violation = uniqueViolation("uk_r43af9ap4edm43mmtq01oddj6",
+            "ERROR: duplicate key value violates unique constraint \"uk_r43af9ap4edm43mmtq01oddj6\"");
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(violation);
+        
+        // When & Then
+        assertSame(violation, assertThrows(RuntimeException.class, () -> authService.register(validRegisterRequest)));
     }
     
     /**
@@ -165,8 +256,6 @@ class AuthServiceTest extends TestBase {
     void shouldThrowExceptionWhenPasswordsDoNotMatch() {
         // Given
         validRegisterRequest.setConfirmPassword("differentPassword");
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(false);
         
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -175,7 +264,8 @@ class AuthServiceTest extends TestBase {
         
         assertEquals("Passwords do not match", exception.getMessage());
         
-        // Verify we don't save user
+        // Verify we don't hash password or save user
+        verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any());
     }
     
@@ -191,6 +281,7 @@ class AuthServiceTest extends TestBase {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(jwtService.generateToken(testUser)).thenReturn(testToken);
+        when(refreshTokenService.issue(testUser.getId())).thenReturn("refresh-token");
         
         // When
         AuthResponse response = authService.authenticate(validLoginRequest);
@@ -198,6 +289,7 @@ class AuthServiceTest extends TestBase {
         // Then
         assertNotNull(response, "Response should not be null");
         assertEquals(testToken, response.getToken(), "Token should match");
+        assertEquals("refresh-token", response.getRefreshToken(), "Refresh token should match");
         assertEquals(testUser.getId(), response.getUserId(), "User ID should match");
         assertEquals(testUser.getUsername(), response.getUsername(), "Username should match");
         assertEquals(testUser.getEmail(), response.getEmail(), "Email should match");
@@ -206,6 +298,8 @@ class AuthServiceTest extends TestBase {
         // Verify interactions
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtService).generateToken(testUser);
+        verify(authEventPublisher).publish(AuthEventType.USER_LOGIN, testUser);
+        verify(loginThrottle).recordSuccess(validLoginRequest.getUsernameOrEmail(), testUser.getUsername());
     }
     
     /**
@@ -229,6 +323,105 @@ class AuthServiceTest extends TestBase {
         verify(jwtService, never()).generateToken(any());
     }
     
+    /**
+     * Тест учета неверного пароля для блокировки перебора
+     */
+    @Test
+    @DisplayName("Should record failed login for throttling on bad credentials")
+    void shouldRecordFailedLoginOnBadCredentials() {
+        // Given
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        
+        // When & Then
+        assertThrows(RuntimeException.class, () -> authService.authenticate(validLoginRequest));
+        
+        verify(loginThrottle).check(eq(validLoginRequest.getUsernameOrEmail()), any());
+        verify(loginThrottle).recordFailure(eq(validLoginRequest.getUsernameOrEmail()),
+                eq(validLoginRequest.getUsernameOrEmail()), any());
+        verify(loginThrottle, never()).recordSuccess(anyString(), anyString());
+    }
+    
+    /**
+     * Тест общего счетчика неудач для входа по email и по username
+     */
+    @Test
+    @DisplayName("Should throttle email login under the owner's username")
+    void shouldThrottleEmailLoginUnderUsername() {
+        // Given
+        LoginRequest emailLogin = TestDataFactory.createLoginRequest("Test@Example.com", "wrong");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new AccountBadCredentialsException("TestUser", new BadCredentialsException("Bad credentials")));
+        
+        // When & Then
+        assertThrows(RuntimeException.class, () -> authService.authenticate(emailLogin));
+        
+        // Username берется из аутентификации, без отдельного запроса к БД
+        verify(loginThrottle).check(eq("Test@Example.com"), any());
+        verify(loginThrottle).recordFailure(eq("Test@Example.com"), eq("TestUser"), any());
+        verifyNoInteractions(userRepository);
+    }
+    
+    /**
+     * Тест отклонения заблокированного входа до проверки пароля
+     */
+    @Test
+    @DisplayName("Should reject throttled login before password check")
+    void shouldRejectThrottledLoginBeforePasswordCheck() {
+        // Given
+        doThrow(new LoginThrottledException(30)).when(loginThrottle)
+                .check(eq(validLoginRequest.getUsernameOrEmail()), any());
+        
+        // When & Then
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> authService.authenticate(validLoginRequest));
+        
+        assertEquals(30, exception.getRetryAfterSeconds());
+        verify(authenticationManager, never()).authenticate(any());
+        verify(loginThrottle, never()).recordFailure(anyString(), anyString(), any());
+    }
+    
+    /**
+     * Тест обновления токенов по refresh токену
+     */
+    @Test
+    @DisplayName("Should refresh tokens with rotated refresh token")
+    void shouldRefreshTokensWithRotatedRefreshToken() {
+        // Given
+        when(refreshTokenService.rotate("old-refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(testUser.getId(), "new-refresh"));
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(jwtService.generateToken(testUser)).thenReturn(testToken);
+        when(jwtService.getExpirationTime()).thenReturn(900000L);
+        
+        // When
+        AuthResponse response = authService.refresh(new RefreshTokenRequest("old-refresh"));
+        
+        // Then
+        assertEquals(testToken, response.getToken(), "Access token should match");
+        assertEquals("new-refresh", response.getRefreshToken(), "Refresh token should be rotated");
+        assertEquals(900L, response.getExpiresIn(), "Expiry should be in seconds");
+    }
+    
+    /**
+     * Тест обновления токенов для заблокированного пользователя
+     */
+    @Test
+    @DisplayName("Should reject refresh and revoke tokens for disabled user")
+    void shouldRejectRefreshForDisabledUser() {
+        // Given
+        testUser.setEnabled(false);
+        when(refreshTokenService.rotate("old-refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(testUser.getId(), "new-refresh"));
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        
+        // When & Then
+        assertThrows(InvalidRefreshTokenException.class,
+                () -> authService.refresh(new RefreshTokenRequest("old-refresh")));
+        verify(refreshTokenService).revokeAll(testUser.getId());
+        verify(jwtService, never()).generateToken(any());
+    }
+    
     /**
      * Тест получения пользователя по ID
      */
@@ -274,6 +467,30 @@ class AuthServiceTest extends TestBase {
         verify(userRepository).findById(userId);
     }
     
+    /**
+     * Тест пакетного получения пользователей одним запросом
+     */
+    @Test
+    @DisplayName("Should get user summaries with single findAllById")
+    void shouldGetUserSummariesWithSingleQuery() {
+        // Given
+        testUser.setId(1L);
+        when(userRepository.findAllById(Set.of(1L, 999L))).thenReturn(List.of(testUser));
+        
+        // When
+        List<UserSummary> summaries = authService.getUserSummaries(List.of(1L, 999L, 1L));
+        
+        // Then
+        assertEquals(1, summaries.size(), "Only existing users should be returned");
+        assertEquals(1L, summaries.get(0).getId(), "ID should match");
+        assertEquals(testUser.getUsername(), summaries.get(0).getUsername(), "Username should match");
+        assertEquals(testUser.getRole(), summaries.get(0).getRole(), "Role should match");
+        
+        // Verify interaction - повторяющиеся ID схлопнуты
+        verify(userRepository).findAllById(Set.of(1L, 999L));
+        verify(userRepository, never()).findById(any());
+    }
+    
     /**
      * Тест получения пользователя по username
      */
@@ -407,8 +624,6 @@ class AuthServiceTest extends TestBase {
         User adminUser = TestDataFactory.createAdmin();
         adminUser.setId(1L);
         
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(adminUser);
         when(jwtService.generateToken(any(User.class))).thenReturn(testToken);
@@ -425,4 +640,16 @@ class AuthServiceTest extends TestBase {
         verify(userRepository).save(any(User.class));
         verify(jwtService).generateToken(any(User.class));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Нарушение уникальности, как его возвращает репозиторий при INSERT
+     */
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return uniqueViolation(constraintName, "duplicate key");
+    }
+    
+    private static DataIntegrityViolationException uniqueViolation(String constraintName, String driverMessage) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicate key value", new SQLException(driverMessage), constraintName));
+    }
+}
@@ -286,4 +286,21 @@ class UserDetailsServiceImplTest {
         // Verify interaction
         verify(userRepository).findByUsernameOrEmail(username);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Тест сохранения пересчитанного хеша пароля
+     */
+    @Test
+    @DisplayName("Should save upgraded password hash")
+    void shouldSaveUpgradedPasswordHash() {
+        // Given
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        
+        // When
+        UserDetails updated = userDetailsService.updatePassword(testUser, "$2a$12$upgradedHash");
+        
+        // Then
+        assertEquals("$2a$12$upgradedHash", updated.getPassword());
+        verify(userRepository).save(testUser);
+    }
+} 
@@ -0,0 +1,190 @@
+package com.tasktracker.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasktracker.gateway.config.AccessLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Фоновая публикация access-log в Kafka
+ *
+ * Единственный поток-читатель AccessLogRingBuffer: забирает записи пачками,
+ * сериализует их в формат AuditEventRequest audit-service и отдает KafkaTemplate.
+ * Сжатие и объединение сообщений в пакеты выполняет producer (compression-type,
+ * batch-size, linger.ms в spring.kafka.producer). Если Kafka недоступна, ожидание
+ * producer'а ограничено max.block.ms и происходит только в этом потоке; буфер
+ * тем временем заполняется, и AccessLogFilter отбрасывает новые записи.
+ */
+public class AccessLogPublisher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogPublisher.class);
+
+    static final String ANONYMOUS = "anonymous";
+    private static final int MAX_FIELD_LENGTH = 255;
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private final AccessLogRingBuffer buffer;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final AccessLogProperties properties;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread publisherThread;
+
+    public AccessLogPublisher(AccessLogRingBuffer buffer,
+                              KafkaTemplate<String, String> kafkaTemplate,
+                              ObjectMapper objectMapper,
+                              AccessLogProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.buffer = buffer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.publishedCounter = Counter.builder("gateway.access-log.published")
+                .description("Access-log записи, принятые Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("gateway.access-log.failed")
+                .description("Access-log записи, которые не удалось отправить в Kafka")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access-log.buffer.size", buffer, AccessLogRingBuffer::size)
+                .description("Записи в буфере, ожидающие публикации")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        publisherThread = new Thread(this::run, "access-log-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+        logger.info("Публикация access-log в топик {} запущена, емкость буфера {}",
+                properties.getTopic(), buffer.capacity());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = publisherThread;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long idleWaitNanos = properties.getIdleWait().toNanos();
+        while (running) {
+            if (drainOnce() == 0) {
+                LockSupport.parkNanos(idleWaitNanos);
+            }
+        }
+
+        // Остаток буфера при остановке
+        int drained;
+        do {
+            drained = drainOnce();
+        } while (drained > 0);
+        try {
+            kafkaTemplate.flush();
+        } catch (Exception e) {
+            logger.warn("Не удалось дождаться отправки access-log при остановке: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Один проход: до drainBatchSize записей из буфера в producer
+     */
+    int drainOnce() {
+        return buffer.drain(this::publish, properties.getDrainBatchSize());
+    }
+
+    private void publish(AccessLogRecord record) {
+        try {
+            String payload = objectMapper.writeValueAsString(toAuditEvent(record));
+            kafkaTemplate.send(properties.getTopic(), record.userId(), payload)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            failedCounter.increment();
+                            logger.debug("Access-log запись не отправлена: {}", ex.getMessage());
+                        } else {
+                            publishedCounter.increment();
+                        }
+                    });
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.debug("Access-log запись не отправлена: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Преобразует запись в формат AuditEventRequest, который ожидает
+     * AuditEventListener.handleGatewayEvent
+     */
+    static Map<String, Object> toAuditEvent(AccessLogRecord record) {
+        boolean success = record.status() > 0 && record.status() < 400;
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("userId", parseUserId(record.userId()));
+        event.put("username", record.username() != null ? record.username() : ANONYMOUS);
+        event.put("action", action(record.status()));
+        event.put("ipAddress", record.clientIp());
+        event.put("userAgent", truncate(record.userAgent()));
+        event.put("description", truncate(String.format("%s %s -> %d (%s, %d bytes)",
+                record.method(), record.path(), record.status(), record.routeId(), record.bytes())));
+        event.put("isSuccess", success);
+        event.put("errorMessage", success ? null : "HTTP " + record.status());
+        event.put("serviceName", "gateway-service");
+        event.put("methodName", truncate(record.method() + " " + record.path()));
+        event.put("executionTimeMs", record.latencyMs());
+        return event;
+    }
+
+    private static String action(int status) {
+        if (status == 401) {
+            return "UNAUTHORIZED_ACCESS";
+        }
+        if (status == 403) {
+            return "PERMISSION_DENIED";
+        }
+        return "API_REQUEST";
+    }
+
+    /**
+     * ID анонимного пользователя - 0: user_id в audit_events обязателен
+     */
+    private static long parseUserId(String userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+    }
+}
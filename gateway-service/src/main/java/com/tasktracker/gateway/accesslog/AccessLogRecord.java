@@ -0,0 +1,25 @@
+package com.tasktracker.gateway.accesslog;
+
+/**
+ * Запись access-log одного запроса через Gateway
+ *
+ * Создается в AccessLogFilter на event loop и только кладется в AccessLogRingBuffer;
+ * сериализация выполняется потоком AccessLogPublisher.
+ *
+ * @param userId   ID пользователя или null для анонимного запроса
+ * @param username имя пользователя или null для анонимного запроса
+ * @param status   HTTP статус ответа (0, если ответ не был отправлен)
+ * @param bytes    размер тела ответа
+ */
+public record AccessLogRecord(long timestamp,
+                              String routeId,
+                              String method,
+                              String path,
+                              String userId,
+                              String username,
+                              String clientIp,
+                              String userAgent,
+                              int status,
+                              long latencyMs,
+                              long bytes) {
+}
@@ -0,0 +1,109 @@
+package com.tasktracker.gateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченный lock-free буфер access-log записей (много писателей, один читатель)
+ *
+ * Кольцевой массив с порядковым номером в каждой ячейке (bounded queue Д. Вьюкова):
+ * писатель занимает позицию одним CAS по tail, пишет запись и публикует ее номером ячейки;
+ * читатель видит запись только после публикации. offer никогда не ждет: при заполненном
+ * буфере запись отбрасывается, и event loop Netty не блокируется на медленном Kafka.
+ */
+public class AccessLogRingBuffer {
+
+    private final AccessLogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    /**
+     * Следующая позиция записи, общая для всех писателей
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Следующая позиция чтения; меняется только потоком читателя
+     */
+    private volatile long head;
+
+    public AccessLogRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Емкость буфера должна быть не меньше 2: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.slots = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавляет запись без ожидания
+     *
+     * @return false, если буфер заполнен и запись отброшена
+     */
+    public boolean offer(AccessLogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = record;
+                    // Запись в volatile sequence публикует slots[index] читателю
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // Ячейка еще не освобождена читателем - буфер полон
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Забирает до maxRecords опубликованных записей; вызывается только одним потоком
+     *
+     * @return количество переданных в consumer записей
+     */
+    public int drain(Consumer<AccessLogRecord> consumer, int maxRecords) {
+        long position = head;
+        int drained = 0;
+        try {
+            while (drained < maxRecords) {
+                int index = (int) (position & mask);
+                if (sequences.get(index) != position + 1) {
+                    break;
+                }
+                AccessLogRecord record = slots[index];
+                slots[index] = null;
+                // Освобождаем ячейку для писателя следующего круга
+                sequences.set(index, position + slots.length);
+                position++;
+                drained++;
+                consumer.accept(record);
+            }
+        } finally {
+            head = position;
+        }
+        return drained;
+    }
+
+    /**
+     * Приблизительное количество записей в буфере
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, slots.length));
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tasktracker.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasktracker.gateway.accesslog.AccessLogPublisher;
+import com.tasktracker.gateway.accesslog.AccessLogRingBuffer;
+import com.tasktracker.gateway.filter.AccessLogFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Access-log Gateway: фильтр -> кольцевой буфер -> фоновая публикация в Kafka
+ *
+ * Отключается gateway.access-log.enabled=false (например, в тестах без Kafka).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "gateway.access-log", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogRingBuffer accessLogRingBuffer(AccessLogProperties properties) {
+        return new AccessLogRingBuffer(properties.getBufferCapacity());
+    }
+
+    @Bean
+    public AccessLogFilter accessLogFilter(AccessLogRingBuffer accessLogRingBuffer, MeterRegistry meterRegistry) {
+        return new AccessLogFilter(accessLogRingBuffer, meterRegistry);
+    }
+
+    @Bean
+    public AccessLogPublisher accessLogPublisher(AccessLogRingBuffer accessLogRingBuffer,
+                                                 KafkaTemplate<String, String> kafkaTemplate,
+                                                 ObjectMapper objectMapper,
+                                                 AccessLogProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new AccessLogPublisher(accessLogRingBuffer, kafkaTemplate, objectMapper, properties, meterRegistry);
+    }
+}
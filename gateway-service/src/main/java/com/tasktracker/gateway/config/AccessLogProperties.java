@@ -0,0 +1,75 @@
+package com.tasktracker.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки access-log Gateway (AccessLogFilter, AccessLogPublisher)
+ */
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Топик Kafka, который слушает audit-service
+     */
+    private String topic = "gateway-events";
+
+    /**
+     * Емкость кольцевого буфера (округляется вверх до степени двойки).
+     * При заполнении новые записи отбрасываются
+     */
+    private int bufferCapacity = 16384;
+
+    /**
+     * Максимум записей, передаваемых producer'у за один проход потока публикации
+     */
+    private int drainBatchSize = 512;
+
+    /**
+     * Пауза потока публикации при пустом буфере
+     */
+    private Duration idleWait = Duration.ofMillis(20);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getDrainBatchSize() {
+        return drainBatchSize;
+    }
+
+    public void setDrainBatchSize(int drainBatchSize) {
+        this.drainBatchSize = drainBatchSize;
+    }
+
+    public Duration getIdleWait() {
+        return idleWait;
+    }
+
+    public void setIdleWait(Duration idleWait) {
+        this.idleWait = idleWait;
+    }
+}
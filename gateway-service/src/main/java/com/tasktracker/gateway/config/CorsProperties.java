@@ -0,0 +1,87 @@
+package com.tasktracker.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Настройки CORS для CorsGlobalFilter
+ *
+ * Шаблоны origin:
+ * - "http://localhost:*" - любой порт хоста;
+ * - "https://app.example.com" - точное совпадение;
+ * - "https://*" или другой шаблон с "*" в конце - совпадение по префиксу;
+ * - "*" - любой origin.
+ */
+@ConfigurationProperties(prefix = "gateway.cors")
+public class CorsProperties {
+
+    private List<String> allowedOriginPatterns = List.of(
+            "http://localhost:*",
+            "http://127.0.0.1:*",
+            "http://host.docker.internal:*",
+            "file://*",
+            "null");
+
+    private List<String> allowedMethods = List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH");
+
+    private List<String> allowedHeaders = List.of("Content-Type", "Authorization", "X-Requested-With", "Origin", "Accept",
+            "Idempotency-Key");
+
+    private List<String> exposedHeaders = List.of("Idempotent-Replayed");
+
+    private boolean allowCredentials = true;
+
+    /**
+     * Время кэширования preflight ответа браузером, секунды
+     */
+    private long maxAge = 86400;
+
+    public List<String> getAllowedOriginPatterns() {
+        return allowedOriginPatterns;
+    }
+
+    public void setAllowedOriginPatterns(List<String> allowedOriginPatterns) {
+        this.allowedOriginPatterns = allowedOriginPatterns;
+    }
+
+    public List<String> getAllowedMethods() {
+        return allowedMethods;
+    }
+
+    public void setAllowedMethods(List<String> allowedMethods) {
+        this.allowedMethods = allowedMethods;
+    }
+
+    public List<String> getAllowedHeaders() {
+        return allowedHeaders;
+    }
+
+    public void setAllowedHeaders(List<String> allowedHeaders) {
+        this.allowedHeaders = allowedHeaders;
+    }
+
+    public List<String> getExposedHeaders() {
+        return exposedHeaders;
+    }
+
+    public void setExposedHeaders(List<String> exposedHeaders) {
+        this.exposedHeaders = exposedHeaders;
+    }
+
+    public boolean isAllowCredentials() {
+        return allowCredentials;
+    }
+
+    public void setAllowCredentials(boolean allowCredentials) {
+        this.allowCredentials = allowCredentials;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+}
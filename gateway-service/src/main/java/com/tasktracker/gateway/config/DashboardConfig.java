@@ -0,0 +1,31 @@
+package com.tasktracker.gateway.config;
+
+import com.tasktracker.gateway.service.DashboardService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Агрегирующий endpoint /gateway/dashboard
+ *
+ * Запросы к сервисам идут через балансировщик: хост в URL - serviceId,
+ * экземпляр выбирает EwmaLoadBalancer, как и для lb:// маршрутов
+ * (в том числе по spring.cloud.discovery.client.simple.instances без Eureka).
+ */
+@Configuration
+@EnableConfigurationProperties(DashboardProperties.class)
+public class DashboardConfig {
+
+    @Bean
+    public DashboardService dashboardService(WebClient.Builder webClientBuilder,
+                                             ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                             DashboardProperties properties) {
+        WebClient webClient = webClientBuilder.clone()
+                .filter(loadBalancerFunction)
+                .build();
+        return new DashboardService(webClient, properties,
+                "http://task-service", "http://notification-service", "http://audit-service");
+    }
+}
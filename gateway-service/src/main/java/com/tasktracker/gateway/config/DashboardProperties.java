@@ -0,0 +1,58 @@
+package com.tasktracker.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки агрегирующего endpoint /gateway/dashboard (DashboardService)
+ *
+ * Таймаут задается для каждого сервиса отдельно: медленный сервис не задерживает
+ * ответ целиком, его часть возвращается как недоступная.
+ */
+@ConfigurationProperties(prefix = "gateway.dashboard")
+public class DashboardProperties {
+
+    private Duration tasksTimeout = Duration.ofMillis(800);
+
+    private Duration notificationsTimeout = Duration.ofMillis(500);
+
+    private Duration auditTimeout = Duration.ofMillis(800);
+
+    /**
+     * Количество задач и событий аудита в ответе
+     */
+    private int pageSize = 10;
+
+    public Duration getTasksTimeout() {
+        return tasksTimeout;
+    }
+
+    public void setTasksTimeout(Duration tasksTimeout) {
+        this.tasksTimeout = tasksTimeout;
+    }
+
+    public Duration getNotificationsTimeout() {
+        return notificationsTimeout;
+    }
+
+    public void setNotificationsTimeout(Duration notificationsTimeout) {
+        this.notificationsTimeout = notificationsTimeout;
+    }
+
+    public Duration getAuditTimeout() {
+        return auditTimeout;
+    }
+
+    public void setAuditTimeout(Duration auditTimeout) {
+        this.auditTimeout = auditTimeout;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tasktracker.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Конфигурация HTTP клиента gateway -> сервисы
+ *
+ * Заменяет стандартную фабрику HttpClient Spring Cloud Gateway, чтобы:
+ * - включать h2c (мультиплексирование запросов в одном соединении) к сервисам на Tomcat;
+ * - задавать размеры пулов по маршрутам, чтобы один медленный сервис не выбирал общий пул;
+ * - ограничивать очередь ожидания соединения и выдавать соединения в порядке LIFO.
+ *
+ * Остальные настройки (таймауты, SSL, proxy, метрики пула) берутся из spring.cloud.gateway.httpclient.*
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamHttpClientProperties.class)
+public class HttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties,
+                                                      ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      UpstreamHttpClientProperties upstreamProperties) {
+        return new HttpClientFactory(properties, serverProperties, sslConfigurer, customizers) {
+            @Override
+            protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+                return HttpClientConfig.buildConnectionProvider(properties.getPool(), upstreamProperties);
+            }
+        };
+    }
+
+    /**
+     * Протокол соединений к сервисам (HTTP/1.1 или h2c)
+     */
+    @Bean
+    public HttpClientCustomizer upstreamProtocolCustomizer(UpstreamHttpClientProperties upstreamProperties) {
+        HttpProtocol[] protocols = upstreamProperties.getProtocols().toArray(new HttpProtocol[0]);
+        logger.info("Протоколы соединений к сервисам: {}", upstreamProperties.getProtocols());
+        return httpClient -> httpClient.protocol(protocols);
+    }
+
+    /**
+     * Пул соединений с лимитами по маршрутам
+     *
+     * Reactor Netty держит отдельный пул на каждый адрес сервиса, поэтому forRemoteHost
+     * задает размер именно пула этого сервиса. Для h2c maxConnections ограничивает число
+     * HTTP/2 соединений, а параллельные запросы идут потоками внутри них.
+     */
+    static ConnectionProvider buildConnectionProvider(HttpClientProperties.Pool pool,
+                                                      UpstreamHttpClientProperties upstreamProperties) {
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return ConnectionProvider.newConnection();
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+        if (pool.getType() == HttpClientProperties.Pool.PoolType.FIXED) {
+            builder.maxConnections(pool.getMaxConnections())
+                    .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()));
+        } else {
+            builder.maxConnections(Integer.MAX_VALUE)
+                    .pendingAcquireTimeout(Duration.ofMillis(0));
+        }
+        builder.pendingAcquireMaxCount(upstreamProperties.getPendingAcquireMaxCount());
+
+        if (pool.getMaxIdleTime() != null) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (upstreamProperties.isLifo()) {
+            builder.lifo();
+        }
+        builder.evictInBackground(pool.getEvictionInterval())
+                .metrics(pool.isMetrics());
+
+        upstreamProperties.getRoutes().forEach((routeId, routePool) -> {
+            InetSocketAddress address = parseAddress(routeId, routePool.getAddress());
+            builder.forRemoteHost(address, spec -> {
+                if (routePool.getMaxConnections() != null) {
+                    spec.maxConnections(routePool.getMaxConnections());
+                }
+                if (routePool.getPendingAcquireMaxCount() != null) {
+                    spec.pendingAcquireMaxCount(routePool.getPendingAcquireMaxCount());
+                }
+            });
+            logger.info("Пул соединений маршрута {} ({}): maxConnections={}",
+                    routeId, routePool.getAddress(), routePool.getMaxConnections());
+        });
+
+        return builder.build();
+    }
+
+    /**
+     * Адрес сервиса в виде, в котором его передает Reactor Netty при выборе пула (unresolved host:port)
+     */
+    static InetSocketAddress parseAddress(String routeId, String address) {
+        int separator = address != null ? address.lastIndexOf(':') : -1;
+        if (separator <= 0 || separator == address.length() - 1) {
+            throw new IllegalArgumentException("Адрес пула маршрута " + routeId + " должен быть в формате host:port: " + address);
+        }
+        return InetSocketAddress.createUnresolved(address.substring(0, separator),
+                Integer.parseInt(address.substring(separator + 1)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.tasktracker.gateway.config;
+
+import com.tasktracker.gateway.loadbalancer.EwmaLoadBalancer;
+import com.tasktracker.gateway.loadbalancer.EwmaLoadBalancerConfiguration;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Конфигурация балансировки lb:// маршрутов
+ *
+ * Для всех сервисов вместо round robin используется EwmaLoadBalancer:
+ * запросы распределяются по фактической отзывчивости экземпляров.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = EwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Служебный заголовок балансировщика не передается в сервисы
+     */
+    @Bean
+    public HttpHeadersFilter excludedInstanceHeaderFilter() {
+        return (input, exchange) -> {
+            if (!input.containsKey(EwmaLoadBalancer.EXCLUDED_INSTANCE_HEADER)) {
+                return input;
+            }
+            HttpHeaders filtered = new HttpHeaders();
+            filtered.putAll(input);
+            filtered.remove(EwmaLoadBalancer.EXCLUDED_INSTANCE_HEADER);
+            return filtered;
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.tasktracker.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки HTTP клиента gateway -> сервисы
+ *
+ * Дополняют стандартные spring.cloud.gateway.httpclient.*: протокол (HTTP/1.1 или h2c),
+ * ограничение очереди ожидания соединения и размеры пулов по маршрутам.
+ */
+@ConfigurationProperties(prefix = "gateway.httpclient")
+public class UpstreamHttpClientProperties {
+
+    /**
+     * Протоколы к сервисам.
+     * HTTP11 - только HTTP/1.1;
+     * H2C,HTTP11 - h2c через Upgrade с откатом на HTTP/1.1 для сервисов без поддержки HTTP/2;
+     * H2C - h2c prior knowledge, только если все сервисы маршрутов поддерживают h2c.
+     */
+    private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+
+    /**
+     * Максимальная длина очереди ожидания соединения (-1 - без ограничения)
+     */
+    private int pendingAcquireMaxCount = -1;
+
+    /**
+     * Выдавать последнее освободившееся соединение (LIFO):
+     * редко используемые соединения простаивают и закрываются по max-idle-time
+     */
+    private boolean lifo = true;
+
+    /**
+     * Размеры пулов по маршрутам (ключ - id маршрута)
+     */
+    private Map<String, RoutePool> routes = new LinkedHashMap<>();
+
+    public List<HttpProtocol> getProtocols() {
+        return protocols;
+    }
+
+    public void setProtocols(List<HttpProtocol> protocols) {
+        this.protocols = protocols;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public boolean isLifo() {
+        return lifo;
+    }
+
+    public void setLifo(boolean lifo) {
+        this.lifo = lifo;
+    }
+
+    public Map<String, RoutePool> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RoutePool> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Пул соединений к сервису маршрута
+     */
+    public static class RoutePool {
+
+        /**
+         * Адрес сервиса в формате host:port (для lb:// маршрутов - адрес экземпляра)
+         */
+        private String address;
+
+        /**
+         * Максимум соединений; для h2c каждое соединение мультиплексирует много запросов,
+         * поэтому значение может быть небольшим
+         */
+        private Integer maxConnections;
+
+        /**
+         * Максимальная длина очереди ожидания соединения для этого сервиса
+         */
+        private Integer pendingAcquireMaxCount;
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tasktracker.gateway.controller;
+
+import com.tasktracker.gateway.filter.JwtAuthenticationFilter;
+import com.tasktracker.gateway.service.DashboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Агрегирующий endpoint Gateway
+ *
+ * Обслуживается самим Gateway, а не маршрутом, поэтому JWT проверяется здесь
+ * тем же JwtAuthenticationFilter, что и на маршрутах.
+ */
+@RestController
+@RequestMapping("/gateway")
+public class DashboardController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
+
+    private final DashboardService dashboardService;
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    public DashboardController(DashboardService dashboardService,
+                               JwtAuthenticationFilter jwtAuthenticationFilter) {
+        this.dashboardService = dashboardService;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    }
+
+    /**
+     * Задачи, непрочитанные уведомления и последние действия пользователя одним ответом
+     */
+    @GetMapping("/dashboard")
+    public Mono<ResponseEntity<Map<String, Object>>> getDashboard(@RequestHeader HttpHeaders headers) {
+        return jwtAuthenticationFilter.authenticate(headers)
+                .flatMap(user -> {
+                    logger.debug("Получен запрос dashboard для пользователя {}", user.userId());
+                    return dashboardService.getDashboard(user).map(ResponseEntity::ok);
+                })
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+}
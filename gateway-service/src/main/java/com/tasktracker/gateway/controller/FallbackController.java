@@ -1,99 +1,135 @@
 package com.tasktracker.gateway.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Fallback Controller для Gateway
- * 
- * Обрабатывает запросы когда downstream сервисы недоступны
+ *
+ * Обрабатывает запросы когда downstream сервисы недоступны.
+ *
+ * Во время сбоя сюда попадает каждый запрос к недоступному сервису, поэтому тела ответов
+ * сериализуются один раз при старте: на запрос пишутся три буфера - неизменяемый JSON префикс,
+ * timestamp и закрывающие символы - через DataBufferFactory.wrap без копирования.
+ * Endpoints принимают любой HTTP метод, так как CircuitBreaker делает forward с методом
+ * исходного запроса.
  */
 @RestController
 @RequestMapping("/fallback")
 public class FallbackController {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(FallbackController.class);
-    
+
+    private static final String SUGGESTION = "Попробуйте позже или обратитесь к администратору";
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final byte[] authBody = prefix("AUTH_SERVICE_UNAVAILABLE",
+            "Сервис аутентификации временно недоступен", null);
+    private final byte[] tasksBody = prefix("TASK_SERVICE_UNAVAILABLE",
+            "Сервис задач временно недоступен", null);
+    private final byte[] auditBody = prefix("AUDIT_SERVICE_UNAVAILABLE",
+            "Сервис аудита временно недоступен", null);
+    private final byte[] notificationBody = prefix("NOTIFICATION_SERVICE_UNAVAILABLE",
+            "Сервис уведомлений временно недоступен", null);
+    private final byte[] defaultBody = prefix("SERVICE_UNAVAILABLE",
+            "Запрашиваемый сервис временно недоступен", "support@tasktracker.com");
+
     /**
      * Fallback для Auth Service
      */
-    @GetMapping("/auth")
-    public Mono<ResponseEntity<Map<String, Object>>> authFallback() {
-        logger.warn("Auth Service недоступен - возвращаем fallback ответ");
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "AUTH_SERVICE_UNAVAILABLE");
-        response.put("message", "Сервис аутентификации временно недоступен");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("suggestion", "Попробуйте позже или обратитесь к администратору");
-        
-        return Mono.just(ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(response));
+    @RequestMapping("/auth")
+    public Mono<Void> authFallback(ServerHttpResponse response) {
+        logger.debug("Auth Service недоступен - возвращаем fallback ответ");
+        return write(response, authBody);
     }
-    
+
     /**
      * Fallback для Task Service
      */
-    @GetMapping("/tasks")
-    public Mono<ResponseEntity<Map<String, Object>>> tasksFallback() {
-        logger.warn("Task Service недоступен - возвращаем fallback ответ");
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "TASK_SERVICE_UNAVAILABLE");
-        response.put("message", "Сервис задач временно недоступен");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("suggestion", "Попробуйте позже или обратитесь к администратору");
-        
-        return Mono.just(ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(response));
+    @RequestMapping("/tasks")
+    public Mono<Void> tasksFallback(ServerHttpResponse response) {
+        logger.debug("Task Service недоступен - возвращаем fallback ответ");
+        return write(response, tasksBody);
     }
-    
+
     /**
      * Fallback для Audit Service
      */
-    @GetMapping("/audit")
-    public Mono<ResponseEntity<Map<String, Object>>> auditFallback() {
-        logger.warn("Audit Service недоступен - возвращаем fallback ответ");
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "AUDIT_SERVICE_UNAVAILABLE");
-        response.put("message", "Сервис аудита временно недоступен");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("suggestion", "Попробуйте позже или обратитесь к администратору");
-        
-        return Mono.just(ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(response));
+    @RequestMapping("/audit")
+    public Mono<Void> auditFallback(ServerHttpResponse response) {
+        logger.debug("Audit Service недоступен - возвращаем fallback ответ");
+        return write(response, auditBody);
     }
-    
+
+    /**
+     * Fallback для Notification Service
+     */
+    @RequestMapping("/notification")
+    public Mono<Void> notificationFallback(ServerHttpResponse response) {
+        logger.debug("Notification Service недоступен - возвращаем fallback ответ");
+        return write(response, notificationBody);
+    }
+
     /**
      * Общий fallback для всех сервисов
      */
-    @GetMapping("/default")
-    public Mono<ResponseEntity<Map<String, Object>>> defaultFallback() {
-        logger.warn("Сервис недоступен - возвращаем общий fallback ответ");
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "SERVICE_UNAVAILABLE");
-        response.put("message", "Запрашиваемый сервис временно недоступен");
-        response.put("timestamp", LocalDateTime.now());
-        response.put("suggestion", "Попробуйте позже или обратитесь к администратору");
-        response.put("supportContact", "support@tasktracker.com");
-        
-        return Mono.just(ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(response));
+    @RequestMapping("/default")
+    public Mono<Void> defaultFallback(ServerHttpResponse response) {
+        logger.debug("Сервис недоступен - возвращаем общий fallback ответ");
+        return write(response, defaultBody);
+    }
+
+    /**
+     * Пишет 503 ответ: готовый префикс + текущий timestamp + SUFFIX
+     */
+    private Mono<Void> write(ServerHttpResponse response, byte[] prefix) {
+        byte[] timestamp = LocalDateTime.now().toString().getBytes(StandardCharsets.US_ASCII);
+
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(prefix.length + timestamp.length + SUFFIX.length);
+
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        return response.writeWith(Flux.just(
+                bufferFactory.wrap(prefix),
+                bufferFactory.wrap(timestamp),
+                bufferFactory.wrap(SUFFIX)));
+    }
+
+    /**
+     * Сериализует постоянные поля ответа в JSON без закрывающей скобки,
+     * последним полем открывается строка timestamp
+     */
+    private static byte[] prefix(String error, String message, String supportContact) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("error", error);
+        fields.put("message", message);
+        fields.put("suggestion", SUGGESTION);
+        if (supportContact != null) {
+            fields.put("supportContact", supportContact);
+        }
+
+        try {
+            String json = MAPPER.writeValueAsString(fields);
+            return (json.substring(0, json.length() - 1) + ",\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать fallback ответ", e);
+        }
     }
-} 
\ No newline at end of file
+}
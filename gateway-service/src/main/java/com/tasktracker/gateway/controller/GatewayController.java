@@ -1,16 +1,22 @@
 package com.tasktracker.gateway.controller;
 
+import com.tasktracker.gateway.service.GatewayStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Gateway Controller для мониторинга и статистики
@@ -21,6 +27,21 @@ public class GatewayController {
     
     private static final Logger logger = LoggerFactory.getLogger(GatewayController.class);
     
+    private static final String STATUS_UP = "UP";
+    private static final String STATUS_DOWN = "DOWN";
+    private static final String STATUS_UNKNOWN = "UNKNOWN";
+    private static final Duration REDIS_PING_TIMEOUT = Duration.ofSeconds(1);
+    
+    private final GatewayStatsService gatewayStatsService;
+    
+    private final ObjectProvider<ReactiveRedisConnectionFactory> redisConnectionFactory;
+    
+    public GatewayController(GatewayStatsService gatewayStatsService,
+                             ObjectProvider<ReactiveRedisConnectionFactory> redisConnectionFactory) {
+        this.gatewayStatsService = gatewayStatsService;
+        this.redisConnectionFactory = redisConnectionFactory;
+    }
+    
     /**
      * Информация о Gateway
      */
@@ -48,33 +69,42 @@ public class GatewayController {
     
     /**
      * Статистика Gateway
+     * 
+     * Латентность по маршрутам, состояния circuit breakers и загрузка пула соединений
+     * берутся из живых метрик, а не из конфигурации
      */
     @GetMapping("/stats")
     public Mono<ResponseEntity<Map<String, Object>>> getStats() {
         logger.debug("Получен запрос статистики Gateway");
         
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("timestamp", LocalDateTime.now());
-        stats.put("uptime", "Available");
-        stats.put("status", "HEALTHY");
-        
-        // Статистика по сервисам
-        Map<String, Object> services = new HashMap<>();
-        services.put("auth-service", createServiceStats("Auth Service", "http://localhost:8081"));
-        services.put("task-service", createServiceStats("Task Service", "http://localhost:8082"));
-        services.put("audit-service", createServiceStats("Audit Service", "http://localhost:8083"));
-        
-        stats.put("services", services);
-        
-        // Статистика по circuit breakers
-        Map<String, Object> circuitBreakers = new HashMap<>();
-        circuitBreakers.put("auth-circuit-breaker", createCircuitBreakerStats("CLOSED"));
-        circuitBreakers.put("task-circuit-breaker", createCircuitBreakerStats("CLOSED"));
-        circuitBreakers.put("audit-circuit-breaker", createCircuitBreakerStats("CLOSED"));
-        
-        stats.put("circuitBreakers", circuitBreakers);
-        
-        return Mono.just(ResponseEntity.ok(stats));
+        return gatewayStatsService.getRoutes().map(routes -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("timestamp", LocalDateTime.now());
+            Duration uptime = gatewayStatsService.getUptime();
+            stats.put("uptime", formatUptime(uptime));
+            stats.put("uptimeSeconds", uptime.getSeconds());
+            
+            // Статистика по маршрутам/сервисам
+            Map<String, Object> services = new LinkedHashMap<>();
+            boolean degraded = false;
+            for (GatewayStatsService.RouteSnapshot route : routes) {
+                Map<String, Object> serviceStats = createServiceStats(route);
+                degraded |= !STATUS_UP.equals(serviceStats.get("status")) && !STATUS_UNKNOWN.equals(serviceStats.get("status"));
+                services.put(route.getId(), serviceStats);
+            }
+            stats.put("services", services);
+            
+            // Статистика по circuit breakers
+            stats.put("circuitBreakers", gatewayStatsService.getCircuitBreakers());
+            
+            // Загрузка пула соединений
+            Map<String, Object> connectionPool = gatewayStatsService.getConnectionPool();
+            degraded |= Boolean.TRUE.equals(connectionPool.get("saturated"));
+            stats.put("connectionPool", connectionPool);
+            
+            stats.put("status", degraded ? "DEGRADED" : "HEALTHY");
+            return ResponseEntity.ok(stats);
+        });
     }
     
     /**
@@ -84,20 +114,37 @@ public class GatewayController {
     public Mono<ResponseEntity<Map<String, Object>>> health() {
         logger.debug("Получен запрос health check");
         
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("timestamp", LocalDateTime.now());
-        health.put("service", "Gateway Service");
-        
-        // Проверка компонентов
-        Map<String, Object> components = new HashMap<>();
-        components.put("redis", createComponentHealth("UP", "Redis доступен"));
-        components.put("routes", createComponentHealth("UP", "Маршруты настроены"));
-        components.put("security", createComponentHealth("UP", "JWT валидация работает"));
-        
-        health.put("components", components);
-        
-        return Mono.just(ResponseEntity.ok(health));
+        return Mono.zip(checkRedis(), gatewayStatsService.getRoutes()).map(tuple -> {
+            Map<String, Object> components = new HashMap<>();
+            components.put("redis", tuple.getT1());
+            
+            int routeCount = tuple.getT2().size();
+            components.put("routes", routeCount > 0
+                    ? createComponentHealth(STATUS_UP, "Маршруты настроены: " + routeCount)
+                    : createComponentHealth(STATUS_DOWN, "Маршруты не загружены"));
+            
+            long openCircuitBreakers = gatewayStatsService.getCircuitBreakers().values().stream()
+                    .map(cb -> ((Map<?, ?>) cb).get("state"))
+                    .filter(state -> "OPEN".equals(state) || "FORCED_OPEN".equals(state))
+                    .count();
+            components.put("circuitBreakers", openCircuitBreakers == 0
+                    ? createComponentHealth(STATUS_UP, "Все circuit breakers закрыты")
+                    : createComponentHealth("DEGRADED", "Открыто circuit breakers: " + openCircuitBreakers));
+            
+            components.put("security", createComponentHealth(STATUS_UP, "JWT валидация работает"));
+            
+            // UNKNOWN (например, Redis не сконфигурирован) не считается деградацией
+            boolean allUp = components.values().stream()
+                    .map(component -> ((Map<?, ?>) component).get("status"))
+                    .allMatch(status -> STATUS_UP.equals(status) || STATUS_UNKNOWN.equals(status));
+            
+            Map<String, Object> health = new HashMap<>();
+            health.put("status", routeCount > 0 ? (allUp ? STATUS_UP : "DEGRADED") : STATUS_DOWN);
+            health.put("timestamp", LocalDateTime.now());
+            health.put("service", "Gateway Service");
+            health.put("components", components);
+            return ResponseEntity.ok(health);
+        });
     }
     
     /**
@@ -107,44 +154,75 @@ public class GatewayController {
     public Mono<ResponseEntity<Map<String, Object>>> getRoutes() {
         logger.debug("Получен запрос конфигурации маршрутов");
         
-        Map<String, Object> routes = new HashMap<>();
-        routes.put("timestamp", LocalDateTime.now());
-        
-        // Список маршрутов
-        Map<String, Object> routeList = new HashMap<>();
-        routeList.put("auth-service", createRouteInfo("/auth/**", "http://localhost:8081"));
-        routeList.put("task-service", createRouteInfo("/tasks/**", "http://localhost:8082"));
-        routeList.put("audit-service", createRouteInfo("/audit/**", "http://localhost:8083"));
-        
-        routes.put("routes", routeList);
-        routes.put("count", 3);
+        return gatewayStatsService.getRoutes().map(routes -> {
+            Map<String, Object> routeList = new LinkedHashMap<>();
+            for (GatewayStatsService.RouteSnapshot route : routes) {
+                routeList.put(route.getId(), createRouteInfo(route));
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("timestamp", LocalDateTime.now());
+            result.put("routes", routeList);
+            result.put("count", routes.size());
+            return ResponseEntity.ok(result);
+        });
+    }
+    
+    /**
+     * Проверка доступности Redis (используется rate limiting)
+     */
+    private Mono<Map<String, Object>> checkRedis() {
+        ReactiveRedisConnectionFactory connectionFactory = redisConnectionFactory.getIfAvailable();
+        if (connectionFactory == null) {
+            return Mono.just(createComponentHealth(STATUS_UNKNOWN, "Redis не сконфигурирован"));
+        }
         
-        return Mono.just(ResponseEntity.ok(routes));
+        return Mono.defer(() -> connectionFactory.getReactiveConnection().ping())
+                .timeout(REDIS_PING_TIMEOUT)
+                .map(pong -> createComponentHealth(STATUS_UP, "Redis доступен"))
+                .onErrorResume(e -> {
+                    logger.warn("Redis недоступен: {}", e.getMessage());
+                    return Mono.just(createComponentHealth(STATUS_DOWN, "Redis недоступен"));
+                });
     }
     
     /**
-     * Создание статистики сервиса
+     * Создание статистики сервиса по данным маршрута
      */
-    private Map<String, Object> createServiceStats(String name, String url) {
+    private Map<String, Object> createServiceStats(GatewayStatsService.RouteSnapshot route) {
+        Map<String, Object> latency = gatewayStatsService.getRouteLatency(route.getId());
+        
         Map<String, Object> stats = new HashMap<>();
-        stats.put("name", name);
-        stats.put("url", url);
-        stats.put("status", "UP");
-        stats.put("responseTime", "N/A");
+        stats.put("name", route.getId());
+        stats.put("url", route.getTarget());
+        stats.put("latency", latency);
+        Object p95 = latency.get("p95Ms");
+        stats.put("responseTime", p95 != null ? p95 + " ms" : "N/A");
         stats.put("lastCheck", LocalDateTime.now());
+        
+        String status = STATUS_UNKNOWN;
+        Optional<String> circuitBreakerName = route.getCircuitBreakerName();
+        if (circuitBreakerName.isPresent()) {
+            stats.put("circuitBreaker", circuitBreakerName.get());
+            status = gatewayStatsService.getCircuitBreaker(circuitBreakerName.get())
+                    .map(cb -> statusFromCircuitBreaker((String) cb.get("state")))
+                    .orElse(STATUS_UNKNOWN);
+        } else if (((Number) latency.get("requests")).longValue() > 0) {
+            status = STATUS_UP;
+        }
+        stats.put("status", status);
         return stats;
     }
     
     /**
-     * Создание статистики Circuit Breaker
+     * Статус сервиса по состоянию его circuit breaker
      */
-    private Map<String, Object> createCircuitBreakerStats(String state) {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("state", state);
-        stats.put("failureRate", 0.0);
-        stats.put("calls", 0);
-        stats.put("lastUpdated", LocalDateTime.now());
-        return stats;
+    private String statusFromCircuitBreaker(String state) {
+        return switch (state) {
+            case "CLOSED", "DISABLED", "METRICS_ONLY" -> STATUS_UP;
+            case "HALF_OPEN" -> "DEGRADED";
+            default -> STATUS_DOWN;
+        };
     }
     
     /**
@@ -161,12 +239,20 @@ public class GatewayController {
     /**
      * Создание информации о маршруте
      */
-    private Map<String, Object> createRouteInfo(String path, String target) {
+    private Map<String, Object> createRouteInfo(GatewayStatsService.RouteSnapshot route) {
         Map<String, Object> info = new HashMap<>();
-        info.put("path", path);
-        info.put("target", target);
-        info.put("filters", new String[]{"CircuitBreaker", "Retry", "AuthenticationFilter"});
-        info.put("methods", new String[]{"GET", "POST", "PUT", "DELETE"});
+        info.put("path", route.getPath());
+        info.put("target", route.getTarget());
+        info.put("order", route.getOrder());
+        info.put("filters", route.getFilters());
         return info;
     }
+    
+    /**
+     * Форматирование времени работы в вид "1d 2h 3m 4s"
+     */
+    private String formatUptime(Duration uptime) {
+        return String.format("%dd %dh %dm %ds",
+                uptime.toDays(), uptime.toHoursPart(), uptime.toMinutesPart(), uptime.toSecondsPart());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.accesslog.AccessLogRecord;
+import com.tasktracker.gateway.accesslog.AccessLogRingBuffer;
+import com.tasktracker.gateway.filter.JwtAuthenticationFilter.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Access-log проксируемых запросов
+ *
+ * Первый фильтр цепочки: латентность включает все фильтры маршрута. По завершении
+ * запроса запись (маршрут, пользователь, статус, латентность, размер ответа) кладется
+ * в AccessLogRingBuffer без блокировок; в Kafka ее отправляет AccessLogPublisher.
+ * Если буфер заполнен, запись отбрасывается (счетчик gateway.access-log.dropped) -
+ * журнал никогда не замедляет проксирование.
+ */
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    private final AccessLogRingBuffer buffer;
+    private final Counter droppedCounter;
+
+    public AccessLogFilter(AccessLogRingBuffer buffer, MeterRegistry meterRegistry) {
+        this.buffer = buffer;
+        this.droppedCounter = Counter.builder("gateway.access-log.dropped")
+                .description("Access-log записи, отброшенные из-за заполненного буфера")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        long timestamp = System.currentTimeMillis();
+        ByteCountingResponse response = new ByteCountingResponse(exchange.getResponse());
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    AccessLogRecord record = toRecord(exchange, timestamp,
+                            (System.nanoTime() - start) / 1_000_000, response.bytes);
+                    if (!buffer.offer(record)) {
+                        droppedCounter.increment();
+                    }
+                });
+    }
+
+    private static AccessLogRecord toRecord(ServerWebExchange exchange, long timestamp, long latencyMs, long bytes) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        AuthenticatedUser user = exchange.getAttribute(JwtAuthenticationFilter.AUTHENTICATED_USER_ATTR);
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+
+        return new AccessLogRecord(
+                timestamp,
+                route != null ? route.getId() : null,
+                request.getMethod().name(),
+                request.getPath().value(),
+                user != null ? user.userId() : null,
+                user != null ? user.username() : null,
+                remoteAddress != null && remoteAddress.getAddress() != null ?
+                        remoteAddress.getAddress().getHostAddress() : null,
+                request.getHeaders().getFirst(HttpHeaders.USER_AGENT),
+                status != null ? status.value() : 0,
+                latencyMs,
+                bytes);
+    }
+
+    /**
+     * Считает байты тела ответа, не копируя буферы
+     */
+    private static class ByteCountingResponse extends ServerHttpResponseDecorator {
+
+        private volatile long bytes;
+
+        ByteCountingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body)
+                    .map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            bytes += buffer.readableByteCount();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adaptive Concurrency Limit Filter для Gateway
+ *
+ * Ограничивает количество одновременных запросов к маршруту адаптивным AIMD лимитом.
+ * Лимит снижается, когда сервис начинает отвечать медленно или с ошибками перегрузки,
+ * и растет, пока сервис справляется. Запросы сверх лимита сразу получают 503 с Retry-After,
+ * поэтому медленный сервис не занимает весь общий пул соединений и не тормозит остальные маршруты.
+ *
+ * Фильтр должен стоять первым в списке фильтров маршрута (до CircuitBreaker и Retry),
+ * чтобы одна логическая операция занимала один слот независимо от числа retry.
+ */
+@Component
+public class AdaptiveConcurrencyLimitFilter extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitFilter.class);
+
+    /**
+     * Лимитеры по маршрутам - переживают обновление маршрутов, пока не изменились настройки
+     */
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveConcurrencyLimitFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "default";
+        AimdConcurrencyLimiter limiter = limiter(routeId, config);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .description("Запросы, отброшенные адаптивным лимитом конкурентности")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+        String retryAfter = String.valueOf(config.getRetryAfterSeconds());
+
+        return (exchange, chain) -> {
+            int inFlight = limiter.tryAcquire();
+            if (inFlight < 0) {
+                rejected.increment();
+                logger.warn("Лимит конкурентности исчерпан для маршрута {}: limit={}", routeId, limiter.getLimit());
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+                exchange.getResponse().getHeaders().set("X-Concurrency-Limit", String.valueOf(limiter.getLimit()));
+                return exchange.getResponse().setComplete();
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+
+            return chain.filter(exchange)
+                    .doOnSuccess(v -> {
+                        if (released.compareAndSet(false, true)) {
+                            limiter.onSample(inFlight, System.nanoTime() - start, isOverloaded(exchange));
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (released.compareAndSet(false, true)) {
+                            limiter.onSample(inFlight, System.nanoTime() - start, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            limiter.onIgnore();
+                        }
+                    });
+        };
+    }
+
+    /**
+     * Текущий лимит маршрута (для мониторинга)
+     */
+    public Map<String, AimdConcurrencyLimiter> getLimiters() {
+        Map<String, AimdConcurrencyLimiter> result = new HashMap<>();
+        limiters.forEach((routeId, routeLimiter) -> result.put(routeId, routeLimiter.limiter()));
+        return Map.copyOf(result);
+    }
+
+    /**
+     * Ответ считается сигналом перегрузки, если сервис вернул 502/503/504 или 429
+     */
+    private boolean isOverloaded(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null) {
+            return false;
+        }
+        int code = status.value();
+        return code == HttpStatus.TOO_MANY_REQUESTS.value()
+                || code == HttpStatus.BAD_GATEWAY.value()
+                || code == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || code == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    /**
+     * Лимитер маршрута: существующий при тех же настройках, новый - если настройки изменились
+     */
+    private AimdConcurrencyLimiter limiter(String routeId, Config config) {
+        Settings settings = Settings.of(config);
+        return limiters.compute(routeId, (id, current) -> {
+            if (current != null && current.settings().equals(settings)) {
+                return current;
+            }
+            if (current == null) {
+                registerGauges(id);
+            }
+            logger.info("Адаптивный лимит конкурентности для маршрута {}: initial={}, min={}, max={}",
+                    id, settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+            return new RouteLimiter(settings, new AimdConcurrencyLimiter(
+                    settings.initialLimit(),
+                    settings.minLimit(),
+                    settings.maxLimit(),
+                    settings.backoffRatio(),
+                    settings.latencyThresholdMs()));
+        }).limiter();
+    }
+
+    /**
+     * Метрики регистрируются один раз на маршрут и читают текущий лимитер маршрута
+     */
+    private void registerGauges(String routeId) {
+        Gauge.builder("gateway.concurrency.limit", limiters, map -> current(map, routeId).getLimit())
+                .description("Текущий адаптивный лимит конкурентности")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiters, map -> current(map, routeId).getInFlight())
+                .description("Запросы маршрута, находящиеся в работе")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+    }
+
+    private static AimdConcurrencyLimiter current(Map<String, RouteLimiter> map, String routeId) {
+        return map.get(routeId).limiter();
+    }
+
+    /**
+     * Настройки, влияющие на лимитер; при их изменении лимитер создается заново
+     */
+    record Settings(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdMs) {
+
+        static Settings of(Config config) {
+            return new Settings(config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                    config.getBackoffRatio(), config.getLatencyThresholdMs());
+        }
+    }
+
+    private record RouteLimiter(Settings settings, AimdConcurrencyLimiter limiter) {
+    }
+
+    /**
+     * Конфигурация адаптивного лимита
+     */
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 100;
+        private double backoffRatio = 0.9;
+        private long latencyThresholdMs = 2000;
+        private int retryAfterSeconds = 1;
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public long getLatencyThresholdMs() {
+            return latencyThresholdMs;
+        }
+
+        public void setLatencyThresholdMs(long latencyThresholdMs) {
+            this.latencyThresholdMs = latencyThresholdMs;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.tasktracker.gateway.filter;
 
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import com.tasktracker.gateway.config.CorsProperties;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
@@ -11,46 +10,93 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
 /**
  * Глобальный CORS фильтр для Spring Cloud Gateway
+ *
+ * Работает как WebFilter, а не GlobalFilter маршрутов: preflight запросы обрабатываются
+ * до поиска маршрута и до Spring Security, а CORS действует и для /gateway/** endpoints.
+ * Значения заголовков вычисляются один раз при старте; запросы без Origin
+ * (same-origin и межсервисные вызовы) проходят без CORS заголовков.
+ *
+ * Vary: Origin добавляется ко всем ответам, в том числе без Origin и для неразрешенных origin,
+ * иначе общий кэш может отдать ответ без CORS заголовков разрешенному origin или наоборот.
+ * Заголовок добавляется перед отправкой ответа, так как заголовки сервиса заменяют Vary целиком.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
-public class CorsGlobalFilter implements GlobalFilter {
+public class CorsGlobalFilter implements WebFilter {
+
+    private final CorsOriginMatcher originMatcher;
+    private final boolean allowCredentials;
+    private final String allowMethods;
+    private final String allowHeaders;
+    private final String exposeHeaders;
+    private final String maxAge;
+
+    public CorsGlobalFilter(CorsProperties properties) {
+        this.originMatcher = new CorsOriginMatcher(properties.getAllowedOriginPatterns());
+        this.allowCredentials = properties.isAllowCredentials();
+        this.allowMethods = String.join(", ", properties.getAllowedMethods());
+        this.allowHeaders = String.join(", ", properties.getAllowedHeaders());
+        this.exposeHeaders = properties.getExposedHeaders().isEmpty()
+                ? null : String.join(", ", properties.getExposedHeaders());
+        this.maxAge = String.valueOf(properties.getMaxAge());
+    }
 
     @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         ServerHttpResponse response = exchange.getResponse();
-        
-        HttpHeaders headers = response.getHeaders();
+        response.beforeCommit(() -> {
+            varyOnOrigin(response.getHeaders());
+            return Mono.empty();
+        });
+
         String origin = request.getHeaders().getFirst(HttpHeaders.ORIGIN);
-        
-        // Разрешаем CORS для localhost и Docker
-        if (origin != null && (origin.startsWith("http://localhost:") || 
-                              origin.startsWith("http://127.0.0.1:") ||
-                              origin.startsWith("http://host.docker.internal:") ||
-                              origin.startsWith("file://") ||
-                              origin.equals("null"))) {
-            headers.add(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        if (origin == null) {
+            return chain.filter(exchange);
         }
-        
-        // Устанавливаем CORS заголовки
-        headers.add(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
-        headers.add(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, 
-                   "GET, POST, PUT, DELETE, OPTIONS, HEAD, PATCH");
-        headers.add(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, 
-                   "Content-Type, Authorization, X-Requested-With, Origin, Accept");
-        headers.add(HttpHeaders.ACCESS_CONTROL_MAX_AGE, "3600");
-        
-        // Обрабатываем preflight OPTIONS запросы
-        if (HttpMethod.OPTIONS.equals(request.getMethod())) {
+
+        boolean preflight = HttpMethod.OPTIONS.equals(request.getMethod())
+                && request.getHeaders().containsKey(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+
+        if (!originMatcher.isAllowed(origin)) {
+            if (preflight) {
+                response.setStatusCode(HttpStatus.FORBIDDEN);
+                return response.setComplete();
+            }
+            // Без CORS заголовков браузер сам не отдаст ответ странице
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        if (allowCredentials) {
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+        }
+
+        // Preflight завершается здесь: ответ кэшируется браузером на max-age
+        if (preflight) {
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, allowMethods);
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+            headers.set(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAge);
             response.setStatusCode(HttpStatus.OK);
             return response.setComplete();
         }
-        
+
+        if (exposeHeaders != null) {
+            headers.set(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, exposeHeaders);
+        }
         return chain.filter(exchange);
     }
-} 
\ No newline at end of file
+
+    private static void varyOnOrigin(HttpHeaders headers) {
+        if (!headers.getVary().contains(HttpHeaders.ORIGIN)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+        }
+    }
+}
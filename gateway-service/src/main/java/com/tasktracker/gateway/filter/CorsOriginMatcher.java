@@ -0,0 +1,90 @@
+package com.tasktracker.gateway.filter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проверка Origin по шаблонам, скомпилированным при старте
+ *
+ * Шаблоны раскладываются в наборы для поиска по хэшу: точные origin и префиксы
+ * "scheme://host:" для шаблонов с любым портом. Перебор префиксов остается только
+ * для редких шаблонов общего вида. Результат проверки кэшируется по значению Origin,
+ * так как у gateway обычно единицы различных origin.
+ */
+class CorsOriginMatcher {
+
+    private static final int MAX_CACHED_ORIGINS = 1024;
+
+    private final boolean allowAll;
+    private final Set<String> exactOrigins = new HashSet<>();
+    private final Set<String> anyPortPrefixes = new HashSet<>();
+    private final List<String> prefixes = new ArrayList<>();
+
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    CorsOriginMatcher(List<String> patterns) {
+        boolean all = false;
+        for (String pattern : patterns) {
+            String trimmed = pattern.trim();
+            if (trimmed.equals("*")) {
+                all = true;
+            } else if (trimmed.endsWith(":*")) {
+                anyPortPrefixes.add(trimmed.substring(0, trimmed.length() - 1));
+            } else if (trimmed.endsWith("*")) {
+                prefixes.add(trimmed.substring(0, trimmed.length() - 1));
+            } else {
+                exactOrigins.add(trimmed);
+            }
+        }
+        this.allowAll = all;
+    }
+
+    boolean isAllowed(String origin) {
+        if (allowAll) {
+            return true;
+        }
+        Boolean cached = decisions.get(origin);
+        if (cached != null) {
+            return cached;
+        }
+        boolean allowed = match(origin);
+        // Ограничиваем кэш, чтобы произвольные Origin от клиентов не росли в памяти
+        if (decisions.size() < MAX_CACHED_ORIGINS) {
+            decisions.put(origin, allowed);
+        }
+        return allowed;
+    }
+
+    private boolean match(String origin) {
+        if (exactOrigins.contains(origin)) {
+            return true;
+        }
+        int portSeparator = origin.lastIndexOf(':');
+        if (portSeparator > 0 && isPort(origin, portSeparator + 1)
+                && anyPortPrefixes.contains(origin.substring(0, portSeparator + 1))) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (origin.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPort(String origin, int from) {
+        if (from >= origin.length()) {
+            return false;
+        }
+        for (int i = from; i < origin.length(); i++) {
+            if (!Character.isDigit(origin.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
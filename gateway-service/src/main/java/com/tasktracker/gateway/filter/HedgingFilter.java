@@ -0,0 +1,472 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.LatencyQuantileEstimator;
+import com.tasktracker.gateway.limiter.RetryBudget;
+import com.tasktracker.gateway.loadbalancer.EwmaLoadBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Hedging Filter для идемпотентных чтений
+ *
+ * Если сервис не ответил на GET/HEAD за задержку, равную p95 латентности маршрута,
+ * фильтр отправляет дублирующий запрос на другой экземпляр (EwmaLoadBalancer обходит
+ * экземпляр первого запроса). Клиент получает первый успешный ответ, второй запрос
+ * отменяется вместе с его соединением.
+ *
+ * Каждая попытка выполняется на собственной копии exchange: отдельные атрибуты
+ * (маршрутизация, выбранный экземпляр) и буферизованный ответ, тело которого попытка
+ * читает из соединения с сервисом сама. В настоящий ответ копируется только ответ
+ * победителя. Поэтому фильтр ставится последним в списке фильтров маршрута, а ответы
+ * больше maxBodyBytes считаются ошибкой попытки.
+ *
+ * Победителем становится первый успешный ответ (не 5xx и без исключения). Если неуспешны
+ * обе попытки, клиент получает ответ первого запроса; если первый запрос завершился
+ * ошибкой раньше задержки, дубль не отправляется.
+ *
+ * Количество дублей ограничено общим для всех маршрутов бюджетом
+ * (gateway.hedging.budget-percent от потока запросов), так что hedging
+ * не удваивает нагрузку на сервисы, когда они и так медленные.
+ */
+@Component
+public class HedgingFilter extends AbstractGatewayFilterFactory<HedgingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingFilter.class);
+
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+
+    /**
+     * Оценки латентности по маршрутам - переживают обновление маршрутов.
+     * Записывается латентность первого запроса, даже если он проиграл дублю
+     */
+    private final Map<String, LatencyQuantileEstimator> estimators = new ConcurrentHashMap<>();
+
+    /**
+     * Текущая конфигурация и метрики маршрутов: метрики регистрируются один раз на маршрут
+     */
+    private final Map<String, Config> configs = new ConcurrentHashMap<>();
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    private final RetryBudget hedgeBudget;
+    private final MeterRegistry meterRegistry;
+
+    public HedgingFilter(MeterRegistry meterRegistry,
+                         @Value("${gateway.hedging.budget-percent:10}") int budgetPercent,
+                         @Value("${gateway.hedging.min-hedges-per-second:1}") int minHedgesPerSecond,
+                         @Value("${gateway.hedging.budget-window-seconds:10}") int budgetWindowSeconds) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.hedgeBudget = new RetryBudget(budgetPercent, minHedgesPerSecond, budgetWindowSeconds);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "default";
+        LatencyQuantileEstimator estimator = estimators.computeIfAbsent(routeId, id ->
+                new LatencyQuantileEstimator(config.getQuantile(), LATENCY_WINDOW, RECOMPUTE_EVERY));
+        configs.put(routeId, config);
+        RouteMeters meters = this.meters.computeIfAbsent(routeId, this::registerMeters);
+
+        return (exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+                return chain.filter(exchange);
+            }
+
+            return Mono.defer(() -> hedged(exchange, chain, config, estimator, meters));
+        };
+    }
+
+    /**
+     * Первый запрос и, если он не ответил за задержку, дублирующий на другой экземпляр
+     */
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              LatencyQuantileEstimator estimator, RouteMeters meters) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        hedgeBudget.recordRequest();
+        long start = System.nanoTime();
+        Attempt primary = new Attempt(exchange, exchange.getRequest(), config.getMaxBodyBytes(), false);
+        Sinks.One<Boolean> primaryFailed = Sinks.one();
+
+        Mono<Attempt> primaryRun = primary.run(chain)
+                .doOnNext(attempt -> {
+                    estimator.record(System.nanoTime() - start);
+                    if (!attempt.succeeded()) {
+                        primaryFailed.tryEmitValue(true);
+                    }
+                })
+                .share();
+        // Проигравший дублю первый запрос не отменяется, а дочитывается в фоне: задержка дубля
+        // считается по латентности первых запросов, иначе медленные ответы выпадают из квантиля.
+        // Отмена запроса клиентом отменяет и его
+        Disposable primaryMeasurement = primaryRun.subscribe();
+
+        Mono<Attempt> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs(estimator, config)))
+                // Ошибка первого запроса до отправки дубля возвращается сразу, без дубля
+                .takeUntilOther(primaryFailed.asMono())
+                .filter(tick -> {
+                    if (hedgeBudget.tryAcquireRetry()) {
+                        return true;
+                    }
+                    meters.exhausted().increment();
+                    return false;
+                })
+                .flatMap(tick -> {
+                    meters.hedged().increment();
+                    String slowInstance = instanceKey(primary);
+                    logger.debug("Дублирующий запрос {} {} (медленный экземпляр: {})",
+                            method, exchange.getRequest().getPath(), slowInstance);
+                    ServerHttpRequest request = exchange.getRequest().mutate()
+                            .headers(headers -> {
+                                if (slowInstance != null) {
+                                    headers.set(EwmaLoadBalancer.EXCLUDED_INSTANCE_HEADER, slowInstance);
+                                }
+                            })
+                            .build();
+                    return new Attempt(exchange, request, config.getMaxBodyBytes(), true).run(chain);
+                })
+                .filter(Attempt::succeeded);
+
+        // Побеждает первый успешный ответ, проигравший дубль отменяется.
+        // Если обе попытки неуспешны (или дубль не отправлялся), клиент получает ответ первого запроса
+        return Mono.firstWithValue(primaryRun.filter(Attempt::succeeded), hedge)
+                .onErrorResume(NoSuchElementException.class, e -> primaryRun)
+                .flatMap(winner -> {
+                    if (winner.error != null) {
+                        return Mono.error(winner.error);
+                    }
+                    if (winner.hedge) {
+                        meters.hedgeWins().increment();
+                    }
+                    return winner.writeTo(exchange.getResponse());
+                })
+                .doOnCancel(primaryMeasurement::dispose);
+    }
+
+    /**
+     * Метрики маршрута регистрируются один раз: gauge читает текущую конфигурацию маршрута
+     */
+    private RouteMeters registerMeters(String routeId) {
+        Gauge.builder("gateway.hedging.delay", () -> hedgeDelayMs(estimators.get(routeId), configs.get(routeId)))
+                .description("Текущая задержка перед дублирующим запросом, мс")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+        return new RouteMeters(
+                Counter.builder("gateway.hedging.requests")
+                        .description("Отправленные дублирующие запросы")
+                        .tag("routeId", routeId)
+                        .register(meterRegistry),
+                Counter.builder("gateway.hedging.wins")
+                        .description("Запросы, на которые первым ответил дублирующий запрос")
+                        .tag("routeId", routeId)
+                        .register(meterRegistry),
+                Counter.builder("gateway.hedging.budget.exhausted")
+                        .description("Дублирующие запросы, отклоненные из-за исчерпания бюджета")
+                        .tag("routeId", routeId)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Оценка латентности маршрута (для тестов)
+     */
+    LatencyQuantileEstimator getEstimator(String routeId) {
+        return estimators.get(routeId);
+    }
+
+    /**
+     * Задержка перед дублем: квантиль латентности маршрута в пределах [minDelayMs, maxDelayMs],
+     * до накопления minSamples замеров - initialDelayMs
+     */
+    static long hedgeDelayMs(LatencyQuantileEstimator estimator, Config config) {
+        long quantileNanos = estimator.getQuantileNanos();
+        if (quantileNanos < 0 || estimator.getCount() < config.getMinSamples()) {
+            return config.getInitialDelayMs();
+        }
+        long quantileMs = quantileNanos / 1_000_000;
+        return Math.max(config.getMinDelayMs(), Math.min(config.getMaxDelayMs(), quantileMs));
+    }
+
+    private static String instanceKey(Attempt attempt) {
+        Response<ServiceInstance> lbResponse = attempt.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        return lbResponse != null && lbResponse.hasServer() ? EwmaLoadBalancer.instanceKey(lbResponse.getServer()) : null;
+    }
+
+    private record RouteMeters(Counter hedged, Counter hedgeWins, Counter exhausted) {
+    }
+
+    /**
+     * Одна попытка запроса: собственные атрибуты и буферизованный ответ поверх общего exchange
+     */
+    private static final class Attempt extends ServerWebExchangeDecorator {
+
+        private final ServerHttpRequest request;
+        private final BufferedResponse response;
+        private final Map<String, Object> attributes;
+        private final boolean hedge;
+        private volatile Throwable error;
+
+        Attempt(ServerWebExchange exchange, ServerHttpRequest request, int maxBodyBytes, boolean hedge) {
+            super(exchange);
+            this.request = request;
+            this.response = new BufferedResponse(exchange.getResponse(), maxBodyBytes);
+            this.attributes = new ConcurrentHashMap<>(exchange.getAttributes());
+            this.hedge = hedge;
+        }
+
+        Mono<Attempt> run(GatewayFilterChain chain) {
+            return Mono.defer(() -> chain.filter(this))
+                    .then(Mono.defer(this::readUpstreamBody))
+                    .then(Mono.fromSupplier((Supplier<Attempt>) () -> this))
+                    // Проигравшая попытка не возвращает в пул соединение с непрочитанным ответом
+                    .doOnCancel(this::closeUpstream)
+                    .onErrorResume(e -> {
+                        error = e;
+                        closeUpstream();
+                        return Mono.just(this);
+                    });
+        }
+
+        /**
+         * NettyWriteResponseFilter выполняется раньше фильтров маршрута и ищет соединение
+         * в атрибутах исходного exchange, поэтому тело ответа сервиса попытка читает сама
+         */
+        private Mono<Void> readUpstreamBody() {
+            Connection connection = getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection == null || response.body != null) {
+                return Mono.empty();
+            }
+            NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(connection.channel().alloc());
+            return response.writeWith(connection.inbound().receive().retain().map(bufferFactory::wrap));
+        }
+
+        private void closeUpstream() {
+            Connection connection = getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null && connection.channel().isActive()) {
+                connection.dispose();
+            }
+        }
+
+        boolean succeeded() {
+            return error == null && (response.status == null || !response.status.is5xxServerError());
+        }
+
+        Mono<Void> writeTo(ServerHttpResponse target) {
+            if (response.status != null) {
+                target.setStatusCode(response.status);
+            }
+            target.getHeaders().putAll(response.headers);
+            response.cookies.values().forEach(cookies -> cookies.forEach(target::addCookie));
+
+            byte[] body = response.body;
+            if (body == null) {
+                return target.setComplete();
+            }
+            // Тело получено целиком: длина известна, chunked от сервиса не нужен
+            target.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+            target.getHeaders().setContentLength(body.length);
+            return target.writeWith(Mono.just(target.bufferFactory().wrap(body)));
+        }
+
+        @Override
+        public ServerHttpRequest getRequest() {
+            return request;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    /**
+     * Ответ попытки в памяти: статус, заголовки и тело не попадают в настоящий ответ до выбора победителя
+     */
+    private static final class BufferedResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>();
+        private final int maxBodyBytes;
+        private volatile HttpStatusCode status;
+        private volatile byte[] body;
+
+        BufferedResponse(ServerHttpResponse delegate, int maxBodyBytes) {
+            super(delegate);
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return cookies;
+        }
+
+        @Override
+        public void addCookie(ResponseCookie cookie) {
+            cookies.add(cookie.getName(), cookie);
+        }
+
+        @Override
+        public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+            // Действия фильтров внутри попытки не применяются к настоящему ответу
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return body != null;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> bodyPublisher) {
+            return DataBufferUtils.join(Flux.from(bodyPublisher), maxBodyBytes)
+                    .doOnNext(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        body = bytes;
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> bodyPublisher) {
+            return writeWith(Flux.from(bodyPublisher).concatMap(Flux::from));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Конфигурация hedging маршрута
+     */
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private double quantile = 0.95;
+        private long initialDelayMs = 100;
+        private long minDelayMs = 10;
+        private long maxDelayMs = 1000;
+        private int minSamples = 100;
+        private int maxBodyBytes = 1024 * 1024;
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public double getQuantile() {
+            return quantile;
+        }
+
+        public void setQuantile(double quantile) {
+            this.quantile = quantile;
+        }
+
+        public long getInitialDelayMs() {
+            return initialDelayMs;
+        }
+
+        public void setInitialDelayMs(long initialDelayMs) {
+            this.initialDelayMs = initialDelayMs;
+        }
+
+        public long getMinDelayMs() {
+            return minDelayMs;
+        }
+
+        public void setMinDelayMs(long minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+
+        public long getMaxDelayMs() {
+            return maxDelayMs;
+        }
+
+        public void setMaxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.tasktracker.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Idempotency Filter для Gateway
+ *
+ * Для POST/PATCH с заголовком Idempotency-Key первый ответ сохраняется в Redis
+ * (ключ: маршрут + пользователь + Idempotency-Key) и повторно отдается дубликатам
+ * с заголовком Idempotent-Replayed: true, не доходя до сервиса.
+ *
+ * Первый запрос ставит маркер "в обработке" (SET NX с коротким TTL) и продлевает его,
+ * пока запрос выполняется: с retry запрос может идти дольше inFlightTtlSeconds,
+ * и истекший маркер пропустил бы дубликат в сервис. Параллельные дубликаты
+ * ждут, пока маркер сменится сохраненным ответом, и получают 409 с Retry-After,
+ * если ответ не готов за waitTimeoutMs. Ответы 5xx не сохраняются: маркер снимается,
+ * и следующий повтор снова идет в сервис. Повтор ключа с другим методом или путем - 422.
+ * При недоступности Redis запросы проходят без защиты от дубликатов.
+ */
+@Component
+public class IdempotencyFilter extends AbstractGatewayFilterFactory<IdempotencyFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String IN_FLIGHT_PREFIX = "in-flight:";
+
+    private static final Set<HttpMethod> PROTECTED_METHODS = Set.of(HttpMethod.POST, HttpMethod.PATCH);
+
+    /**
+     * Продление маркера только пока он не заменен сохраненным ответом
+     */
+    private static final RedisScript<Long> REFRESH_IN_FLIGHT = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+                    + "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "end "
+                    + "return 0", Long.class);
+
+    /**
+     * Результат попытки занять ключ
+     */
+    private enum Acquire {
+        ACQUIRED, BUSY, UNAVAILABLE
+    }
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "default";
+        Counter replayed = Counter.builder("gateway.idempotency.replayed")
+                .description("Ответы, повторно отданные из Redis по Idempotency-Key")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+        Counter conflicts = Counter.builder("gateway.idempotency.conflicts")
+                .description("Дубликаты, не дождавшиеся ответа первого запроса")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String idempotencyKey = request.getHeaders().getFirst(config.getHeaderName());
+            if (idempotencyKey == null || idempotencyKey.isBlank() || !PROTECTED_METHODS.contains(request.getMethod())) {
+                return chain.filter(exchange);
+            }
+
+            String key = "idempotency:" + routeId + ":" + getClientId(exchange) + ":" + idempotencyKey;
+            String fingerprint = request.getMethod().name() + " " + request.getPath().value();
+            long deadline = System.currentTimeMillis() + config.getWaitTimeoutMs();
+
+            return handle(exchange, chain, config, key, fingerprint, deadline, replayed, conflicts);
+        };
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              String key, String fingerprint, long deadline, Counter replayed, Counter conflicts) {
+        return redisTemplate.opsForValue()
+                .setIfAbsent(key, IN_FLIGHT_PREFIX + fingerprint, Duration.ofSeconds(config.getInFlightTtlSeconds()))
+                .map(acquired -> acquired ? Acquire.ACQUIRED : Acquire.BUSY)
+                .onErrorResume(e -> {
+                    logger.warn("Redis недоступен, Idempotency-Key не проверяется: {}", e.getMessage());
+                    return Mono.just(Acquire.UNAVAILABLE);
+                })
+                .flatMap(acquire -> switch (acquire) {
+                    case ACQUIRED -> proceed(exchange, chain, config, key, fingerprint);
+                    case UNAVAILABLE -> chain.filter(exchange);
+                    case BUSY -> awaitStored(exchange, chain, config, key, fingerprint, deadline, replayed, conflicts);
+                });
+    }
+
+    /**
+     * Ключ занят: отдает сохраненный ответ или ждет завершения первого запроса
+     */
+    private Mono<Void> awaitStored(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                   String key, String fingerprint, long deadline, Counter replayed, Counter conflicts) {
+        return redisTemplate.opsForValue().get(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    logger.warn("Redis недоступен, Idempotency-Key не проверяется: {}", e.getMessage());
+                    return Mono.just(Optional.of(""));
+                })
+                .flatMap(stored -> {
+                    if (stored.isEmpty()) {
+                        // Маркер снят между SET NX и GET - пробуем занять ключ снова
+                        return handle(exchange, chain, config, key, fingerprint, deadline, replayed, conflicts);
+                    }
+                    String value = stored.get();
+                    if (value.isEmpty()) {
+                        // Redis недоступен - запрос идет без защиты от дубликатов
+                        return chain.filter(exchange);
+                    }
+                    if (!value.startsWith(IN_FLIGHT_PREFIX)) {
+                        return replay(exchange, value, fingerprint, replayed);
+                    }
+                    if (!value.equals(IN_FLIGHT_PREFIX + fingerprint)) {
+                        return reject(exchange, HttpStatus.UNPROCESSABLE_ENTITY);
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        conflicts.increment();
+                        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                        return reject(exchange, HttpStatus.CONFLICT);
+                    }
+                    // Первый запрос еще выполняется - ждем его ответ
+                    return Mono.delay(Duration.ofMillis(config.getPollIntervalMs()))
+                            .then(Mono.defer(() ->
+                                    awaitStored(exchange, chain, config, key, fingerprint, deadline, replayed, conflicts)));
+                });
+    }
+
+    /**
+     * Выполняет запрос и сохраняет ответ вместо маркера "в обработке"
+     */
+    private Mono<Void> proceed(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               String key, String fingerprint) {
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), config.getMaxBodyBytes());
+        Disposable heartbeat = keepInFlight(key, IN_FLIGHT_PREFIX + fingerprint, config);
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnTerminate(heartbeat::dispose)
+                .doOnCancel(heartbeat::dispose)
+                .then(Mono.defer(() -> store(key, fingerprint, response, config)))
+                .doOnError(e -> release(key))
+                .doOnCancel(() -> release(key));
+    }
+
+    /**
+     * Продлевает маркер "в обработке" каждую треть inFlightTtlSeconds до завершения запроса
+     */
+    private Disposable keepInFlight(String key, String marker, Config config) {
+        Duration ttl = Duration.ofSeconds(config.getInFlightTtlSeconds());
+        Duration interval = ttl.dividedBy(3);
+        List<String> args = List.of(marker, String.valueOf(ttl.toMillis()));
+        return Flux.interval(interval, interval)
+                .concatMap(tick -> redisTemplate.execute(REFRESH_IN_FLIGHT, List.of(key), args)
+                        .onErrorResume(e -> {
+                            logger.warn("Не удалось продлить маркер Idempotency-Key: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    private Mono<Void> store(String key, String fingerprint, CapturingResponse response, Config config) {
+        HttpStatusCode status = response.getStatusCode() != null ? response.getStatusCode() : HttpStatus.OK;
+        // 5xx можно повторить; слишком большой ответ не сохраняется, дубликаты пойдут в сервис
+        if (status.is5xxServerError() || response.isOverflowed()) {
+            release(key);
+            return Mono.empty();
+        }
+
+        StoredResponse stored = new StoredResponse(status.value(),
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE),
+                Base64.getEncoder().encodeToString(response.getCapturedBody()),
+                fingerprint);
+        String value;
+        try {
+            value = objectMapper.writeValueAsString(stored);
+        } catch (JsonProcessingException e) {
+            release(key);
+            return Mono.empty();
+        }
+
+        // Ответ уже отправлен клиенту, ошибка записи в Redis не должна его ломать
+        return redisTemplate.opsForValue()
+                .set(key, value, Duration.ofSeconds(config.getTtlSeconds()))
+                .doOnError(e -> logger.warn("Не удалось сохранить ответ для Idempotency-Key: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, String value, String fingerprint, Counter replayed) {
+        StoredResponse stored;
+        try {
+            stored = objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Поврежденный сохраненный ответ Idempotency-Key: {}", e.getMessage());
+            return reject(exchange, HttpStatus.CONFLICT);
+        }
+        if (!fingerprint.equals(stored.fingerprint())) {
+            return reject(exchange, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        replayed.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        response.getHeaders().set(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, stored.contentType());
+        }
+        byte[] body = Base64.getDecoder().decode(stored.body());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+
+    private void release(String key) {
+        redisTemplate.delete(key)
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+
+    /**
+     * Идентификатор клиента: X-User-Id от JwtAuthenticationFilter или IP адрес
+     */
+    private String getClientId(ServerWebExchange exchange) {
+        String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+        if (userId != null) {
+            return "user:" + userId;
+        }
+
+        String clientIp = exchange.getRequest().getRemoteAddress() != null ?
+                exchange.getRequest().getRemoteAddress().getAddress().getHostAddress() :
+                "unknown";
+
+        return "ip:" + clientIp;
+    }
+
+    /**
+     * Сохраненный ответ, тело в Base64
+     */
+    record StoredResponse(int status, String contentType, String body, String fingerprint) {
+    }
+
+    /**
+     * Пропускает тело ответа клиенту и копирует его, пока оно не превышает лимит
+     */
+    static class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final long maxBodyBytes;
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private boolean overflowed;
+
+        CapturingResponse(ServerHttpResponse delegate, long maxBodyBytes) {
+            super(delegate);
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::capture));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::capture)));
+        }
+
+        private void capture(DataBuffer buffer) {
+            int size = buffer.readableByteCount();
+            if (overflowed || captured.size() + size > maxBodyBytes) {
+                overflowed = true;
+                return;
+            }
+            byte[] bytes = new byte[size];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            captured.write(bytes, 0, size);
+        }
+
+        byte[] getCapturedBody() {
+            return captured.toByteArray();
+        }
+
+        boolean isOverflowed() {
+            return overflowed;
+        }
+    }
+
+    /**
+     * Конфигурация Idempotency
+     */
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private String headerName = "Idempotency-Key";
+        private long ttlSeconds = 86400;
+        private long inFlightTtlSeconds = 30;
+        private long waitTimeoutMs = 5000;
+        private long pollIntervalMs = 50;
+        private long maxBodyBytes = 256 * 1024;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public String getHeaderName() {
+            return headerName;
+        }
+
+        public void setHeaderName(String headerName) {
+            this.headerName = headerName;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getInFlightTtlSeconds() {
+            return inFlightTtlSeconds;
+        }
+
+        public void setInFlightTtlSeconds(long inFlightTtlSeconds) {
+            this.inFlightTtlSeconds = inFlightTtlSeconds;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public long getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.loadbalancer.InstanceLoadTracker;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Учет латентности и запросов в работе по экземплярам сервисов
+ *
+ * Выполняется сразу после ReactiveLoadBalancerClientFilter: экземпляр, выбранный
+ * EwmaLoadBalancer, уже известен. Замер завершается в doFinally, поэтому отмена
+ * запроса клиентом тоже освобождает счетчик запросов в работе.
+ */
+@Component
+public class InstanceLoadTrackingFilter implements GlobalFilter, Ordered {
+
+    private final InstanceLoadTracker loadTracker;
+
+    public InstanceLoadTrackingFilter(InstanceLoadTracker loadTracker) {
+        this.loadTracker = loadTracker;
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = lbResponse.getServer();
+        loadTracker.onStart(instance);
+        long start = System.nanoTime();
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        loadTracker.onCancel(instance);
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    loadTracker.onComplete(instance, System.nanoTime() - start, failed);
+                });
+    }
+}
@@ -1,115 +1,266 @@
 package com.tasktracker.gateway.filter;
 
+import com.tasktracker.gateway.security.InternalIdentitySigner;
+import com.tasktracker.gateway.security.JwksKeyCache;
+import com.tasktracker.gateway.security.RevocationListCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
+import java.security.Key;
+import java.security.PublicKey;
 
 /**
  * JWT Authentication Filter для Gateway
- * 
+ *
  * Этот фильтр проверяет JWT токены для защищенных endpoints
+ * и передает сервисам данные пользователя: X-User-Id, X-User-Name, X-User-Roles
+ * и подписанный заголовок X-Internal-Identity, по которому сервисы доверяют
+ * этим данным без повторной проверки токена.
+ *
+ * Токены Auth Service подписаны RS256: ключ проверки выбирается по kid
+ * из локального кэша JWK Set (JwksKeyCache), запроса к Auth Service нет.
+ * HMAC токены принимаются, только если задан jwt.secret (переходный режим).
+ * Отозванные токены отсекаются по локальному фильтру Блума (RevocationListCache).
  */
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAuthenticationFilter.Config> {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-    
-    @Value("${jwt.secret}")
+
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String USER_NAME_HEADER = "X-User-Name";
+    static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    /**
+     * Атрибут exchange с проверенным пользователем (AuthenticatedUser) для глобальных фильтров
+     */
+    public static final String AUTHENTICATED_USER_ATTR = JwtAuthenticationFilter.class.getName() + ".user";
+
+    /**
+     * Общий секрет для HMAC токенов; пустое значение отключает их прием
+     */
+    @Value("${jwt.secret:}")
     private String jwtSecret;
-    
+
     @Value("${jwt.header}")
     private String jwtHeader;
-    
+
     @Value("${jwt.prefix}")
     private String jwtPrefix;
-    
+
+    @Autowired
+    private InternalIdentitySigner identitySigner;
+
+    @Autowired
+    private JwksKeyCache jwksKeyCache;
+
+    @Autowired
+    private RevocationListCache revocationListCache;
+
+    /**
+     * Парсер создается один раз: ключ выбирается по заголовку каждого токена
+     */
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    return resolveKey(header);
+                }
+            })
+            .build();
+
+    private volatile SecretKey hmacKey;
+
     public JwtAuthenticationFilter() {
         super(Config.class);
     }
-    
+
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             String token = extractToken(exchange.getRequest().getHeaders());
-            
+
             if (token == null) {
                 logger.warn("Отсутствует JWT токен в запросе: {}", exchange.getRequest().getURI());
                 exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                 return exchange.getResponse().setComplete();
             }
-            
-            try {
-                Claims claims = validateToken(token);
-                
-                // Добавляем информацию о пользователе в заголовки для downstream сервисов
-                exchange.getRequest().mutate()
-                        .header("X-User-Id", claims.getSubject())
-                        .header("X-User-Name", claims.get("username", String.class))
-                        .header("X-User-Roles", claims.get("roles", String.class))
-                        .build();
-                
-                logger.debug("JWT токен валиден для пользователя: {}", claims.getSubject());
-                
-                return chain.filter(exchange);
-                
-            } catch (Exception e) {
-                logger.error("Ошибка валидации JWT токена: {}", e.getMessage());
+
+            Claims claims = parseClaims(token);
+            if (claims == null) {
                 exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                 return exchange.getResponse().setComplete();
             }
+
+            return isRevoked(claims).flatMap(revoked -> {
+                if (revoked) {
+                    logger.warn("Отозванный JWT токен, jti: {}", claims.getId());
+                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return exchange.getResponse().setComplete();
+                }
+                return forward(exchange, chain, toUser(claims));
+            });
         };
     }
-    
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, AuthenticatedUser user) {
+        exchange.getAttributes().put(AUTHENTICATED_USER_ATTR, user);
+        String userId = user.userId();
+        String username = user.username();
+        String roles = user.roles();
+
+        // Добавляем информацию о пользователе в заголовки для downstream сервисов.
+        // Заголовки от клиента удаляются, чтобы их нельзя было подделать
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_NAME_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    headers.remove(InternalIdentitySigner.HEADER);
+                    setIfPresent(headers, USER_ID_HEADER, userId);
+                    setIfPresent(headers, USER_NAME_HEADER, username);
+                    setIfPresent(headers, USER_ROLES_HEADER, roles);
+                    headers.set(InternalIdentitySigner.HEADER, user.identity());
+                })
+                .build();
+
+        logger.debug("JWT токен валиден для пользователя: {}", username);
+
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    /**
+     * Проверяет JWT из заголовков запроса, включая отзыв; пустой Mono, если токена нет,
+     * он невалиден или отозван.
+     * Используется и для запросов, которые gateway выполняет сам (например, /gateway/dashboard)
+     */
+    public Mono<AuthenticatedUser> authenticate(HttpHeaders headers) {
+        String token = extractToken(headers);
+        Claims claims = token != null ? parseClaims(token) : null;
+        if (claims == null) {
+            return Mono.empty();
+        }
+        return isRevoked(claims)
+                .filter(revoked -> !revoked)
+                .map(notRevoked -> toUser(claims));
+    }
+
+    /**
+     * Claims проверенного токена или null, если подпись или срок действия невалидны
+     */
+    private Claims parseClaims(String token) {
+        try {
+            return validateToken(token);
+        } catch (Exception e) {
+            logger.error("Ошибка валидации JWT токена: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Mono<Boolean> isRevoked(Claims claims) {
+        return revocationListCache != null ? revocationListCache.isRevoked(claims.getId()) : Mono.just(false);
+    }
+
+    private AuthenticatedUser toUser(Claims claims) {
+        String userId = extractUserId(claims);
+        String username = claims.get("username", String.class) != null
+                ? claims.get("username", String.class) : claims.getSubject();
+        String roles = claims.get("roles", String.class) != null
+                ? claims.get("roles", String.class) : claims.get("role", String.class);
+        return new AuthenticatedUser(userId, username, roles, identitySigner.sign(userId, username, roles));
+    }
+
     /**
      * Извлекает JWT токен из заголовков запроса
      */
     private String extractToken(HttpHeaders headers) {
         String authHeader = headers.getFirst(jwtHeader);
-        
+
         if (authHeader != null && authHeader.startsWith(jwtPrefix)) {
             return authHeader.substring(jwtPrefix.length()).trim();
         }
-        
+
         return null;
     }
-    
+
+    /**
+     * ID пользователя: claim userId (токены Auth Service), иначе subject
+     */
+    private String extractUserId(Claims claims) {
+        Object userId = claims.get("userId");
+        return userId != null ? userId.toString() : claims.getSubject();
+    }
+
+    private static void setIfPresent(HttpHeaders headers, String name, String value) {
+        if (value != null) {
+            headers.set(name, value);
+        }
+    }
+
     /**
      * Валидирует JWT токен
      */
     private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
-    
+
     /**
-     * Проверяет, не истек ли токен
+     * Ключ проверки подписи по алгоритму и kid из заголовка токена
      */
-    private boolean isTokenExpired(Claims claims) {
-        return claims.getExpiration().before(new Date());
+    private Key resolveKey(JwsHeader<?> header) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (algorithm.isHmac()) {
+            // Ключ HMAC никогда не строится из открытого ключа JWKS, поэтому подмена RS256 на HS256 не проходит
+            if (jwtSecret == null || jwtSecret.isEmpty()) {
+                throw new UnsupportedJwtException("HMAC токены не принимаются: jwt.secret не задан");
+            }
+            SecretKey key = hmacKey;
+            if (key == null) {
+                key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+                hmacKey = key;
+            }
+            return key;
+        }
+
+        PublicKey key = jwksKeyCache != null ? jwksKeyCache.getKey(header.getKeyId()) : null;
+        if (key == null) {
+            throw new SignatureException("Неизвестный ключ подписи JWT, kid: " + header.getKeyId());
+        }
+        return key;
     }
-    
+
+    /**
+     * Пользователь из проверенного токена и подписанный заголовок X-Internal-Identity для сервисов
+     */
+    public record AuthenticatedUser(String userId, String username, String roles, String identity) {
+    }
+
     /**
      * Конфигурация фильтра
      */
     public static class Config {
         // Можно добавить настройки фильтра
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.RetryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Retry Budget Filter для Gateway
+ *
+ * Обертка над стандартным Retry фильтром: те же настройки (retries, statuses, methods, backoff),
+ * но количество повторных попыток на маршрут ограничено долей от живого трафика (budgetPercent).
+ * Без бюджета при деградации сервиса каждый запрос превращается в retries + 1 запросов
+ * и добивает сервис; с бюджетом лишние retry отклоняются ответом 503 с Retry-After.
+ *
+ * Политика тела запроса:
+ * - неидемпотентные методы (POST, PATCH) без заголовка Idempotency-Key не повторяются,
+ *   тело идет к сервису потоком без буферизации;
+ * - тело кэшируется в памяти только для запросов, которые действительно могут быть повторены,
+ *   и только при известном Content-Length не больше maxReplayBodyBytes;
+ * - большие и chunked тела передаются потоком без retry.
+ * Стандартный Retry при наличии routeId включает кэширование тела для всех запросов маршрута,
+ * поэтому делегат создается без публикатора событий и этот режим не включает.
+ */
+@Component
+public class RetryBudgetFilter extends AbstractGatewayFilterFactory<RetryBudgetFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryBudgetFilter.class);
+
+    /**
+     * Методы, повтор которых безопасен по семантике HTTP
+     */
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+
+    /**
+     * Как обрабатывать тело запроса
+     */
+    enum BodyReplay {
+        /** Запрос не повторяется, тело идет потоком */
+        STREAM,
+        /** Повтор без тела, кэширование не нужно */
+        RETRY_WITHOUT_BODY,
+        /** Повтор с кэшированием тела ограниченного размера */
+        RETRY_WITH_CACHED_BODY
+    }
+
+    /**
+     * Бюджеты по маршрутам - переживают обновление маршрутов, пока не изменились настройки
+     */
+    private final Map<String, RouteBudget> budgets = new ConcurrentHashMap<>();
+
+    // Без ApplicationEventPublisher делегат не включает кэширование тела для всего маршрута
+    private final RetryGatewayFilterFactory retryGatewayFilterFactory = new RetryGatewayFilterFactory();
+    private final MeterRegistry meterRegistry;
+
+    public RetryBudgetFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return Arrays.asList("retries");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "default";
+        RetryBudget budget = budget(routeId, config);
+        Counter exhausted = Counter.builder("gateway.retry.budget.exhausted")
+                .description("Retry, отклоненные из-за исчерпания бюджета")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+        GatewayFilter retryFilter = retryGatewayFilterFactory.apply(config);
+
+        Counter streamed = Counter.builder("gateway.retry.streamed")
+                .description("Запросы, переданные без retry и без буферизации тела")
+                .tag("routeId", routeId)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            budget.recordRequest();
+
+            BodyReplay replay = bodyReplay(exchange.getRequest(), config);
+            if (replay == BodyReplay.STREAM) {
+                streamed.increment();
+                return chain.filter(exchange);
+            }
+
+            // Retry фильтр переподписывается на chain.filter(exchange), поэтому проверка бюджета
+            // должна выполняться при каждой подписке, а не один раз при сборке цепочки
+            GatewayFilterChain budgetedChain = ex -> Mono.defer(() -> {
+                boolean isRetry = ex.getAttribute(RetryGatewayFilterFactory.RETRY_ITERATION_KEY) != null;
+                if (isRetry && !budget.tryAcquireRetry()) {
+                    exhausted.increment();
+                    logger.warn("Бюджет retry исчерпан для маршрута {}: {}", routeId, ex.getRequest().getPath());
+                    // Дальнейшие попытки этого запроса не нужны
+                    ex.getAttributes().put(RetryGatewayFilterFactory.RETRY_ITERATION_KEY, config.getRetries());
+                    ex.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    ex.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSeconds()));
+                    return ex.getResponse().setComplete();
+                }
+                return chain.filter(ex);
+            });
+
+            if (replay == BodyReplay.RETRY_WITH_CACHED_BODY) {
+                // Кэш освобождается RemoveCachedBodyFilter по завершении обмена
+                return ServerWebExchangeUtils.cacheRequestBody(exchange, cachedRequest ->
+                        retryFilter.filter(exchange.mutate().request(cachedRequest).build(), budgetedChain));
+            }
+            return retryFilter.filter(exchange, budgetedChain);
+        };
+    }
+
+    /**
+     * Бюджет маршрута: существующий при тех же настройках, новый - если настройки изменились
+     */
+    private RetryBudget budget(String routeId, Config config) {
+        BudgetSettings settings = new BudgetSettings(
+                config.getBudgetPercent(), config.getMinRetriesPerSecond(), config.getBudgetWindowSeconds());
+        return budgets.compute(routeId, (id, current) -> {
+            if (current != null && current.settings().equals(settings)) {
+                return current;
+            }
+            return new RouteBudget(settings, new RetryBudget(
+                    settings.percent(), settings.minRetriesPerSecond(), settings.windowSeconds()));
+        }).budget();
+    }
+
+    /**
+     * Текущий бюджет маршрута (для тестов)
+     */
+    RetryBudget getBudget(String routeId) {
+        RouteBudget routeBudget = budgets.get(routeId);
+        return routeBudget != null ? routeBudget.budget() : null;
+    }
+
+    /**
+     * Определяет, может ли запрос быть повторен и нужно ли для этого кэшировать тело
+     */
+    static BodyReplay bodyReplay(ServerHttpRequest request, Config config) {
+        HttpMethod method = request.getMethod();
+        HttpHeaders headers = request.getHeaders();
+
+        if (!config.getMethods().contains(method)) {
+            return BodyReplay.STREAM;
+        }
+        if (!IDEMPOTENT_METHODS.contains(method) && !headers.containsKey(config.getIdempotencyKeyHeader())) {
+            return BodyReplay.STREAM;
+        }
+
+        long contentLength = headers.getContentLength();
+        if (contentLength == 0 || (contentLength < 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING))) {
+            return BodyReplay.RETRY_WITHOUT_BODY;
+        }
+        if (contentLength > 0 && contentLength <= config.getMaxReplayBodyBytes()) {
+            return BodyReplay.RETRY_WITH_CACHED_BODY;
+        }
+        // Chunked тело неизвестного размера или слишком большое тело не буферизуется
+        return BodyReplay.STREAM;
+    }
+
+    private record BudgetSettings(int percent, int minRetriesPerSecond, int windowSeconds) {
+    }
+
+    private record RouteBudget(BudgetSettings settings, RetryBudget budget) {
+    }
+
+    /**
+     * Конфигурация Retry с бюджетом
+     */
+    public static class Config extends RetryGatewayFilterFactory.RetryConfig {
+        private int budgetPercent = 20;
+        private int minRetriesPerSecond = 1;
+        private int budgetWindowSeconds = 10;
+        private int retryAfterSeconds = 1;
+        private long maxReplayBodyBytes = 64 * 1024;
+        private String idempotencyKeyHeader = "Idempotency-Key";
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+
+        public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+
+        public int getBudgetWindowSeconds() {
+            return budgetWindowSeconds;
+        }
+
+        public void setBudgetWindowSeconds(int budgetWindowSeconds) {
+            this.budgetWindowSeconds = budgetWindowSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getMaxReplayBodyBytes() {
+            return maxReplayBodyBytes;
+        }
+
+        public void setMaxReplayBodyBytes(long maxReplayBodyBytes) {
+            this.maxReplayBodyBytes = maxReplayBodyBytes;
+        }
+
+        public String getIdempotencyKeyHeader() {
+            return idempotencyKeyHeader;
+        }
+
+        public void setIdempotencyKeyHeader(String idempotencyKeyHeader) {
+            this.idempotencyKeyHeader = idempotencyKeyHeader;
+        }
+    }
+}
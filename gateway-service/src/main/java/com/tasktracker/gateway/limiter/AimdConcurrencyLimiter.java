@@ -0,0 +1,92 @@
+package com.tasktracker.gateway.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит конкурентности по алгоритму AIMD
+ *
+ * Additive Increase / Multiplicative Decrease:
+ * - успешный быстрый ответ при загруженном лимите - лимит растет на 1
+ * - перегрузка (ошибка, 502/503/504, ответ медленнее порога) - лимит умножается на backoffRatio
+ *
+ * Лимит подстраивается под реальную пропускную способность downstream сервиса,
+ * а лишние запросы отбрасываются до того, как займут соединение из общего пула.
+ * Реализация lock-free и безопасна для вызова из event loop Netty.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                  double backoffRatio, long latencyThresholdMs) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Некорректные границы лимита: min=" + minLimit + ", max=" + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio должен быть в диапазоне (0, 1): " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * Попытка занять слот
+     *
+     * @return количество запросов в работе на момент входа (включая текущий) или -1, если лимит исчерпан
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Освобождение слота с учетом результата запроса
+     *
+     * @param inFlightAtStart значение, которое вернул tryAcquire
+     * @param rttNanos время выполнения запроса
+     * @param overloaded признак перегрузки downstream сервиса
+     */
+    public void onSample(int inFlightAtStart, long rttNanos, boolean overloaded) {
+        inFlight.decrementAndGet();
+
+        if (overloaded || rttNanos > latencyThresholdNanos) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        } else if (inFlightAtStart * 2 >= limit.get()) {
+            // Увеличиваем лимит только если он реально используется,
+            // иначе при низкой нагрузке он бы рос без ограничений
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Освобождение слота без изменения лимита (например, при отмене запроса клиентом)
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,64 @@
+package com.tasktracker.gateway.limiter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Оценка квантиля латентности по последним запросам
+ *
+ * Хранит последние windowSize замеров в кольцевом AtomicLongArray. Квантиль
+ * пересчитывается сортировкой копии окна не на каждый запрос, а раз в recomputeEvery
+ * замеров, и между пересчетами читается из volatile поля - чтение бесплатное.
+ */
+public class LatencyQuantileEstimator {
+
+    private final double quantile;
+    private final int recomputeEvery;
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long cachedNanos = -1;
+
+    public LatencyQuantileEstimator(double quantile, int windowSize, int recomputeEvery) {
+        if (quantile <= 0 || quantile >= 1 || windowSize < 1 || recomputeEvery < 1) {
+            throw new IllegalArgumentException("Некорректные параметры оценки квантиля: quantile=" + quantile
+                    + ", window=" + windowSize + ", recomputeEvery=" + recomputeEvery);
+        }
+        this.quantile = quantile;
+        this.recomputeEvery = recomputeEvery;
+        this.samples = new AtomicLongArray(windowSize);
+    }
+
+    /**
+     * Добавляет замер латентности
+     */
+    public void record(long latencyNanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), latencyNanos);
+        if ((n + 1) % recomputeEvery == 0) {
+            recompute(Math.min(n + 1, samples.length()));
+        }
+    }
+
+    /**
+     * Последний вычисленный квантиль или -1, если замеров пока недостаточно
+     */
+    public long getQuantileNanos() {
+        return cachedNanos;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    private void recompute(long filled) {
+        long[] window = new long[(int) filled];
+        for (int i = 0; i < window.length; i++) {
+            window[i] = samples.get(i);
+        }
+        Arrays.sort(window);
+        int index = (int) Math.ceil(quantile * window.length) - 1;
+        cachedNanos = window[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,91 @@
+package com.tasktracker.gateway.limiter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Бюджет повторных попыток
+ *
+ * Ограничивает количество retry долей от живого трафика маршрута
+ * в скользящем окне (по умолчанию 10 секунд). Пока сервис отвечает
+ * нормально, бюджет почти не расходуется; когда он начинает сбоить,
+ * retry перестают умножать нагрузку на него.
+ *
+ * Окно разбито на секундные слоты в AtomicLongArray, поэтому учет lock-free.
+ */
+public class RetryBudget {
+
+    private static final long SLOT_MILLIS = 1000;
+
+    private final int windowSeconds;
+    private final double retryRatio;
+    private final int minRetriesPerSecond;
+    private final LongSupplier clock;
+
+    private final AtomicLongArray slotEpochs;
+    private final AtomicLongArray requests;
+    private final AtomicLongArray retries;
+
+    public RetryBudget(int percent, int minRetriesPerSecond, int windowSeconds) {
+        this(percent, minRetriesPerSecond, windowSeconds, System::currentTimeMillis);
+    }
+
+    RetryBudget(int percent, int minRetriesPerSecond, int windowSeconds, LongSupplier clock) {
+        if (percent < 0 || windowSeconds < 1) {
+            throw new IllegalArgumentException("Некорректный бюджет retry: percent=" + percent + ", window=" + windowSeconds);
+        }
+        this.retryRatio = percent / 100.0;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.windowSeconds = windowSeconds;
+        this.clock = clock;
+        this.slotEpochs = new AtomicLongArray(windowSeconds);
+        this.requests = new AtomicLongArray(windowSeconds);
+        this.retries = new AtomicLongArray(windowSeconds);
+    }
+
+    /**
+     * Учет исходного (не повторного) запроса
+     */
+    public void recordRequest() {
+        requests.incrementAndGet(currentSlot());
+    }
+
+    /**
+     * Попытка списать retry из бюджета
+     *
+     * @return true если повторная попытка разрешена
+     */
+    public boolean tryAcquireRetry() {
+        int slot = currentSlot();
+        long epoch = slotEpochs.get(slot);
+        long totalRequests = 0;
+        long totalRetries = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            if (epoch - slotEpochs.get(i) < windowSeconds) {
+                totalRequests += requests.get(i);
+                totalRetries += retries.get(i);
+            }
+        }
+
+        long allowed = Math.max((long) minRetriesPerSecond * windowSeconds, (long) (totalRequests * retryRatio));
+        if (totalRetries >= allowed) {
+            return false;
+        }
+        retries.incrementAndGet(slot);
+        return true;
+    }
+
+    /**
+     * Индекс текущего слота; устаревший слот обнуляется при первом обращении в новой секунде
+     */
+    private int currentSlot() {
+        long epoch = clock.getAsLong() / SLOT_MILLIS;
+        int slot = (int) (epoch % windowSeconds);
+        long slotEpoch = slotEpochs.get(slot);
+        if (slotEpoch != epoch && slotEpochs.compareAndSet(slot, slotEpoch, epoch)) {
+            requests.set(slot, 0);
+            retries.set(slot, 0);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tasktracker.gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Балансировщик по наименьшей латентности (EWMA + power of two choices)
+ *
+ * Из списка экземпляров случайно выбираются два, и запрос уходит на тот,
+ * у которого меньше стоимость: EWMA времени ответа * (запросы в работе + 1).
+ * Выбор из двух случайных кандидатов не требует полного перебора и не создает
+ * "стадного" эффекта, когда все запросы одновременно уходят на самый быстрый экземпляр.
+ *
+ * Экземпляр из заголовка EXCLUDED_INSTANCE_HEADER не выбирается, если есть другие:
+ * так HedgingFilter отправляет дублирующий запрос не на тот экземпляр, который уже медлит.
+ */
+public class EwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EwmaLoadBalancer.class);
+
+    /**
+     * Служебный заголовок запроса с ключом (host:port) экземпляра, который нужно обойти.
+     * Удаляется перед отправкой запроса в сервис (LoadBalancerConfig)
+     */
+    public static final String EXCLUDED_INSTANCE_HEADER = "X-Gateway-Exclude-Instance";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceLoadTracker loadTracker;
+
+    public EwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                            String serviceId,
+                            InstanceLoadTracker loadTracker) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.loadTracker = loadTracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String excluded = excludedInstance(request);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(withoutExcluded(instances, excluded));
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Ключ экземпляра для EXCLUDED_INSTANCE_HEADER
+     */
+    public static String instanceKey(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static String excludedInstance(Request request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null) {
+            return context.getClientRequest().getHeaders().getFirst(EXCLUDED_INSTANCE_HEADER);
+        }
+        return null;
+    }
+
+    static List<ServiceInstance> withoutExcluded(List<ServiceInstance> instances, String excluded) {
+        if (excluded == null || instances.size() < 2) {
+            return instances;
+        }
+        List<ServiceInstance> remaining = instances.stream()
+                .filter(instance -> !excluded.equals(instanceKey(instance)))
+                .toList();
+        return remaining.isEmpty() ? instances : remaining;
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("Нет доступных экземпляров сервиса: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        ServiceInstance chosen = loadTracker.cost(a) <= loadTracker.cost(b) ? a : b;
+        return new DefaultResponse(chosen);
+    }
+}
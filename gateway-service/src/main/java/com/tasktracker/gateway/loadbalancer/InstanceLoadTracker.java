@@ -0,0 +1,147 @@
+package com.tasktracker.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Учет нагрузки на экземпляры сервисов для EwmaLoadBalancer
+ *
+ * Для каждого экземпляра хранит количество запросов в работе и экспоненциально
+ * взвешенное скользящее среднее (EWMA) времени ответа. Вес старых замеров убывает
+ * со временем (decay), поэтому восстановившийся экземпляр быстро возвращает трафик,
+ * а рост латентности учитывается сразу (Peak EWMA).
+ * Ошибки учитываются как ответ не быстрее failurePenalty.
+ */
+@Component
+public class InstanceLoadTracker {
+
+    private final Map<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+
+    private final long decayNanos;
+    private final long initialLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public InstanceLoadTracker(@Value("${gateway.loadbalancer.decay-ms:10000}") long decayMs,
+                               @Value("${gateway.loadbalancer.initial-latency-ms:50}") long initialLatencyMs,
+                               @Value("${gateway.loadbalancer.failure-penalty-ms:2000}") long failurePenaltyMs) {
+        this(decayMs, initialLatencyMs, failurePenaltyMs, System::nanoTime);
+    }
+
+    InstanceLoadTracker(long decayMs, long initialLatencyMs, long failurePenaltyMs, LongSupplier clock) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMs);
+        this.initialLatencyNanos = TimeUnit.MILLISECONDS.toNanos(initialLatencyMs);
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMs);
+        this.clock = clock;
+    }
+
+    /**
+     * Запрос отправлен на экземпляр
+     */
+    public void onStart(ServiceInstance instance) {
+        load(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Запрос к экземпляру завершен
+     *
+     * @param rttNanos время ответа
+     * @param failed ошибка соединения или 5xx
+     */
+    public void onComplete(ServiceInstance instance, long rttNanos, boolean failed) {
+        InstanceLoad load = load(instance);
+        load.inFlight.decrementAndGet();
+        load.observe(failed ? Math.max(rttNanos, failurePenaltyNanos) : rttNanos, clock.getAsLong());
+    }
+
+    /**
+     * Запрос отменен до ответа (клиент отключился) - время ответа неизвестно
+     */
+    public void onCancel(ServiceInstance instance) {
+        load(instance).inFlight.decrementAndGet();
+    }
+
+    /**
+     * Стоимость выбора экземпляра: EWMA латентности с учетом запросов в работе
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        if (load == null) {
+            return initialLatencyNanos;
+        }
+        double latency = load.latency(clock.getAsLong());
+        return latency * (load.inFlight.get() + 1);
+    }
+
+    public int getInFlight(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.inFlight.get() : 0;
+    }
+
+    /**
+     * Текущая EWMA латентности экземпляра в миллисекундах
+     */
+    public double getLatencyMs(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        double latency = load != null ? load.latency(clock.getAsLong()) : initialLatencyNanos;
+        return latency / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private InstanceLoad load(ServiceInstance instance) {
+        return loads.computeIfAbsent(key(instance), k -> new InstanceLoad(initialLatencyNanos));
+    }
+
+    /**
+     * У SimpleDiscoveryClient instanceId может отсутствовать, поэтому ключ - адрес экземпляра
+     */
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Состояние одного экземпляра
+     */
+    private final class InstanceLoad {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos;
+        private long lastUpdateNanos;
+        private boolean sampled;
+
+        private InstanceLoad(long initialNanos) {
+            this.ewmaNanos = initialNanos;
+        }
+
+        synchronized void observe(long rttNanos, long now) {
+            if (!sampled || rttNanos > ewmaNanos) {
+                // Peak EWMA: замедление учитывается сразу, восстановление - постепенно
+                ewmaNanos = rttNanos;
+                sampled = true;
+            } else {
+                double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+            }
+            lastUpdateNanos = now;
+        }
+
+        /**
+         * Без новых замеров оценка стремится к initialLatency, чтобы "наказанный"
+         * экземпляр снова получал пробные запросы
+         */
+        synchronized double latency(long now) {
+            if (!sampled) {
+                return ewmaNanos;
+            }
+            double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+            return ewmaNanos * weight + initialLatencyNanos * (1 - weight);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tasktracker.gateway.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Фильтр Блума отозванных jti из снимка Auth Service (только чтение)
+ *
+ * Формат и хеширование совпадают с BloomFilter в auth-service:
+ * позиции битов h1 + i * h2 (i = 0..numHashes-1) по модулю numBits,
+ * h1 и h2 получены из 64-битного FNV-1a хеша UTF-8 байт строки,
+ * биты - 64-битные слова little-endian в base64.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long[] words;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(long[] words, int numBits, int numHashes) {
+        this.words = words;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Восстановление фильтра из снимка
+     *
+     * @throws IllegalArgumentException если параметры не согласованы с размером битов
+     */
+    public static BloomFilter fromBase64(int numBits, int numHashes, String bits) {
+        byte[] bytes = Base64.getDecoder().decode(bits);
+        if (numBits <= 0 || numHashes <= 0 || bytes.length != (numBits + 63) / 64 * 8) {
+            throw new IllegalArgumentException("Некорректный снимок фильтра Блума: numBits=" + numBits
+                    + ", numHashes=" + numHashes + ", bytes=" + bytes.length);
+        }
+        long[] words = new long[bytes.length / 8];
+        for (int i = 0; i < words.length; i++) {
+            long word = 0;
+            for (int b = 0; b < 8; b++) {
+                word |= (bytes[i * 8 + b] & 0xffL) << (8 * b);
+            }
+            words[i] = word;
+        }
+        return new BloomFilter(words, numBits, numHashes);
+    }
+
+    /**
+     * false - значения точно нет в фильтре; true - возможно есть
+     */
+    public boolean mightContain(String value) {
+        long h1 = h1(value);
+        long h2 = mix(h1 + GOLDEN_GAMMA) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long h1(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Финализатор SplitMix64
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
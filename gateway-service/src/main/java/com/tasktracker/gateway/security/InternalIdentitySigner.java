@@ -0,0 +1,84 @@
+package com.tasktracker.gateway.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Подпись внутреннего заголовка идентичности пользователя
+ *
+ * После проверки JWT gateway передает сервисам короткоживущий заголовок
+ * X-Internal-Identity формата "v1.&lt;payload&gt;.&lt;signature&gt;":
+ * payload - base64url("userId\nusername\nroles\nexpiresAtEpochSeconds"),
+ * signature - base64url(HMAC-SHA256(payload)).
+ * Сервисы проверяют одну HMAC подпись вместо повторной валидации JWT
+ * или запроса к Auth Service.
+ */
+@Component
+public class InternalIdentitySigner {
+
+    public static final String HEADER = "X-Internal-Identity";
+    public static final String VERSION = "v1";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final Clock clock;
+
+    /**
+     * Mac не потокобезопасен, поэтому по экземпляру на поток event loop
+     */
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public InternalIdentitySigner(@Value("${internal.identity.secret}") String secret,
+                                  @Value("${internal.identity.ttl-seconds:60}") long ttlSeconds) {
+        this(secret, ttlSeconds, Clock.systemUTC());
+    }
+
+    InternalIdentitySigner(String secret, long ttlSeconds, Clock clock) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < 32) {
+            throw new IllegalArgumentException("internal.identity.secret должен быть не короче 32 байт");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Формирует значение заголовка для пользователя
+     */
+    public String sign(String userId, String username, String roles) {
+        long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+        String payload = ENCODER.encodeToString(String.join("\n",
+                nullToEmpty(userId), nullToEmpty(username), nullToEmpty(roles), Long.toString(expiresAt))
+                .getBytes(StandardCharsets.UTF_8));
+        String signature = ENCODER.encodeToString(mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        return VERSION + "." + payload + "." + signature;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
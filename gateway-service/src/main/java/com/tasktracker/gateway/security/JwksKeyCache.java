@@ -0,0 +1,173 @@
+package com.tasktracker.gateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш открытых ключей Auth Service (JWK Set)
+ *
+ * Ключи загружаются из /.well-known/jwks.json при старте и обновляются в фоне
+ * раз в refresh-interval-ms, поэтому проверка JWT полностью локальная: без общего
+ * секрета и без запроса к Auth Service на каждый запрос.
+ * Auth Service публикует следующий ключ заранее, так что при обычной ротации kid
+ * уже есть в кэше. Неизвестный kid запускает внеочередное обновление,
+ * не чаще раза в min-refresh-interval-ms; сам запрос при этом отклоняется.
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String jwksUri;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalMs;
+    private final LongSupplier clock;
+
+    private final AtomicLong lastRefreshAt = new AtomicLong(Long.MIN_VALUE / 2);
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile Disposable refresher;
+
+    @Autowired
+    public JwksKeyCache(WebClient.Builder webClientBuilder,
+                        ObjectMapper objectMapper,
+                        @Value("${jwt.jwks.uri:${services.auth-service.url:http://localhost:8081}/.well-known/jwks.json}") String jwksUri,
+                        @Value("${jwt.jwks.refresh-interval-ms:300000}") long refreshIntervalMs,
+                        @Value("${jwt.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs) {
+        this(webClientBuilder.build(), objectMapper, jwksUri, refreshIntervalMs, minRefreshIntervalMs,
+                System::currentTimeMillis);
+    }
+
+    JwksKeyCache(WebClient webClient, ObjectMapper objectMapper, String jwksUri,
+                 long refreshIntervalMs, long minRefreshIntervalMs, LongSupplier clock) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.jwksUri = jwksUri;
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        Disposable current = refresher;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Открытый ключ по kid из заголовка токена
+     *
+     * @return ключ или null, если kid неизвестен (запускается фоновое обновление)
+     */
+    public PublicKey getKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            requestRefresh();
+        }
+        return key;
+    }
+
+    /**
+     * Внеочередное обновление с ограничением частоты
+     */
+    void requestRefresh() {
+        long now = clock.getAsLong();
+        long last = lastRefreshAt.get();
+        if (now - last >= minRefreshIntervalMs && lastRefreshAt.compareAndSet(last, now)) {
+            refresh().subscribe();
+        }
+    }
+
+    /**
+     * Загрузка JWK Set; при ошибке остаются ранее загруженные ключи
+     */
+    Mono<Void> refresh() {
+        lastRefreshAt.set(clock.getAsLong());
+        return webClient.get()
+                .uri(jwksUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(FETCH_TIMEOUT)
+                .map(this::parse)
+                .doOnNext(loaded -> {
+                    if (loaded.isEmpty()) {
+                        logger.warn("JWKS {} не содержит RSA ключей, используются ранее загруженные", jwksUri);
+                    } else {
+                        keys = loaded;
+                        logger.debug("JWKS обновлен: {} ключей", loaded.size());
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Не удалось обновить JWKS {}: {}", jwksUri, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Разбор JWK Set: используются только RSA ключи подписи
+     */
+    Map<String, PublicKey> parse(String json) {
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            Map<String, PublicKey> parsed = new HashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (JsonNode jwk : root.path("keys")) {
+                String use = jwk.path("use").asText("sig");
+                if (!"RSA".equals(jwk.path("kty").asText()) || !"sig".equals(use) || !jwk.hasNonNull("kid")) {
+                    continue;
+                }
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                        decode(jwk.path("n").asText()), decode(jwk.path("e").asText()));
+                parsed.put(jwk.get("kid").asText(), keyFactory.generatePublic(spec));
+            }
+            return Map.copyOf(parsed);
+        } catch (GeneralSecurityException | IllegalArgumentException | IOException e) {
+            throw new IllegalStateException("Некорректный JWKS: " + e.getMessage(), e);
+        }
+    }
+
+    private static BigInteger decode(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -0,0 +1,181 @@
+package com.tasktracker.gateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Локальная копия списка отозванных JWT (фильтр Блума от Auth Service)
+ *
+ * Снимок загружается из /auth/revocations/bloom раз в refresh-interval-ms
+ * с If-None-Match, поэтому без изменений Auth Service отвечает 304.
+ * Проверка jti - несколько операций над битами в памяти; запрос точного ответа
+ * (/auth/revocations/{jti}) выполняется только при попадании в фильтр,
+ * то есть для отозванных токенов и редких ложных срабатываний.
+ *
+ * Пока снимок не загружен, токены считаются неотозванными (как до появления отзыва).
+ * Если при попадании Auth Service недоступен, токен отклоняется.
+ */
+@Component
+public class RevocationListCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationListCache.class);
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Максимум точных ответов в кэше; кэш также сбрасывается при смене снимка
+     */
+    private static final int MAX_EXACT_RESULTS = 10_000;
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String revocationsUri;
+    private final Duration refreshInterval;
+
+    private final Map<String, Boolean> exactResults = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+    private volatile Disposable refresher;
+
+    @Autowired
+    public RevocationListCache(WebClient.Builder webClientBuilder,
+                               ObjectMapper objectMapper,
+                               @Value("${jwt.revocation.uri:${services.auth-service.url:http://localhost:8081}/auth/revocations}") String revocationsUri,
+                               @Value("${jwt.revocation.refresh-interval-ms:10000}") long refreshIntervalMs) {
+        this(webClientBuilder.build(), objectMapper, revocationsUri, refreshIntervalMs);
+    }
+
+    RevocationListCache(WebClient webClient, ObjectMapper objectMapper, String revocationsUri, long refreshIntervalMs) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.revocationsUri = revocationsUri;
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMs);
+    }
+
+    @PostConstruct
+    void start() {
+        refresher = Flux.interval(Duration.ZERO, refreshInterval)
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        Disposable current = refresher;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Проверка отзыва токена по jti
+     *
+     * @param jti идентификатор токена; токены без jti не отзываются
+     * @return true, если токен отозван
+     */
+    public Mono<Boolean> isRevoked(String jti) {
+        Snapshot current = snapshot;
+        if (jti == null || current == null || !current.filter().mightContain(jti)) {
+            return Mono.just(false);
+        }
+
+        Boolean cached = exactResults.get(jti);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return webClient.get()
+                .uri(revocationsUri + "/{jti}", jti)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(FETCH_TIMEOUT)
+                .map(this::parseRevoked)
+                .doOnNext(revoked -> {
+                    if (exactResults.size() >= MAX_EXACT_RESULTS) {
+                        exactResults.clear();
+                    }
+                    exactResults.put(jti, revoked);
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Не удалось проверить отзыв токена {}, токен отклонен: {}", jti, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Загрузка снимка; при ошибке остается ранее загруженный
+     */
+    Mono<Void> refresh() {
+        Snapshot current = snapshot;
+        return webClient.get()
+                .uri(revocationsUri + "/bloom")
+                .headers(headers -> {
+                    if (current != null) {
+                        headers.setIfNoneMatch(current.etag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        return response.releaseBody().then(Mono.<Snapshot>empty());
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    String etag = response.headers().asHttpHeaders().getETag();
+                    return response.bodyToMono(String.class).map(body -> parse(etag, body));
+                })
+                .timeout(FETCH_TIMEOUT)
+                .doOnNext(loaded -> {
+                    snapshot = loaded;
+                    exactResults.clear();
+                    logger.debug("Список отозванных токенов обновлен: версия {}", loaded.etag());
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Не удалось обновить список отозванных токенов: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    Snapshot parse(String etag, String json) {
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            BloomFilter filter = BloomFilter.fromBase64(
+                    root.path("numBits").asInt(), root.path("numHashes").asInt(), root.path("bits").asText());
+            String version = etag != null ? etag : "\"" + root.path("version").asText() + "\"";
+            return new Snapshot(version, filter);
+        } catch (IOException e) {
+            throw new IllegalStateException("Некорректный снимок отозванных токенов: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean parseRevoked(String json) {
+        try {
+            return objectMapper.readTree(json).path("revoked").asBoolean(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Некорректный ответ проверки отзыва: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Загруженный снимок: ETag и фильтр
+     */
+    record Snapshot(String etag, BloomFilter filter) {
+    }
+}
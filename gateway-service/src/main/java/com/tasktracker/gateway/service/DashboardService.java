@@ -0,0 +1,144 @@
+package com.tasktracker.gateway.service;
+
+import com.tasktracker.gateway.config.DashboardProperties;
+import com.tasktracker.gateway.filter.JwtAuthenticationFilter.AuthenticatedUser;
+import com.tasktracker.gateway.security.InternalIdentitySigner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Агрегация данных для главной страницы пользователя
+ *
+ * Один запрос клиента превращается в три параллельных запроса к сервисам (Mono.zip):
+ * - task-service: назначенные пользователю задачи;
+ * - notification-service: количество непрочитанных уведомлений;
+ * - audit-service: последние действия пользователя.
+ *
+ * У каждого запроса свой таймаут. Ошибка или таймаут одного сервиса не роняет ответ:
+ * поле этого сервиса возвращается пустым, причина попадает в errors, а partial = true.
+ *
+ * Создается в DashboardConfig с балансирующим WebClient: экземпляр сервиса
+ * выбирается так же, как для lb:// маршрутов.
+ */
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    static final String TASKS = "tasks";
+    static final String NOTIFICATIONS = "notifications";
+    static final String AUDIT = "audit";
+
+    private final WebClient webClient;
+    private final DashboardProperties properties;
+    private final String taskServiceUrl;
+    private final String notificationServiceUrl;
+    private final String auditServiceUrl;
+
+    public DashboardService(WebClient webClient,
+                            DashboardProperties properties,
+                            String taskServiceUrl,
+                            String notificationServiceUrl,
+                            String auditServiceUrl) {
+        this.webClient = webClient;
+        this.properties = properties;
+        this.taskServiceUrl = taskServiceUrl;
+        this.notificationServiceUrl = notificationServiceUrl;
+        this.auditServiceUrl = auditServiceUrl;
+    }
+
+    /**
+     * Собирает dashboard пользователя
+     *
+     * Mono всегда завершается значением: отказы отдельных сервисов отражаются в ответе
+     */
+    public Mono<Map<String, Object>> getDashboard(AuthenticatedUser user) {
+        Mono<Leg> tasks = leg(TASKS, user,
+                taskServiceUrl + "/tasks/assigned/{userId}?page=0&size={size}",
+                properties.getTasksTimeout(), user.userId(), properties.getPageSize());
+        Mono<Leg> notifications = leg(NOTIFICATIONS, user,
+                notificationServiceUrl + "/api/notifications/user/{userId}/unread/count",
+                properties.getNotificationsTimeout(), user.userId());
+        Mono<Leg> audit = leg(AUDIT, user,
+                auditServiceUrl + "/api/audit/events/user/{userId}?page=0&size={size}",
+                properties.getAuditTimeout(), user.userId(), properties.getPageSize());
+
+        return Mono.zip(tasks, notifications, audit)
+                .map(legs -> assemble(user, legs.getT1(), legs.getT2(), legs.getT3()));
+    }
+
+    /**
+     * Запрос к одному сервису с собственным таймаутом; ошибки превращаются в неуспешный Leg
+     */
+    private Mono<Leg> leg(String name, AuthenticatedUser user, String uriTemplate,
+                          Duration timeout, Object... uriVariables) {
+        return webClient.get()
+                .uri(uriTemplate, uriVariables)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(InternalIdentitySigner.HEADER, user.identity())
+                .header("X-User-ID", user.userId())
+                .retrieve()
+                .bodyToMono(Object.class)
+                .map(body -> Leg.success(name, body))
+                .defaultIfEmpty(Leg.success(name, null))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    String reason = failureReason(e);
+                    logger.warn("Dashboard: сервис {} не ответил ({}) для пользователя {}", name, reason, user.userId());
+                    return Mono.just(Leg.failure(name, reason));
+                });
+    }
+
+    private Map<String, Object> assemble(AuthenticatedUser user, Leg tasks, Leg notifications, Leg audit) {
+        Map<String, Object> errors = new LinkedHashMap<>();
+        for (Leg leg : new Leg[]{tasks, notifications, audit}) {
+            if (leg.error() != null) {
+                errors.put(leg.name(), leg.error());
+            }
+        }
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("userId", user.userId());
+        dashboard.put("username", user.username());
+        dashboard.put("tasks", tasks.body());
+        dashboard.put("unreadNotifications", notifications.body());
+        dashboard.put("recentActivity", audit.body());
+        dashboard.put("partial", !errors.isEmpty());
+        dashboard.put("errors", errors);
+        dashboard.put("timestamp", LocalDateTime.now());
+        return dashboard;
+    }
+
+    static String failureReason(Throwable e) {
+        if (e instanceof TimeoutException) {
+            return "TIMEOUT";
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return "HTTP_" + responseException.getStatusCode().value();
+        }
+        return "UNAVAILABLE";
+    }
+
+    /**
+     * Результат запроса к одному сервису: тело ответа либо причина отказа
+     */
+    record Leg(String name, Object body, String error) {
+
+        static Leg success(String name, Object body) {
+            return new Leg(name, body, null);
+        }
+
+        static Leg failure(String name, String error) {
+            return new Leg(name, null, error);
+        }
+    }
+}
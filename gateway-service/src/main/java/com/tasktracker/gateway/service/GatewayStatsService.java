@@ -0,0 +1,341 @@
+package com.tasktracker.gateway.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис сбора живой статистики Gateway
+ *
+ * Источники данных:
+ * - Micrometer таймер spring.cloud.gateway.requests - латентность по маршрутам
+ * - CircuitBreakerRegistry - реальные состояния circuit breakers Resilience4j
+ * - метрики пула reactor.netty.connection.provider.* - загрузка пула соединений
+ * - RouteLocator / RouteDefinitionLocator - фактически загруженные маршруты
+ */
+@Service
+public class GatewayStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayStatsService.class);
+
+    /**
+     * Таймер, который GatewayMetricsFilter пишет для каждого проксированного запроса
+     */
+    static final String GATEWAY_REQUESTS_METRIC = "spring.cloud.gateway.requests";
+
+    /**
+     * Префикс метрик пула соединений Reactor Netty
+     */
+    static final String POOL_METRIC_PREFIX = "reactor.netty.connection.provider.";
+
+    private static final String CIRCUIT_BREAKER_FILTER = "CircuitBreaker";
+    private static final String PATH_PREDICATE = "Path";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final List<String> POOL_METRICS = List.of(
+            "total.connections", "active.connections", "idle.connections",
+            "pending.connections", "max.connections",
+            // Только для HTTP/2 (h2c): запросы-потоки внутри соединений
+            "active.streams", "pending.streams");
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final String poolName;
+
+    public GatewayStatsService(RouteLocator routeLocator,
+                               RouteDefinitionLocator routeDefinitionLocator,
+                               MeterRegistry meterRegistry,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               @Value("${spring.cloud.gateway.httpclient.pool.name:proxy}") String poolName) {
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.poolName = poolName;
+    }
+
+    /**
+     * Время работы Gateway
+     */
+    public Duration getUptime() {
+        return Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    /**
+     * Загруженные маршруты вместе с их определениями (определение может отсутствовать
+     * для маршрутов, созданных через Java DSL)
+     */
+    public Mono<List<RouteSnapshot>> getRoutes() {
+        Mono<Map<String, RouteDefinition>> definitions = routeDefinitionLocator.getRouteDefinitions()
+                .collectMap(RouteDefinition::getId)
+                .onErrorResume(e -> {
+                    logger.warn("Не удалось получить определения маршрутов: {}", e.getMessage());
+                    return Mono.just(Map.of());
+                });
+
+        return routeLocator.getRoutes()
+                .collectList()
+                .zipWith(definitions, (routes, defs) -> {
+                    List<RouteSnapshot> snapshots = new ArrayList<>(routes.size());
+                    for (Route route : routes) {
+                        snapshots.add(new RouteSnapshot(route, defs.get(route.getId())));
+                    }
+                    return snapshots;
+                });
+    }
+
+    /**
+     * Статистика латентности по маршруту
+     *
+     * GatewayMetricsFilter регистрирует отдельный таймер на каждую комбинацию
+     * статуса/метода, поэтому значения агрегируются: count и mean - точно,
+     * процентили - как максимум по таймерам маршрута (оценка сверху)
+     */
+    public Map<String, Object> getRouteLatency(String routeId) {
+        Collection<Timer> timers = meterRegistry.find(GATEWAY_REQUESTS_METRIC)
+                .tag("routeId", routeId)
+                .timers();
+
+        long count = 0;
+        long errors = 0;
+        double totalMs = 0;
+        double maxMs = 0;
+        double[] percentiles = new double[PERCENTILES.length];
+        boolean hasPercentiles = false;
+
+        for (Timer timer : timers) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            count += snapshot.count();
+            totalMs += snapshot.total(TimeUnit.MILLISECONDS);
+            maxMs = Math.max(maxMs, snapshot.max(TimeUnit.MILLISECONDS));
+            if (!"SUCCESS".equals(timer.getId().getTag("outcome"))) {
+                errors += snapshot.count();
+            }
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                int index = indexOfPercentile(value.percentile());
+                if (index >= 0) {
+                    percentiles[index] = Math.max(percentiles[index], value.value(TimeUnit.MILLISECONDS));
+                    hasPercentiles = true;
+                }
+            }
+        }
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("requests", count);
+        latency.put("errors", errors);
+        latency.put("meanMs", count > 0 ? round(totalMs / count) : null);
+        latency.put("maxMs", count > 0 ? round(maxMs) : null);
+        latency.put("p50Ms", hasPercentiles ? round(percentiles[0]) : null);
+        latency.put("p95Ms", hasPercentiles ? round(percentiles[1]) : null);
+        latency.put("p99Ms", hasPercentiles ? round(percentiles[2]) : null);
+        return latency;
+    }
+
+    /**
+     * Состояние circuit breaker по имени
+     *
+     * Circuit breaker создается фабрикой лениво при первом запросе через маршрут,
+     * поэтому здесь используется find, чтобы не создать его раньше времени с чужой конфигурацией
+     */
+    public Optional<Map<String, Object>> getCircuitBreaker(String name) {
+        return circuitBreakerRegistry.find(name).map(this::describeCircuitBreaker);
+    }
+
+    /**
+     * Состояния всех созданных circuit breakers
+     */
+    public Map<String, Object> getCircuitBreakers() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        circuitBreakerRegistry.getAllCircuitBreakers().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .forEach(cb -> result.put(cb.getName(), describeCircuitBreaker(cb)));
+        return result;
+    }
+
+    /**
+     * Загрузка пула соединений к downstream сервисам
+     *
+     * Метрики публикуются Reactor Netty только при
+     * spring.cloud.gateway.httpclient.pool.metrics=true
+     */
+    public Map<String, Object> getConnectionPool() {
+        Map<String, Map<String, Object>> byRemote = new LinkedHashMap<>();
+        double active = 0;
+        double idle = 0;
+        double pending = 0;
+        double total = 0;
+        double max = 0;
+        double activeStreams = 0;
+        double pendingStreams = 0;
+
+        for (String metric : POOL_METRICS) {
+            for (Gauge gauge : meterRegistry.find(POOL_METRIC_PREFIX + metric).tag("name", poolName).gauges()) {
+                double value = gauge.value();
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                String remote = Optional.ofNullable(gauge.getId().getTag("remote.address")).orElse("unknown");
+                byRemote.computeIfAbsent(remote, k -> new LinkedHashMap<>()).put(toCamelCase(metric), (long) value);
+                switch (metric) {
+                    case "active.connections" -> active += value;
+                    case "idle.connections" -> idle += value;
+                    case "pending.connections" -> pending += value;
+                    case "total.connections" -> total += value;
+                    case "max.connections" -> max += value;
+                    case "active.streams" -> activeStreams += value;
+                    default -> pendingStreams += value;
+                }
+            }
+        }
+
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("name", poolName);
+        pool.put("metricsEnabled", !byRemote.isEmpty());
+        pool.put("totalConnections", (long) total);
+        pool.put("activeConnections", (long) active);
+        pool.put("idleConnections", (long) idle);
+        pool.put("pendingAcquires", (long) pending);
+        pool.put("maxConnections", (long) max);
+        pool.put("activeStreams", (long) activeStreams);
+        pool.put("pendingStreams", (long) pendingStreams);
+        pool.put("utilization", max > 0 ? round(active / max) : null);
+        pool.put("saturated", pending > 0 || pendingStreams > 0 || (max > 0 && active >= max));
+        pool.put("remotes", byRemote);
+        return pool;
+    }
+
+    private Map<String, Object> describeCircuitBreaker(CircuitBreaker circuitBreaker) {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", circuitBreaker.getState().name());
+        stats.put("failureRate", normalizeRate(metrics.getFailureRate()));
+        stats.put("slowCallRate", normalizeRate(metrics.getSlowCallRate()));
+        stats.put("calls", metrics.getNumberOfBufferedCalls());
+        stats.put("failedCalls", metrics.getNumberOfFailedCalls());
+        stats.put("slowCalls", metrics.getNumberOfSlowCalls());
+        stats.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+        return stats;
+    }
+
+    /**
+     * Resilience4j возвращает -1, пока в окне недостаточно вызовов
+     */
+    private static double normalizeRate(float rate) {
+        return rate < 0 ? 0.0 : rate;
+    }
+
+    private static int indexOfPercentile(double percentile) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (Math.abs(PERCENTILES[i] - percentile) < 1e-9) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static String toCamelCase(String metric) {
+        int dot = metric.indexOf('.');
+        return metric.substring(0, dot) + Character.toUpperCase(metric.charAt(dot + 1)) + metric.substring(dot + 2);
+    }
+
+    /**
+     * Снимок загруженного маршрута
+     */
+    public static class RouteSnapshot {
+        private final Route route;
+        private final RouteDefinition definition;
+
+        RouteSnapshot(Route route, RouteDefinition definition) {
+            this.route = route;
+            this.definition = definition;
+        }
+
+        public String getId() {
+            return route.getId();
+        }
+
+        public String getTarget() {
+            return route.getUri().toString();
+        }
+
+        public int getOrder() {
+            return route.getOrder();
+        }
+
+        /**
+         * Path предикаты из определения маршрута, либо строковое представление предиката
+         */
+        public String getPath() {
+            if (definition != null) {
+                for (PredicateDefinition predicate : definition.getPredicates()) {
+                    if (PATH_PREDICATE.equals(predicate.getName())) {
+                        return String.join(",", predicate.getArgs().values());
+                    }
+                }
+            }
+            return route.getPredicate().toString();
+        }
+
+        public List<String> getFilters() {
+            List<String> filters = new ArrayList<>();
+            if (definition != null) {
+                for (FilterDefinition filter : definition.getFilters()) {
+                    filters.add(filter.getName());
+                }
+                return filters;
+            }
+            for (GatewayFilter filter : route.getFilters()) {
+                GatewayFilter delegate = filter instanceof OrderedGatewayFilter ordered ? ordered.getDelegate() : filter;
+                filters.add(delegate.toString());
+            }
+            return filters;
+        }
+
+        /**
+         * Имя circuit breaker, указанное в аргументах фильтра CircuitBreaker
+         */
+        public Optional<String> getCircuitBreakerName() {
+            if (definition == null) {
+                return Optional.empty();
+            }
+            return definition.getFilters().stream()
+                    .filter(filter -> CIRCUIT_BREAKER_FILTER.equals(filter.getName()))
+                    .map(filter -> filter.getArgs().getOrDefault("name", filter.getArgs().get("_genkey_0")))
+                    .filter(name -> name != null && !name.isBlank())
+                    .findFirst();
+        }
+    }
+}
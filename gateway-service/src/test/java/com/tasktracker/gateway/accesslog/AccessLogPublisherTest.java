@@ -0,0 +1,91 @@
+package com.tasktracker.gateway.accesslog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasktracker.gateway.config.AccessLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для AccessLogPublisher
+ */
+class AccessLogPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRecordMapsToAuditEventRequest() {
+        // Arrange
+        AccessLogRecord record = new AccessLogRecord(0, "task-service", "POST", "/tasks", "42", "alice",
+                "10.0.0.1", "curl/8.0", 201, 12, 345);
+
+        // Act
+        Map<String, Object> event = AccessLogPublisher.toAuditEvent(record);
+
+        // Assert
+        assertEquals(42L, event.get("userId"));
+        assertEquals("alice", event.get("username"));
+        assertEquals("API_REQUEST", event.get("action"));
+        assertEquals("POST /tasks", event.get("methodName"));
+        assertEquals(12L, event.get("executionTimeMs"));
+        assertEquals(true, event.get("isSuccess"));
+        assertEquals("POST /tasks -> 201 (task-service, 345 bytes)", event.get("description"));
+    }
+
+    @Test
+    void testAnonymousUnauthorizedRequest() {
+        // Arrange
+        AccessLogRecord record = new AccessLogRecord(0, "task-service", "GET", "/tasks", null, null,
+                "10.0.0.1", null, 401, 1, 0);
+
+        // Act
+        Map<String, Object> event = AccessLogPublisher.toAuditEvent(record);
+
+        // Assert - user_id в audit обязателен
+        assertEquals(0L, event.get("userId"));
+        assertEquals(AccessLogPublisher.ANONYMOUS, event.get("username"));
+        assertEquals("UNAUTHORIZED_ACCESS", event.get("action"));
+        assertEquals(false, event.get("isSuccess"));
+        assertEquals("HTTP 401", event.get("errorMessage"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDrainSendsBufferedRecordsToTopic() throws Exception {
+        // Arrange
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(16);
+        KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AccessLogPublisher publisher = new AccessLogPublisher(buffer, kafkaTemplate, objectMapper,
+                new AccessLogProperties(), meterRegistry);
+
+        buffer.offer(new AccessLogRecord(0, "task-service", "GET", "/tasks/1", "42", "alice",
+                "10.0.0.1", null, 200, 3, 10));
+        buffer.offer(new AccessLogRecord(0, "auth-service", "POST", "/auth/login", null, null,
+                "10.0.0.2", null, 200, 40, 200));
+
+        // Act
+        int drained = publisher.drainOnce();
+
+        // Assert
+        assertEquals(2, drained);
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("gateway-events"), eq("42"), payload.capture());
+        verify(kafkaTemplate).send(eq("gateway-events"), isNull(), anyString());
+        assertEquals("GET /tasks/1", objectMapper.readTree(payload.getValue()).get("methodName").asText());
+        assertEquals(2.0, meterRegistry.get("gateway.access-log.published").counter().count());
+    }
+}
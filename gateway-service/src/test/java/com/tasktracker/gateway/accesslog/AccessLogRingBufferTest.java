@@ -0,0 +1,98 @@
+package com.tasktracker.gateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для AccessLogRingBuffer
+ */
+class AccessLogRingBufferTest {
+
+    @Test
+    void testDrainReturnsRecordsInOrder() {
+        // Arrange
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(record(i)));
+        }
+
+        // Act
+        List<AccessLogRecord> drained = new ArrayList<>();
+        int count = buffer.drain(drained::add, 3);
+
+        // Assert
+        assertEquals(3, count);
+        assertEquals(List.of(0L, 1L, 2L), drained.stream().map(AccessLogRecord::timestamp).toList());
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    void testFullBufferRejectsWithoutBlocking() {
+        // Arrange - емкость округляется до степени двойки
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(record(i)));
+        }
+
+        // Act & Assert
+        assertFalse(buffer.offer(record(4)));
+
+        // После чтения место освобождается
+        buffer.drain(r -> { }, 1);
+        assertTrue(buffer.offer(record(5)));
+    }
+
+    @Test
+    void testConcurrentWritersLoseNoAcceptedRecords() throws Exception {
+        // Arrange
+        AccessLogRingBuffer buffer = new AccessLogRingBuffer(1024);
+        int writers = 4;
+        int recordsPerWriter = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+
+        // Act
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            executor.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < recordsPerWriter; i++) {
+                    if (buffer.offer(record((long) writer * recordsPerWriter + i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        startLatch.countDown();
+        executor.shutdown();
+
+        Set<Long> received = new HashSet<>();
+        while (!executor.isTerminated() || buffer.size() > 0) {
+            buffer.drain(r -> assertTrue(received.add(r.timestamp()), "Запись прочитана дважды"), 256);
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        buffer.drain(r -> assertTrue(received.add(r.timestamp())), Integer.MAX_VALUE);
+
+        // Assert - каждая принятая запись прочитана ровно один раз
+        assertEquals(accepted.get(), received.size());
+    }
+
+    private static AccessLogRecord record(long timestamp) {
+        return new AccessLogRecord(timestamp, "task-service", "GET", "/tasks", "42", "alice",
+                "127.0.0.1", "test", 200, 5, 100);
+    }
+}
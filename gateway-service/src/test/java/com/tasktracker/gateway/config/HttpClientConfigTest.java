@@ -0,0 +1,63 @@
+package com.tasktracker.gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для HttpClientConfig
+ */
+class HttpClientConfigTest {
+
+    @Test
+    void testFixedPoolWithPerRouteLimits() {
+        // Arrange
+        HttpClientProperties.Pool pool = new HttpClientProperties().getPool();
+        pool.setType(HttpClientProperties.Pool.PoolType.FIXED);
+        pool.setMaxConnections(200);
+        pool.setMaxLifeTime(Duration.ofMinutes(10));
+
+        UpstreamHttpClientProperties upstream = new UpstreamHttpClientProperties();
+        UpstreamHttpClientProperties.RoutePool taskPool = new UpstreamHttpClientProperties.RoutePool();
+        taskPool.setAddress("task-service:8082");
+        taskPool.setMaxConnections(32);
+        upstream.getRoutes().put("task-service", taskPool);
+
+        // Act
+        ConnectionProvider provider = HttpClientConfig.buildConnectionProvider(pool, upstream);
+
+        // Assert
+        try {
+            assertEquals(200, provider.maxConnections());
+            assertEquals(32, provider.maxConnectionsPerHost()
+                    .get(InetSocketAddress.createUnresolved("task-service", 8082)));
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    @Test
+    void testDisabledPool() {
+        // Arrange
+        HttpClientProperties.Pool pool = new HttpClientProperties().getPool();
+        pool.setType(HttpClientProperties.Pool.PoolType.DISABLED);
+
+        // Act
+        ConnectionProvider provider = HttpClientConfig.buildConnectionProvider(pool, new UpstreamHttpClientProperties());
+
+        // Assert
+        assertEquals(1, provider.maxConnections());
+    }
+
+    @Test
+    void testInvalidRouteAddress() {
+        assertThrows(IllegalArgumentException.class, () -> HttpClientConfig.parseAddress("task-service", "task-service"));
+        assertThrows(IllegalArgumentException.class, () -> HttpClientConfig.parseAddress("task-service", null));
+        assertEquals(8082, HttpClientConfig.parseAddress("task-service", "task-service:8082").getPort());
+    }
+}
@@ -1,16 +1,23 @@
 package com.tasktracker.gateway.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,287 +27,155 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class FallbackControllerTest {
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private FallbackController fallbackController;
-    
+
     @BeforeEach
     void setUp() {
         fallbackController = new FallbackController();
     }
-    
+
     @Test
     void testAuthFallback() {
         // Act
-        Mono<ResponseEntity<Map<String, Object>>> result = fallbackController.authFallback();
-        
+        MockServerHttpResponse response = invoke(fallbackController::authFallback);
+
         // Assert
-        StepVerifier.create(result)
-                .assertNext(response -> {
-                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
-                    
-                    Map<String, Object> body = response.getBody();
-                    assertNotNull(body);
-                    
-                    // Проверяем основные поля
-                    assertEquals("AUTH_SERVICE_UNAVAILABLE", body.get("error"));
-                    assertEquals("Сервис аутентификации временно недоступен", body.get("message"));
-                    assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
-                    
-                    // Проверяем timestamp
-                    assertNotNull(body.get("timestamp"));
-                    assertTrue(body.get("timestamp") instanceof LocalDateTime);
-                    
-                    // Проверяем что timestamp недавний (в пределах 1 секунды)
-                    LocalDateTime timestamp = (LocalDateTime) body.get("timestamp");
-                    LocalDateTime now = LocalDateTime.now();
-                    assertTrue(timestamp.isBefore(now.plusSeconds(1)));
-                    assertTrue(timestamp.isAfter(now.minusSeconds(1)));
-                })
-                .expectComplete()
-                .verify();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+
+        Map<String, Object> body = body(response);
+
+        // Проверяем основные поля
+        assertEquals("AUTH_SERVICE_UNAVAILABLE", body.get("error"));
+        assertEquals("Сервис аутентификации временно недоступен", body.get("message"));
+        assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
+
+        // Проверяем что timestamp недавний (в пределах 1 секунды)
+        LocalDateTime timestamp = LocalDateTime.parse((String) body.get("timestamp"));
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(timestamp.isBefore(now.plusSeconds(1)));
+        assertTrue(timestamp.isAfter(now.minusSeconds(1)));
     }
-    
+
     @Test
     void testTasksFallback() {
         // Act
-        Mono<ResponseEntity<Map<String, Object>>> result = fallbackController.tasksFallback();
-        
+        MockServerHttpResponse response = invoke(fallbackController::tasksFallback);
+
         // Assert
-        StepVerifier.create(result)
-                .assertNext(response -> {
-                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
-                    
-                    Map<String, Object> body = response.getBody();
-                    assertNotNull(body);
-                    
-                    // Проверяем основные поля
-                    assertEquals("TASK_SERVICE_UNAVAILABLE", body.get("error"));
-                    assertEquals("Сервис задач временно недоступен", body.get("message"));
-                    assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
-                    
-                    // Проверяем timestamp
-                    assertNotNull(body.get("timestamp"));
-                    assertTrue(body.get("timestamp") instanceof LocalDateTime);
-                })
-                .expectComplete()
-                .verify();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        Map<String, Object> body = body(response);
+        assertEquals("TASK_SERVICE_UNAVAILABLE", body.get("error"));
+        assertEquals("Сервис задач временно недоступен", body.get("message"));
+        assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
+        assertNotNull(LocalDateTime.parse((String) body.get("timestamp")));
     }
-    
+
     @Test
     void testAuditFallback() {
         // Act
-        Mono<ResponseEntity<Map<String, Object>>> result = fallbackController.auditFallback();
-        
+        MockServerHttpResponse response = invoke(fallbackController::auditFallback);
+
         // Assert
-        StepVerifier.create(result)
-                .assertNext(response -> {
-                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
-                    
-                    Map<String, Object> body = response.getBody();
-                    assertNotNull(body);
-                    
-                    // Проверяем основные поля
-                    assertEquals("AUDIT_SERVICE_UNAVAILABLE", body.get("error"));
-                    assertEquals("Сервис аудита временно недоступен", body.get("message"));
-                    assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
-                    
-                    // Проверяем timestamp
-                    assertNotNull(body.get("timestamp"));
-                    assertTrue(body.get("timestamp") instanceof LocalDateTime);
-                })
-                .expectComplete()
-                .verify();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        Map<String, Object> body = body(response);
+        assertEquals("AUDIT_SERVICE_UNAVAILABLE", body.get("error"));
+        assertEquals("Сервис аудита временно недоступен", body.get("message"));
+        assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
+        assertNotNull(LocalDateTime.parse((String) body.get("timestamp")));
     }
-    
+
     @Test
-    void testDefaultFallback() {
+    void testNotificationFallback() {
         // Act
-        Mono<ResponseEntity<Map<String, Object>>> result = fallbackController.defaultFallback();
-        
+        MockServerHttpResponse response = invoke(fallbackController::notificationFallback);
+
         // Assert
-        StepVerifier.create(result)
-                .assertNext(response -> {
-                    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
-                    
-                    Map<String, Object> body = response.getBody();
-                    assertNotNull(body);
-                    
-                    // Проверяем основные поля
-                    assertEquals("SERVICE_UNAVAILABLE", body.get("error"));
-                    assertEquals("Запрашиваемый сервис временно недоступен", body.get("message"));
-                    assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
-                    assertEquals("support@tasktracker.com", body.get("supportContact"));
-                    
-                    // Проверяем timestamp
-                    assertNotNull(body.get("timestamp"));
-                    assertTrue(body.get("timestamp") instanceof LocalDateTime);
-                })
-                .expectComplete()
-                .verify();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        Map<String, Object> body = body(response);
+        assertEquals("NOTIFICATION_SERVICE_UNAVAILABLE", body.get("error"));
+        assertEquals("Сервис уведомлений временно недоступен", body.get("message"));
+        assertNotNull(LocalDateTime.parse((String) body.get("timestamp")));
     }
-    
+
     @Test
-    void testAllFallbacksReturnServiceUnavailable() {
-        // Act & Assert для всех fallback методов
-        StepVerifier.create(fallbackController.authFallback())
-                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
-                .expectComplete()
-                .verify();
-                
-        StepVerifier.create(fallbackController.tasksFallback())
-                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
-                .expectComplete()
-                .verify();
-                
-        StepVerifier.create(fallbackController.auditFallback())
-                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
-                .expectComplete()
-                .verify();
-                
-        StepVerifier.create(fallbackController.defaultFallback())
-                .assertNext(response -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()))
-                .expectComplete()
-                .verify();
+    void testDefaultFallback() {
+        // Act
+        MockServerHttpResponse response = invoke(fallbackController::defaultFallback);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+
+        Map<String, Object> body = body(response);
+        assertEquals("SERVICE_UNAVAILABLE", body.get("error"));
+        assertEquals("Запрашиваемый сервис временно недоступен", body.get("message"));
+        assertEquals("Попробуйте позже или обратитесь к администратору", body.get("suggestion"));
+        assertEquals("support@tasktracker.com", body.get("supportContact"));
+        assertNotNull(LocalDateTime.parse((String) body.get("timestamp")));
     }
-    
+
     @Test
     void testAllFallbacksHaveRequiredFields() {
         // Проверяем, что все fallback методы имеют необходимые поля
-        
-        // Auth fallback
-        StepVerifier.create(fallbackController.authFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    assertTrue(body.containsKey("error"));
-                    assertTrue(body.containsKey("message"));
-                    assertTrue(body.containsKey("timestamp"));
-                    assertTrue(body.containsKey("suggestion"));
-                })
-                .expectComplete()
-                .verify();
-        
-        // Tasks fallback
-        StepVerifier.create(fallbackController.tasksFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    assertTrue(body.containsKey("error"));
-                    assertTrue(body.containsKey("message"));
-                    assertTrue(body.containsKey("timestamp"));
-                    assertTrue(body.containsKey("suggestion"));
-                })
-                .expectComplete()
-                .verify();
-        
-        // Audit fallback
-        StepVerifier.create(fallbackController.auditFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    assertTrue(body.containsKey("error"));
-                    assertTrue(body.containsKey("message"));
-                    assertTrue(body.containsKey("timestamp"));
-                    assertTrue(body.containsKey("suggestion"));
-                })
-                .expectComplete()
-                .verify();
-        
-        // Default fallback
-        StepVerifier.create(fallbackController.defaultFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    assertTrue(body.containsKey("error"));
-                    assertTrue(body.containsKey("message"));
-                    assertTrue(body.containsKey("timestamp"));
-                    assertTrue(body.containsKey("suggestion"));
-                    assertTrue(body.containsKey("supportContact"));
-                })
-                .expectComplete()
-                .verify();
+        for (Function<ServerHttpResponse, Mono<Void>> fallback : fallbacks()) {
+            MockServerHttpResponse response = invoke(fallback);
+            Map<String, Object> body = body(response);
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertTrue(body.containsKey("error"));
+            assertTrue(body.containsKey("message"));
+            assertTrue(body.containsKey("timestamp"));
+            assertTrue(body.containsKey("suggestion"));
+        }
     }
-    
+
+    @Test
+    void testContentLengthMatchesBody() {
+        // Длина вычисляется из готовых буферов и должна совпадать с телом
+        MockServerHttpResponse response = invoke(fallbackController::tasksFallback);
+
+        byte[] bytes = response.getBodyAsString().block().getBytes(StandardCharsets.UTF_8);
+        assertEquals(bytes.length, response.getHeaders().getContentLength());
+    }
+
     @Test
     void testFallbackErrorCodesAreUnique() {
         // Проверяем, что коды ошибок уникальны для каждого сервиса
-        
-        String authError = null;
-        String taskError = null;
-        String auditError = null;
-        String defaultError = null;
-        
-        // Получаем коды ошибок
-        StepVerifier.create(fallbackController.authFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String error = (String) body.get("error");
-                    assertEquals("AUTH_SERVICE_UNAVAILABLE", error);
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.tasksFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String error = (String) body.get("error");
-                    assertEquals("TASK_SERVICE_UNAVAILABLE", error);
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.auditFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String error = (String) body.get("error");
-                    assertEquals("AUDIT_SERVICE_UNAVAILABLE", error);
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.defaultFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String error = (String) body.get("error");
-                    assertEquals("SERVICE_UNAVAILABLE", error);
-                })
-                .expectComplete()
-                .verify();
+        long uniqueErrors = fallbacks().stream()
+                .map(fallback -> body(invoke(fallback)).get("error"))
+                .distinct()
+                .count();
+
+        assertEquals(fallbacks().size(), uniqueErrors);
     }
-    
-    @Test
-    void testFallbackMessagesAreServiceSpecific() {
-        // Проверяем, что сообщения специфичны для каждого сервиса
-        
-        StepVerifier.create(fallbackController.authFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String message = (String) body.get("message");
-                    assertTrue(message.contains("аутентификации"));
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.tasksFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String message = (String) body.get("message");
-                    assertTrue(message.contains("задач"));
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.auditFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String message = (String) body.get("message");
-                    assertTrue(message.contains("аудита"));
-                })
-                .expectComplete()
-                .verify();
-        
-        StepVerifier.create(fallbackController.defaultFallback())
-                .assertNext(response -> {
-                    Map<String, Object> body = response.getBody();
-                    String message = (String) body.get("message");
-                    assertTrue(message.contains("сервис"));
-                })
+
+    private List<Function<ServerHttpResponse, Mono<Void>>> fallbacks() {
+        return List.of(
+                fallbackController::authFallback,
+                fallbackController::tasksFallback,
+                fallbackController::auditFallback,
+                fallbackController::notificationFallback,
+                fallbackController::defaultFallback);
+    }
+
+    private MockServerHttpResponse invoke(Function<ServerHttpResponse, Mono<Void>> fallback) {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        StepVerifier.create(fallback.apply(response))
                 .expectComplete()
                 .verify();
+        return response;
+    }
+
+    private Map<String, Object> body(MockServerHttpResponse response) {
+        try {
+            return objectMapper.readValue(response.getBodyAsString().block(), new TypeReference<>() {});
+        } catch (Exception e) {
+            throw new AssertionError("Тело fallback ответа не является JSON", e);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,37 @@
 package com.tasktracker.gateway.controller;
 
+import com.tasktracker.gateway.service.GatewayStatsService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
 
 /**
  * Тесты для GatewayController
@@ -20,11 +39,38 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class GatewayControllerTest {
 
+    @Mock
+    private RouteLocator routeLocator;
+    
+    @Mock
+    private RouteDefinitionLocator routeDefinitionLocator;
+    
+    @Mock
+    private ObjectProvider<ReactiveRedisConnectionFactory> redisConnectionFactory;
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    
     private GatewayController gatewayController;
     
     @BeforeEach
     void setUp() {
-        gatewayController = new GatewayController();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        
+        lenient().when(routeLocator.getRoutes()).thenReturn(Flux.just(
+                route("auth-service", "http://localhost:8081"),
+                route("task-service", "http://localhost:8082"),
+                route("audit-service", "http://localhost:8083")));
+        lenient().when(routeDefinitionLocator.getRouteDefinitions()).thenReturn(Flux.just(
+                definition("auth-service", "/auth/**", "auth-circuit-breaker"),
+                definition("task-service", "/tasks/**", "task-circuit-breaker"),
+                definition("audit-service", "/audit/**", "audit-circuit-breaker")));
+        
+        GatewayStatsService statsService = new GatewayStatsService(
+                routeLocator, routeDefinitionLocator, meterRegistry, circuitBreakerRegistry, "proxy");
+        gatewayController = new GatewayController(statsService, redisConnectionFactory);
     }
     
     @Test
@@ -68,6 +114,11 @@ class GatewayControllerTest {
     
     @Test
     void testGetStats() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker("auth-circuit-breaker");
+        circuitBreakerRegistry.circuitBreaker("task-circuit-breaker");
+        circuitBreakerRegistry.circuitBreaker("audit-circuit-breaker");
+        
         // Act
         Mono<ResponseEntity<Map<String, Object>>> result = gatewayController.getStats();
         
@@ -81,7 +132,8 @@ class GatewayControllerTest {
                     
                     // Проверяем основные поля
                     assertNotNull(stats.get("timestamp"));
-                    assertEquals("Available", stats.get("uptime"));
+                    assertNotNull(stats.get("uptime"));
+                    assertNotNull(stats.get("uptimeSeconds"));
                     assertEquals("HEALTHY", stats.get("status"));
                     
                     // Проверяем services
@@ -103,6 +155,9 @@ class GatewayControllerTest {
                     assertTrue(circuitBreakers.containsKey("auth-circuit-breaker"));
                     assertTrue(circuitBreakers.containsKey("task-circuit-breaker"));
                     assertTrue(circuitBreakers.containsKey("audit-circuit-breaker"));
+                    
+                    // Проверяем пул соединений
+                    assertNotNull(stats.get("connectionPool"));
                 })
                 .expectComplete()
                 .verify();
@@ -110,6 +165,9 @@ class GatewayControllerTest {
     
     @Test
     void testHealth() {
+        // Arrange - Redis не сконфигурирован
+        lenient().when(redisConnectionFactory.getIfAvailable()).thenReturn(null);
+        
         // Act
         Mono<ResponseEntity<Map<String, Object>>> result = gatewayController.health();
         
@@ -134,19 +192,19 @@ class GatewayControllerTest {
                     
                     assertTrue(components.containsKey("redis"));
                     assertTrue(components.containsKey("routes"));
+                    assertTrue(components.containsKey("circuitBreakers"));
                     assertTrue(components.containsKey("security"));
                     
                     // Проверяем каждый компонент
                     @SuppressWarnings("unchecked")
                     Map<String, Object> redis = (Map<String, Object>) components.get("redis");
-                    assertEquals("UP", redis.get("status"));
-                    assertEquals("Redis доступен", redis.get("message"));
+                    assertEquals("UNKNOWN", redis.get("status"));
                     assertNotNull(redis.get("timestamp"));
                     
                     @SuppressWarnings("unchecked")
                     Map<String, Object> routes = (Map<String, Object>) components.get("routes");
                     assertEquals("UP", routes.get("status"));
-                    assertEquals("Маршруты настроены", routes.get("message"));
+                    assertEquals("Маршруты настроены: 3", routes.get("message"));
                     
                     @SuppressWarnings("unchecked")
                     Map<String, Object> security = (Map<String, Object>) components.get("security");
@@ -157,6 +215,31 @@ class GatewayControllerTest {
                 .verify();
     }
     
+    @Test
+    void testHealthDegradedWhenCircuitBreakerOpen() {
+        // Arrange
+        lenient().when(redisConnectionFactory.getIfAvailable()).thenReturn(null);
+        circuitBreakerRegistry.circuitBreaker("task-circuit-breaker").transitionToOpenState();
+        
+        // Act
+        Mono<ResponseEntity<Map<String, Object>>> result = gatewayController.health();
+        
+        // Assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    Map<String, Object> health = response.getBody();
+                    assertEquals("DEGRADED", health.get("status"));
+                    
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> components = (Map<String, Object>) health.get("components");
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> circuitBreakers = (Map<String, Object>) components.get("circuitBreakers");
+                    assertEquals("DEGRADED", circuitBreakers.get("status"));
+                })
+                .expectComplete()
+                .verify();
+    }
+    
     @Test
     void testGetRoutes() {
         // Act
@@ -190,7 +273,6 @@ class GatewayControllerTest {
                     assertEquals("/auth/**", authRoute.get("path"));
                     assertEquals("http://localhost:8081", authRoute.get("target"));
                     assertNotNull(authRoute.get("filters"));
-                    assertNotNull(authRoute.get("methods"));
                     
                     // Проверяем task-service route
                     @SuppressWarnings("unchecked")
@@ -210,6 +292,19 @@ class GatewayControllerTest {
     
     @Test
     void testGetStatsServiceStructure() {
+        // Arrange - записываем реальные запросы через маршрут
+        Timer timer = Timer.builder("spring.cloud.gateway.requests")
+                .tags("routeId", "auth-service", "outcome", "SUCCESS", "status", "OK")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        timer.record(Duration.ofMillis(20));
+        timer.record(Duration.ofMillis(40));
+        Timer errors = Timer.builder("spring.cloud.gateway.requests")
+                .tags("routeId", "auth-service", "outcome", "SERVER_ERROR", "status", "BAD_GATEWAY")
+                .register(meterRegistry);
+        errors.record(Duration.ofMillis(60));
+        circuitBreakerRegistry.circuitBreaker("auth-circuit-breaker");
+        
         // Act
         Mono<ResponseEntity<Map<String, Object>>> result = gatewayController.getStats();
         
@@ -224,20 +319,30 @@ class GatewayControllerTest {
                     // Проверяем структуру каждого сервиса
                     @SuppressWarnings("unchecked")
                     Map<String, Object> authService = (Map<String, Object>) services.get("auth-service");
-                    assertEquals("Auth Service", authService.get("name"));
+                    assertEquals("auth-service", authService.get("name"));
                     assertEquals("http://localhost:8081", authService.get("url"));
                     assertEquals("UP", authService.get("status"));
-                    assertEquals("N/A", authService.get("responseTime"));
+                    assertEquals("auth-circuit-breaker", authService.get("circuitBreaker"));
+                    assertNotEquals("N/A", authService.get("responseTime"));
                     assertNotNull(authService.get("lastCheck"));
                     
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> latency = (Map<String, Object>) authService.get("latency");
+                    assertEquals(3L, latency.get("requests"));
+                    assertEquals(1L, latency.get("errors"));
+                    assertEquals(40.0, latency.get("meanMs"));
+                    assertEquals(60.0, latency.get("maxMs"));
+                    assertNotNull(latency.get("p95Ms"));
+                    
+                    // Circuit breaker еще не создан - статус неизвестен, латентности нет
                     @SuppressWarnings("unchecked")
                     Map<String, Object> taskService = (Map<String, Object>) services.get("task-service");
-                    assertEquals("Task Service", taskService.get("name"));
                     assertEquals("http://localhost:8082", taskService.get("url"));
+                    assertEquals("UNKNOWN", taskService.get("status"));
+                    assertEquals("N/A", taskService.get("responseTime"));
                     
                     @SuppressWarnings("unchecked")
                     Map<String, Object> auditService = (Map<String, Object>) services.get("audit-service");
-                    assertEquals("Audit Service", auditService.get("name"));
                     assertEquals("http://localhost:8083", auditService.get("url"));
                 })
                 .expectComplete()
@@ -246,6 +351,11 @@ class GatewayControllerTest {
     
     @Test
     void testGetStatsCircuitBreakerStructure() {
+        // Arrange
+        circuitBreakerRegistry.circuitBreaker("auth-circuit-breaker");
+        CircuitBreaker taskCircuitBreaker = circuitBreakerRegistry.circuitBreaker("task-circuit-breaker");
+        taskCircuitBreaker.transitionToOpenState();
+        
         // Act
         Mono<ResponseEntity<Map<String, Object>>> result = gatewayController.getStats();
         
@@ -254,6 +364,7 @@ class GatewayControllerTest {
                 .assertNext(response -> {
                     @SuppressWarnings("unchecked")
                     Map<String, Object> stats = response.getBody();
+                    assertEquals("DEGRADED", stats.get("status"));
                     @SuppressWarnings("unchecked")
                     Map<String, Object> circuitBreakers = (Map<String, Object>) stats.get("circuitBreakers");
                     
@@ -263,15 +374,17 @@ class GatewayControllerTest {
                     assertEquals("CLOSED", authCB.get("state"));
                     assertEquals(0.0, authCB.get("failureRate"));
                     assertEquals(0, authCB.get("calls"));
-                    assertNotNull(authCB.get("lastUpdated"));
+                    assertNotNull(authCB.get("notPermittedCalls"));
                     
                     @SuppressWarnings("unchecked")
                     Map<String, Object> taskCB = (Map<String, Object>) circuitBreakers.get("task-circuit-breaker");
-                    assertEquals("CLOSED", taskCB.get("state"));
+                    assertEquals("OPEN", taskCB.get("state"));
                     
                     @SuppressWarnings("unchecked")
-                    Map<String, Object> auditCB = (Map<String, Object>) circuitBreakers.get("audit-circuit-breaker");
-                    assertEquals("CLOSED", auditCB.get("state"));
+                    Map<String, Object> services = (Map<String, Object>) stats.get("services");
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> taskService = (Map<String, Object>) services.get("task-service");
+                    assertEquals("DOWN", taskService.get("status"));
                 })
                 .expectComplete()
                 .verify();
@@ -290,51 +403,45 @@ class GatewayControllerTest {
                     @SuppressWarnings("unchecked")
                     Map<String, Object> routes = (Map<String, Object>) routesInfo.get("routes");
                     
-                    // Проверяем структуру каждого маршрута
+                    // Фильтры берутся из определения маршрута
                     @SuppressWarnings("unchecked")
                     Map<String, Object> authRoute = (Map<String, Object>) routes.get("auth-service");
-                    String[] authFilters = (String[]) authRoute.get("filters");
-                    assertEquals(3, authFilters.length);
-                    assertTrue(containsFilter(authFilters, "CircuitBreaker"));
-                    assertTrue(containsFilter(authFilters, "Retry"));
-                    assertTrue(containsFilter(authFilters, "AuthenticationFilter"));
-                    
-                    String[] authMethods = (String[]) authRoute.get("methods");
-                    assertEquals(4, authMethods.length);
-                    assertTrue(containsMethod(authMethods, "GET"));
-                    assertTrue(containsMethod(authMethods, "POST"));
-                    assertTrue(containsMethod(authMethods, "PUT"));
-                    assertTrue(containsMethod(authMethods, "DELETE"));
+                    @SuppressWarnings("unchecked")
+                    List<String> authFilters = (List<String>) authRoute.get("filters");
+                    assertEquals(2, authFilters.size());
+                    assertTrue(authFilters.contains("CircuitBreaker"));
+                    assertTrue(authFilters.contains("Retry"));
+                    assertEquals(0, authRoute.get("order"));
                 })
                 .expectComplete()
                 .verify();
     }
     
-    // Вспомогательные методы
-    private boolean containsFeature(String[] features, String feature) {
-        for (String f : features) {
-            if (f.equals(feature)) {
-                return true;
-            }
-        }
-        return false;
+    private Route route(String id, String uri) {
+        return Route.async()
+                .id(id)
+                .uri(URI.create(uri))
+                .predicate(exchange -> true)
+                .build();
     }
     
-    private boolean containsFilter(String[] filters, String filter) {
-        for (String f : filters) {
-            if (f.equals(filter)) {
-                return true;
-            }
-        }
-        return false;
+    private RouteDefinition definition(String id, String path, String circuitBreaker) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setPredicates(List.of(new PredicateDefinition("Path=" + path)));
+        definition.setFilters(List.of(
+                new FilterDefinition("CircuitBreaker=" + circuitBreaker),
+                new FilterDefinition("Retry=3")));
+        return definition;
     }
     
-    private boolean containsMethod(String[] methods, String method) {
-        for (String m : methods) {
-            if (m.equals(method)) {
+    // Вспомогательные методы
+    private boolean containsFeature(String[] features, String feature) {
+        for (String f : features) {
+            if (f.equals(feature)) {
                 return true;
             }
         }
         return false;
     }
-} 
\ No newline at end of file
+}
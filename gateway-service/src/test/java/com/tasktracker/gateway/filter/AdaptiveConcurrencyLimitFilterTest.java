@@ -0,0 +1,135 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для AdaptiveConcurrencyLimitFilter
+ */
+class AdaptiveConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimitFilter filterFactory;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filterFactory = new AdaptiveConcurrencyLimitFilter(meterRegistry);
+    }
+
+    @Test
+    void testRejectsRequestsAboveLimit() {
+        // Arrange - лимит в 2 запроса, оба заняты "зависшими" запросами
+        GatewayFilter filter = filterFactory.apply(config("task-service", 2));
+        Sinks.Empty<Void> pending = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> pending.asMono();
+
+        filter.filter(exchange(), slowChain).subscribe();
+        filter.filter(exchange(), slowChain).subscribe();
+
+        // Act
+        MockServerWebExchange rejected = exchange();
+        StepVerifier.create(filter.filter(rejected, ex -> Mono.empty()))
+                .expectComplete()
+                .verify();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("gateway.concurrency.rejected").tag("routeId", "task-service").counter().count());
+
+        // После завершения запросов слоты освобождаются
+        pending.tryEmitEmpty();
+        assertEquals(0, filterFactory.getLimiters().get("task-service").getInFlight());
+    }
+
+    @Test
+    void testLimitDecreasesOnOverload() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config("audit-service", 10));
+        GatewayFilterChain failingChain = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return Mono.empty();
+        };
+
+        // Act
+        StepVerifier.create(filter.filter(exchange(), failingChain)).verifyComplete();
+
+        // Assert
+        assertEquals(9, filterFactory.getLimiters().get("audit-service").getLimit());
+        assertEquals(0, filterFactory.getLimiters().get("audit-service").getInFlight());
+    }
+
+    @Test
+    void testLimitIsIsolatedPerRoute() {
+        // Arrange
+        GatewayFilter taskFilter = filterFactory.apply(config("task-service", 1));
+        GatewayFilter authFilter = filterFactory.apply(config("auth-service", 1));
+        taskFilter.filter(exchange(), ex -> Mono.never()).subscribe();
+
+        // Act
+        MockServerWebExchange authExchange = exchange();
+        StepVerifier.create(authFilter.filter(authExchange, ex -> Mono.empty())).verifyComplete();
+
+        // Assert - занятый task-service не влияет на auth-service
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, authExchange.getResponse().getStatusCode());
+        assertEquals(1, filterFactory.getLimiters().get("task-service").getInFlight());
+        assertEquals(0, filterFactory.getLimiters().get("auth-service").getInFlight());
+    }
+
+    @Test
+    void testCancelledRequestReleasesSlot() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config("notification-service", 1));
+
+        // Act
+        filter.filter(exchange(), ex -> Mono.never()).subscribe().dispose();
+
+        // Assert
+        assertEquals(0, filterFactory.getLimiters().get("notification-service").getInFlight());
+        assertEquals(1, filterFactory.getLimiters().get("notification-service").getLimit());
+    }
+
+    @Test
+    void testLimiterIsRebuiltWhenConfigChanges() {
+        // Arrange
+        filterFactory.apply(config("task-service", 10));
+        AimdConcurrencyLimiter initial = filterFactory.getLimiters().get("task-service");
+
+        // Act - обновление маршрута с теми же и с новыми настройками
+        filterFactory.apply(config("task-service", 10));
+        AimdConcurrencyLimiter unchanged = filterFactory.getLimiters().get("task-service");
+        filterFactory.apply(config("task-service", 4));
+
+        // Assert - метрика читает новый лимитер
+        assertSame(initial, unchanged);
+        assertEquals(4, filterFactory.getLimiters().get("task-service").getLimit());
+        assertEquals(4.0, meterRegistry.get("gateway.concurrency.limit").tag("routeId", "task-service").gauge().value());
+    }
+
+    private AdaptiveConcurrencyLimitFilter.Config config(String routeId, int limit) {
+        AdaptiveConcurrencyLimitFilter.Config config = new AdaptiveConcurrencyLimitFilter.Config();
+        config.setRouteId(routeId);
+        config.setInitialLimit(limit);
+        config.setMinLimit(1);
+        config.setMaxLimit(limit);
+        return config;
+    }
+
+    private MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/test").build());
+    }
+}
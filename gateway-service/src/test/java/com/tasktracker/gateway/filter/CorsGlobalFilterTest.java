@@ -0,0 +1,160 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.config.CorsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для CorsGlobalFilter
+ */
+class CorsGlobalFilterTest {
+
+    private CorsGlobalFilter corsFilter;
+    private AtomicBoolean chainCalled;
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        CorsProperties properties = new CorsProperties();
+        properties.setAllowedOriginPatterns(List.of("http://localhost:*", "https://app.tasktracker.com", "null"));
+        corsFilter = new CorsGlobalFilter(properties);
+
+        chainCalled = new AtomicBoolean();
+        chain = exchange -> {
+            chainCalled.set(true);
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    @Test
+    void testRequestWithoutOriginPassesUntouched() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks").build());
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, chain)).verifyComplete();
+
+        // Assert - только Vary, без CORS заголовков
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertTrue(chainCalled.get());
+        assertNull(headers.getAccessControlAllowOrigin());
+        assertEquals(List.of(HttpHeaders.ORIGIN), headers.getVary());
+    }
+
+    @Test
+    void testAllowedOriginAnyPort() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                .header(HttpHeaders.ORIGIN, "http://localhost:3000")
+                .build());
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, chain)).verifyComplete();
+
+        // Assert
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertTrue(chainCalled.get());
+        assertEquals("http://localhost:3000", headers.getAccessControlAllowOrigin());
+        assertTrue(headers.getAccessControlAllowCredentials());
+        assertTrue(headers.getVary().contains(HttpHeaders.ORIGIN));
+        assertNull(headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS));
+    }
+
+    @Test
+    void testDisallowedOriginGetsNoCorsHeaders() {
+        // Arrange - похожий, но не разрешенный origin
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                .header(HttpHeaders.ORIGIN, "http://localhost.evil.com:3000")
+                .build());
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, chain)).verifyComplete();
+
+        // Assert
+        assertTrue(chainCalled.get());
+        assertNull(exchange.getResponse().getHeaders().getAccessControlAllowOrigin());
+        assertEquals(List.of(HttpHeaders.ORIGIN), exchange.getResponse().getHeaders().getVary());
+    }
+
+    @Test
+    void testVaryOriginSurvivesServiceVaryHeader() {
+        // Arrange - заголовки ответа сервиса заменяют Vary целиком
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                .header(HttpHeaders.ORIGIN, "http://localhost:3000")
+                .build());
+        WebFilterChain proxyChain = ex -> {
+            HttpHeaders serviceHeaders = new HttpHeaders();
+            serviceHeaders.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            ex.getResponse().getHeaders().putAll(serviceHeaders);
+            return ex.getResponse().setComplete();
+        };
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, proxyChain)).verifyComplete();
+
+        // Assert
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ORIGIN), exchange.getResponse().getHeaders().getVary());
+    }
+
+    @Test
+    void testPreflightIsShortCircuited() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.options("/tasks")
+                .header(HttpHeaders.ORIGIN, "https://app.tasktracker.com")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST")
+                .build());
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, chain)).verifyComplete();
+
+        // Assert
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertFalse(chainCalled.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("https://app.tasktracker.com", headers.getAccessControlAllowOrigin());
+        assertEquals("86400", headers.getFirst(HttpHeaders.ACCESS_CONTROL_MAX_AGE));
+        assertNotNull(headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS));
+    }
+
+    @Test
+    void testPreflightFromDisallowedOriginIsRejected() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.options("/tasks")
+                .header(HttpHeaders.ORIGIN, "https://evil.com")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "DELETE")
+                .build());
+
+        // Act
+        StepVerifier.create(corsFilter.filter(exchange, chain)).verifyComplete();
+
+        // Assert
+        assertFalse(chainCalled.get());
+        assertEquals(HttpStatus.FORBIDDEN, exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getHeaders().getVary().contains(HttpHeaders.ORIGIN));
+    }
+
+    @Test
+    void testOriginMatcherPatterns() {
+        CorsOriginMatcher matcher = new CorsOriginMatcher(List.of("http://localhost:*", "https://review-*", "null"));
+
+        assertTrue(matcher.isAllowed("http://localhost:8080"));
+        assertTrue(matcher.isAllowed("null"));
+        assertTrue(matcher.isAllowed("https://review-42.tasktracker.com"));
+        assertFalse(matcher.isAllowed("http://localhost:"));
+        assertFalse(matcher.isAllowed("http://localhost:80abc"));
+        assertFalse(matcher.isAllowed("https://localhost:8080"));
+        assertTrue(new CorsOriginMatcher(List.of("*")).isAllowed("https://any.origin"));
+    }
+}
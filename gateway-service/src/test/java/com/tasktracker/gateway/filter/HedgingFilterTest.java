@@ -0,0 +1,366 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.LatencyQuantileEstimator;
+import com.tasktracker.gateway.loadbalancer.EwmaLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Тесты для HedgingFilter
+ */
+class HedgingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testSlowPrimaryIsHedgedOnAnotherInstance() {
+        // Arrange - первый экземпляр отвечает через 2 секунды, дубль - сразу
+        HedgingFilter hedgingFilter = new HedgingFilter(meterRegistry, 100, 10, 10);
+        GatewayFilter filter = hedgingFilter.apply(config());
+        List<ServerWebExchange> attempts = new CopyOnWriteArrayList<>();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        GatewayFilterChain chain = exchange -> {
+            attempts.add(exchange);
+            if (attempts.size() == 1) {
+                exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(
+                        new DefaultServiceInstance("task-1", "task-service", "task-1", 8082, false)));
+                return Mono.delay(Duration.ofSeconds(2))
+                        .then(respond(exchange, "primary"))
+                        .doOnCancel(() -> primaryCancelled.set(true));
+            }
+            return respond(exchange, "hedge");
+        };
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, chain))
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(2, attempts.size());
+        assertEquals("task-1:8082", attempts.get(1).getRequest().getHeaders()
+                .getFirst(EwmaLoadBalancer.EXCLUDED_INSTANCE_HEADER));
+        // Первый запрос дочитывается в фоне ради замера латентности
+        assertFalse(primaryCancelled.get());
+        assertEquals(0, hedgingFilter.getEstimator("task-service").getCount());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("hedge", exchange.getResponse().getBodyAsString().block());
+        // Атрибуты попыток не смешиваются с исходным exchange
+        assertNull(exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR));
+        assertEquals(1.0, meterRegistry.get("gateway.hedging.wins").counter().count());
+    }
+
+    @Test
+    void testFastPrimaryIsNotHedged() {
+        // Arrange
+        GatewayFilter filter = new HedgingFilter(meterRegistry, 100, 10, 10).apply(config());
+        AtomicInteger calls = new AtomicInteger();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, ex -> {
+                    calls.incrementAndGet();
+                    return respond(ex, "primary");
+                }))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals("primary", exchange.getResponse().getBodyAsString().block());
+        assertEquals(String.valueOf("primary".length()), exchange.getResponse().getHeaders().getFirst("Content-Length"));
+    }
+
+    @Test
+    void testExhaustedBudgetPreventsHedge() {
+        // Arrange - бюджет 0%: дубли запрещены
+        GatewayFilter filter = new HedgingFilter(meterRegistry, 0, 0, 10).apply(config());
+        AtomicInteger calls = new AtomicInteger();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, ex -> {
+                    calls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(200)).then(respond(ex, "primary"));
+                }))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals("primary", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, meterRegistry.get("gateway.hedging.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void testNonIdempotentRequestPassesThrough() {
+        // Arrange
+        GatewayFilter filter = new HedgingFilter(meterRegistry, 100, 10, 10).apply(config());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/tasks"));
+        AtomicBoolean sameExchange = new AtomicBoolean();
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, ex -> {
+                    sameExchange.set(ex == exchange);
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+
+        // Assert
+        assertTrue(sameExchange.get());
+    }
+
+    @Test
+    void testHedgeDelayFollowsLatencyQuantile() {
+        // Arrange
+        HedgingFilter.Config config = config();
+        config.setMinSamples(100);
+        LatencyQuantileEstimator estimator = new LatencyQuantileEstimator(0.95, 1024, 50);
+
+        // Act & Assert - до накопления замеров используется initialDelayMs
+        assertEquals(config.getInitialDelayMs(), HedgingFilter.hedgeDelayMs(estimator, config));
+
+        for (int i = 1; i <= 100; i++) {
+            estimator.record(Duration.ofMillis(i * 2L).toNanos());
+        }
+        assertEquals(190, HedgingFilter.hedgeDelayMs(estimator, config));
+
+        config.setMaxDelayMs(150);
+        assertEquals(150, HedgingFilter.hedgeDelayMs(estimator, config));
+    }
+
+    @Test
+    void testHedgeWinsThroughNettyRouting() {
+        // Arrange - настоящие NettyRoutingFilter/NettyWriteResponseFilter: первый запрос к сервису медленный
+        AtomicInteger calls = new AtomicInteger();
+        DisposableServer backend = backend((n, response) -> n == 1
+                ? Mono.delay(Duration.ofSeconds(2)).then(response.sendString(Mono.just("primary")).then())
+                : response.sendString(Mono.just("hedge")).then(), calls);
+        DisposableServer gateway = gateway(new HedgingFilter(meterRegistry, 100, 10, 10).apply(config()), backend);
+
+        try {
+            // Act
+            ResponseEntity<String> response = get(gateway, "/tasks/1");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("hedge", response.getBody());
+            assertEquals(2, calls.get());
+        } finally {
+            gateway.disposeNow();
+            backend.disposeNow();
+        }
+    }
+
+    @Test
+    void testFailedPrimaryDoesNotBeatSuccessfulHedge() {
+        // Arrange - первый запрос получает 503 уже после отправки дубля, дубль отвечает позже, но успешно
+        AtomicInteger calls = new AtomicInteger();
+        DisposableServer backend = backend((n, response) -> n == 1
+                ? Mono.delay(Duration.ofMillis(150)).then(response.status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .sendString(Mono.just("primary")).then())
+                : Mono.delay(Duration.ofMillis(300)).then(response.sendString(Mono.just("hedge")).then()), calls);
+        DisposableServer gateway = gateway(new HedgingFilter(meterRegistry, 100, 10, 10).apply(config()), backend);
+
+        try {
+            // Act
+            ResponseEntity<String> response = get(gateway, "/tasks/1");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("hedge", response.getBody());
+            assertEquals(1.0, meterRegistry.get("gateway.hedging.wins").counter().count());
+        } finally {
+            gateway.disposeNow();
+            backend.disposeNow();
+        }
+    }
+
+    @Test
+    void testPrimaryErrorIsReturnedWhenBothAttemptsFail() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        DisposableServer backend = backend((n, response) -> Mono.delay(Duration.ofMillis(n == 1 ? 150 : 50))
+                .then(response.status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .sendString(Mono.just(n == 1 ? "primary" : "hedge")).then()), calls);
+        DisposableServer gateway = gateway(new HedgingFilter(meterRegistry, 100, 10, 10).apply(config()), backend);
+
+        try {
+            // Act
+            ResponseEntity<String> response = get(gateway, "/tasks/1");
+
+            // Assert
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("primary", response.getBody());
+            assertEquals(2, calls.get());
+        } finally {
+            gateway.disposeNow();
+            backend.disposeNow();
+        }
+    }
+
+    @Test
+    void testFastPrimaryFailureIsNotHedged() {
+        // Arrange - ошибка пришла раньше задержки дубля: дубль не отправляется
+        AtomicInteger calls = new AtomicInteger();
+        DisposableServer backend = backend((n, response) -> response.status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .sendString(Mono.just("primary")).then(), calls);
+        HedgingFilter.Config config = config();
+        config.setInitialDelayMs(300);
+        DisposableServer gateway = gateway(new HedgingFilter(meterRegistry, 100, 10, 10).apply(config), backend);
+
+        try {
+            // Act
+            long start = System.nanoTime();
+            ResponseEntity<String> response = get(gateway, "/tasks/1");
+
+            // Assert
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 300);
+            assertEquals(1, calls.get());
+        } finally {
+            gateway.disposeNow();
+            backend.disposeNow();
+        }
+    }
+
+    @Test
+    void testLosingPrimaryLatencyIsRecorded() {
+        // Arrange
+        HedgingFilter hedgingFilter = new HedgingFilter(meterRegistry, 100, 10, 10);
+        GatewayFilter filter = hedgingFilter.apply(config());
+        AtomicInteger calls = new AtomicInteger();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, ex -> calls.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofMillis(500)).then(respond(ex, "primary"))
+                        : respond(ex, "hedge")))
+                .verifyComplete();
+
+        // Assert - клиент получил ответ дубля, латентность записывается, когда ответит первый запрос
+        assertEquals("hedge", exchange.getResponse().getBodyAsString().block());
+        LatencyQuantileEstimator estimator = hedgingFilter.getEstimator("task-service");
+        assertEquals(0, estimator.getCount());
+        StepVerifier.create(Mono.fromSupplier(estimator::getCount)
+                        .filter(count -> count > 0)
+                        .repeatWhenEmpty(50, repeat -> repeat.delayElements(Duration.ofMillis(20))))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testMetersAreRegisteredOncePerRoute() {
+        // Arrange
+        HedgingFilter hedgingFilter = new HedgingFilter(meterRegistry, 100, 10, 10);
+        HedgingFilter.Config config = config();
+        hedgingFilter.apply(config);
+
+        // Act - маршрут обновлен с другой задержкой
+        HedgingFilter.Config updated = config();
+        updated.setInitialDelayMs(250);
+        hedgingFilter.apply(updated);
+
+        // Assert - gauge показывает задержку из текущей конфигурации
+        assertEquals(1, meterRegistry.find("gateway.hedging.delay").gauges().size());
+        assertEquals(250.0, meterRegistry.get("gateway.hedging.delay").gauge().value());
+    }
+
+    private HedgingFilter.Config config() {
+        HedgingFilter.Config config = new HedgingFilter.Config();
+        config.setRouteId("task-service");
+        config.setInitialDelayMs(50);
+        return config;
+    }
+
+    /**
+     * Сервис за gateway: handler получает номер запроса
+     */
+    private static DisposableServer backend(BiFunction<Integer, HttpServerResponse, Mono<Void>> handler,
+                                            AtomicInteger calls) {
+        return HttpServer.create()
+                .port(0)
+                .handle((request, response) -> handler.apply(calls.incrementAndGet(), response))
+                .bindNow();
+    }
+
+    /**
+     * Минимальный gateway: маршрут с фильтром и настоящие фильтры маршрутизации Netty
+     */
+    private static DisposableServer gateway(GatewayFilter filter, DisposableServer backend) {
+        Route route = Route.async()
+                .id("task-service")
+                .uri("http://localhost:" + backend.port())
+                .predicate(exchange -> true)
+                .filter(new OrderedGatewayFilter(filter, 1))
+                .build();
+        FilteringWebHandler filteringHandler = new FilteringWebHandler(List.of(
+                new RouteToRequestUrlFilter(),
+                new NettyRoutingFilter(HttpClient.create(), new StaticListableBeanFactory().getBeanProvider(
+                        ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class)),
+                        new HttpClientProperties()),
+                new NettyWriteResponseFilter(List.of())));
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(exchange -> {
+            exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+            return filteringHandler.handle(exchange);
+        }).build();
+        return HttpServer.create()
+                .port(0)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    private static ResponseEntity<String> get(DisposableServer gateway, String path) {
+        return WebClient.create("http://localhost:" + gateway.port())
+                .get()
+                .uri(path)
+                .exchangeToMono(response -> response.toEntity(String.class))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, String body) {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                .wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
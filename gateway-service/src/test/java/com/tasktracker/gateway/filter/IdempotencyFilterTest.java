@@ -0,0 +1,216 @@
+package com.tasktracker.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для IdempotencyFilter
+ */
+class IdempotencyFilterTest {
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    private IdempotencyFilter filterFactory;
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Redis в памяти: SET NX, SET, GET, DEL и скрипт продления маркера
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+                Mono.just(redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null));
+        when(valueOperations.set(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            return Mono.just(true);
+        });
+        when(valueOperations.get(anyString())).thenAnswer(invocation ->
+                Mono.justOrEmpty(redis.get((String) invocation.getArgument(0))));
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation ->
+                Mono.just(redis.remove((String) invocation.getArgument(0)) != null ? 1L : 0L));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+            List<String> args = invocation.getArgument(2);
+            boolean current = args.get(0).equals(redis.get(keys.get(0)));
+            if (current) {
+                refreshes.incrementAndGet();
+            }
+            return Flux.just(current ? 1L : 0L);
+        });
+
+        filterFactory = new IdempotencyFilter(redisTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testDuplicateRequestIsReplayedFromRedis() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        AtomicInteger backendCalls = new AtomicInteger();
+        GatewayFilterChain chain = exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                    .wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8))));
+        };
+
+        // Act
+        MockServerWebExchange first = exchange("key-1");
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        MockServerWebExchange duplicate = exchange("key-1");
+        StepVerifier.create(filter.filter(duplicate, chain)).verifyComplete();
+
+        // Assert
+        assertEquals(1, backendCalls.get());
+        assertEquals(HttpStatus.CREATED, duplicate.getResponse().getStatusCode());
+        assertEquals("true", duplicate.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(MediaType.APPLICATION_JSON, duplicate.getResponse().getHeaders().getContentType());
+        StepVerifier.create(duplicate.getResponse().getBodyAsString())
+                .expectNext("{\"id\":1}")
+                .verifyComplete();
+    }
+
+    @Test
+    void testConcurrentDuplicateGetsConflictWhileFirstInFlight() {
+        // Arrange - первый запрос с тем же ключом еще выполняется
+        IdempotencyFilter.Config config = config();
+        config.setWaitTimeoutMs(100);
+        config.setPollIntervalMs(20);
+        GatewayFilter filter = filterFactory.apply(config);
+        redis.put("idempotency:task-service:user:42:key-2", IdempotencyFilter.IN_FLIGHT_PREFIX + "POST /tasks");
+        AtomicInteger backendCalls = new AtomicInteger();
+
+        // Act
+        MockServerWebExchange duplicate = exchange("key-2");
+        StepVerifier.create(filter.filter(duplicate, ex -> {
+                    backendCalls.incrementAndGet();
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(0, backendCalls.get());
+        assertEquals(HttpStatus.CONFLICT, duplicate.getResponse().getStatusCode());
+        assertEquals("1", duplicate.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testInFlightMarkerIsRefreshedWhileRequestRuns() {
+        // Arrange - запрос с retry идет дольше TTL маркера
+        IdempotencyFilter.Config config = config();
+        config.setInFlightTtlSeconds(1);
+        GatewayFilter filter = filterFactory.apply(config);
+        GatewayFilterChain slowChain = exchange -> Mono.delay(Duration.ofMillis(1200))
+                .then(Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.CREATED)));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange("key-refresh"), slowChain)).verifyComplete();
+        int refreshesAfterCompletion = refreshes.get();
+
+        // Assert - маркер продлевался, после сохранения ответа продление остановлено
+        assertTrue(refreshesAfterCompletion >= 2);
+        assertFalse(redis.get("idempotency:task-service:user:42:key-refresh").startsWith(IdempotencyFilter.IN_FLIGHT_PREFIX));
+        StepVerifier.create(Mono.delay(Duration.ofMillis(500))).expectNextCount(1).verifyComplete();
+        assertEquals(refreshesAfterCompletion, refreshes.get());
+    }
+
+    @Test
+    void testServerErrorReleasesKeyForRetry() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        GatewayFilterChain failingChain = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            return exchange.getResponse().setComplete();
+        };
+
+        // Act
+        StepVerifier.create(filter.filter(exchange("key-3"), failingChain)).verifyComplete();
+
+        // Assert - ответ 5xx не сохраняется, следующий повтор снова пойдет в сервис
+        assertFalse(redis.containsKey("idempotency:task-service:user:42:key-3"));
+    }
+
+    @Test
+    void testKeyReuseWithDifferentPathIsRejected() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        StepVerifier.create(filter.filter(exchange("key-4"), ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.CREATED);
+            return ex.getResponse().setComplete();
+        })).verifyComplete();
+
+        MockServerWebExchange otherRequest = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/tasks/1/comments")
+                .header("Idempotency-Key", "key-4")
+                .header("X-User-Id", "42"));
+
+        // Act
+        StepVerifier.create(filter.filter(otherRequest, ex -> Mono.empty())).verifyComplete();
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, otherRequest.getResponse().getStatusCode());
+    }
+
+    @Test
+    void testRequestWithoutKeyBypassesRedis() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/tasks"));
+        AtomicInteger backendCalls = new AtomicInteger();
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, ex -> {
+                    backendCalls.incrementAndGet();
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+
+        // Assert
+        assertEquals(1, backendCalls.get());
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    private IdempotencyFilter.Config config() {
+        IdempotencyFilter.Config config = new IdempotencyFilter.Config();
+        config.setRouteId("task-service");
+        return config;
+    }
+
+    private MockServerWebExchange exchange(String idempotencyKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest
+                .post("/tasks")
+                .header("Idempotency-Key", idempotencyKey)
+                .header("X-User-Id", "42"));
+    }
+}
@@ -1,11 +1,17 @@
 package com.tasktracker.gateway.filter;
 
+import com.tasktracker.gateway.security.InternalIdentitySigner;
+import com.tasktracker.gateway.security.JwksKeyCache;
+import com.tasktracker.gateway.security.RevocationListCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -22,7 +28,10 @@ import reactor.test.StepVerifier;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +51,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private ServerHttpResponse response;
     
+    @Mock
+    private JwksKeyCache jwksKeyCache;
+    
     private final String jwtSecret = "test-secret-key-for-testing-purposes-only-do-not-use-in-production";
     private final String jwtHeader = "Authorization";
     private final String jwtPrefix = "Bearer ";
@@ -52,6 +64,9 @@ class JwtAuthenticationFilterTest {
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtSecret", jwtSecret);
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtHeader", jwtHeader);
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtPrefix", jwtPrefix);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "identitySigner",
+                new InternalIdentitySigner("test-internal-identity-secret-32-bytes-min", 60));
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwksKeyCache", jwksKeyCache);
     }
     
     @Test
@@ -78,13 +93,75 @@ class JwtAuthenticationFilterTest {
                 .expectComplete()
                 .verify();
         
-        verify(filterChain).filter(any(ServerWebExchange.class));
-        
-        // Проверяем, что заголовки пользователя были добавлены
-        ServerHttpRequest modifiedRequest = exchange.getRequest();
+        // Проверяем, что заголовки пользователя были добавлены в запрос, переданный дальше по цепочке
+        ServerHttpRequest modifiedRequest = captureForwardedRequest();
         assertEquals("user123", modifiedRequest.getHeaders().getFirst("X-User-Id"));
         assertEquals("testuser", modifiedRequest.getHeaders().getFirst("X-User-Name"));
         assertEquals("ROLE_USER", modifiedRequest.getHeaders().getFirst("X-User-Roles"));
+        assertTrue(modifiedRequest.getHeaders().getFirst(InternalIdentitySigner.HEADER).startsWith("v1."));
+    }
+    
+    @Test
+    void testClientSuppliedIdentityHeadersShouldBeReplaced() {
+        // Arrange
+        String validToken = generateValidToken("user123", "testuser", "ROLE_USER");
+        
+        MockServerHttpRequest request = MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + validToken)
+                .header("X-User-Id", "999")
+                .header("X-User-Roles", "ROLE_ADMIN")
+                .header(InternalIdentitySigner.HEADER, "v1.forged.signature")
+                .build();
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        
+        when(filterChain.filter(any(ServerWebExchange.class)))
+                .thenReturn(Mono.empty());
+        
+        // Act
+        var filter = jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config());
+        Mono<Void> result = filter.filter(exchange, filterChain);
+        
+        // Assert
+        StepVerifier.create(result)
+                .expectComplete()
+                .verify();
+        
+        ServerHttpRequest modifiedRequest = captureForwardedRequest();
+        assertEquals(List.of("user123"), modifiedRequest.getHeaders().get("X-User-Id"));
+        assertEquals(List.of("ROLE_USER"), modifiedRequest.getHeaders().get("X-User-Roles"));
+        assertNotEquals("v1.forged.signature", modifiedRequest.getHeaders().getFirst(InternalIdentitySigner.HEADER));
+    }
+    
+    @Test
+    void testUserIdClaimShouldTakePrecedenceOverSubject() {
+        // Arrange
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .setSubject("testuser")
+                .claim("userId", 42L)
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(key)
+                .compact();
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + token)
+                .build());
+        
+        when(filterChain.filter(any(ServerWebExchange.class)))
+                .thenReturn(Mono.empty());
+        
+        // Act
+        jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()).filter(exchange, filterChain).block();
+        
+        // Assert
+        ServerHttpRequest modifiedRequest = captureForwardedRequest();
+        assertEquals("42", modifiedRequest.getHeaders().getFirst("X-User-Id"));
+        assertEquals("testuser", modifiedRequest.getHeaders().getFirst("X-User-Name"));
+        assertEquals("USER", modifiedRequest.getHeaders().getFirst("X-User-Roles"));
     }
     
     @Test
@@ -233,13 +310,113 @@ class JwtAuthenticationFilterTest {
                 .expectComplete()
                 .verify();
         
-        verify(filterChain).filter(any(ServerWebExchange.class));
-        
         // Проверяем, что роли были корректно переданы
-        ServerHttpRequest modifiedRequest = exchange.getRequest();
+        ServerHttpRequest modifiedRequest = captureForwardedRequest();
         assertEquals("ROLE_USER,ROLE_ADMIN", modifiedRequest.getHeaders().getFirst("X-User-Roles"));
     }
     
+    @Test
+    void testRs256TokenShouldBeVerifiedWithJwksKey() throws Exception {
+        // Arrange
+        KeyPair keyPair = generateRsaKeyPair();
+        when(jwksKeyCache.getKey("key-1")).thenReturn(keyPair.getPublic());
+        String token = generateRs256Token("key-1", keyPair);
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + token)
+                .build());
+        
+        when(filterChain.filter(any(ServerWebExchange.class)))
+                .thenReturn(Mono.empty());
+        
+        // Act
+        jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()).filter(exchange, filterChain).block();
+        
+        // Assert
+        ServerHttpRequest modifiedRequest = captureForwardedRequest();
+        assertEquals("42", modifiedRequest.getHeaders().getFirst("X-User-Id"));
+        assertEquals("testuser", modifiedRequest.getHeaders().getFirst("X-User-Name"));
+        assertEquals("ROLE_USER", modifiedRequest.getHeaders().getFirst("X-User-Roles"));
+    }
+    
+    @Test
+    void testRevokedTokenShouldReturnUnauthorized() throws Exception {
+        // Arrange
+        KeyPair keyPair = generateRsaKeyPair();
+        when(jwksKeyCache.getKey("key-1")).thenReturn(keyPair.getPublic());
+        RevocationListCache revocationListCache = mock(RevocationListCache.class);
+        when(revocationListCache.isRevoked("jti-1")).thenReturn(Mono.just(true));
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "revocationListCache", revocationListCache);
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "key-1")
+                .setId("jti-1")
+                .setSubject("testuser")
+                .claim("role", "ROLE_USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + token)
+                .build());
+        
+        // Act
+        jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()).filter(exchange, filterChain).block();
+        
+        // Assert
+        verify(filterChain, never()).filter(any(ServerWebExchange.class));
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+    
+    @Test
+    void testRs256TokenWithUnknownKidShouldReturnUnauthorized() throws Exception {
+        // Arrange - kid отсутствует в JWKS кэше
+        String token = generateRs256Token("unknown-key", generateRsaKeyPair());
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + token)
+                .build());
+        
+        // Act
+        jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()).filter(exchange, filterChain).block();
+        
+        // Assert
+        verify(filterChain, never()).filter(any(ServerWebExchange.class));
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        verify(jwksKeyCache).getKey("unknown-key");
+    }
+    
+    @Test
+    void testHmacTokenWithoutSharedSecretShouldReturnUnauthorized() {
+        // Arrange - переходный режим выключен
+        String validToken = generateValidToken("user123", "testuser", "ROLE_USER");
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtSecret", "");
+        
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/test")
+                .header(jwtHeader, jwtPrefix + validToken)
+                .build());
+        
+        // Act
+        jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config()).filter(exchange, filterChain).block();
+        
+        // Assert
+        verify(filterChain, never()).filter(any(ServerWebExchange.class));
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+    }
+    
+    /**
+     * Возвращает запрос, который фильтр передал дальше по цепочке
+     */
+    private ServerHttpRequest captureForwardedRequest() {
+        ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor.forClass(ServerWebExchange.class);
+        verify(filterChain).filter(captor.capture());
+        return captor.getValue().getRequest();
+    }
+    
     /**
      * Генерирует валидный JWT токен для тестов
      */
@@ -287,4 +464,25 @@ class JwtAuthenticationFilterTest {
                 .signWith(wrongKey)
                 .compact();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Генерирует токен RS256 в формате Auth Service
+     */
+    private String generateRs256Token(String kid, KeyPair keyPair) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, kid)
+                .setSubject("testuser")
+                .claim("userId", 42L)
+                .claim("role", "ROLE_USER")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+    
+    private static KeyPair generateRsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,154 @@
+package com.tasktracker.gateway.filter;
+
+import com.tasktracker.gateway.limiter.RetryBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для RetryBudgetFilter
+ */
+class RetryBudgetFilterTest {
+
+    private RetryBudgetFilter filterFactory;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filterFactory = new RetryBudgetFilter(meterRegistry);
+    }
+
+    @Test
+    void testPostWithoutIdempotencyKeyIsNotRetried() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        AtomicInteger attempts = new AtomicInteger();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/tasks")
+                .body("{\"title\":\"test\"}"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, failingChain(attempts))).verifyComplete();
+
+        // Assert - тело не кэшируется, запрос уходит один раз
+        assertEquals(1, attempts.get());
+        assertNull(exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR));
+        assertEquals(1.0, meterRegistry.get("gateway.retry.streamed").tag("routeId", "task-service").counter().count());
+    }
+
+    @Test
+    void testPostWithIdempotencyKeyReplaysCachedBody() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        List<String> bodies = new ArrayList<>();
+        GatewayFilterChain chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                .doOnNext(buffer -> {
+                    bodies.add(buffer.toString(StandardCharsets.UTF_8));
+                    DataBufferUtils.release(buffer);
+                })
+                .then(Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY)));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .post("/tasks")
+                .header("Idempotency-Key", "key-1")
+                .body("{\"title\":\"test\"}"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        // Assert - каждая попытка получает полное тело
+        assertEquals(3, bodies.size());
+        assertTrue(bodies.stream().allMatch("{\"title\":\"test\"}"::equals));
+    }
+
+    @Test
+    void testGetIsRetried() {
+        // Arrange
+        GatewayFilter filter = filterFactory.apply(config());
+        AtomicInteger attempts = new AtomicInteger();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks"));
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, failingChain(attempts))).verifyComplete();
+
+        // Assert
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testBudgetIsRebuiltWhenConfigChanges() {
+        // Arrange
+        filterFactory.apply(config());
+        RetryBudget initial = filterFactory.getBudget("task-service");
+
+        // Act - обновление маршрута с теми же и с новыми настройками
+        filterFactory.apply(config());
+        RetryBudget unchanged = filterFactory.getBudget("task-service");
+        RetryBudgetFilter.Config changed = config();
+        changed.setBudgetPercent(50);
+        filterFactory.apply(changed);
+
+        // Assert
+        assertSame(initial, unchanged);
+        assertNotSame(initial, filterFactory.getBudget("task-service"));
+    }
+
+    @Test
+    void testBodyReplayPolicy() {
+        // Arrange
+        RetryBudgetFilter.Config config = config();
+
+        // Act & Assert
+        assertEquals(RetryBudgetFilter.BodyReplay.RETRY_WITHOUT_BODY,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.get("/tasks").build(), config));
+        assertEquals(RetryBudgetFilter.BodyReplay.STREAM,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.post("/tasks").contentLength(10).build(), config));
+        assertEquals(RetryBudgetFilter.BodyReplay.RETRY_WITH_CACHED_BODY,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.put("/tasks/1").contentLength(10).build(), config));
+        // Слишком большое тело не буферизуется даже для идемпотентного метода
+        assertEquals(RetryBudgetFilter.BodyReplay.STREAM,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.put("/tasks/1").contentLength(1024 * 1024).build(), config));
+        // Chunked тело неизвестного размера
+        assertEquals(RetryBudgetFilter.BodyReplay.STREAM,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.put("/tasks/1").header("Transfer-Encoding", "chunked").build(), config));
+        // Метод не входит в methods маршрута
+        assertEquals(RetryBudgetFilter.BodyReplay.STREAM,
+                RetryBudgetFilter.bodyReplay(MockServerHttpRequest.patch("/tasks/1").header("Idempotency-Key", "k").build(), config));
+    }
+
+    private RetryBudgetFilter.Config config() {
+        RetryBudgetFilter.Config config = new RetryBudgetFilter.Config();
+        config.setRouteId("task-service");
+        config.setRetries(2);
+        config.setStatuses(HttpStatus.BAD_GATEWAY);
+        config.setMethods(HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT);
+        config.setBackoff(null);
+        // Бюджет не должен ограничивать повторы в тестах политики тела
+        config.setMinRetriesPerSecond(100);
+        return config;
+    }
+
+    private GatewayFilterChain failingChain(AtomicInteger attempts) {
+        return exchange -> Mono.fromRunnable(() -> {
+            attempts.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+        });
+    }
+}
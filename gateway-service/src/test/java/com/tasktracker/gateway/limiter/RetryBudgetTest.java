@@ -0,0 +1,69 @@
+package com.tasktracker.gateway.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для RetryBudget
+ */
+class RetryBudgetTest {
+
+    @Test
+    void testRetriesLimitedByPercentOfTraffic() {
+        // Arrange - 20% от 100 запросов, без минимального запаса
+        AtomicLong clock = new AtomicLong(10_000);
+        RetryBudget budget = new RetryBudget(20, 0, 10, clock::get);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+
+        // Act
+        int allowed = 0;
+        for (int i = 0; i < 50; i++) {
+            if (budget.tryAcquireRetry()) {
+                allowed++;
+            }
+        }
+
+        // Assert
+        assertEquals(20, allowed);
+    }
+
+    @Test
+    void testMinimumRetriesAllowedAtLowTraffic() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(10_000);
+        RetryBudget budget = new RetryBudget(20, 1, 5, clock::get);
+        budget.recordRequest();
+
+        // Act & Assert - минимум 1 retry в секунду на окно 5 секунд
+        for (int i = 0; i < 5; i++) {
+            assertTrue(budget.tryAcquireRetry());
+        }
+        assertFalse(budget.tryAcquireRetry());
+    }
+
+    @Test
+    void testBudgetRecoversAfterWindow() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(10_000);
+        RetryBudget budget = new RetryBudget(10, 0, 3, clock::get);
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+
+        // Act - окно полностью сменилось
+        clock.addAndGet(3_000);
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+
+        // Assert
+        assertTrue(budget.tryAcquireRetry());
+    }
+}
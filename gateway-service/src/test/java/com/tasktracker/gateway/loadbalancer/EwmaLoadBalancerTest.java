@@ -0,0 +1,126 @@
+package com.tasktracker.gateway.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для EwmaLoadBalancer и InstanceLoadTracker
+ */
+class EwmaLoadBalancerTest {
+
+    private AtomicLong clock;
+    private InstanceLoadTracker loadTracker;
+    private EwmaLoadBalancer loadBalancer;
+
+    private final ServiceInstance fast = instance("task-1", 8082);
+    private final ServiceInstance slow = instance("task-2", 8082);
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+        loadTracker = new InstanceLoadTracker(10_000, 50, 2_000, clock::get);
+        loadBalancer = new EwmaLoadBalancer(null, "task-service", loadTracker);
+    }
+
+    @Test
+    void testPrefersFasterInstance() {
+        // Arrange
+        record(fast, 10, false);
+        record(slow, 500, false);
+
+        // Act & Assert - из двух экземпляров P2C всегда сравнивает оба
+        for (int i = 0; i < 20; i++) {
+            assertEquals(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+        }
+    }
+
+    @Test
+    void testInFlightRequestsIncreaseCost() {
+        // Arrange - одинаковая латентность, но на первом экземпляре 5 запросов в работе
+        record(fast, 20, false);
+        record(slow, 20, false);
+        for (int i = 0; i < 5; i++) {
+            loadTracker.onStart(fast);
+        }
+
+        // Act
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(fast, slow));
+
+        // Assert
+        assertEquals(slow, response.getServer());
+        assertEquals(5, loadTracker.getInFlight(fast));
+    }
+
+    @Test
+    void testFailuresArePenalized() {
+        // Arrange
+        record(fast, 10, true);
+        record(slow, 300, false);
+
+        // Act & Assert
+        assertTrue(loadTracker.getLatencyMs(fast) >= 2_000);
+        assertEquals(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void testSlowInstanceRecoversOverTime() {
+        // Arrange
+        record(slow, 5_000, false);
+        double penalized = loadTracker.getLatencyMs(slow);
+
+        // Act - без новых замеров оценка возвращается к начальной
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Assert
+        assertTrue(loadTracker.getLatencyMs(slow) < penalized / 10);
+    }
+
+    @Test
+    void testCancelReleasesInFlight() {
+        // Act
+        loadTracker.onStart(fast);
+        loadTracker.onCancel(fast);
+
+        // Assert
+        assertEquals(0, loadTracker.getInFlight(fast));
+    }
+
+    @Test
+    void testEmptyAndSingleInstanceLists() {
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+        assertEquals(fast, loadBalancer.choose(List.of(fast)).getServer());
+    }
+
+    @Test
+    void testExcludedInstanceIsSkippedWhenAlternativeExists() {
+        // Arrange - медленный экземпляр дешевле, но исключен дублирующим запросом
+        record(fast, 500, false);
+        record(slow, 10, false);
+        String excluded = EwmaLoadBalancer.instanceKey(slow);
+
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            assertEquals(fast, loadBalancer.choose(EwmaLoadBalancer.withoutExcluded(List.of(fast, slow), excluded)).getServer());
+        }
+        // Единственный экземпляр не исключается
+        assertEquals(List.of(slow), EwmaLoadBalancer.withoutExcluded(List.of(slow), excluded));
+    }
+
+    private void record(ServiceInstance instance, long latencyMs, boolean failed) {
+        loadTracker.onStart(instance);
+        loadTracker.onComplete(instance, TimeUnit.MILLISECONDS.toNanos(latencyMs), failed);
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + ":" + port, "task-service", host, port, false);
+    }
+}
@@ -0,0 +1,126 @@
+package com.tasktracker.gateway.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigInteger;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для JwksKeyCache
+ */
+class JwksKeyCacheTest {
+
+    private static RSAPublicKey publicKey;
+
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<Mono<ClientResponse>> response = new AtomicReference<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @BeforeAll
+    static void generateKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+    }
+
+    @Test
+    void testRefreshLoadsRsaKeysByKid() {
+        // Arrange
+        JwksKeyCache cache = cache();
+        response.set(json(jwks("key-1")));
+
+        // Act
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Assert
+        assertEquals(publicKey, cache.getKey("key-1"));
+        assertNull(cache.getKey(null));
+    }
+
+    @Test
+    void testFailedRefreshKeepsPreviousKeys() {
+        // Arrange
+        JwksKeyCache cache = cache();
+        response.set(json(jwks("key-1")));
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Act - Auth Service недоступен
+        response.set(Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Assert
+        assertEquals(publicKey, cache.getKey("key-1"));
+    }
+
+    @Test
+    void testUnknownKidTriggersRateLimitedRefresh() {
+        // Arrange
+        JwksKeyCache cache = cache();
+        response.set(json(jwks("key-2")));
+        StepVerifier.create(cache.refresh()).verifyComplete();
+        int fetchesAfterStart = fetches.get();
+
+        // Act - несколько запросов с неизвестным kid в пределах min-refresh-interval
+        now.addAndGet(20_000);
+        assertNull(cache.getKey("unknown"));
+        assertNull(cache.getKey("unknown"));
+        assertNull(cache.getKey("unknown"));
+
+        // Assert
+        assertEquals(fetchesAfterStart + 1, fetches.get());
+    }
+
+    @Test
+    void testNonRsaKeysAreIgnored() {
+        // Arrange
+        JwksKeyCache cache = cache();
+        String json = "{\"keys\":[{\"kty\":\"EC\",\"kid\":\"ec-1\",\"crv\":\"P-256\",\"x\":\"AA\",\"y\":\"AA\"},"
+                + "{\"kty\":\"RSA\",\"kid\":\"enc-1\",\"use\":\"enc\",\"n\":\"AQAB\",\"e\":\"AQAB\"}]}";
+
+        // Act & Assert
+        assertTrue(cache.parse(json).isEmpty());
+    }
+
+    private JwksKeyCache cache() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    fetches.incrementAndGet();
+                    return response.get();
+                })
+                .build();
+        return new JwksKeyCache(webClient, new ObjectMapper(), "http://auth-service/.well-known/jwks.json",
+                300_000, 10_000, now::get);
+    }
+
+    private static String jwks(String kid) {
+        return "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"" + kid + "\",\"use\":\"sig\",\"alg\":\"RS256\","
+                + "\"n\":\"" + base64Url(publicKey.getModulus()) + "\","
+                + "\"e\":\"" + base64Url(publicKey.getPublicExponent()) + "\"}]}";
+    }
+
+    private static String base64Url(BigInteger value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toByteArray());
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
@@ -0,0 +1,121 @@
+package com.tasktracker.gateway.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для RevocationListCache и BloomFilter
+ */
+class RevocationListCacheTest {
+
+    /**
+     * Фильтр на 64 бита с jti-1 и jti-2; то же значение проверяется
+     * в TokenRevocationServiceTest auth-service
+     */
+    private static final String SNAPSHOT = "{\"version\":7,\"numBits\":64,\"numHashes\":11,\"entries\":2,"
+            + "\"bits\":\"mEQGowYSCag=\"}";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void testBloomFilterIsCompatibleWithAuthService() {
+        // Arrange
+        BloomFilter filter = BloomFilter.fromBase64(64, 11, "mEQGowYSCag=");
+
+        // Act & Assert
+        assertTrue(filter.mightContain("jti-1"));
+        assertTrue(filter.mightContain("jti-2"));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.fromBase64(128, 11, "mEQGowYSCag="));
+    }
+
+    @Test
+    void testTokenOutsideFilterIsCheckedLocally() {
+        // Arrange
+        RevocationListCache cache = cache(request -> json(SNAPSHOT, "\"7\""));
+        StepVerifier.create(cache.refresh()).verifyComplete();
+        BloomFilter filter = BloomFilter.fromBase64(64, 11, "mEQGowYSCag=");
+        String jti = IntStream.range(0, 1000)
+                .mapToObj(i -> "token-" + i)
+                .filter(value -> !filter.mightContain(value))
+                .findFirst()
+                .orElseThrow();
+
+        // Act & Assert - запросов сверх загрузки снимка нет
+        StepVerifier.create(cache.isRevoked(jti)).expectNext(false).verifyComplete();
+        StepVerifier.create(cache.isRevoked(null)).expectNext(false).verifyComplete();
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void testFilterHitIsConfirmedByExactCheckAndCached() {
+        // Arrange
+        RevocationListCache cache = cache(request -> request.url().getPath().endsWith("/bloom")
+                ? json(SNAPSHOT, "\"7\"")
+                : json("{\"jti\":\"jti-1\",\"revoked\":true}", null));
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Act
+        StepVerifier.create(cache.isRevoked("jti-1")).expectNext(true).verifyComplete();
+        StepVerifier.create(cache.isRevoked("jti-1")).expectNext(true).verifyComplete();
+
+        // Assert - один точный запрос
+        assertEquals(2, requests.size());
+        assertEquals("/auth/revocations/jti-1", requests.get(1).url().getPath());
+    }
+
+    @Test
+    void testUnchangedSnapshotIsRequestedWithEtag() {
+        // Arrange
+        RevocationListCache cache = cache(request -> {
+            if (!request.url().getPath().endsWith("/bloom")) {
+                return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+            return request.headers().getIfNoneMatch().isEmpty()
+                    ? json(SNAPSHOT, "\"7\"")
+                    : Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        });
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Act
+        StepVerifier.create(cache.refresh()).verifyComplete();
+
+        // Assert - снимок сохранился; точная проверка недоступна, поэтому токен из фильтра отклоняется
+        assertEquals(List.of("\"7\""), requests.get(1).headers().getIfNoneMatch());
+        StepVerifier.create(cache.isRevoked("jti-1")).expectNext(true).verifyComplete();
+    }
+
+    private RevocationListCache cache(Function<ClientRequest, Mono<ClientResponse>> responder) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return responder.apply(request);
+                })
+                .build();
+        return new RevocationListCache(webClient, new ObjectMapper(), "http://auth-service/auth/revocations", 10_000);
+    }
+
+    private static Mono<ClientResponse> json(String body, String etag) {
+        ClientResponse.Builder builder = ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body);
+        if (etag != null) {
+            builder.header(HttpHeaders.ETAG, etag);
+        }
+        return Mono.just(builder.build());
+    }
+}
@@ -0,0 +1,227 @@
+package com.tasktracker.gateway.service;
+
+import com.tasktracker.gateway.config.DashboardProperties;
+import com.tasktracker.gateway.filter.JwtAuthenticationFilter.AuthenticatedUser;
+import com.tasktracker.gateway.loadbalancer.EwmaLoadBalancer;
+import com.tasktracker.gateway.loadbalancer.InstanceLoadTracker;
+import com.tasktracker.gateway.security.InternalIdentitySigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для DashboardService
+ */
+class DashboardServiceTest {
+
+    private final AuthenticatedUser user = new AuthenticatedUser("42", "alice", "USER", "v1.identity.signature");
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    private DashboardProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DashboardProperties();
+        properties.setTasksTimeout(Duration.ofMillis(200));
+        properties.setNotificationsTimeout(Duration.ofMillis(200));
+        properties.setAuditTimeout(Duration.ofMillis(200));
+    }
+
+    @Test
+    void testAllServicesRespond() {
+        // Arrange
+        DashboardService service = service(request -> {
+            String path = request.url().getPath();
+            if (path.startsWith("/tasks")) {
+                return json("{\"content\":[{\"id\":1}],\"totalElements\":1}");
+            }
+            if (path.endsWith("/unread/count")) {
+                return json("3");
+            }
+            return json("{\"content\":[],\"totalElements\":0}");
+        });
+
+        // Act & Assert
+        StepVerifier.create(service.getDashboard(user))
+                .assertNext(dashboard -> {
+                    assertEquals("42", dashboard.get("userId"));
+                    assertEquals(3, dashboard.get("unreadNotifications"));
+                    assertEquals(1, ((Map<?, ?>) dashboard.get("tasks")).get("totalElements"));
+                    assertNotNull(dashboard.get("recentActivity"));
+                    assertEquals(false, dashboard.get("partial"));
+                    assertTrue(((Map<?, ?>) dashboard.get("errors")).isEmpty());
+                })
+                .verifyComplete();
+
+        // Каждый сервис получает подписанную identity пользователя
+        assertEquals(3, requests.size());
+        assertTrue(requests.stream().allMatch(request ->
+                "v1.identity.signature".equals(request.headers().getFirst(InternalIdentitySigner.HEADER))));
+    }
+
+    @Test
+    void testSlowServiceReturnsPartialResult() {
+        // Arrange - notification-service отвечает дольше своего таймаута
+        DashboardService service = service(request -> {
+            String path = request.url().getPath();
+            if (path.endsWith("/unread/count")) {
+                return json("3").delayElement(Duration.ofSeconds(5));
+            }
+            return json("{\"content\":[]}");
+        });
+
+        // Act & Assert - ответ не ждет медленный сервис
+        StepVerifier.create(service.getDashboard(user))
+                .assertNext(dashboard -> {
+                    assertNull(dashboard.get("unreadNotifications"));
+                    assertNotNull(dashboard.get("tasks"));
+                    assertEquals(true, dashboard.get("partial"));
+                    assertEquals(Map.of(DashboardService.NOTIFICATIONS, "TIMEOUT"), dashboard.get("errors"));
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testFailedServicesAreReportedPerLeg() {
+        // Arrange
+        DashboardService service = service(request -> {
+            String path = request.url().getPath();
+            if (path.startsWith("/tasks")) {
+                return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+            if (path.startsWith("/api/audit")) {
+                return Mono.error(new IllegalStateException("Connection refused"));
+            }
+            return json("0");
+        });
+
+        // Act & Assert
+        StepVerifier.create(service.getDashboard(user))
+                .assertNext(dashboard -> {
+                    assertEquals(0, dashboard.get("unreadNotifications"));
+                    assertEquals(true, dashboard.get("partial"));
+                    Map<?, ?> errors = (Map<?, ?>) dashboard.get("errors");
+                    assertEquals("HTTP_503", errors.get(DashboardService.TASKS));
+                    assertEquals("UNAVAILABLE", errors.get(DashboardService.AUDIT));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testServicesAreCalledThroughLoadBalancerOverHttp() {
+        // Arrange - настоящий HTTP сервер вместо сервисов, экземпляр выбирает EwmaLoadBalancer
+        InternalIdentitySigner signer = new InternalIdentitySigner("test-internal-identity-secret-32-bytes-min", 60);
+        AuthenticatedUser signedUser = new AuthenticatedUser("42", "alice", "USER", signer.sign("42", "alice", "USER"));
+        List<String> received = new CopyOnWriteArrayList<>();
+        DisposableServer server = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    received.add(request.uri());
+                    if (!signedUser.identity().equals(request.requestHeaders().get(InternalIdentitySigner.HEADER))
+                            || !"42".equals(request.requestHeaders().get("X-User-ID"))) {
+                        return response.status(HttpStatus.UNAUTHORIZED.value()).send();
+                    }
+                    String body = request.uri().endsWith("/unread/count") ? "2" : "{\"content\":[],\"totalElements\":0}";
+                    return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE).sendString(Mono.just(body));
+                })
+                .bindNow();
+        // первое соединение Netty открывает дольше, чем таймауты моковых тестов
+        properties.setTasksTimeout(Duration.ofSeconds(5));
+        properties.setNotificationsTimeout(Duration.ofSeconds(5));
+        properties.setAuditTimeout(Duration.ofSeconds(5));
+        try {
+            WebClient webClient = WebClient.builder()
+                    .filter(new ReactorLoadBalancerExchangeFilterFunction(loadBalancerFactory(server.port()), List.of()))
+                    .build();
+            DashboardService service = new DashboardService(webClient, properties,
+                    "http://task-service", "http://notification-service", "http://audit-service");
+
+            // Act & Assert
+            StepVerifier.create(service.getDashboard(signedUser))
+                    .assertNext(dashboard -> {
+                        assertEquals(false, dashboard.get("partial"), String.valueOf(dashboard.get("errors")));
+                        assertEquals(2, dashboard.get("unreadNotifications"));
+                        assertNotNull(dashboard.get("recentActivity"));
+                    })
+                    .verifyComplete();
+            assertTrue(received.contains("/api/audit/events/user/42?page=0&size=10"));
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    private DashboardService service(ExchangeFunction exchangeFunction) {
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return exchangeFunction.exchange(request);
+        }).build();
+        return new DashboardService(webClient, properties,
+                "http://task-service", "http://notification-service", "http://audit-service");
+    }
+
+    /**
+     * Все сервисы - один экземпляр на localhost:port
+     */
+    private static ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory(int port) {
+        InstanceLoadTracker loadTracker = new InstanceLoadTracker(10_000, 50, 2_000);
+        return new ReactiveLoadBalancer.Factory<>() {
+            @Override
+            public ReactiveLoadBalancer<ServiceInstance> getInstance(String serviceId) {
+                ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from(serviceId,
+                        new DefaultServiceInstance(serviceId + "-1", serviceId, "localhost", port, false));
+                ObjectProvider<ServiceInstanceListSupplier> provider = new StaticListableBeanFactory(
+                        Map.of("supplier", supplier)).getBeanProvider(ServiceInstanceListSupplier.class);
+                return new EwmaLoadBalancer(provider, serviceId, loadTracker);
+            }
+
+            @Override
+            public <X> Map<String, X> getInstances(String name, Class<X> type) {
+                return Map.of();
+            }
+
+            @Override
+            public <X> X getInstance(String name, Class<?> clazz, Class<?>... generics) {
+                return null;
+            }
+
+            @Override
+            public LoadBalancerProperties getProperties(String serviceId) {
+                return new LoadBalancerProperties();
+            }
+        };
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+}
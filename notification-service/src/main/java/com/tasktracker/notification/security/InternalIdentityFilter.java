@@ -0,0 +1,101 @@
+package com.tasktracker.notification.security;
+
+import com.tasktracker.notification.security.InternalIdentityVerifier.Identity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр внутреннего заголовка идентичности
+ *
+ * Gateway проверяет JWT один раз и передает сервису подписанный заголовок X-Internal-Identity;
+ * подпись и срок действия проверяет InternalIdentityVerifier, фильтр устанавливает
+ * пользователя в SecurityContext.
+ *
+ * Принципы работы:
+ * 1. Нет заголовка - запрос идет дальше без аутентификации
+ * 2. Неверная подпись или истекший срок - 401
+ * 3. Валидный заголовок - UserPrincipal и роли в SecurityContext; для токенов без claim userId
+ *    Gateway подписывает subject, такой нечисловой ID дает UserPrincipal с id = null
+ */
+@Component
+public class InternalIdentityFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalIdentityFilter.class);
+
+    public static final String HEADER = InternalIdentityVerifier.HEADER;
+
+    private final InternalIdentityVerifier verifier;
+
+    public InternalIdentityFilter(InternalIdentityVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String header = request.getHeader(HEADER);
+        if (header == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Identity identity = verifier.verify(header);
+        if (identity == null) {
+            logger.warn("Invalid internal identity header for {}", request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        UserPrincipal principal = new UserPrincipal(numericId(identity.userId()), identity.username(), role(identity));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, identity.authorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Числовой ID пользователя или null, если Gateway подписал subject
+     */
+    private static Long numericId(String userId) {
+        try {
+            return Long.valueOf(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Основная роль без префикса ROLE_ для UserPrincipal
+     */
+    private static String role(Identity identity) {
+        return identity.authorities().isEmpty()
+                ? null
+                : identity.authorities().get(0).getAuthority().substring("ROLE_".length());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        String path = request.getRequestURI();
+
+        // Список публичных путей, которые не требуют аутентификации
+        return path.startsWith("/actuator/") ||
+               path.startsWith("/swagger-ui/") ||
+               path.startsWith("/v3/api-docs/") ||
+               path.equals("/favicon.ico");
+    }
+}
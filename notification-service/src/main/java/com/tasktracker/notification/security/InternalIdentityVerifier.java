@@ -0,0 +1,124 @@
+package com.tasktracker.notification.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Проверка заголовка X-Internal-Identity
+ *
+ * Формат, общий для Gateway (InternalIdentitySigner) и сервисов: "v1.&lt;payload&gt;.&lt;signature&gt;",
+ * payload - base64url("userId\nusername\nroles\nexpiresAtEpochSeconds"),
+ * signature - base64url(HMAC-SHA256(payload)) общим секретом internal.identity.secret.
+ * Подпись и срок действия проверяются без обращения к Auth Service.
+ */
+@Component
+public class InternalIdentityVerifier {
+
+    public static final String HEADER = "X-Internal-Identity";
+
+    private static final String VERSION_PREFIX = "v1.";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+
+    /**
+     * Mac не потокобезопасен, поэтому по экземпляру на поток обработки запросов
+     */
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public InternalIdentityVerifier(@Value("${internal.identity.secret}") String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    InternalIdentityVerifier(String secret, Clock clock) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.clock = clock;
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Проверяет подпись и срок действия
+     *
+     * @return пользователь из заголовка или null для невалидного заголовка
+     */
+    public Identity verify(String header) {
+        if (!header.startsWith(VERSION_PREFIX)) {
+            return null;
+        }
+        int separator = header.indexOf('.', VERSION_PREFIX.length());
+        if (separator < 0) {
+            return null;
+        }
+        String payload = header.substring(VERSION_PREFIX.length(), separator);
+        try {
+            byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = Base64.getUrlDecoder().decode(header.substring(separator + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            String[] fields = new String(Base64.getUrlDecoder().decode(payload), StandardCharsets.UTF_8)
+                    .split("\n", -1);
+            if (fields.length != 4 || fields[0].isEmpty()) {
+                return null;
+            }
+            if (Long.parseLong(fields[3]) < clock.instant().getEpochSecond()) {
+                return null;
+            }
+            return new Identity(fields[0], fields[1], toAuthorities(fields[2]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Роли из заголовка через запятую, префикс ROLE_ добавляется при отсутствии
+     */
+    private static List<SimpleGrantedAuthority> toAuthorities(String roles) {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            String trimmed = role.trim();
+            if (!trimmed.isEmpty()) {
+                authorities.add(new SimpleGrantedAuthority(
+                        trimmed.startsWith("ROLE_") ? trimmed : "ROLE_" + trimmed));
+            }
+        }
+        return authorities;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
+    }
+
+    /**
+     * Пользователь из проверенного заголовка
+     *
+     * @param userId ID пользователя; для токенов без claim userId Gateway подписывает subject
+     */
+    public record Identity(String userId, String username, List<SimpleGrantedAuthority> authorities) {
+
+        public boolean hasAuthority(String authority) {
+            return authorities.stream().anyMatch(granted -> granted.getAuthority().equals(authority));
+        }
+    }
+}
@@ -1,71 +0,0 @@
-package com.tasktracker.notification.security;
-
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-import java.io.IOException;
-import java.util.Collections;
-
-@Component
-public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
-    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-    
-    private final JwtUtils jwtUtils;
-    
-    public JwtAuthenticationFilter(JwtUtils jwtUtils) {
-        this.jwtUtils = jwtUtils;
-    }
-    
-    @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-            throws ServletException, IOException {
-        
-        String token = getTokenFromRequest(request);
-        
-        if (token != null && jwtUtils.validateToken(token)) {
-            try {
-                String username = jwtUtils.getUsernameFromToken(token);
-                Long userId = jwtUtils.getUserIdFromToken(token);
-                String role = jwtUtils.getRoleFromToken(token);
-                
-                // Create user principal with necessary information
-                UserPrincipal userPrincipal = new UserPrincipal(userId, username, role);
-                
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(
-                        userPrincipal, 
-                        null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
-                    );
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                
-                logger.debug("User authenticated: {} with role: {}", username, role);
-                
-            } catch (Exception e) {
-                logger.error("Cannot set user authentication: {}", e.getMessage());
-            }
-        }
-        
-        filterChain.doFilter(request, response);
-    }
-    
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return null;
-    }
-} 
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.tasktracker.notification.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InternalIdentityFilterTest {
+
+    private static final String SECRET = "test-internal-identity-secret-32-bytes-min";
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private InternalIdentityFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new InternalIdentityFilter(new InternalIdentityVerifier(SECRET, Clock.fixed(NOW, ZoneOffset.UTC)));
+        filterChain = mock(FilterChain.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validHeader_AuthenticatesUser() throws Exception {
+        // Given
+        MockHttpServletRequest request = request(sign(SECRET, "42", "john", "ROLE_USER", NOW.getEpochSecond() + 60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals("john", principal.getUsername());
+        assertEquals("USER", principal.getRole());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_USER")));
+    }
+
+    @Test
+    void nonNumericUserId_AuthenticatesWithoutId() throws Exception {
+        // Given - token without userId claim, gateway signed the subject
+        MockHttpServletRequest request = request(sign(SECRET, "john", "john", "USER", NOW.getEpochSecond() + 60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertNull(principal.getId());
+        assertEquals("john", principal.getUsername());
+    }
+
+    @Test
+    void wrongSignature_ReturnsUnauthorized() throws Exception {
+        // Given
+        MockHttpServletRequest request = request(
+                sign("another-internal-identity-secret-32-bytes", "42", "john", "USER", NOW.getEpochSecond() + 60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void expiredHeader_ReturnsUnauthorized() throws Exception {
+        // Given
+        MockHttpServletRequest request = request(sign(SECRET, "42", "john", "USER", NOW.getEpochSecond() - 1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void tamperedPayload_ReturnsUnauthorized() throws Exception {
+        // Given - role in payload replaced, signature kept from the original payload
+        String original = sign(SECRET, "42", "john", "USER", NOW.getEpochSecond() + 60);
+        String forged = sign(SECRET, "42", "john", "ADMIN", NOW.getEpochSecond() + 60);
+        String tampered = forged.substring(0, forged.lastIndexOf('.')) + original.substring(original.lastIndexOf('.'));
+        MockHttpServletRequest request = request(tampered);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void missingHeader_PassesWithoutAuthentication() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/user/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest request(String identity) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notifications/user/42");
+        request.addHeader(InternalIdentityFilter.HEADER, identity);
+        return request;
+    }
+
+    /**
+     * Builds a header in the gateway InternalIdentitySigner format
+     */
+    private static String sign(String secret, String userId, String username, String roles, long expiresAt)
+            throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = encoder.encodeToString(String.join("\n", userId, username, roles, Long.toString(expiresAt))
+                .getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "v1." + payload + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
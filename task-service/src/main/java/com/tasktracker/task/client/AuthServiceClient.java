@@ -1,9 +1,14 @@
 package com.tasktracker.task.client;
 
+import com.tasktracker.task.security.ServiceIdentitySigner;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.util.List;
+
 /**
  * Feign клиент для интеграции с Auth Service
  * 
@@ -49,6 +54,64 @@ public interface AuthServiceClient {
     @GetMapping("/users/{userId}")
     UserInfo getUserById(@RequestHeader("Authorization") String token, Long userId);
     
+    /**
+     * Пакетное получение пользователей по ID
+     * 
+     * Один запрос вместо запроса на каждого пользователя. Напрямую не вызывается:
+     * запросы собираются в пакеты через UserBatchLoader.
+     * Auth Service отдает этот endpoint только сервисам (роль SERVICE) и администраторам,
+     * поэтому вызов выполняется с подписанной идентичностью Task Service, а не с токеном пользователя
+     * 
+     * @param serviceIdentity заголовок X-Internal-Identity от ServiceIdentitySigner
+     * @param request ID пользователей (не более 500)
+     * @return краткая информация о найденных пользователях
+     */
+    @PostMapping("/users/batch")
+    List<UserSummary> getUsersBatch(@RequestHeader(ServiceIdentitySigner.HEADER) String serviceIdentity,
+                                    @RequestBody UserBatchRequest request);
+    
+    /**
+     * Тело запроса POST /users/batch
+     */
+    class UserBatchRequest {
+        private List<Long> ids;
+        
+        public UserBatchRequest() {}
+        
+        public UserBatchRequest(List<Long> ids) {
+            this.ids = ids;
+        }
+        
+        public List<Long> getIds() { return ids; }
+        public void setIds(List<Long> ids) { this.ids = ids; }
+    }
+    
+    /**
+     * Краткая информация о пользователе из POST /users/batch
+     */
+    class UserSummary {
+        private Long id;
+        private String username;
+        private String role;
+        
+        public UserSummary() {}
+        
+        public UserSummary(Long id, String username, String role) {
+            this.id = id;
+            this.username = username;
+            this.role = role;
+        }
+        
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+    }
+    
     /**
      * DTO для информации о пользователе
      * 
@@ -0,0 +1,206 @@
+package com.tasktracker.task.client;
+
+import com.tasktracker.task.client.AuthServiceClient.UserBatchRequest;
+import com.tasktracker.task.client.AuthServiceClient.UserSummary;
+import com.tasktracker.task.security.ServiceIdentitySigner;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Пакетная загрузка пользователей из Auth Service (по образцу DataLoader)
+ *
+ * Запросы пользователей по ID, пришедшие в течение окна window-ms, собираются
+ * в один вызов POST /users/batch; одинаковые ID в окне загружаются один раз.
+ * Пакет отправляется раньше, если набрал max-batch-size ID.
+ *
+ * Вызов в Auth Service выполняется с идентичностью самого Task Service (ServiceIdentitySigner),
+ * поэтому в один пакет попадают ID из запросов разных пользователей.
+ */
+@Component
+public class UserBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchLoader.class);
+
+    private final AuthServiceClient authServiceClient;
+    private final ServiceIdentitySigner serviceIdentitySigner;
+    private final long windowMs;
+    private final int maxBatchSize;
+
+    /**
+     * Таймеры окон и вызовы Auth Service
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Открытый (еще не отправленный) пакет
+     */
+    private final AtomicReference<Batch> pending = new AtomicReference<>();
+
+    @Autowired
+    public UserBatchLoader(AuthServiceClient authServiceClient,
+                           ServiceIdentitySigner serviceIdentitySigner,
+                           @Value("${auth.users.batch-window-ms:5}") long windowMs,
+                           @Value("${auth.users.max-batch-size:200}") int maxBatchSize) {
+        this(authServiceClient, serviceIdentitySigner, windowMs, maxBatchSize, newExecutor());
+    }
+
+    UserBatchLoader(AuthServiceClient authServiceClient, ServiceIdentitySigner serviceIdentitySigner,
+                    long windowMs, int maxBatchSize, ScheduledExecutorService executor) {
+        this.authServiceClient = authServiceClient;
+        this.serviceIdentitySigner = serviceIdentitySigner;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Загрузка одного пользователя
+     *
+     * @return future с пользователем или null, если пользователь не найден
+     */
+    public CompletableFuture<UserSummary> load(Long userId) {
+        while (true) {
+            Batch batch = pending.get();
+            if (batch == null) {
+                Batch created = new Batch();
+                if (pending.compareAndSet(null, created)) {
+                    batch = created;
+                    executor.schedule(() -> dispatch(created), windowMs, TimeUnit.MILLISECONDS);
+                } else {
+                    continue;
+                }
+            }
+
+            CompletableFuture<UserSummary> future = batch.add(userId);
+            if (future != null) {
+                if (batch.size() >= maxBatchSize) {
+                    dispatch(batch);
+                }
+                return future;
+            }
+            // Пакет уже отправлен - открываем следующий
+            pending.compareAndSet(batch, null);
+        }
+    }
+
+    /**
+     * Загрузка нескольких пользователей
+     *
+     * @return future с найденными пользователями по ID
+     */
+    public CompletableFuture<Map<Long, UserSummary>> loadMany(Collection<Long> userIds) {
+        Map<Long, CompletableFuture<UserSummary>> futures = new LinkedHashMap<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            if (userId != null) {
+                futures.put(userId, load(userId));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<Long, UserSummary> users = new HashMap<>();
+                    futures.forEach((userId, future) -> {
+                        UserSummary user = future.join();
+                        if (user != null) {
+                            users.put(userId, user);
+                        }
+                    });
+                    return users;
+                });
+    }
+
+    /**
+     * Закрывает пакет и отправляет его; повторные вызовы для того же пакета игнорируются
+     */
+    private void dispatch(Batch batch) {
+        Map<Long, CompletableFuture<UserSummary>> futures = batch.close();
+        if (futures == null) {
+            return;
+        }
+        pending.compareAndSet(batch, null);
+        executor.execute(() -> fetch(futures));
+    }
+
+    private void fetch(Map<Long, CompletableFuture<UserSummary>> futures) {
+        try {
+            List<UserSummary> users = authServiceClient.getUsersBatch(
+                    serviceIdentitySigner.sign(), new UserBatchRequest(new ArrayList<>(futures.keySet())));
+
+            Map<Long, UserSummary> byId = new HashMap<>();
+            for (UserSummary user : users) {
+                byId.put(user.getId(), user);
+            }
+            futures.forEach((userId, future) -> future.complete(byId.get(userId)));
+            logger.debug("Loaded {} of {} users in one batch", byId.size(), futures.size());
+        } catch (Exception e) {
+            logger.warn("Batch user lookup failed for {} users: {}", futures.size(), e.getMessage());
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "user-batch-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Пакет ID, собираемый в течение окна
+     */
+    private static final class Batch {
+
+        private final Map<Long, CompletableFuture<UserSummary>> futures = new LinkedHashMap<>();
+        private boolean closed;
+
+        /**
+         * @return future для ID или null, если пакет уже отправлен
+         */
+        synchronized CompletableFuture<UserSummary> add(Long userId) {
+            if (closed) {
+                return null;
+            }
+            return futures.computeIfAbsent(userId, id -> new CompletableFuture<>());
+        }
+
+        synchronized int size() {
+            return futures.size();
+        }
+
+        /**
+         * @return собранные future или null, если пакет уже закрыт
+         */
+        synchronized Map<Long, CompletableFuture<UserSummary>> close() {
+            if (closed) {
+                return null;
+            }
+            closed = true;
+            return futures;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.tasktracker.task.dto.TaskCreateRequest;
 import com.tasktracker.task.dto.TaskResponse;
 import com.tasktracker.task.entity.TaskStatus;
 import com.tasktracker.task.service.TaskService;
+import com.tasktracker.task.service.UserNameResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -43,6 +44,12 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
     
+    /**
+     * Имена исполнителей и авторов для страниц задач (один пакетный запрос на страницу)
+     */
+    @Autowired
+    private UserNameResolver userNameResolver;
+    
     /**
      * Создание новой задачи
      * 
@@ -112,6 +119,7 @@ public class TaskController {
         logger.debug("Getting all tasks: page={}, size={}, sortBy={}, sortDir={}", page, size, sortBy, sortDir);
         
         Page<TaskResponse> response = taskService.getAllTasks(page, size, sortBy, sortDir);
+        userNameResolver.resolveNames(response.getContent());
         
         return ResponseEntity.ok(response);
     }
@@ -133,6 +141,7 @@ public class TaskController {
         logger.debug("Getting tasks by assigned user: {}", userId);
         
         Page<TaskResponse> response = taskService.getTasksByAssignedUser(userId, page, size);
+        userNameResolver.resolveNames(response.getContent());
         
         return ResponseEntity.ok(response);
     }
@@ -154,6 +163,7 @@ public class TaskController {
         logger.debug("Getting tasks by creator: {}", userId);
         
         Page<TaskResponse> response = taskService.getTasksByCreator(userId, page, size);
+        userNameResolver.resolveNames(response.getContent());
         
         return ResponseEntity.ok(response);
     }
@@ -175,6 +185,7 @@ public class TaskController {
         logger.debug("Getting tasks by status: {}", status);
         
         Page<TaskResponse> response = taskService.getTasksByStatus(status, page, size);
+        userNameResolver.resolveNames(response.getContent());
         
         return ResponseEntity.ok(response);
     }
@@ -22,6 +22,8 @@ public class TaskResponse {
     private CategoryResponse category;
     private Long assignedToUserId;
     private Long createdByUserId;
+    private String assignedToUsername;
+    private String createdByUsername;
     private LocalDateTime dueDate;
     private Double estimatedHours;
     private Double actualHours;
@@ -105,6 +107,22 @@ public class TaskResponse {
         this.createdByUserId = createdByUserId;
     }
     
+    public String getAssignedToUsername() {
+        return assignedToUsername;
+    }
+    
+    public void setAssignedToUsername(String assignedToUsername) {
+        this.assignedToUsername = assignedToUsername;
+    }
+    
+    public String getCreatedByUsername() {
+        return createdByUsername;
+    }
+    
+    public void setCreatedByUsername(String createdByUsername) {
+        this.createdByUsername = createdByUsername;
+    }
+    
     public LocalDateTime getDueDate() {
         return dueDate;
     }
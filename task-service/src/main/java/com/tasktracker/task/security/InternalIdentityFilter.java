@@ -0,0 +1,90 @@
+package com.tasktracker.task.security;
+
+import com.tasktracker.task.security.InternalIdentityVerifier.Identity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Фильтр внутреннего заголовка идентичности
+ *
+ * Gateway проверяет JWT один раз и передает сервису подписанный заголовок X-Internal-Identity;
+ * подпись и срок действия проверяет InternalIdentityVerifier, фильтр устанавливает
+ * пользователя в SecurityContext.
+ *
+ * Принципы работы:
+ * 1. Нет заголовка - запрос идет дальше без аутентификации
+ * 2. Неверная подпись, истекший срок или подмененный X-User-ID - 401
+ * 3. Валидный заголовок - роли в SecurityContext, ID пользователя в атрибуте userId
+ */
+@Component
+public class InternalIdentityFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalIdentityFilter.class);
+
+    public static final String HEADER = InternalIdentityVerifier.HEADER;
+    private static final String USER_ID_HEADER = "X-User-ID";
+
+    private final InternalIdentityVerifier verifier;
+
+    public InternalIdentityFilter(InternalIdentityVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String header = request.getHeader(HEADER);
+        if (header == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Identity identity = verifier.verify(header);
+        if (identity == null) {
+            logger.warn("Invalid internal identity header for {}", request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        // X-User-ID читается контроллерами и должен совпадать с подписанным ID
+        String userIdHeader = request.getHeader(USER_ID_HEADER);
+        if (userIdHeader != null && !userIdHeader.equals(identity.userId())) {
+            logger.warn("X-User-ID does not match internal identity for {}", request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(identity.username(), null, identity.authorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        request.setAttribute("userId", identity.userId());
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        String path = request.getRequestURI();
+
+        // Список публичных путей, которые не требуют аутентификации
+        return path.startsWith("/actuator/") ||
+               path.startsWith("/swagger-ui/") ||
+               path.startsWith("/v3/api-docs/") ||
+               path.equals("/favicon.ico");
+    }
+}
@@ -17,7 +17,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
  * Конфигурация Spring Security для Task Service
  * 
  * Этот класс настраивает безопасность микросервиса:
- * - Аутентификация через JWT токены
+ * - Аутентификация по подписанному Gateway заголовку X-Internal-Identity
  * - Авторизация доступа к endpoints
  * - CORS настройки для фронтенда
  * - Stateless сессии (без сохранения состояния)
@@ -37,7 +37,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
     
     @Autowired
-    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private InternalIdentityFilter internalIdentityFilter;
     
     /**
      * Основная конфигурация безопасности
@@ -95,8 +95,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             
-            // Добавляем JWT фильтр перед стандартным фильтром аутентификации
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            // JWT проверяется на Gateway; здесь проверяется только подписанный заголовок идентичности
+            .addFilterBefore(internalIdentityFilter, UsernamePasswordAuthenticationFilter.class);
             
         return http.build();
     }
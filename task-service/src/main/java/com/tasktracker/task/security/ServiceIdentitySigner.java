@@ -0,0 +1,79 @@
+package com.tasktracker.task.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Подпись заголовка идентичности самого Task Service
+ *
+ * Для служебных вызовов других сервисов (пакетная загрузка пользователей из Auth Service)
+ * Task Service передает X-Internal-Identity в формате Gateway с ролью SERVICE:
+ * payload - base64url("serviceName\nserviceName\nSERVICE\nexpiresAtEpochSeconds"),
+ * signature - base64url(HMAC-SHA256(payload)) общим секретом internal.identity.secret.
+ * Пользовательский JWT для таких вызовов не нужен и не пересылается.
+ */
+@Component
+public class ServiceIdentitySigner {
+
+    public static final String HEADER = InternalIdentityFilter.HEADER;
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final String serviceName;
+    private final long ttlSeconds;
+    private final Clock clock;
+
+    /**
+     * Mac не потокобезопасен, поэтому по экземпляру на поток
+     */
+    private final ThreadLocal<Mac> mac;
+
+    @Autowired
+    public ServiceIdentitySigner(@Value("${internal.identity.secret}") String secret,
+                                 @Value("${spring.application.name:task-service}") String serviceName,
+                                 @Value("${internal.identity.ttl-seconds:60}") long ttlSeconds) {
+        this(secret, serviceName, ttlSeconds, Clock.systemUTC());
+    }
+
+    ServiceIdentitySigner(String secret, String serviceName, long ttlSeconds, Clock clock) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.serviceName = serviceName;
+        this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Значение заголовка X-Internal-Identity для служебного вызова
+     */
+    public String sign() {
+        long expiresAt = clock.instant().getEpochSecond() + ttlSeconds;
+        String payload = ENCODER.encodeToString(String.join("\n",
+                serviceName, serviceName, SERVICE_ROLE, Long.toString(expiresAt))
+                .getBytes(StandardCharsets.UTF_8));
+        String signature = ENCODER.encodeToString(mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        return VERSION + "." + payload + "." + signature;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
+    }
+}
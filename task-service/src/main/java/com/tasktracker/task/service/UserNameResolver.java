@@ -0,0 +1,80 @@
+package com.tasktracker.task.service;
+
+import com.tasktracker.task.client.AuthServiceClient.UserSummary;
+import com.tasktracker.task.client.UserBatchLoader;
+import com.tasktracker.task.dto.TaskResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заполнение имен исполнителей и авторов задач
+ * 
+ * Все ID со страницы задач загружаются одним пакетным запросом к Auth Service
+ * (UserBatchLoader). Имена необязательны: при недоступности Auth Service
+ * или превышении lookup-timeout-ms задачи возвращаются без имен.
+ */
+@Service
+public class UserNameResolver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserNameResolver.class);
+    
+    @Autowired
+    private UserBatchLoader userBatchLoader;
+    
+    @Value("${auth.users.lookup-timeout-ms:500}")
+    private long lookupTimeoutMs;
+    
+    /**
+     * Заполняет assignedToUsername и createdByUsername
+     * 
+     * @param tasks задачи страницы
+     */
+    public void resolveNames(Collection<TaskResponse> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (TaskResponse task : tasks) {
+            if (task.getAssignedToUserId() != null) {
+                userIds.add(task.getAssignedToUserId());
+            }
+            if (task.getCreatedByUserId() != null) {
+                userIds.add(task.getCreatedByUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, UserSummary> users;
+        try {
+            users = userBatchLoader.loadMany(userIds).get(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.warn("Could not resolve user names for {} users: {}", userIds.size(), e.toString());
+            return;
+        }
+        
+        for (TaskResponse task : tasks) {
+            task.setAssignedToUsername(username(users, task.getAssignedToUserId()));
+            task.setCreatedByUsername(username(users, task.getCreatedByUserId()));
+        }
+    }
+    
+    private static String username(Map<Long, UserSummary> users, Long userId) {
+        UserSummary user = userId != null ? users.get(userId) : null;
+        return user != null ? user.getUsername() : null;
+    }
+}
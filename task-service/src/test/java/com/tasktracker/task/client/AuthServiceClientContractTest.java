@@ -0,0 +1,133 @@
+package com.tasktracker.task.client;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tasktracker.task.client.AuthServiceClient.UserSummary;
+import com.tasktracker.task.security.ServiceIdentitySigner;
+import feign.Feign;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Контракт POST /auth/users/batch: настоящий Feign клиент и путь из application.yml
+ * против HTTP сервера, повторяющего маршрут AuthController
+ */
+class AuthServiceClientContractTest {
+
+    private static final String SECRET = "test-internal-identity-secret-32-bytes-min";
+
+    private HttpServer authService;
+    private ScheduledExecutorService executor;
+    private volatile String method;
+    private volatile String path;
+    private volatile String identity;
+    private volatile String body;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        authService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        authService.createContext("/", exchange -> {
+            method = exchange.getRequestMethod();
+            path = exchange.getRequestURI().getPath();
+            identity = exchange.getRequestHeaders().getFirst(ServiceIdentitySigner.HEADER);
+            body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            boolean served = "POST".equals(method) && "/auth/users/batch".equals(path);
+            byte[] response = served
+                    ? "[{\"id\":1,\"username\":\"alice\",\"role\":\"USER\"}]".getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(served ? 200 : 404, served ? response.length : -1);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        authService.start();
+        executor = Executors.newScheduledThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        authService.stop(0);
+    }
+
+    @Test
+    void testBatchLookupUsesServedPathAndServiceIdentity() throws Exception {
+        // Arrange
+        UserBatchLoader loader = new UserBatchLoader(client(configuredPath("application.yml")),
+                new ServiceIdentitySigner(SECRET, "task-service", 60), 5, 200, executor);
+
+        // Act
+        Map<Long, UserSummary> users = loader.loadMany(List.of(1L, 2L)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("POST", method);
+        assertEquals("/auth/users/batch", path);
+        assertEquals("{\"ids\":[1,2]}", body);
+        assertEquals("alice", users.get(1L).getUsername());
+        assertTrue(verifiedPayload(identity).startsWith("task-service\ntask-service\nSERVICE\n"));
+    }
+
+    @Test
+    void testDockerProfileUsesSamePath() {
+        // Assert - в Docker Auth Service вызывается по тому же пути /auth
+        assertEquals("/auth", configuredPath("application-docker.yml"));
+    }
+
+    private AuthServiceClient client(String basePath) {
+        HttpMessageConverters converters = new HttpMessageConverters(new MappingJackson2HttpMessageConverter());
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(() -> converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .target(AuthServiceClient.class, "http://localhost:" + authService.getAddress().getPort() + basePath);
+    }
+
+    /**
+     * Путь из auth.service.url - хост в тесте заменяется локальным сервером
+     */
+    private static String configuredPath(String resource) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource(resource));
+        Properties properties = yaml.getObject();
+        return URI.create(properties.getProperty("auth.service.url")).getPath();
+    }
+
+    /**
+     * Проверяет подпись заголовка так же, как InternalIdentityFilter, и возвращает payload
+     */
+    private static String verifiedPayload(String header) throws Exception {
+        assertNotNull(header);
+        String[] parts = header.split("\\.");
+        assertEquals("v1", parts[0]);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(parts[1].getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(signature, parts[2]);
+        return new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+    }
+}
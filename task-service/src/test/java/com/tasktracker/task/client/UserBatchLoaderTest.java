@@ -0,0 +1,128 @@
+package com.tasktracker.task.client;
+
+import com.tasktracker.task.client.AuthServiceClient.UserBatchRequest;
+import com.tasktracker.task.client.AuthServiceClient.UserSummary;
+import com.tasktracker.task.security.ServiceIdentitySigner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Тесты для UserBatchLoader
+ */
+class UserBatchLoaderTest {
+
+    private AuthServiceClient authServiceClient;
+    private ServiceIdentitySigner serviceIdentitySigner;
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        authServiceClient = mock(AuthServiceClient.class);
+        when(authServiceClient.getUsersBatch(any(), any())).thenAnswer(invocation -> {
+            UserBatchRequest request = invocation.getArgument(1);
+            return request.getIds().stream()
+                    .filter(id -> id < 100)
+                    .map(id -> new UserSummary(id, "user" + id, "ROLE_USER"))
+                    .toList();
+        });
+        serviceIdentitySigner = mock(ServiceIdentitySigner.class);
+        when(serviceIdentitySigner.sign()).thenReturn("v1.service.signature");
+        executor = Executors.newScheduledThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentLoadsWithinWindowAreCoalesced() throws Exception {
+        // Arrange
+        UserBatchLoader loader = new UserBatchLoader(authServiceClient, serviceIdentitySigner, 50, 200, executor);
+
+        // Act - 20 параллельных запросов с повторяющимися ID
+        List<CompletableFuture<UserSummary>> futures = IntStream.range(0, 20)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> (long) (i % 5)))
+                .map(id -> id.thenCompose(loader::load))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+
+        // Assert - один вызов Auth Service, каждый ID запрошен один раз
+        ArgumentCaptor<UserBatchRequest> captor = ArgumentCaptor.forClass(UserBatchRequest.class);
+        verify(authServiceClient, times(1)).getUsersBatch(eq("v1.service.signature"), captor.capture());
+        assertEquals(5, captor.getValue().getIds().size());
+        assertEquals("user3", futures.get(3).get().getUsername());
+    }
+
+    @Test
+    void testLoadManyUsesSingleRoundTripAndSkipsMissingUsers() throws Exception {
+        // Arrange
+        UserBatchLoader loader = new UserBatchLoader(authServiceClient, serviceIdentitySigner, 5, 200, executor);
+
+        // Act
+        Map<Long, UserSummary> users = loader.loadMany(List.of(1L, 2L, 2L, 500L)).get(2, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(2, users.size());
+        assertEquals("user1", users.get(1L).getUsername());
+        assertFalse(users.containsKey(500L));
+        verify(authServiceClient, times(1)).getUsersBatch(any(), any());
+    }
+
+    @Test
+    void testFullBatchIsDispatchedWithoutWaitingForWindow() throws Exception {
+        // Arrange - окно длиннее таймаута теста
+        UserBatchLoader loader = new UserBatchLoader(authServiceClient, serviceIdentitySigner, 60_000, 3, executor);
+
+        // Act
+        Map<Long, UserSummary> users = loader.loadMany(List.of(1L, 2L, 3L)).get(2, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(3, users.size());
+    }
+
+    @Test
+    void testBatchIsSentWithServiceIdentity() throws Exception {
+        // Arrange
+        UserBatchLoader loader = new UserBatchLoader(authServiceClient, serviceIdentitySigner, 20, 200, executor);
+
+        // Act - ID из разных запросов попадают в один пакет
+        CompletableFuture<UserSummary> first = loader.load(1L);
+        CompletableFuture<UserSummary> second = loader.load(2L);
+        CompletableFuture.allOf(first, second).get(2, TimeUnit.SECONDS);
+
+        // Assert
+        verify(authServiceClient, times(1)).getUsersBatch(eq("v1.service.signature"), any());
+        verify(serviceIdentitySigner).sign();
+    }
+
+    @Test
+    void testFailedBatchCompletesAllFuturesExceptionally() {
+        // Arrange
+        doThrow(new RuntimeException("Service unavailable")).when(authServiceClient).getUsersBatch(any(), any());
+        UserBatchLoader loader = new UserBatchLoader(authServiceClient, serviceIdentitySigner, 5, 200, executor);
+
+        // Act
+        CompletableFuture<Map<Long, UserSummary>> users = loader.loadMany(List.of(1L, 2L));
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> users.get(2, TimeUnit.SECONDS));
+        assertEquals("Service unavailable", exception.getCause().getMessage());
+    }
+}